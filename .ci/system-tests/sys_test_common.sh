@@ -63,7 +63,7 @@ docker exec -i $aca_container mysql -u root -proot -e "use hirs_db; set foreign_
  truncate ComponentInfo;truncate ComponentResult;truncate Device;truncate DeviceInfoReport;
  truncate ReferenceDigestValue;truncate ReferenceManifest;truncate Report;truncate SupplyChainValidation;
  truncate SupplyChainValidationSummary;truncate SupplyChainValidationSummary_SupplyChainValidation;
- truncate TPM2ProvisionerState;set foreign_key_checks=1;"
+ truncate TPM2ProvisionerSession;set foreign_key_checks=1;"
 }
 
 # Upload Certs to the ACA DB
@@ -0,0 +1,98 @@
+package hirs.attestationca.persist.entity.userdefined.certificate;
+
+import hirs.attestationca.persist.entity.userdefined.certificate.attributes.ComponentClass;
+import hirs.attestationca.persist.entity.userdefined.certificate.attributes.V2.ComponentIdentifierV2;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of parsing the platform certificates used by the unit tests, including the
+ * mapping of every component class to its category and component names.
+ * {@link #parseComponents} parses the certificate and its version 2 component identifiers, as done
+ * when a certificate is uploaded or validated; {@link #resolveComponentClasses} only maps the
+ * component classes of the certificate against the component-class.json test registries.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PlatformCredentialBenchmark {
+
+    private static final String COMPONENT_CLASS_JSON = "/config/component-class.json";
+
+    /**
+     * Platform certificate to parse, each holding several version 2 components.
+     */
+    @Param({"/validation/platform_credentials_2/basic_plat_cert.pem",
+            "/validation/platform_credentials_2/large_plat_cert.pem"})
+    private String certificate;
+
+    private byte[] certificateBytes;
+
+    private Path componentClassPath;
+
+    private List<ComponentClass> componentClasses;
+
+    /**
+     * Loads the platform certificate and collects the component classes it holds.
+     *
+     * @throws IOException        if the certificate can't be read or parsed
+     * @throws URISyntaxException if the component class file can't be located
+     */
+    @Setup
+    public void setup() throws IOException, URISyntaxException {
+        try (InputStream is = Objects.requireNonNull(getClass().getResourceAsStream(certificate))) {
+            certificateBytes = is.readAllBytes();
+        }
+        componentClassPath = Paths.get(Objects.requireNonNull(
+                getClass().getResource(COMPONENT_CLASS_JSON)).toURI());
+        componentClasses = new PlatformCredential(certificateBytes).getComponentIdentifiersV2().stream()
+                .map(ComponentIdentifierV2::getComponentClass)
+                .toList();
+    }
+
+    /**
+     * Parses the platform certificate and its version 2 component identifiers.
+     *
+     * @return the component identifiers of the certificate
+     * @throws IOException if the certificate can't be parsed
+     */
+    @Benchmark
+    public List<ComponentIdentifierV2> parseComponents() throws IOException {
+        return new PlatformCredential(certificateBytes).getComponentIdentifiersV2();
+    }
+
+    /**
+     * Maps each component class of the certificate to its category and component names.
+     *
+     * @param blackhole sink for the mapped component classes
+     */
+    @Benchmark
+    public void resolveComponentClasses(final Blackhole blackhole) {
+        for (ComponentClass componentClass : componentClasses) {
+            blackhole.consume(new ComponentClass(componentClass.getRegistryOid(), componentClassPath,
+                    componentClass.getComponentIdentifier()));
+        }
+    }
+}
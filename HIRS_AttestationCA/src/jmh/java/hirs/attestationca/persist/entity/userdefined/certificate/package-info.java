@@ -0,0 +1,5 @@
+/**
+ * Microbenchmarks for platform certificate parsing.
+ */
+
+package hirs.attestationca.persist.entity.userdefined.certificate;
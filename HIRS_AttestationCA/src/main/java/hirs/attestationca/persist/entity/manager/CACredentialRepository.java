@@ -6,6 +6,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -95,4 +96,13 @@ public interface CACredentialRepository extends JpaRepository<CertificateAuthori
      */
     CertificateAuthorityCredential findBySubjectKeyIdStringAndArchiveFlag(String subjectKeyIdString,
                                                                           boolean archiveFlag);
+
+    /**
+     * Query that retrieves a list of {@link CertificateAuthorityCredential} objects using the provided
+     * subject key identifiers.
+     *
+     * @param subjectKeyIdStrings string representations of the subject key ids
+     * @return a list of {@link CertificateAuthorityCredential} objects
+     */
+    List<CertificateAuthorityCredential> findBySubjectKeyIdStringIn(Collection<String> subjectKeyIdStrings);
 }
@@ -4,12 +4,14 @@ import hirs.attestationca.persist.entity.userdefined.Certificate;
 import hirs.attestationca.persist.entity.userdefined.certificate.EndorsementCredential;
 import hirs.attestationca.persist.entity.userdefined.certificate.IssuedAttestationCertificate;
 import hirs.attestationca.persist.entity.userdefined.certificate.PlatformCredential;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigInteger;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -54,15 +56,6 @@ public interface CertificateRepository extends JpaRepository<Certificate, UUID>
     @Query(value = "SELECT * FROM Certificate where subjectSorted = ?1 AND  DTYPE = ?2", nativeQuery = true)
     List<Certificate> findBySubjectSorted(String subjectSorted, String dType);
 
-    /**
-     * Query that retrieves a list of {@link Certificate} objects using the provided dtype.
-     *
-     * @param dType dtype
-     * @return a list of {@link Certificate} objects
-     */
-    @Query(value = "SELECT * FROM Certificate where DTYPE = ?1", nativeQuery = true)
-    List<Certificate> findByType(String dType);
-
     /**
      * Query that retrieves a list of {@link Certificate} objects using the provided serial number and dtype.
      *
@@ -142,5 +135,96 @@ public interface CertificateRepository extends JpaRepository<Certificate, UUID>
      * @return a {@link Certificate} object
      */
     Certificate findByCertificateHash(int certificateHash);
-}
 
+    /**
+     * Query that retrieves the ids of the platform, endorsement and issued certificates associated with
+     * the provided devices, without loading the certificates themselves.
+     *
+     * @param deviceIds device ids
+     * @return a list of {@link DeviceCertificateReference} projections
+     */
+    @Query(value = "SELECT p.id AS id, 'PlatformCredential' AS certificateType, p.deviceId AS deviceId, "
+            + "p.deviceName AS deviceName FROM PlatformCredential p WHERE p.deviceId IN ?1 "
+            + "UNION ALL SELECT e.id AS id, 'EndorsementCredential' AS certificateType, e.deviceId AS deviceId, "
+            + "e.deviceName AS deviceName FROM EndorsementCredential e WHERE e.deviceId IN ?1 "
+            + "UNION ALL SELECT i.id AS id, 'IssuedAttestationCertificate' AS certificateType, "
+            + "i.deviceId AS deviceId, i.deviceName AS deviceName FROM IssuedAttestationCertificate i "
+            + "WHERE i.deviceId IN ?1")
+    List<DeviceCertificateReference> findDeviceCertificateReferences(Collection<UUID> deviceIds);
+
+    /**
+     * Query that retrieves the raw bytes of the {@link Certificate} objects of the provided class whose ids
+     * follow the provided id, in order of id, without loading the certificates themselves.
+     *
+     * @param certificateClass certificate class
+     * @param lastId           id of the last certificate that was retrieved
+     * @param pageable         pageable, used to limit the number of certificates
+     * @return a list of {@link CertificateFile} projections
+     */
+    @Query(value = "SELECT c.id AS id, c.certificateHash AS certificateHash, c.certificateBytes AS rawBytes "
+            + "FROM Certificate c WHERE TYPE(c) = ?1 AND c.id > ?2 ORDER BY c.id")
+    List<CertificateFile> findCertificateFiles(Class<? extends Certificate> certificateClass, UUID lastId,
+                                               Pageable pageable);
+
+    /**
+     * Projection of a certificate associated with a device, holding only what is needed to display
+     * the certificate alongside its device.
+     */
+    interface DeviceCertificateReference {
+
+        /**
+         * Returns the certificate id.
+         *
+         * @return certificate id
+         */
+        UUID getId();
+
+        /**
+         * Returns the type of the certificate, as stored in the DTYPE column.
+         *
+         * @return certificate type
+         */
+        String getCertificateType();
+
+        /**
+         * Returns the id of the device the certificate is associated with.
+         *
+         * @return device id
+         */
+        UUID getDeviceId();
+
+        /**
+         * Returns the name of the device the certificate is associated with.
+         *
+         * @return device name
+         */
+        String getDeviceName();
+    }
+
+    /**
+     * Projection of a certificate, holding only what is needed to write the certificate to a file.
+     */
+    interface CertificateFile {
+
+        /**
+         * Returns the certificate id.
+         *
+         * @return certificate id
+         */
+        UUID getId();
+
+        /**
+         * Returns the hash of the certificate bytes.
+         *
+         * @return certificate hash
+         */
+        int getCertificateHash();
+
+        /**
+         * Returns the raw bytes of the certificate.
+         *
+         * @return certificate bytes
+         */
+        byte[] getRawBytes();
+    }
+}
@@ -1,9 +1,11 @@
 package hirs.attestationca.persist.entity.manager;
 
 import hirs.attestationca.persist.entity.userdefined.Device;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -24,4 +26,13 @@ public interface DeviceRepository extends JpaRepository<Device, UUID> {
      * @return a {@link Device} object
      */
     Device findByName(String deviceName);
+
+    /**
+     * Query that retrieves a {@link Device} object using the provided id, along with its device info report.
+     *
+     * @param id device id
+     * @return an optional {@link Device} object
+     */
+    @EntityGraph(attributePaths = "deviceInfo")
+    Optional<Device> findWithDeviceInfoById(UUID id);
 }
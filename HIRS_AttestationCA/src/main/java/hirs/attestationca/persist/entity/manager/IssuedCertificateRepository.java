@@ -3,10 +3,13 @@ package hirs.attestationca.persist.entity.manager;
 import hirs.attestationca.persist.entity.userdefined.certificate.IssuedAttestationCertificate;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -47,4 +50,24 @@ public interface IssuedCertificateRepository extends JpaRepository<IssuedAttesta
      * @return a list of {@link IssuedAttestationCertificate} objects
      */
     List<IssuedAttestationCertificate> findByDeviceId(UUID deviceId);
+
+    /**
+     * Query that retrieves the {@link IssuedAttestationCertificate} objects with the provided ids, along with
+     * their endorsement and platform credentials.
+     *
+     * @param ids issued certificate ids
+     * @return a list of {@link IssuedAttestationCertificate} objects, in no particular order
+     */
+    @EntityGraph(IssuedAttestationCertificate.CREDENTIALS_GRAPH)
+    List<IssuedAttestationCertificate> findByIdIn(Collection<UUID> ids);
+
+    /**
+     * Query that retrieves an {@link IssuedAttestationCertificate} object using the provided id, along with
+     * its endorsement and platform credentials.
+     *
+     * @param id issued certificate id
+     * @return an optional {@link IssuedAttestationCertificate} object
+     */
+    @EntityGraph(IssuedAttestationCertificate.CREDENTIALS_GRAPH)
+    Optional<IssuedAttestationCertificate> findWithCredentialsById(UUID id);
 }
@@ -4,6 +4,7 @@ import hirs.attestationca.persist.entity.userdefined.rim.ReferenceDigestValue;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -35,6 +36,14 @@ public interface ReferenceDigestValueRepository extends JpaRepository<ReferenceD
      */
     List<ReferenceDigestValue> findBySupportRimId(UUID supportRimId);
 
+    /**
+     * Query that retrieves a list of {@link ReferenceDigestValue} objects using the provided support rim ids.
+     *
+     * @param supportRimIds uuid representations of the support rim IDs
+     * @return a list of {@link ReferenceDigestValue} objects
+     */
+    List<ReferenceDigestValue> findBySupportRimIdIn(Collection<UUID> supportRimIds);
+
     /**
      * Query that retrieves a list of {@link ReferenceDigestValue} objects using the provided support rim hash.
      *
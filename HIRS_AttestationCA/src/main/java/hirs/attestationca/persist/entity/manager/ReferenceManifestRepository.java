@@ -4,12 +4,16 @@ import hirs.attestationca.persist.entity.userdefined.ReferenceManifest;
 import hirs.attestationca.persist.entity.userdefined.rim.BaseReferenceManifest;
 import hirs.attestationca.persist.entity.userdefined.rim.EventLogMeasurements;
 import hirs.attestationca.persist.entity.userdefined.rim.SupportReferenceManifest;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 import java.util.UUID;
 
@@ -49,6 +53,17 @@ public interface ReferenceManifestRepository extends JpaRepository<ReferenceMani
      */
     ReferenceManifest findByHexDecHashAndRimType(String hexDecHash, String rimType);
 
+    /**
+     * Query that retrieves which of the provided hex/dec hashes already belong to a {@link ReferenceManifest}
+     * of the provided rim type.
+     *
+     * @param rimType      rim type
+     * @param hexDecHashes string representations of the hex dec hashes to look for
+     * @return the hex dec hashes that were found
+     */
+    @Query(value = "SELECT r.hexDecHash FROM ReferenceManifest r WHERE r.rimType = ?1 AND r.hexDecHash IN ?2")
+    List<String> findHexDecHashesByRimTypeAndHexDecHashIn(String rimType, Collection<String> hexDecHashes);
+
     /**
      * Query that retrieves an unarchived {@link ReferenceManifest} object using the provided hex/dec hash and rim type.
      *
@@ -113,6 +128,30 @@ public interface ReferenceManifestRepository extends JpaRepository<ReferenceMani
             nativeQuery = true)
     List<BaseReferenceManifest> findAllBaseRims();
 
+    /**
+     * Query that retrieves a {@link BaseReferenceManifest} object using the provided tag id.
+     *
+     * @param tagId string representation of the tag id
+     * @return a {@link BaseReferenceManifest} object, or null if none matches
+     */
+    @Query(value = "SELECT * FROM ReferenceManifest WHERE tagId = ?1 AND DTYPE = 'BaseReferenceManifest' "
+            + "LIMIT 1", nativeQuery = true)
+    BaseReferenceManifest findFirstBaseRimByTagId(String tagId);
+
+    /**
+     * Query that retrieves an unarchived {@link ReferenceManifest} object using the provided rim type and tag id
+     * that was created after the provided time.
+     *
+     * @param rimType    string representation of the rim type
+     * @param tagId      string representation of the tag id
+     * @param createTime creation time the reference manifest must be newer than
+     * @return a {@link ReferenceManifest} object, or null if none matches
+     */
+    @Query(value = "SELECT * FROM ReferenceManifest WHERE rimType = ?1 AND tagId = ?2 AND create_time > ?3 "
+            + "AND archiveFlag is false LIMIT 1", nativeQuery = true)
+    ReferenceManifest findFirstUnarchivedByRimTypeAndTagIdCreatedAfter(String rimType, String tagId,
+                                                                       Date createTime);
+
     /**
      * Query that retrieves a list of {@link SupportReferenceManifest} objects where the dtype is a
      * support reference manifest.
@@ -123,6 +162,16 @@ public interface ReferenceManifestRepository extends JpaRepository<ReferenceMani
             nativeQuery = true)
     List<SupportReferenceManifest> findAllSupportRims();
 
+    /**
+     * Query that retrieves a list of {@link SupportReferenceManifest} objects that have not been linked
+     * to a base reference manifest yet.
+     *
+     * @return a list of {@link SupportReferenceManifest} objects
+     */
+    @Query(value = "SELECT * FROM ReferenceManifest WHERE DTYPE = 'SupportReferenceManifest' "
+            + "AND updated is false", nativeQuery = true)
+    List<SupportReferenceManifest> findUnlinkedSupportRims();
+
     /**
      * Query that retrieves a base reference manifest using the provided uuid and where the dtype is a
      * base reference manifest.
@@ -134,6 +183,26 @@ public interface ReferenceManifestRepository extends JpaRepository<ReferenceMani
             nativeQuery = true)
     BaseReferenceManifest getBaseRimEntityById(UUID uuid);
 
+    /**
+     * Query that retrieves a base reference manifest using the provided uuid and locks it until the end of
+     * the current transaction, so that concurrent updates of the base reference manifest are serialized.
+     *
+     * @param uuid uuid
+     * @return a base reference manifest, or null if none matches
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(value = "SELECT r FROM BaseReferenceManifest r WHERE r.id = ?1")
+    BaseReferenceManifest lockBaseRimById(UUID uuid);
+
+    /**
+     * Query that retrieves a list of base reference manifests associated with the provided reference manifest.
+     *
+     * @param associatedRim uuid of the associated reference manifest
+     * @return a list of base reference manifests
+     */
+    @Query(value = "SELECT b FROM BaseReferenceManifest b WHERE b.associatedRim = ?1")
+    List<BaseReferenceManifest> findBaseRimsByAssociatedRim(UUID associatedRim);
+
     /**
      * Query that retrieves a support reference manifest using the provided uuid and
      * where the dtype is a support reference manifest.
@@ -245,4 +314,44 @@ public interface ReferenceManifestRepository extends JpaRepository<ReferenceMani
      * @return a page of matching {@link ReferenceManifest} instances
      */
     Page<ReferenceManifest> findByClassIn(List<Class<? extends ReferenceManifest>> types, Pageable pageable);
+
+    /**
+     * Query that retrieves the file name and bytes of the {@link ReferenceManifest} objects of the provided
+     * subclass types whose ids follow the provided id, in order of id, without loading the RIMs themselves.
+     *
+     * @param types    the list of {@link ReferenceManifest} subclass types to include
+     * @param lastId   id of the last RIM that was retrieved
+     * @param pageable pageable, used to limit the number of RIMs
+     * @return a list of {@link RimFile} projections
+     */
+    @Query(value = "SELECT r.id AS id, r.fileName AS fileName, r.rimBytes AS rimBytes FROM ReferenceManifest r "
+            + "WHERE TYPE(r) IN ?1 AND r.id > ?2 ORDER BY r.id")
+    List<RimFile> findRimFiles(List<Class<? extends ReferenceManifest>> types, UUID lastId, Pageable pageable);
+
+    /**
+     * Projection of a {@link ReferenceManifest}, holding only what is needed to write the RIM to a file.
+     */
+    interface RimFile {
+
+        /**
+         * Returns the RIM id.
+         *
+         * @return RIM id
+         */
+        UUID getId();
+
+        /**
+         * Returns the file name of the RIM.
+         *
+         * @return file name
+         */
+        String getFileName();
+
+        /**
+         * Returns the bytes of the RIM.
+         *
+         * @return RIM bytes
+         */
+        byte[] getRimBytes();
+    }
 }
@@ -0,0 +1,43 @@
+package hirs.attestationca.persist.entity.manager;
+
+import hirs.attestationca.persist.entity.userdefined.rim.ReferenceManifestSigner;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository interface for managing {@link ReferenceManifestSigner} entities in the database.
+ *
+ * <p>
+ * The {@link ReferenceManifestSignerRepository} interface extends {@link JpaRepository} to provide basic CRUD
+ * operations, including save, find, delete, and query methods. Custom query methods can be defined
+ * using Spring Data JPA's query method naming conventions or with the Query annotation.
+ * </p>
+ */
+@Repository
+public interface ReferenceManifestSignerRepository extends JpaRepository<ReferenceManifestSigner, UUID> {
+
+    /**
+     * Query that retrieves a list of {@link ReferenceManifestSigner} objects using the provided rim id.
+     *
+     * @param rimId uuid representation of the base rim ID
+     * @return a list of {@link ReferenceManifestSigner} objects
+     */
+    List<ReferenceManifestSigner> findByRimId(UUID rimId);
+
+    /**
+     * Query that deletes the {@link ReferenceManifestSigner} objects of the provided rim id.
+     *
+     * @param rimId uuid representation of the base rim ID
+     * @return the number of deleted objects
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM ReferenceManifestSigner s WHERE s.rimId = ?1")
+    int deleteByRimId(UUID rimId);
+}
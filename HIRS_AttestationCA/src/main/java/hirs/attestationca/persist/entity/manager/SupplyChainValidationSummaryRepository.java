@@ -1,12 +1,20 @@
 package hirs.attestationca.persist.entity.manager;
 
+import hirs.attestationca.persist.entity.userdefined.SupplyChainValidation;
 import hirs.attestationca.persist.entity.userdefined.SupplyChainValidationSummary;
+import hirs.attestationca.persist.enums.AppraisalStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -30,12 +38,136 @@ public interface SupplyChainValidationSummaryRepository extends JpaRepository<Su
      */
     Page<SupplyChainValidationSummary> findByArchiveFlagFalse(Pageable pageable);
 
+    /**
+     * Query that retrieves the {@link SupplyChainValidationSummary} objects with the provided ids, along with
+     * their validations and the certificates used by those validations.
+     *
+     * @param ids validation summary ids
+     * @return a list of {@link SupplyChainValidationSummary} objects, in no particular order
+     */
+    @EntityGraph(SupplyChainValidationSummary.VALIDATIONS_GRAPH)
+    List<SupplyChainValidationSummary> findByIdIn(Collection<UUID> ids);
+
+    /**
+     * Query that retrieves a {@link SupplyChainValidationSummary} object using the provided id, along with its
+     * validations and the certificates used by those validations.
+     *
+     * @param id validation summary id
+     * @return an optional {@link SupplyChainValidationSummary} object
+     */
+    @EntityGraph(SupplyChainValidationSummary.VALIDATIONS_GRAPH)
+    Optional<SupplyChainValidationSummary> findWithValidationsById(UUID id);
+
 
     /**
-     * Query that retrieves a list of {@link SupplyChainValidationSummary} objects where the archive flag is false
-     * and in order of creation time in descending order.
+     * Query that retrieves the first rows of the validation report export: the unarchived
+     * {@link SupplyChainValidationSummary} objects created within the provided time range, newest first,
+     * without loading their validations or certificates.
      *
-     * @return a list of {@link SupplyChainValidationSummary} objects
+     * @param from     earliest creation time, inclusive, or null for no lower bound
+     * @param to       latest creation time, exclusive, or null for no upper bound
+     * @param pageable pageable, used to limit the number of rows
+     * @return a list of {@link ValidationReportRow} projections
      */
-    List<SupplyChainValidationSummary> findByArchiveFlagFalseOrderByCreateTimeDesc();
+    @Query("SELECT s.id AS id, s.overallValidationResult AS overallValidationResult, d.name AS deviceName, "
+            + "s.createTime AS createTime FROM SupplyChainValidationSummary s LEFT JOIN s.device d "
+            + "WHERE s.archiveFlag = false AND (:from IS NULL OR s.createTime >= :from) "
+            + "AND (:to IS NULL OR s.createTime < :to) ORDER BY s.createTime DESC, s.id DESC")
+    List<ValidationReportRow> findValidationReportRows(@Param("from") Date from, @Param("to") Date to,
+                                                       Pageable pageable);
+
+    /**
+     * Query that retrieves the next rows of the validation report export, which follow the provided row
+     * in the order of {@link #findValidationReportRows(Date, Date, Pageable)}.
+     *
+     * @param from           earliest creation time, inclusive, or null for no lower bound
+     * @param to             latest creation time, exclusive, or null for no upper bound
+     * @param lastCreateTime creation time of the last row that was retrieved
+     * @param lastId         id of the last row that was retrieved
+     * @param pageable       pageable, used to limit the number of rows
+     * @return a list of {@link ValidationReportRow} projections
+     */
+    @Query("SELECT s.id AS id, s.overallValidationResult AS overallValidationResult, d.name AS deviceName, "
+            + "s.createTime AS createTime FROM SupplyChainValidationSummary s LEFT JOIN s.device d "
+            + "WHERE s.archiveFlag = false AND (:from IS NULL OR s.createTime >= :from) "
+            + "AND (:to IS NULL OR s.createTime < :to) AND (s.createTime < :lastCreateTime "
+            + "OR (s.createTime = :lastCreateTime AND s.id < :lastId)) ORDER BY s.createTime DESC, s.id DESC")
+    List<ValidationReportRow> findValidationReportRowsAfter(@Param("from") Date from, @Param("to") Date to,
+                                                            @Param("lastCreateTime") Date lastCreateTime,
+                                                            @Param("lastId") UUID lastId,
+                                                            Pageable pageable);
+
+    /**
+     * Query that retrieves the type and result of each validation of the provided
+     * {@link SupplyChainValidationSummary} objects, without loading the certificates used by the validations.
+     *
+     * @param summaryIds validation summary ids
+     * @return a list of {@link ValidationResultRow} projections
+     */
+    @Query("SELECT s.id AS summaryId, v.validationType AS validationType, v.validationResult AS validationResult "
+            + "FROM SupplyChainValidationSummary s JOIN s.validations v WHERE s.id IN :summaryIds")
+    List<ValidationResultRow> findValidationResults(@Param("summaryIds") Collection<UUID> summaryIds);
+
+    /**
+     * Projection of a {@link SupplyChainValidationSummary}, holding only what is needed to write a row of
+     * the validation report export.
+     */
+    interface ValidationReportRow {
+
+        /**
+         * Returns the validation summary id.
+         *
+         * @return validation summary id
+         */
+        UUID getId();
+
+        /**
+         * Returns the overall result of the validation summary.
+         *
+         * @return overall validation result
+         */
+        AppraisalStatus.Status getOverallValidationResult();
+
+        /**
+         * Returns the name of the validated device.
+         *
+         * @return device name
+         */
+        String getDeviceName();
+
+        /**
+         * Returns the creation time of the validation summary.
+         *
+         * @return creation time
+         */
+        Date getCreateTime();
+    }
+
+    /**
+     * Projection of a {@link SupplyChainValidation}, holding its type and result along with the id of its
+     * validation summary.
+     */
+    interface ValidationResultRow {
+
+        /**
+         * Returns the id of the validation summary the validation belongs to.
+         *
+         * @return validation summary id
+         */
+        UUID getSummaryId();
+
+        /**
+         * Returns the type of the validation.
+         *
+         * @return validation type
+         */
+        SupplyChainValidation.ValidationType getValidationType();
+
+        /**
+         * Returns the result of the validation.
+         *
+         * @return validation result
+         */
+        AppraisalStatus.Status getValidationResult();
+    }
 }
@@ -2,7 +2,12 @@ package hirs.attestationca.persist.entity.manager;
 
 import hirs.attestationca.persist.entity.tpm.TPM2ProvisionerState;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
 
 /**
  * Repository interface for managing {@link TPM2ProvisionerState} entities in the database.
@@ -23,4 +28,15 @@ public interface TPM2ProvisionerStateRepository extends JpaRepository<TPM2Provis
      * @return a {@link TPM2ProvisionerState} object
      */
     TPM2ProvisionerState findByFirstPartOfNonce(Long findByFirstPartOfNonce);
+
+    /**
+     * Query that deletes the {@link TPM2ProvisionerState} objects that expired before the provided time.
+     *
+     * @param now the current time
+     * @return the number of deleted objects
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM TPM2ProvisionerState s WHERE s.expiresAt < ?1")
+    int deleteExpired(Date now);
 }
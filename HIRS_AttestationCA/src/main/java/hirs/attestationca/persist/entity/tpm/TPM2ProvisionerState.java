@@ -3,53 +3,108 @@ package hirs.attestationca.persist.entity.tpm;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
-import jakarta.persistence.Lob;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.bouncycastle.util.Arrays;
+import org.hibernate.annotations.JdbcTypeCode;
 
 import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 /**
- * This class is for saving the Identity Claim and the Nonce between the two passes of the
- * TPM 2.0 Provisioner.
+ * This class is for saving the provisioning session between the two passes of the
+ * TPM 2.0 Provisioner. Rather than the whole Identity Claim, which carries the device's
+ * event logs and RIM files, the session only keeps the nonce and what the certificate
+ * request needs: the device, the validated credentials and the TPM public areas.
  */
 @Entity
+@Table(name = "TPM2ProvisionerSession", indexes = {
+        @Index(name = "idx_provisioner_session_expires_at", columnList = "expiresAt")})
 @NoArgsConstructor
 @Log4j2
 public class TPM2ProvisionerState {
 
-    private static final int MAX_BLOB_SIZE = 16777215;
+    private static final int MAX_PUBLIC_AREA_SIZE = 2048;
+
+    private static final int MAX_CREDENTIAL_IDS_SIZE = 2048;
+
+    private static final String ID_SEPARATOR = ",";
 
     @Column(nullable = false)
     private final Date timestamp = new Date();
 
+    @Column(nullable = false)
+    private Date expiresAt;
+
     @Id
     private Long firstPartOfNonce;
 
     @Column(nullable = false)
     private byte[] nonce;
 
-    @Lob
-    @Column(nullable = false, length = MAX_BLOB_SIZE)
-    private byte[] identityClaim;
+    @Getter
+    @JdbcTypeCode(java.sql.Types.VARCHAR)
+    @Column(nullable = false)
+    private UUID deviceId;
+
+    @Getter
+    @JdbcTypeCode(java.sql.Types.VARCHAR)
+    @Column
+    private UUID summaryId;
+
+    @Column(nullable = false, length = MAX_PUBLIC_AREA_SIZE)
+    private byte[] ekPublicArea;
+
+    @Column(nullable = false, length = MAX_PUBLIC_AREA_SIZE)
+    private byte[] akPublicArea;
+
+    @Column(length = MAX_PUBLIC_AREA_SIZE)
+    private byte[] ldevidPublicArea;
+
+    @Getter
+    @JdbcTypeCode(java.sql.Types.VARCHAR)
+    @Column
+    private UUID endorsementCredentialId;
+
+    @Column(length = MAX_CREDENTIAL_IDS_SIZE)
+    private String platformCredentialIds;
 
     /**
      * Constructor.
      *
-     * @param nonce         the nonce
-     * @param identityClaim the identity claim
+     * @param nonce                   the nonce
+     * @param deviceId                id of the device that sent the identity claim
+     * @param summaryId               id of the supply chain validation summary of the identity claim
+     * @param ekPublicArea            the EK public area sent in the identity claim
+     * @param akPublicArea            the AK public area sent in the identity claim
+     * @param ldevidPublicArea        the LDevID public area sent in the identity claim, or null
+     * @param endorsementCredentialId id of the validated endorsement credential, or null
+     * @param platformCredentialIds   ids of the validated platform credentials
      */
-    public TPM2ProvisionerState(final byte[] nonce, final byte[] identityClaim) {
+    public TPM2ProvisionerState(final byte[] nonce, final UUID deviceId, final UUID summaryId,
+                                final byte[] ekPublicArea, final byte[] akPublicArea,
+                                final byte[] ldevidPublicArea, final UUID endorsementCredentialId,
+                                final List<UUID> platformCredentialIds) {
         if (nonce == null) {
             throw new IllegalArgumentException("Nonce should not be null");
         }
 
-        if (identityClaim == null) {
-            throw new IllegalArgumentException("Identity Claim should not be null");
+        if (deviceId == null) {
+            throw new IllegalArgumentException("Device id should not be null");
+        }
+
+        if (ekPublicArea == null || akPublicArea == null) {
+            throw new IllegalArgumentException("EK and AK public areas should not be null");
         }
 
         if (nonce.length < Long.BYTES) {
@@ -59,7 +114,15 @@ public class TPM2ProvisionerState {
         }
 
         this.nonce = Arrays.clone(nonce);
-        this.identityClaim = Arrays.clone(identityClaim);
+        this.deviceId = deviceId;
+        this.summaryId = summaryId;
+        this.ekPublicArea = Arrays.clone(ekPublicArea);
+        this.akPublicArea = Arrays.clone(akPublicArea);
+        this.ldevidPublicArea = Arrays.clone(ldevidPublicArea);
+        this.endorsementCredentialId = endorsementCredentialId;
+        this.platformCredentialIds = platformCredentialIds == null ? "" : platformCredentialIds.stream()
+                .map(UUID::toString)
+                .collect(Collectors.joining(ID_SEPARATOR));
 
         try (DataInputStream dis = new DataInputStream(new ByteArrayInputStream(nonce))) {
             firstPartOfNonce = dis.readLong();
@@ -79,11 +142,65 @@ public class TPM2ProvisionerState {
     }
 
     /**
-     * Get the identity claim.
+     * Get the EK public area.
+     *
+     * @return the EK public area
+     */
+    public byte[] getEkPublicArea() {
+        return Arrays.clone(ekPublicArea);
+    }
+
+    /**
+     * Get the AK public area.
+     *
+     * @return the AK public area
+     */
+    public byte[] getAkPublicArea() {
+        return Arrays.clone(akPublicArea);
+    }
+
+    /**
+     * Get the LDevID public area.
+     *
+     * @return the LDevID public area, or null if the identity claim did not hold one
+     */
+    public byte[] getLdevidPublicArea() {
+        return Arrays.clone(ldevidPublicArea);
+    }
+
+    /**
+     * Get the ids of the validated platform credentials.
+     *
+     * @return the platform credential ids
+     */
+    public List<UUID> getPlatformCredentialIds() {
+        if (platformCredentialIds == null || platformCredentialIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        final List<UUID> ids = new ArrayList<>();
+        for (String id : platformCredentialIds.split(ID_SEPARATOR)) {
+            ids.add(UUID.fromString(id));
+        }
+        return ids;
+    }
+
+    /**
+     * Sets the time after which the session can no longer be used.
+     *
+     * @param expiresAt expiry time
+     */
+    public void setExpiresAt(final Date expiresAt) {
+        this.expiresAt = new Date(expiresAt.getTime());
+    }
+
+    /**
+     * Indicates whether the session has expired.
      *
-     * @return the identity claim
+     * @param now the current time
+     * @return true if the session expired before the provided time
      */
-    public byte[] getIdentityClaim() {
-        return Arrays.clone(identityClaim);
+    public boolean isExpired(final Date now) {
+        return expiresAt != null && expiresAt.before(now);
     }
 }
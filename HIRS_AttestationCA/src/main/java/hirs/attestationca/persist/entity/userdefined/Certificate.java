@@ -8,9 +8,11 @@ import hirs.attestationca.persist.util.CredentialHelper;
 import hirs.utils.HexUtils;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
 import jakarta.persistence.Inheritance;
 import jakarta.persistence.InheritanceType;
 import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
 import jakarta.persistence.Transient;
 import lombok.Getter;
 import lombok.extern.log4j.Log4j2;
@@ -76,6 +78,14 @@ import java.util.Objects;
 @Inheritance(strategy = InheritanceType.SINGLE_TABLE)
 @Log4j2
 @Entity
+@Table(name = "Certificate", indexes = {
+        @Index(name = "idx_certificate_hash", columnList = "certificateHash"),
+        @Index(name = "idx_certificate_subject", columnList = "subject"),
+        @Index(name = "idx_certificate_subject_sorted", columnList = "subjectSorted"),
+        @Index(name = "idx_certificate_ski", columnList = "subjectKeyIdentifier"),
+        @Index(name = "idx_certificate_ski_string", columnList = "subjectKeyIdString"),
+        @Index(name = "idx_certificate_serial_number", columnList = "serialNumber"),
+        @Index(name = "idx_certificate_holder_serial_number", columnList = "holderSerialNumber")})
 public abstract class Certificate extends ArchivableEntity {
 
     /**
@@ -1,5 +1,6 @@
 package hirs.attestationca.persist.entity.userdefined;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import hirs.attestationca.persist.entity.AbstractEntity;
 import hirs.attestationca.persist.entity.userdefined.report.DeviceInfoReport;
 import hirs.attestationca.persist.enums.AppraisalStatus;
@@ -37,7 +38,7 @@ public class Device extends AbstractEntity {
     @Column(name = "name", unique = true)
     private String name;
 
-    @OneToOne(cascade = CascadeType.ALL, fetch = FetchType.EAGER,
+    @OneToOne(cascade = CascadeType.ALL, fetch = FetchType.LAZY,
             orphanRemoval = true)
     private DeviceInfoReport deviceInfo;
 
@@ -86,10 +87,12 @@ public class Device extends AbstractEntity {
 
     /**
      * Returns a report with information about this device. This may return null
-     * if this property has not been set.
+     * if this property has not been set. The report is loaded lazily, so it is left out of the
+     * JSON representation of the device.
      *
      * @return device info report
      */
+    @JsonIgnore
     public final DeviceInfoReport getDeviceInfo() {
         if (deviceInfo != null) {
             return new DeviceInfoReport(deviceInfo.getNetworkInfo(),
@@ -124,4 +124,36 @@ public class PolicySettings extends UserDefinedEntity {
     public PolicySettings(final String name, final String description) {
         super(name, description);
     }
+
+    /**
+     * Constructor used to copy a PolicySettings object. The copy has the same name, description and
+     * settings, but no id, and changes made to it are never saved.
+     *
+     * @param policySettings the policy settings to copy
+     */
+    public PolicySettings(final PolicySettings policySettings) {
+        super(policySettings.getName(), policySettings.getDescription());
+        this.ecValidationEnabled = policySettings.isEcValidationEnabled();
+        this.pcValidationEnabled = policySettings.isPcValidationEnabled();
+        this.pcAttributeValidationEnabled = policySettings.isPcAttributeValidationEnabled();
+        this.ignoreRevisionEnabled = policySettings.isIgnoreRevisionEnabled();
+        this.firmwareValidationEnabled = policySettings.isFirmwareValidationEnabled();
+        this.expiredCertificateValidationEnabled = policySettings.isExpiredCertificateValidationEnabled();
+        this.issueAttestationCertificateEnabled = policySettings.isIssueAttestationCertificateEnabled();
+        this.issueDevIdCertificateEnabled = policySettings.isIssueDevIdCertificateEnabled();
+        this.validityDays = policySettings.getValidityDays();
+        this.devIdValidityDays = policySettings.getDevIdValidityDays();
+        this.reissueThreshold = policySettings.getReissueThreshold();
+        this.devIdReissueThreshold = policySettings.getDevIdReissueThreshold();
+        this.generateAttestationCertificateOnExpiration = policySettings.isGenerateAttestationCertificateOnExpiration();
+        this.generateDevIdCertificateOnExpiration = policySettings.isGenerateDevIdCertificateOnExpiration();
+        this.ignoreImaEnabled = policySettings.isIgnoreImaEnabled();
+        this.ignoretBootEnabled = policySettings.isIgnoretBootEnabled();
+        this.ignorePcieVpdEnabled = policySettings.isIgnorePcieVpdEnabled();
+        this.ignoreGptEnabled = policySettings.isIgnoreGptEnabled();
+        this.ignoreOsEvtEnabled = policySettings.isIgnoreOsEvtEnabled();
+        this.saveProtobufToLogOnFailedValEnabled = policySettings.isSaveProtobufToLogOnFailedValEnabled();
+        this.saveProtobufToLogAlwaysEnabled = policySettings.isSaveProtobufToLogAlwaysEnabled();
+        this.saveProtobufToLogNeverEnabled = policySettings.isSaveProtobufToLogNeverEnabled();
+    }
 }
@@ -7,6 +7,7 @@ import jakarta.persistence.Access;
 import jakarta.persistence.AccessType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
 import jakarta.persistence.Inheritance;
 import jakarta.persistence.InheritanceType;
 import jakarta.persistence.Table;
@@ -36,7 +37,15 @@ import java.util.UUID;
 @Log4j2
 @Entity
 @Inheritance(strategy = InheritanceType.SINGLE_TABLE)
-@Table(name = "ReferenceManifest")
+@Table(name = "ReferenceManifest", indexes = {
+        @Index(name = "idx_rim_hex_dec_hash_type", columnList = "hexDecHash, rimType"),
+        @Index(name = "idx_rim_base64_hash", columnList = "base64Hash"),
+        @Index(name = "idx_rim_event_log_hash_type", columnList = "eventLogHash, rimType"),
+        @Index(name = "idx_rim_device_name", columnList = "deviceName"),
+        @Index(name = "idx_rim_manufacturer_model_type", columnList = "platformManufacturer, platformModel, rimType"),
+        @Index(name = "idx_rim_model", columnList = "platformModel"),
+        @Index(name = "idx_rim_tag_id_type", columnList = "tagId, rimType"),
+        @Index(name = "idx_rim_associated_rim", columnList = "associatedRim")})
 @Access(AccessType.FIELD)
 public class ReferenceManifest extends ArchivableEntity {
 
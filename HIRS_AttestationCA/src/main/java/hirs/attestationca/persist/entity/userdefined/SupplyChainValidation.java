@@ -33,7 +33,7 @@ public class SupplyChainValidation extends ArchivableEntity {
     private final AppraisalStatus.Status validationResult;
 
     @Getter(AccessLevel.NONE)
-    @ManyToMany(fetch = FetchType.EAGER)
+    @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(name = "CertificatesUsedToValidate",
             joinColumns = {@JoinColumn(name = "validation_id", nullable = false)})
     private final List<Certificate> certificatesUsed;
@@ -11,6 +11,9 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.NamedSubgraph;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
@@ -34,11 +37,21 @@ import java.util.UUID;
 
 /**
  * A container class to group multiple related {@link SupplyChainValidation} instances
- * together.
+ * together. The validations, and the certificates they used, are loaded lazily; use the
+ * {@link #VALIDATIONS_GRAPH} entity graph when they are needed for several summaries.
  */
 @Entity
+@NamedEntityGraph(name = SupplyChainValidationSummary.VALIDATIONS_GRAPH,
+        attributeNodes = @NamedAttributeNode(value = "validations", subgraph = "validations"),
+        subgraphs = @NamedSubgraph(name = "validations",
+                attributeNodes = @NamedAttributeNode("certificatesUsed")))
 public class SupplyChainValidationSummary extends ArchivableEntity {
 
+    /**
+     * Name of the entity graph that loads the validations of the summary and the certificates they used.
+     */
+    public static final String VALIDATIONS_GRAPH = "SupplyChainValidationSummary.validations";
+
     private static final String DEVICE_ID_FIELD = "device.id";
     @ManyToOne
     @JoinColumn(name = "device_id")
@@ -52,10 +65,11 @@ public class SupplyChainValidationSummary extends ArchivableEntity {
     @Column(length = RESULT_MESSAGE_LENGTH)
     private final String message;
 
-    @OneToMany(cascade = CascadeType.ALL, fetch = FetchType.EAGER,
+    @OneToMany(cascade = CascadeType.ALL, fetch = FetchType.LAZY,
             targetEntity = SupplyChainValidation.class, orphanRemoval = true)
     private final Set<SupplyChainValidation> validations;
 
+    @Getter
     @Column
     private UUID provisionSessionId;
 
@@ -127,7 +141,7 @@ public class SupplyChainValidationSummary extends ArchivableEntity {
      * @return the validated device
      */
     public Device getDevice() {
-        return new Device(this.device.getDeviceInfo());
+        return this.device;
     }
 
     /**
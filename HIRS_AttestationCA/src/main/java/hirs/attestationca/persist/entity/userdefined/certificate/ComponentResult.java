@@ -6,6 +6,8 @@ import hirs.attestationca.persist.entity.userdefined.certificate.attributes.Comp
 import hirs.attestationca.persist.entity.userdefined.certificate.attributes.V2.AttributeStatus;
 import hirs.attestationca.persist.entity.userdefined.certificate.attributes.V2.ComponentIdentifierV2;
 import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -22,6 +24,10 @@ import java.util.Objects;
  */
 @Getter
 @Entity
+@Table(name = "ComponentResult", indexes = {
+        @Index(name = "idx_component_result_board_serial_delta", columnList = "boardSerialNumber, delta"),
+        @Index(name = "idx_component_result_cert_board_serial",
+                columnList = "certificateSerialNumber, boardSerialNumber")})
 @EqualsAndHashCode(callSuper = false)
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 public class ComponentResult extends ArchivableEntity implements Cloneable {
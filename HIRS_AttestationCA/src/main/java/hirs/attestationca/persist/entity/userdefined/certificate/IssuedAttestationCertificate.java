@@ -7,9 +7,12 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import org.hibernate.Hibernate;
 
 import java.io.IOException;
 import java.nio.file.Path;
@@ -18,10 +21,15 @@ import java.util.List;
 
 /**
  * Represents an issued attestation certificate to a HIRS Client.
+ * The endorsement and platform credentials are loaded lazily; use the {@link #CREDENTIALS_GRAPH} entity graph
+ * when they are needed for several certificates.
  */
 @Getter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @Entity
+@NamedEntityGraph(name = IssuedAttestationCertificate.CREDENTIALS_GRAPH, attributeNodes = {
+        @NamedAttributeNode("endorsementCredential"),
+        @NamedAttributeNode("platformCredentials")})
 public class IssuedAttestationCertificate extends DeviceAssociatedCertificate {
 
     /**
@@ -29,14 +37,19 @@ public class IssuedAttestationCertificate extends DeviceAssociatedCertificate {
      */
     public static final String AIC_TYPE_LABEL = "TCPA Trusted Platform Identity";
 
+    /**
+     * Name of the entity graph that loads the endorsement and platform credentials of the certificate.
+     */
+    public static final String CREDENTIALS_GRAPH = "IssuedAttestationCertificate.credentials";
+
     @Column
     private boolean ldevID;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "ek_id")
     private EndorsementCredential endorsementCredential;
 
-    @ManyToMany(fetch = FetchType.EAGER)
+    @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
             name = "Issued_Attestation_Platform_Join_Table",
             joinColumns = @JoinColumn(name = "issued_attestation_id"),         // foreign key to this certificate
@@ -80,4 +93,14 @@ public class IssuedAttestationCertificate extends DeviceAssociatedCertificate {
             throws IOException {
         this(readBytes(certificatePath), endorsementCredential, platformCredentials, ldevID);
     }
+
+    /**
+     * Getter for the endorsement credential. The lazy reference is unwrapped so that callers, and the
+     * JSON serialization of the portal tables, always see the credential itself rather than a proxy.
+     *
+     * @return the endorsement credential, or null if the certificate has none
+     */
+    public EndorsementCredential getEndorsementCredential() {
+        return (EndorsementCredential) Hibernate.unproxy(endorsementCredential);
+    }
 }
@@ -1,8 +1,5 @@
 package hirs.attestationca.persist.entity.userdefined.certificate.attributes;
 
-import com.eclipsesource.json.JsonObject;
-import com.eclipsesource.json.JsonObject.Member;
-import hirs.utils.JsonUtils;
 import hirs.utils.PciIds;
 import lombok.Getter;
 
@@ -163,7 +160,7 @@ ComponentClass {
                     this.findComponentValuesForPCIERegistry();
                 } else {
                     this.findComponentValuesForAllOtherRegistryTypes(
-                            JsonUtils.getSpecificJsonObject(componentClassPath, registryType));
+                            ComponentClassRegistry.forPath(componentClassPath));
                 }
                 break;
         }
@@ -247,65 +244,28 @@ ComponentClass {
 
     /**
      * Helper method that attempts to find and set the category and component string using the provided
-     * JSON object. This method will typically be used for the SMBIOS, STORAGE-BASED, and TCG registry types.
+     * registries. This method will typically be used for the SMBIOS, STORAGE-BASED, and TCG registry types.
      *
-     * @param categories a JSON object associated with mapped categories in file.
+     * @param registry the registries loaded from the component class JSON file.
      */
-    private void findComponentValuesForAllOtherRegistryTypes(final JsonObject categories) {
-        String categoryID;
-        String componentMask;
-        boolean found = false;
-
-        if (categories != null) {
-            for (String name : categories.names()) {
-                categoryID = verifyComponentValue(categories.get(name)
-                        .asObject().get("ID").asString());
-                componentMask = componentIdentifier.substring(MID_INDEX);
-                // check for the correct flag
-                if (componentIdentifier.substring(0, MID_INDEX).equals(categoryID.substring(0, MID_INDEX))) {
-                    found = true;
-                    JsonObject componentTypes = categories.get(name)
-                            .asObject().get("Types").asObject();
-                    this.categoryStr = name;
-
-                    if (componentMask.equals(OTHER)) {
-                        this.componentStr = OTHER_STRING;
-                    } else if (componentMask.equals(UNKNOWN)) {
-                        this.componentStr = UNKNOWN_STRING;
-                    } else {
-                        setComponentString(componentTypes);
-                    }
-                }
-            }
-        }
+    private void findComponentValuesForAllOtherRegistryTypes(final ComponentClassRegistry registry) {
+        final String categoryMask = componentIdentifier.substring(0, MID_INDEX);
+        final String componentMask = componentIdentifier.substring(MID_INDEX);
 
-        if (!found) {
+        this.categoryStr = registry.getCategoryName(registryType, categoryMask);
+        if (this.categoryStr == null) {
             this.categoryStr = NONE_STRING;
             this.componentStr = UNKNOWN_STRING;
-        }
-    }
-
-    /**
-     * Sets the component string value based on the provided JSON object's components.
-     *
-     * @param components JSON Object components
-     */
-    private void setComponentString(final JsonObject components) {
-        String typeID;
-
-        if (components != null) {
-            for (Member member : components) {
-                typeID = verifyComponentValue(member.getName());
-
-                if (component.equalsIgnoreCase(typeID)) {
-                    componentStr = member.getValue().asString();
-                }
+        } else if (componentMask.equals(OTHER)) {
+            this.componentStr = OTHER_STRING;
+        } else if (componentMask.equals(UNKNOWN)) {
+            this.componentStr = UNKNOWN_STRING;
+        } else {
+            this.componentStr = registry.getComponentName(registryType, categoryMask, componentMask);
+            // if the component string is still null after doing a lookup
+            if (this.componentStr == null) {
+                this.componentStr = UNKNOWN_STRING;
             }
         }
-
-        // if the component string is still null after doing a lookup
-        if (componentStr == null) {
-            componentStr = UNKNOWN_STRING;
-        }
     }
 }
@@ -0,0 +1,304 @@
+package hirs.attestationca.persist.entity.userdefined.certificate.attributes;
+
+import com.eclipsesource.json.Json;
+import com.eclipsesource.json.JsonObject;
+import com.eclipsesource.json.JsonValue;
+import com.eclipsesource.json.ParseException;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Immutable lookup tables of the component class registries (TCG, SMBIOS, STORAGE, ...) held in a
+ * component-class.json file.
+ * <p>
+ * Each file is parsed once and shared across threads by {@link #forPath(Path)}. Categories and
+ * component types are keyed by their int values and searched in sorted arrays, rather than by
+ * walking the JSON members for every component. The file is reloaded when its modification time
+ * or size changes, which is checked at most once per {@link #CHECK_INTERVAL_NANOS}.
+ */
+@Log4j2
+final class ComponentClassRegistry {
+
+    /**
+     * Minimum time between two checks of the file for changes.
+     */
+    static final long CHECK_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private static final ConcurrentMap<Path, ComponentClassRegistry> REGISTRIES = new ConcurrentHashMap<>();
+
+    private static final String ID = "ID";
+
+    private static final String TYPES = "Types";
+
+    private static final int HEX_RADIX = 16;
+
+    private static final int MASK_LENGTH = 4;
+
+    private static final int MAX_MASK_VALUE = 0xFFFF;
+
+    private static final int CATEGORY_SHIFT = 16;
+
+    private static final int VALUE_LENGTH = 8;
+
+    private final Path path;
+
+    private final FileStamp stamp;
+
+    private final Map<String, RegistryTable> tables;
+
+    private volatile long lastCheckNanos;
+
+    private ComponentClassRegistry(final Path path, final FileStamp stamp,
+                                   final Map<String, RegistryTable> tables) {
+        this.path = path;
+        this.stamp = stamp;
+        this.tables = Map.copyOf(tables);
+        this.lastCheckNanos = System.nanoTime();
+    }
+
+    /**
+     * Returns the registries held in the provided file, loading the file if it wasn't loaded yet
+     * or if it changed since it was loaded.
+     *
+     * @param jsonPath the location of the component-class.json file
+     * @return the registries of the file, empty if the file is missing or can't be parsed
+     */
+    static ComponentClassRegistry forPath(final Path jsonPath) {
+        final Path key = jsonPath.toAbsolutePath().normalize();
+        final ComponentClassRegistry registry = REGISTRIES.get(key);
+        if (registry != null && !registry.isModified()) {
+            return registry;
+        }
+        // another thread may already have reloaded the file
+        return REGISTRIES.compute(key, (p, current) ->
+                current != null && current != registry ? current : load(p));
+    }
+
+    /**
+     * Looks up the name of a category.
+     *
+     * @param registryType the registry of the category, such as TCG or SMBIOS
+     * @param categoryMask the 4 hex digits of the category
+     * @return the category name, or null if the registry has no such category
+     */
+    String getCategoryName(final String registryType, final String categoryMask) {
+        final RegistryTable table = tables.get(registryType);
+        final int category = parseMask(categoryMask);
+        if (table == null || category < 0) {
+            return null;
+        }
+        return table.getCategoryName(category);
+    }
+
+    /**
+     * Looks up the name of a component type within a category.
+     *
+     * @param registryType  the registry of the category, such as TCG or SMBIOS
+     * @param categoryMask  the 4 hex digits of the category
+     * @param componentMask the 4 hex digits of the component type
+     * @return the component type name, or null if the category has no such type
+     */
+    String getComponentName(final String registryType, final String categoryMask,
+                            final String componentMask) {
+        final RegistryTable table = tables.get(registryType);
+        final int category = parseMask(categoryMask);
+        final int component = parseMask(componentMask);
+        if (table == null || category < 0 || component < 0) {
+            return null;
+        }
+        return table.getComponentName(category, component);
+    }
+
+    private boolean isModified() {
+        final long now = System.nanoTime();
+        if (now - lastCheckNanos < CHECK_INTERVAL_NANOS) {
+            return false;
+        }
+        lastCheckNanos = now;
+        return !stamp.equals(FileStamp.of(path));
+    }
+
+    private static ComponentClassRegistry load(final Path jsonPath) {
+        final FileStamp stamp = FileStamp.of(jsonPath);
+        final Map<String, RegistryTable> tables = new HashMap<>();
+
+        if (Files.notExists(jsonPath)) {
+            log.warn("No file found at {}.", jsonPath);
+            return new ComponentClassRegistry(jsonPath, stamp, tables);
+        }
+
+        try (Reader reader = Files.newBufferedReader(jsonPath, StandardCharsets.UTF_8)) {
+            final JsonValue root = Json.parse(reader);
+            if (root.isObject()) {
+                for (JsonObject.Member registry : root.asObject()) {
+                    if (registry.getValue().isObject()) {
+                        tables.put(registry.getName(), RegistryTable.of(registry.getValue().asObject()));
+                    }
+                }
+            }
+            log.debug("Loaded component class registries {} from {}", tables.keySet(), jsonPath);
+        } catch (IOException | ParseException ex) {
+            log.warn("Unable to parse component class registries from {}: {}", jsonPath, ex.getMessage());
+            tables.clear();
+        }
+
+        return new ComponentClassRegistry(jsonPath, stamp, tables);
+    }
+
+    /**
+     * Parses a category or component type identifier of the JSON file, such as 0x00010000.
+     *
+     * @param value the identifier
+     * @return the int value of the identifier, or -1 if it is malformed
+     */
+    private static int parseValue(final String value) {
+        String hex = value;
+        if (hex.contains("x")) {
+            hex = hex.substring(hex.indexOf('x') + 1);
+        } else if (hex.contains("#")) {
+            hex = hex.replace("#", "");
+        }
+        if (hex.length() != VALUE_LENGTH) {
+            return -1;
+        }
+        try {
+            return Integer.parseUnsignedInt(hex, HEX_RADIX);
+        } catch (NumberFormatException nfEx) {
+            return -1;
+        }
+    }
+
+    private static int parseMask(final String mask) {
+        if (mask == null || mask.length() != MASK_LENGTH) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(mask, HEX_RADIX);
+        } catch (NumberFormatException nfEx) {
+            return -1;
+        }
+    }
+
+    /**
+     * Modification time and size of a file, used to notice that it changed.
+     *
+     * @param lastModified modification time in milliseconds, or -1 if the file is missing
+     * @param size         file size in bytes, or -1 if the file is missing
+     */
+    private record FileStamp(long lastModified, long size) {
+
+        private static FileStamp of(final Path path) {
+            try {
+                final BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                return new FileStamp(attributes.lastModifiedTime().toMillis(), attributes.size());
+            } catch (IOException ex) {
+                return new FileStamp(-1, -1);
+            }
+        }
+    }
+
+    /**
+     * Categories and component types of a single registry, sorted by value for binary searches.
+     */
+    private static final class RegistryTable {
+
+        private final int[] categories;
+
+        private final String[] categoryNames;
+
+        private final int[][] components;
+
+        private final String[][] componentNames;
+
+        private RegistryTable(final int[] categories, final String[] categoryNames,
+                              final int[][] components, final String[][] componentNames) {
+            this.categories = categories;
+            this.categoryNames = categoryNames;
+            this.components = components;
+            this.componentNames = componentNames;
+        }
+
+        /**
+         * Builds the table of a registry. As with the lookups previously done on the JSON
+         * members, the last entry wins when a category or component type is listed twice.
+         *
+         * @param registry the JSON object of the registry
+         * @return the table
+         */
+        private static RegistryTable of(final JsonObject registry) {
+            final TreeMap<Integer, String> categoryMap = new TreeMap<>();
+            final Map<Integer, TreeMap<Integer, String>> componentMaps = new HashMap<>();
+
+            for (JsonObject.Member member : registry) {
+                final JsonValue value = member.getValue();
+                final JsonValue id = value.isObject() ? value.asObject().get(ID) : null;
+                final int categoryValue = id != null && id.isString() ? parseValue(id.asString()) : -1;
+                if (categoryValue < 0) {
+                    log.warn("Skipping component class category {} with a missing or malformed ID",
+                            member.getName());
+                    continue;
+                }
+
+                final int category = categoryValue >>> CATEGORY_SHIFT;
+                final TreeMap<Integer, String> componentMap = new TreeMap<>();
+                final JsonValue types = value.asObject().get(TYPES);
+                if (types != null && types.isObject()) {
+                    for (JsonObject.Member type : types.asObject()) {
+                        final int component = parseValue(type.getName());
+                        if (component < 0 || component > MAX_MASK_VALUE || !type.getValue().isString()) {
+                            log.warn("Skipping malformed component class type {} of category {}",
+                                    type.getName(), member.getName());
+                            continue;
+                        }
+                        componentMap.put(component, type.getValue().asString());
+                    }
+                }
+                categoryMap.put(category, member.getName());
+                componentMaps.put(category, componentMap);
+            }
+
+            final int count = categoryMap.size();
+            final int[] categories = new int[count];
+            final String[] categoryNames = new String[count];
+            final int[][] components = new int[count][];
+            final String[][] componentNames = new String[count][];
+            int index = 0;
+            for (Map.Entry<Integer, String> category : categoryMap.entrySet()) {
+                final TreeMap<Integer, String> componentMap = componentMaps.get(category.getKey());
+                categories[index] = category.getKey();
+                categoryNames[index] = category.getValue();
+                components[index] = componentMap.keySet().stream().mapToInt(Integer::intValue).toArray();
+                componentNames[index] = componentMap.values().toArray(new String[0]);
+                index++;
+            }
+            return new RegistryTable(categories, categoryNames, components, componentNames);
+        }
+
+        private String getCategoryName(final int category) {
+            final int index = Arrays.binarySearch(categories, category);
+            return index < 0 ? null : categoryNames[index];
+        }
+
+        private String getComponentName(final int category, final int component) {
+            final int categoryIndex = Arrays.binarySearch(categories, category);
+            if (categoryIndex < 0) {
+                return null;
+            }
+            final int index = Arrays.binarySearch(components[categoryIndex], component);
+            return index < 0 ? null : componentNames[categoryIndex][index];
+        }
+    }
+}
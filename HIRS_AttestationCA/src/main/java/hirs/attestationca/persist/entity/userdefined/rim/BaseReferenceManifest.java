@@ -1,7 +1,6 @@
 package hirs.attestationca.persist.entity.userdefined.rim;
 
 import hirs.attestationca.persist.entity.userdefined.ReferenceManifest;
-import hirs.attestationca.persist.entity.userdefined.certificate.CertificateAuthorityCredential;
 import hirs.utils.SwidResource;
 import hirs.utils.rim.SwidTagParser;
 import hirs.utils.swid.SwidTagConstants;
@@ -79,6 +78,15 @@ public class BaseReferenceManifest extends ReferenceManifest {
     @Column
     private String pcURILocal = null;
 
+    /**
+     * Whether the signers of this RIM were added to the signer index, even if it has none.
+     * Null for RIMs stored before the index existed.
+     */
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @Column
+    private Boolean signersIndexed = null;
+
     private String entityName = null;
 
     private String entityRegId = null;
@@ -91,8 +99,6 @@ public class BaseReferenceManifest extends ReferenceManifest {
 
     private String linkRel = null;
 
-    private List<CertificateAuthorityCredential> embeddedCertificates = new ArrayList<>();
-
     /**
      * Support constructor for the RIM object.
      *
@@ -298,6 +304,15 @@ public class BaseReferenceManifest extends ReferenceManifest {
         return validHashes;
     }
 
+    /**
+     * Indicates whether the signers of this RIM were added to the signer index.
+     *
+     * @return true if the signers were indexed
+     */
+    public boolean isSignersIndexed() {
+        return Boolean.TRUE.equals(signersIndexed);
+    }
+
     /**
      * Creates a string representation of the Base Reference Manifest object.
      *
@@ -8,6 +8,7 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
+import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
@@ -17,6 +18,12 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Sub class that will just focus on PCR Values and Events.
@@ -37,6 +44,16 @@ public class EventLogMeasurements extends SupportReferenceManifest {
     @Enumerated(EnumType.STRING)
     private AppraisalStatus.Status overallValidationResult = AppraisalStatus.Status.FAIL;
 
+    /**
+     * Comma separated numbers of the events whose digest wasn't found among the reference digests when
+     * the measurement was last validated, or null if it hasn't been compared yet.
+     */
+    @Column(length = RESULT_MESSAGE_LENGTH)
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private String unmatchedEventNumbers;
+
     /**
      * Support constructor for the RIM object.
      *
@@ -87,6 +104,29 @@ public class EventLogMeasurements extends SupportReferenceManifest {
         return new String[0];
     }
 
+    /**
+     * Getter method for the expected PCR values of every bank replayed from the event log, keyed by
+     * TCG algorithm id. The bank of the strongest algorithm comes first.
+     *
+     * @return the pcr values of each bank, empty if the event log can't be parsed
+     */
+    @JsonIgnore
+    public Map<Integer, String[]> getExpectedPCRBanks() {
+        Map<Integer, String[]> banks = new LinkedHashMap<>();
+        try {
+            TCGEventLog logProcessor = new TCGEventLog(this.getRimBytes());
+            this.pcrHash = Arrays.hashCode(logProcessor.getExpectedPCRValues());
+            banks.put(logProcessor.getStrongestEvLogHashAlgId(), logProcessor.getExpectedPCRValues());
+            for (int algId : logProcessor.getPcrBankAlgIds()) {
+                banks.putIfAbsent(algId, logProcessor.getExpectedPCRValues(algId));
+            }
+        } catch (IOException exception) {
+            log.error(exception);
+        }
+
+        return banks;
+    }
+
     /**
      * Getter method for the event log that should be present in the support RIM.
      *
@@ -103,4 +143,37 @@ public class EventLogMeasurements extends SupportReferenceManifest {
 
         return new ArrayList<>();
     }
+
+    /**
+     * Records the events that didn't match the reference digests when the measurement was validated, so
+     * that the comparison doesn't have to be made again to display it.
+     *
+     * @param unmatchedEvents events of this measurement whose digest wasn't found
+     */
+    public void setUnmatchedEvents(final Collection<TpmPcrEvent> unmatchedEvents) {
+        this.unmatchedEventNumbers = unmatchedEvents.stream()
+                .map(event -> String.valueOf(event.getEventNumber()))
+                .collect(Collectors.joining(","));
+    }
+
+    /**
+     * Selects the events that didn't match the reference digests when the measurement was last validated.
+     *
+     * @param events the events of this measurement
+     * @return the unmatched events, in log order, or null if the measurement hasn't been compared yet
+     */
+    public List<TpmPcrEvent> getUnmatchedEvents(final Collection<TpmPcrEvent> events) {
+        if (unmatchedEventNumbers == null) {
+            return null;
+        }
+        Set<Integer> numbers = new HashSet<>();
+        for (String number : unmatchedEventNumbers.split(",")) {
+            if (!number.isEmpty()) {
+                numbers.add(Integer.valueOf(number));
+            }
+        }
+        return events.stream()
+                .filter(event -> numbers.contains(event.getEventNumber()))
+                .toList();
+    }
 }
@@ -0,0 +1,162 @@
+package hirs.attestationca.persist.entity.userdefined.rim;
+
+import hirs.attestationca.persist.entity.AbstractEntity;
+import hirs.attestationca.persist.entity.userdefined.certificate.CertificateAuthorityCredential;
+import hirs.utils.rim.SwidTagParser;
+import jakarta.persistence.Access;
+import jakarta.persistence.AccessType;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.w3c.dom.Document;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+import javax.xml.crypto.dsig.XMLSignature;
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.security.cert.CertificateEncodingException;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * This class represents a signer of a base RIM: either a certificate embedded in the RIM's signature,
+ * or the subject key identifier named by the signature's KeyName element.
+ * The signers are extracted once, when the RIM is stored, so that the CA certificates able to verify a
+ * RIM, and the RIMs embedding a certificate, can be looked up without parsing the RIM again.
+ */
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Entity
+@EqualsAndHashCode(callSuper = false)
+@Table(name = "ReferenceManifestSigner", indexes = {
+        @Index(name = "idx_rim_signer_rim_id", columnList = "rimId"),
+        @Index(name = "idx_rim_signer_ski", columnList = "subjectKeyIdString"),
+        @Index(name = "idx_rim_signer_certificate_hash", columnList = "certificateHash")},
+        uniqueConstraints = @UniqueConstraint(name = "uk_rim_signer",
+                columnNames = {"rimId", "subjectKeyIdString", "certificateHash"}))
+@Access(AccessType.FIELD)
+public class ReferenceManifestSigner extends AbstractEntity {
+
+    @JdbcTypeCode(java.sql.Types.VARCHAR)
+    @Column(nullable = false)
+    private UUID rimId;
+
+    @Column(nullable = false)
+    private String subjectKeyIdString;
+
+    @Column
+    private String authorityKeyIdString;
+
+    @Column
+    private Integer certificateHash;
+
+    @Getter(AccessLevel.NONE)
+    @Column(columnDefinition = "blob")
+    private byte[] certificateBytes;
+
+    /**
+     * Constructor for a signer named by its subject key identifier only.
+     *
+     * @param rimId              id of the base RIM
+     * @param subjectKeyIdString hex encoded subject key identifier of the signer
+     */
+    public ReferenceManifestSigner(final UUID rimId, final String subjectKeyIdString) {
+        this.rimId = rimId;
+        this.subjectKeyIdString = subjectKeyIdString;
+    }
+
+    /**
+     * Constructor for a certificate embedded in a base RIM.
+     *
+     * @param rimId       id of the base RIM
+     * @param certificate the embedded certificate
+     */
+    public ReferenceManifestSigner(final UUID rimId, final CertificateAuthorityCredential certificate) {
+        this.rimId = rimId;
+        this.subjectKeyIdString = certificate.getSubjectKeyIdString() == null
+                ? "" : certificate.getSubjectKeyIdString();
+        this.authorityKeyIdString = certificate.getAuthorityKeyIdentifier();
+        this.certificateHash = certificate.getCertificateHash();
+        this.certificateBytes = certificate.getRawBytes();
+    }
+
+    /**
+     * Extracts the signers of a base RIM: each certificate embedded in its signature, then the subject
+     * key identifier of its KeyName element, unless it names one of the embedded certificates.
+     *
+     * @param rimId    id of the base RIM
+     * @param rimBytes content of the base RIM
+     * @return the signers of the RIM, which is empty if the RIM names none
+     * @throws IOException if the RIM or one of its embedded certificates can't be parsed
+     */
+    public static List<ReferenceManifestSigner> extract(final UUID rimId, final byte[] rimBytes)
+            throws IOException {
+        final Document rim;
+        try {
+            rim = SwidTagParser.convertToDocument(rimBytes);
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new IOException("Unable to parse RIM", e);
+        }
+
+        List<ReferenceManifestSigner> signers = new ArrayList<>();
+        List<X509Certificate> embeddedCertificates = SwidTagParser.getEmbeddedX509Certificates(rim);
+        if (embeddedCertificates != null) {
+            for (X509Certificate embeddedCertificate : embeddedCertificates) {
+                if (embeddedCertificate == null) {
+                    continue;
+                }
+                try {
+                    signers.add(new ReferenceManifestSigner(rimId,
+                            new CertificateAuthorityCredential(embeddedCertificate.getEncoded())));
+                } catch (CertificateEncodingException e) {
+                    throw new IOException("Unable to encode embedded certificate", e);
+                }
+            }
+        }
+
+        NodeList keyName = rim.getElementsByTagNameNS(XMLSignature.XMLNS, "KeyName");
+        if (keyName.getLength() > 0) {
+            final String subjectKeyIdString = keyName.item(0).getTextContent().trim();
+            if (!subjectKeyIdString.isEmpty() && signers.stream()
+                    .noneMatch(signer -> subjectKeyIdString.equalsIgnoreCase(signer.getSubjectKeyIdString()))) {
+                signers.add(new ReferenceManifestSigner(rimId, subjectKeyIdString));
+            }
+        }
+        return signers;
+    }
+
+    /**
+     * Indicates whether this signer is a certificate embedded in the RIM.
+     *
+     * @return true if the signer holds a certificate
+     */
+    public boolean isEmbeddedCertificate() {
+        return certificateBytes != null;
+    }
+
+    /**
+     * Returns the certificate embedded in the RIM, identified by the id of this signer so that links
+     * to it stay valid.
+     *
+     * @return the embedded certificate, or null if the signer is only named by its subject key identifier
+     * @throws IOException if the certificate can't be parsed
+     */
+    public CertificateAuthorityCredential toCertificateAuthorityCredential() throws IOException {
+        if (certificateBytes == null) {
+            return null;
+        }
+        CertificateAuthorityCredential certificate = new CertificateAuthorityCredential(certificateBytes);
+        certificate.setId(getId());
+        return certificate;
+    }
+}
@@ -4,7 +4,6 @@ import com.google.protobuf.InvalidProtocolBufferException;
 import com.google.protobuf.util.JsonFormat;
 import hirs.attestationca.configuration.provisionerTpm2.ProvisionerTpm2;
 import hirs.attestationca.persist.entity.manager.DeviceRepository;
-import hirs.attestationca.persist.entity.manager.PolicyRepository;
 import hirs.attestationca.persist.entity.tpm.TPM2ProvisionerState;
 import hirs.attestationca.persist.entity.userdefined.Device;
 import hirs.attestationca.persist.entity.userdefined.PolicySettings;
@@ -17,6 +16,7 @@ import hirs.attestationca.persist.enums.AppraisalStatus;
 import hirs.attestationca.persist.exceptions.CertificateProcessingException;
 import hirs.attestationca.persist.provision.helper.IssuedCertificateAttributeHelper;
 import hirs.attestationca.persist.provision.helper.ProvisionUtils;
+import hirs.attestationca.persist.validation.PolicySettingsCache;
 import hirs.attestationca.persist.validation.SupplyChainValidationService;
 import lombok.extern.log4j.Log4j2;
 import org.apache.commons.lang3.ArrayUtils;
@@ -49,6 +49,7 @@ import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
 import java.util.Objects;
+import java.util.UUID;
 
 /**
  * Service class responsible for processing the Provisioner's Certificate Request.
@@ -60,7 +61,7 @@ public class CertificateRequestProcessorService {
     private final CredentialManagementService credentialManagementService;
     private final Tpm2ProvisionerStateService tpm2ProvisionerStateService;
     private final DeviceRepository deviceRepository;
-    private final PolicyRepository policyRepository;
+    private final PolicySettingsCache policySettingsCache;
     private final X509Certificate acaCertificate;
     private final int certificateValidityInDays;
     private final PrivateKey privateKey;
@@ -72,7 +73,7 @@ public class CertificateRequestProcessorService {
      * @param credentialManagementService  credential management service
      * @param tpm2ProvisionerStateService  tpm2 provisioner state service
      * @param deviceRepository             database connector for Devices.
-     * @param policyRepository             db connector for policies.
+     * @param policySettingsCache          snapshot of the policy settings.
      * @param privateKey                   private key used for communication authentication
      * @param acaCertificate               object used to create credential
      * @param certificateValidityInDays    int for the time in which a certificate is valid.
@@ -82,7 +83,7 @@ public class CertificateRequestProcessorService {
                                               final CredentialManagementService credentialManagementService,
                                               final Tpm2ProvisionerStateService tpm2ProvisionerStateService,
                                               final DeviceRepository deviceRepository,
-                                              final PolicyRepository policyRepository,
+                                              final PolicySettingsCache policySettingsCache,
                                               final PrivateKey privateKey,
                                               @Qualifier("leafACACert") final X509Certificate acaCertificate,
                                               @Value("${aca.certificates.validity}") final int certificateValidityInDays
@@ -93,7 +94,7 @@ public class CertificateRequestProcessorService {
         this.supplyChainValidationService = supplyChainValidationService;
         this.deviceRepository = deviceRepository;
         this.acaCertificate = acaCertificate;
-        this.policyRepository = policyRepository;
+        this.policySettingsCache = policySettingsCache;
         this.privateKey = privateKey;
     }
 
@@ -122,7 +123,7 @@ public class CertificateRequestProcessorService {
             throw new IllegalArgumentException(errorMsg);
         }
 
-        final PolicySettings policySettings = policyRepository.findByName("Default");
+        final PolicySettings policySettings = policySettingsCache.getPolicySettings();
 
         // attempt to deserialize Protobuf CertificateRequest
         ProvisionerTpm2.CertificateRequest certificateRequest;
@@ -145,38 +146,32 @@ public class CertificateRequestProcessorService {
         TPM2ProvisionerState tpm2ProvisionerState = getTpm2ProvisionerState(certificateRequest);
 
         if (tpm2ProvisionerState != null) {
-            // Parse Identity Claim to gather necessary components
-            ProvisionerTpm2.IdentityClaim identityClaim =
-                    ProvisionUtils.parseIdentityClaim(tpm2ProvisionerState.getIdentityClaim());
-
-            // Get endorsement public key
-            PublicKey ekPublicKey = ProvisionUtils.parsePublicKeyFromPublicDataSegment(
-                    identityClaim.getEkPublicArea().toByteArray());
+            log.info("Resuming provisioning session of device {} validated by summary {}",
+                    tpm2ProvisionerState.getDeviceId(), tpm2ProvisionerState.getSummaryId());
 
             // Get attestation public key
             PublicKey akPublicKey = ProvisionUtils.parsePublicKeyFromPublicDataSegment(
-                    identityClaim.getAkPublicArea().toByteArray());
+                    tpm2ProvisionerState.getAkPublicArea());
 
             // Get LDevID public key if it exists
             PublicKey ldevidPublicKey = null;
-            if (identityClaim.hasLdevidPublicArea()) {
-                ldevidPublicKey = ProvisionUtils.parsePublicKeyFromPublicDataSegment(
-                        identityClaim.getLdevidPublicArea().toByteArray());
+            final byte[] ldevidPublicArea = tpm2ProvisionerState.getLdevidPublicArea();
+            if (ldevidPublicArea != null) {
+                ldevidPublicKey = ProvisionUtils.parsePublicKeyFromPublicDataSegment(ldevidPublicArea);
             }
 
-            // Get Endorsement Credential if it exists or was uploaded
-            EndorsementCredential endorsementCredential =
-                    credentialManagementService.parseEcFromIdentityClaim(identityClaim, ekPublicKey);
+            // Get the Endorsement Credential validated during the identity claim
+            EndorsementCredential endorsementCredential = credentialManagementService.getEndorsementCredential(
+                    tpm2ProvisionerState.getEndorsementCredentialId());
 
-            // Get Platform Credentials if they exist or were uploaded
-            List<PlatformCredential> platformCredentials =
-                    credentialManagementService.parsePcsFromIdentityClaim(identityClaim,
-                            endorsementCredential);
+            // Get the Platform Credentials validated during the identity claim
+            List<PlatformCredential> platformCredentials = credentialManagementService.getPlatformCredentials(
+                    tpm2ProvisionerState.getPlatformCredentialIds());
 
             // Get the device associated with the identity claim. Update the device if the cert request quote exists.
-            Device device = retrieveDeviceWithUpdatedTPMInfo(certificateRequest, identityClaim);
+            Device device = retrieveDeviceWithUpdatedTPMInfo(certificateRequest, tpm2ProvisionerState.getDeviceId());
 
-            AppraisalStatus.Status validationResult = doQuoteValidation(device);
+            AppraisalStatus.Status validationResult = doQuoteValidation(device, policySettings);
 
             if (validationResult == AppraisalStatus.Status.PASS) {
                 // Create signed, attestation certificate
@@ -201,11 +196,11 @@ public class CertificateRequestProcessorService {
 
                     boolean generateAtt =
                             credentialManagementService.saveAttestationCertificate(derEncodedAttestationCertificate,
-                                    endorsementCredential, platformCredentials, device, false);
+                                    endorsementCredential, platformCredentials, device, false, policySettings);
 
                     boolean generateLDevID =
                             credentialManagementService.saveAttestationCertificate(derEncodedLdevidCertificate,
-                                    endorsementCredential, platformCredentials, device, true);
+                                    endorsementCredential, platformCredentials, device, true, policySettings);
 
                     ProvisionerTpm2.CertificateResponse.Builder certificateResponseBuilder =
                             ProvisionerTpm2.CertificateResponse.newBuilder()
@@ -268,7 +263,7 @@ public class CertificateRequestProcessorService {
 
                     boolean generateAtt = credentialManagementService.saveAttestationCertificate(
                             derEncodedAttestationCertificate,
-                            endorsementCredential, platformCredentials, device, false);
+                            endorsementCredential, platformCredentials, device, false, policySettings);
 
                     if (generateAtt) {
                         certificateResponseBuilder =
@@ -363,17 +358,17 @@ public class CertificateRequestProcessorService {
     }
 
     /**
-     * Helper method that retrieves a {@link Device} object from the Identity Claim and updates the {@link Device}
-     * object TPM info if the certificate request's nonce is present.
+     * Helper method that retrieves the {@link Device} object that sent the Identity Claim and updates the
+     * {@link Device} object TPM info if the certificate request's nonce is present.
      *
      * @param certificateRequest certificate request
-     * @param identityClaim      identity claim
+     * @param deviceId           id of the device that sent the identity claim
      * @return a {@link Device} object
      */
     private Device retrieveDeviceWithUpdatedTPMInfo(final ProvisionerTpm2.CertificateRequest certificateRequest,
-                                                    final ProvisionerTpm2.IdentityClaim identityClaim) {
-        final String deviceName = identityClaim.getDv().getNw().getHostname();
-        Device device = deviceRepository.findByName(deviceName);
+                                                    final UUID deviceId) {
+        Device device = deviceRepository.findWithDeviceInfoById(deviceId).orElseThrow(() ->
+                new CertificateProcessingException("The device of the provisioning session no longer exists."));
 
         // Parse through the Provisioner supplied TPM Quote and pcr values. These fields are optional.
         if (!certificateRequest.getQuote().isEmpty()) {
@@ -396,7 +391,7 @@ public class CertificateRequestProcessorService {
                     deviceInfoReport.getOSInfo(),
                     deviceInfoReport.getFirmwareInfo(),
                     deviceInfoReport.getHardwareInfo(), tpmInfo,
-                    identityClaim.getClientVersion());
+                    deviceInfoReport.getClientApplicationVersion());
 
             device.setDeviceInfo(dvReport);
             return deviceRepository.save(device);
@@ -424,13 +419,14 @@ public class CertificateRequestProcessorService {
      * Performs supply chain validation for just the quote under Firmware validation.
      * Performed after main supply chain validation and a certificate request.
      *
-     * @param device associated device to validate.
+     * @param device         associated device to validate.
+     * @param policySettings snapshot of the policy settings read for the request
      * @return the {@link AppraisalStatus} of the supply chain validation
      */
-    private AppraisalStatus.Status doQuoteValidation(final Device device) {
+    private AppraisalStatus.Status doQuoteValidation(final Device device, final PolicySettings policySettings) {
         log.info("Beginning Quote Validation...");
         // perform supply chain validation
-        SupplyChainValidationSummary scvs = supplyChainValidationService.validateQuote(device);
+        SupplyChainValidationSummary scvs = supplyChainValidationService.validateQuote(device, policySettings);
         AppraisalStatus.Status validationResult;
 
         // either validation wasn't enabled or device already failed
@@ -4,7 +4,6 @@ import com.google.protobuf.ByteString;
 import hirs.attestationca.configuration.provisionerTpm2.ProvisionerTpm2;
 import hirs.attestationca.persist.entity.manager.CertificateRepository;
 import hirs.attestationca.persist.entity.manager.ComponentResultRepository;
-import hirs.attestationca.persist.entity.manager.PolicyRepository;
 import hirs.attestationca.persist.entity.userdefined.Certificate;
 import hirs.attestationca.persist.entity.userdefined.Device;
 import hirs.attestationca.persist.entity.userdefined.PolicySettings;
@@ -27,6 +26,7 @@ import java.security.PublicKey;
 import java.util.Date;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.UUID;
 
 /**
  * Service class responsible for parsing {@link PlatformCredential} and {@link EndorsementCredential} objects,
@@ -36,22 +36,18 @@ import java.util.List;
 @Service
 @Log4j2
 public class CredentialManagementService {
-    private final PolicyRepository policyRepository;
     private final CertificateRepository certificateRepository;
     private final ComponentResultRepository componentResultRepository;
 
     /**
      * Constructor.
      *
-     * @param policyRepository          policy repository
      * @param certificateRepository     certificate repository
      * @param componentResultRepository component result repository
      */
     @Autowired
-    public CredentialManagementService(final PolicyRepository policyRepository,
-                                       final CertificateRepository certificateRepository,
+    public CredentialManagementService(final CertificateRepository certificateRepository,
                                        final ComponentResultRepository componentResultRepository) {
-        this.policyRepository = policyRepository;
         this.certificateRepository = certificateRepository;
         this.componentResultRepository = componentResultRepository;
     }
@@ -123,6 +119,48 @@ public class CredentialManagementService {
         return platformCredentials;
     }
 
+    /**
+     * Retrieves the Endorsement Credential that was validated during the identity claim.
+     *
+     * @param endorsementCredentialId id of the endorsement credential
+     * @return the Endorsement Credential, or null if the id is null or no longer matches an endorsement credential
+     */
+    public EndorsementCredential getEndorsementCredential(final UUID endorsementCredentialId) {
+        if (endorsementCredentialId == null) {
+            return null;
+        }
+
+        final Certificate certificate = certificateRepository.findById(endorsementCredentialId).orElse(null);
+        if (certificate instanceof EndorsementCredential endorsementCredential) {
+            return endorsementCredential;
+        }
+
+        log.warn("Unable to find endorsement credential {}", endorsementCredentialId);
+        return null;
+    }
+
+    /**
+     * Retrieves the Platform Credentials that were validated during the identity claim.
+     *
+     * @param platformCredentialIds ids of the platform credentials
+     * @return the List of Platform Credentials that still exist
+     */
+    public List<PlatformCredential> getPlatformCredentials(final List<UUID> platformCredentialIds) {
+        final List<PlatformCredential> platformCredentials = new LinkedList<>();
+
+        for (Certificate certificate : certificateRepository.findAllById(platformCredentialIds)) {
+            if (certificate instanceof PlatformCredential platformCredential) {
+                platformCredentials.add(platformCredential);
+            }
+        }
+
+        if (platformCredentials.size() != platformCredentialIds.size()) {
+            log.warn("Found {} of {} platform credential(s)", platformCredentials.size(),
+                    platformCredentialIds.size());
+        }
+        return platformCredentials;
+    }
+
     /**
      * Parses and stores the EK in the cert manager. If the cert is already present and archived,
      * it is unarchived.
@@ -287,6 +325,7 @@ public class CredentialManagementService {
      * @param platformCredentials              the platform credentials used to generate the AC
      * @param device                           the device to which the attestation certificate is tied
      * @param ldevID                           whether the certificate is a ldevid
+     * @param policySettings                   snapshot of the policy settings read for the request
      * @return whether the certificate was saved successfully
      */
     public boolean saveAttestationCertificate(
@@ -294,10 +333,10 @@ public class CredentialManagementService {
             final EndorsementCredential endorsementCredential,
             final List<PlatformCredential> platformCredentials,
             final Device device,
-            final boolean ldevID) {
+            final boolean ldevID,
+            final PolicySettings policySettings) {
         List<IssuedAttestationCertificate> issuedAc;
         boolean generateCertificate;
-        PolicySettings policySettings;
         Date currentDate = new Date();
         int days;
         try {
@@ -305,8 +344,6 @@ public class CredentialManagementService {
             IssuedAttestationCertificate attCert = new IssuedAttestationCertificate(
                     derEncodedAttestationCertificate, endorsementCredential, platformCredentials, ldevID);
 
-            policySettings = policyRepository.findByName("Default");
-
             Sort sortCriteria = Sort.by(Sort.Direction.DESC, "endValidity");
             issuedAc = certificateRepository.findByDeviceIdAndLdevID(device.getId(), ldevID,
                     sortCriteria);
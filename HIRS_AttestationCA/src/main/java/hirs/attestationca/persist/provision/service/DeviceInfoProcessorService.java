@@ -19,15 +19,16 @@ import hirs.attestationca.persist.entity.userdefined.rim.BaseReferenceManifest;
 import hirs.attestationca.persist.entity.userdefined.rim.EventLogMeasurements;
 import hirs.attestationca.persist.entity.userdefined.rim.ReferenceDigestValue;
 import hirs.attestationca.persist.entity.userdefined.rim.SupportReferenceManifest;
+import hirs.attestationca.persist.validation.ReferenceManifestSignerService;
 import hirs.attestationca.persist.validation.SupplyChainCredentialValidator;
+import hirs.attestationca.persist.validation.SupportRimCache;
 import hirs.utils.HexUtils;
 import hirs.utils.SwidResource;
 import hirs.utils.enums.DeviceInfoEnums;
-import hirs.utils.tpm.eventlog.TCGEventLog;
 import hirs.utils.tpm.eventlog.TpmPcrEvent;
 import io.micrometer.common.util.StringUtils;
 import lombok.extern.log4j.Log4j2;
-import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -35,15 +36,12 @@ import java.io.IOException;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Base64;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.regex.Pattern;
 
 /**
@@ -59,7 +57,8 @@ public class DeviceInfoProcessorService {
     private final ReferenceManifestRepository referenceManifestRepository;
     private final ReferenceDigestValueRepository referenceDigestValueRepository;
     private final ComponentInfoRepository componentInfoRepository;
-    private final MessageDigest messageDigest;
+    private final SupportRimCache supportRimCache;
+    private final ReferenceManifestSignerService referenceManifestSignerService;
 
     /**
      * Constructor.
@@ -68,19 +67,22 @@ public class DeviceInfoProcessorService {
      * @param referenceManifestRepository    reference manifest repository
      * @param referenceDigestValueRepository reference digest value repository
      * @param componentInfoRepository        component info repository
-     * @throws NoSuchAlgorithmException if any issues arise from creating a {@link MessageDigest}
+     * @param supportRimCache                support RIM cache
+     * @param referenceManifestSignerService reference manifest signer service
      */
     @Autowired
     public DeviceInfoProcessorService(final DeviceRepository deviceRepository,
                                       final ReferenceManifestRepository referenceManifestRepository,
                                       final ReferenceDigestValueRepository referenceDigestValueRepository,
-                                      final ComponentInfoRepository componentInfoRepository)
-            throws NoSuchAlgorithmException {
+                                      final ComponentInfoRepository componentInfoRepository,
+                                      final SupportRimCache supportRimCache,
+                                      final ReferenceManifestSignerService referenceManifestSignerService) {
         this.deviceRepository = deviceRepository;
         this.referenceManifestRepository = referenceManifestRepository;
         this.referenceDigestValueRepository = referenceDigestValueRepository;
         this.componentInfoRepository = componentInfoRepository;
-        this.messageDigest = MessageDigest.getInstance("SHA-256");
+        this.supportRimCache = supportRimCache;
+        this.referenceManifestSignerService = referenceManifestSignerService;
     }
 
     /**
@@ -342,8 +344,6 @@ public class DeviceInfoProcessorService {
      */
     private void updateBaseRIMSUsingDeviceInfo(final String defaultClientName,
                                                final ProvisionerTpm2.DeviceInfo provisionedDeviceInfo) {
-        final List<BaseReferenceManifest> baseRims = referenceManifestRepository.findAllBaseRims();
-        final List<ReferenceManifest> unarchivedRims = referenceManifestRepository.findByArchiveFlag(false);
         final String deviceHostName = provisionedDeviceInfo.getNw().getHostname();
 
         log.info("Device {} sent SWID tag files", deviceHostName);
@@ -353,7 +353,7 @@ public class DeviceInfoProcessorService {
         for (ByteString swidFile : swidfileList) {
             try {
                 final String swidFileHash =
-                        Base64.getEncoder().encodeToString(messageDigest.digest(swidFile.toByteArray()));
+                        Base64.getEncoder().encodeToString(DigestUtils.sha256(swidFile.toByteArray()));
 
                 BaseReferenceManifest baseRim =
                         (BaseReferenceManifest) referenceManifestRepository.findByBase64Hash(swidFileHash);
@@ -366,15 +366,11 @@ public class DeviceInfoProcessorService {
                                     swidFile.toByteArray());
                     replacementBaseRIM.setDeviceName(deviceHostName);
 
-                    Optional<BaseReferenceManifest> matchedReplacementBaseRIMOptional = baseRims.stream()
-                            .filter(bRim ->
-                                    bRim.getTagId().equals(replacementBaseRIM.getTagId()))
-                            .findFirst();
+                    final BaseReferenceManifest matchedReplacementBaseRIM =
+                            referenceManifestRepository.findFirstBaseRimByTagId(replacementBaseRIM.getTagId());
 
                     // if there is a match, save the matched base RIM
-                    if (matchedReplacementBaseRIMOptional.isPresent()) {
-                        final BaseReferenceManifest matchedReplacementBaseRIM =
-                                matchedReplacementBaseRIMOptional.get();
+                    if (matchedReplacementBaseRIM != null) {
                         matchedReplacementBaseRIM.setDeviceName(replacementBaseRIM.getDeviceName());
                         referenceManifestRepository.save(matchedReplacementBaseRIM);
                         baseRim = matchedReplacementBaseRIM;
@@ -386,19 +382,16 @@ public class DeviceInfoProcessorService {
                         referenceManifestRepository.save(replacementBaseRIM);
                         baseRim = replacementBaseRIM;
                     }
+                    referenceManifestSignerService.indexSigners(baseRim);
                 } else if (baseRim.isArchived()) {
                         /*  This block accounts for RIMs that may have been soft-deleted (archived)
                         in an older version of the ACA. */
-                    // Filter out unarchived base RIMs that match the tagId and are newer than the baseRim
-                    BaseReferenceManifest finalBaseRim = baseRim;
-                    Optional<BaseReferenceManifest> matchedUnarchivedBaseRIMOptional = unarchivedRims.stream()
-                            .filter(rim -> rim.isBase()
-                                    && rim.getTagId().equals(finalBaseRim.getTagId())
-                                    && rim.getCreateTime().after(finalBaseRim.getCreateTime()))
-                            .map(rim -> (BaseReferenceManifest) rim)
-                            .findFirst();
-
-                    if (matchedUnarchivedBaseRIMOptional.isEmpty()) {
+                    // Look up an unarchived base RIM that matches the tagId and is newer than the baseRim
+                    final BaseReferenceManifest matchedUnarchivedBaseRIM = (BaseReferenceManifest)
+                            referenceManifestRepository.findFirstUnarchivedByRimTypeAndTagIdCreatedAfter(
+                                    ReferenceManifest.BASE_RIM, baseRim.getTagId(), baseRim.getCreateTime());
+
+                    if (matchedUnarchivedBaseRIM == null) {
                         String errorMessage = String.format("Unable to locate an unarchived base RIM"
                                 + " with manufacturer %s and model %s.",
                                 baseRim.getPlatformManufacturer(),
@@ -407,10 +400,10 @@ public class DeviceInfoProcessorService {
                         throw new Exception(errorMessage);
                     }
 
-                    final BaseReferenceManifest matchedUnarchivedBaseRIM = matchedUnarchivedBaseRIMOptional.get();
                     matchedUnarchivedBaseRIM.setDeviceName(deviceHostName);
                     referenceManifestRepository.save(matchedUnarchivedBaseRIM);
                     baseRim = matchedUnarchivedBaseRIM;
+                    referenceManifestSignerService.indexSigners(baseRim);
                     log.info("Original base RIM is archived; however a base RIM"
                                    + " with manufacturer {} and model {} matched by tagId.",
                             matchedUnarchivedBaseRIM.getPlatformManufacturer(),
@@ -453,12 +446,11 @@ public class DeviceInfoProcessorService {
 
         log.info("Device {} sent Support RIM files", deviceHostName);
 
-        final List<ReferenceManifest> unarchivedRims = referenceManifestRepository.findByArchiveFlag(false);
         final List<ByteString> logfileList = provisionedDeviceInfo.getLogfileList();
 
         for (ByteString logFile : logfileList) {
             try {
-                final String logFileHash = Hex.encodeHexString(messageDigest.digest(logFile.toByteArray()));
+                final String logFileHash = DigestUtils.sha256Hex(logFile.toByteArray());
 
                 final SupportReferenceManifest supportRim =
                         (SupportReferenceManifest) referenceManifestRepository.findByHexDecHashAndRimType(
@@ -473,7 +465,7 @@ public class DeviceInfoProcessorService {
                                     logFile.toByteArray());
 
                     // this is a validity check
-                    new TCGEventLog(replacementSupportRIM.getRimBytes());
+                    supportRimCache.getEventLog(replacementSupportRIM);
 
                     // no issues, continue
                     replacementSupportRIM.setPlatformManufacturer(provisionedDeviceInfo.getHw().getManufacturer());
@@ -493,20 +485,15 @@ public class DeviceInfoProcessorService {
                      This block accounts for RIMs that may have been soft-deleted (archived)
                      in an older version of the ACA.
                      */
-                    // Filter out unarchived support RIMs that match the tagId and are newer than the support RIM
-                    Optional<SupportReferenceManifest> matchedUnarchivedSupportRIMOptional = unarchivedRims.stream()
-                            .filter(rim -> rim.isSupport()
-                                    && rim.getTagId().equals(supportRim.getTagId())
-                                    && rim.getCreateTime().after(supportRim.getCreateTime()))
-                            .map(rim -> (SupportReferenceManifest) rim)
-                            .findFirst();
-
-                    if (matchedUnarchivedSupportRIMOptional.isEmpty()) {
+                    // Look up an unarchived support RIM that matches the tagId and is newer than the support RIM
+                    final SupportReferenceManifest matchedUnarchivedSupportRIM = (SupportReferenceManifest)
+                            referenceManifestRepository.findFirstUnarchivedByRimTypeAndTagIdCreatedAfter(
+                                    ReferenceManifest.SUPPORT_RIM, supportRim.getTagId(), supportRim.getCreateTime());
+
+                    if (matchedUnarchivedSupportRIM == null) {
                         throw new Exception("Unable to locate an unarchived support RIM.");
                     }
 
-                    final SupportReferenceManifest matchedUnarchivedSupportRIM =
-                            matchedUnarchivedSupportRIMOptional.get();
                     matchedUnarchivedSupportRIM.setDeviceName(deviceHostName);
                     referenceManifestRepository.save(matchedUnarchivedSupportRIM);
                 } else {
@@ -537,7 +524,7 @@ public class DeviceInfoProcessorService {
         //update Support RIMs and Base RIMs.
         for (ByteString swidFile : swidfileList) {
             final String swidFileHash =
-                    Base64.getEncoder().encodeToString(messageDigest.digest(swidFile.toByteArray()));
+                    Base64.getEncoder().encodeToString(DigestUtils.sha256(swidFile.toByteArray()));
 
             final BaseReferenceManifest baseRim =
                     (BaseReferenceManifest) referenceManifestRepository.findByBase64Hash(swidFileHash);
@@ -614,9 +601,8 @@ public class DeviceInfoProcessorService {
         if (baseSupportRim != null
                 && referenceDigestValueRepository.findBySupportRimHash(baseSupportRim.getHexDecHash()).isEmpty()) {
             try {
-                TCGEventLog eventLog = new TCGEventLog(baseSupportRim.getRimBytes());
                 ReferenceDigestValue rdv;
-                for (TpmPcrEvent tpe : eventLog.getEventList()) {
+                for (TpmPcrEvent tpe : supportRimCache.getEventLog(baseSupportRim).getEvents()) {
                     rdv = new ReferenceDigestValue(baseSupportRim.getAssociatedRim(),
                             baseSupportRim.getId(), manufacturer, model, tpe.getPcrIndex(),
                             tpe.getEventDigestStr(), baseSupportRim.getHexDecHash(),
@@ -628,8 +614,7 @@ public class DeviceInfoProcessorService {
                 // since I have the base already I don't have to care about the backward
                 // linkage
                 for (SupportReferenceManifest supplemental : supplementalRims) {
-                    eventLog = new TCGEventLog(supplemental.getRimBytes());
-                    for (TpmPcrEvent tpe : eventLog.getEventList()) {
+                    for (TpmPcrEvent tpe : supportRimCache.getEventLog(supplemental).getEvents()) {
                         // all RDVs will have the same base rim
                         rdv = new ReferenceDigestValue(baseSupportRim.getAssociatedRim(),
                                 supplemental.getId(), manufacturer, model, tpe.getPcrIndex(),
@@ -663,8 +648,7 @@ public class DeviceInfoProcessorService {
                 ReferenceDigestValue dbRdv;
                 String patchedValue;
                 for (SupportReferenceManifest patch : patchRims) {
-                    eventLog = new TCGEventLog(patch.getRimBytes());
-                    for (TpmPcrEvent tpe : eventLog.getEventList()) {
+                    for (TpmPcrEvent tpe : supportRimCache.getEventLog(patch).getEvents()) {
                         patchedValue = tpe.getEventDigestStr();
                         dbRdv = digestValueMap.get(patchedValue);
 
@@ -678,6 +662,8 @@ public class DeviceInfoProcessorService {
                 }
             } catch (IOException ex) {
                 log.error(ex);
+            } finally {
+                supportRimCache.invalidateDigestValues();
             }
         }
     }
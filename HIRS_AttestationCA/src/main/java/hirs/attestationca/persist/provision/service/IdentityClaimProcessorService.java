@@ -4,7 +4,6 @@ import com.google.protobuf.ByteString;
 import com.google.protobuf.InvalidProtocolBufferException;
 import com.google.protobuf.util.JsonFormat;
 import hirs.attestationca.configuration.provisionerTpm2.ProvisionerTpm2;
-import hirs.attestationca.persist.entity.manager.PolicyRepository;
 import hirs.attestationca.persist.entity.tpm.TPM2ProvisionerState;
 import hirs.attestationca.persist.entity.userdefined.Device;
 import hirs.attestationca.persist.entity.userdefined.PolicySettings;
@@ -15,6 +14,7 @@ import hirs.attestationca.persist.entity.userdefined.info.ComponentInfo;
 import hirs.attestationca.persist.entity.userdefined.report.DeviceInfoReport;
 import hirs.attestationca.persist.enums.AppraisalStatus;
 import hirs.attestationca.persist.provision.helper.ProvisionUtils;
+import hirs.attestationca.persist.validation.PolicySettingsCache;
 import hirs.attestationca.persist.validation.SupplyChainValidationService;
 import hirs.utils.HexUtils;
 import lombok.extern.log4j.Log4j2;
@@ -24,8 +24,10 @@ import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.security.PublicKey;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.UUID;
 
 /**
  * Service class responsible for processing the Provisioner's Identity Claim.
@@ -43,7 +45,7 @@ public class IdentityClaimProcessorService {
     private final CredentialManagementService credentialManagementService;
     private final DeviceInfoProcessorService deviceInfoProcessorService;
     private final Tpm2ProvisionerStateService tpm2ProvisionerStateService;
-    private final PolicyRepository policyRepository;
+    private final PolicySettingsCache policySettingsCache;
 
     /**
      * Constructor.
@@ -52,7 +54,7 @@ public class IdentityClaimProcessorService {
      * @param credentialManagementService  certificate processor service
      * @param deviceInfoProcessorService   device info processor service
      * @param tpm2ProvisionerStateService  tpm2 provisioner state service
-     * @param policyRepository             policy repository
+     * @param policySettingsCache          policy settings cache
      */
     @Autowired
     public IdentityClaimProcessorService(
@@ -60,12 +62,12 @@ public class IdentityClaimProcessorService {
             final CredentialManagementService credentialManagementService,
             final DeviceInfoProcessorService deviceInfoProcessorService,
             final Tpm2ProvisionerStateService tpm2ProvisionerStateService,
-            final PolicyRepository policyRepository) {
+            final PolicySettingsCache policySettingsCache) {
         this.supplyChainValidationService = supplyChainValidationService;
         this.credentialManagementService = credentialManagementService;
         this.deviceInfoProcessorService = deviceInfoProcessorService;
         this.tpm2ProvisionerStateService = tpm2ProvisionerStateService;
-        this.policyRepository = policyRepository;
+        this.policySettingsCache = policySettingsCache;
     }
 
     /**
@@ -86,7 +88,7 @@ public class IdentityClaimProcessorService {
             throw new IllegalArgumentException(errorMsg);
         }
 
-        final PolicySettings policySettings = policyRepository.findByName("Default");
+        final PolicySettings policySettings = policySettingsCache.getPolicySettings();
 
         // attempt to deserialize Protobuf Identity Claim
         ProvisionerTpm2.IdentityClaim identityClaim = ProvisionUtils.parseIdentityClaim(identityClaimByteArray);
@@ -102,10 +104,12 @@ public class IdentityClaimProcessorService {
         PublicKey endorsementCredentialPublicKey =
                 ProvisionUtils.parsePublicKeyFromPublicDataSegment(identityClaim.getEkPublicArea().toByteArray());
 
+        ClaimValidation claimValidation = null;
         AppraisalStatus.Status validationResult = AppraisalStatus.Status.FAIL;
 
         try {
-            validationResult = doSupplyChainValidation(identityClaim, endorsementCredentialPublicKey);
+            claimValidation = doSupplyChainValidation(identityClaim, endorsementCredentialPublicKey, policySettings);
+            validationResult = claimValidation.validationResult();
         } catch (Exception ex) {
             log.error(ex.getMessage());
         }
@@ -123,10 +127,10 @@ public class IdentityClaimProcessorService {
 
             String strNonce = HexUtils.byteArrayToHexString(nonce);
             log.info("Sending nonce: {}", strNonce);
-            log.info("Persisting identity claim of length: {}", identityClaimByteArray.length);
+            log.info("Persisting provisioning session for device {}", claimValidation.device().getName());
 
             tpm2ProvisionerStateService.saveTPM2ProvisionerState(
-                    new TPM2ProvisionerState(nonce, identityClaimByteArray));
+                    createTPM2ProvisionerState(nonce, identityClaim, claimValidation));
 
             if (policySettings.isIgnoreImaEnabled()) {
                 pcrQuoteMask = PCR_QUOTE_MASK.replace("10,", "");
@@ -210,12 +214,14 @@ public class IdentityClaimProcessorService {
     /**
      * Performs supply chain validation.
      *
-     * @param identityClaim the identity claim
-     * @param ekPublicKey   the public endorsement key
-     * @return the {@link AppraisalStatus} of the supply chain validation
+     * @param identityClaim  the identity claim
+     * @param ekPublicKey    the public endorsement key
+     * @param policySettings snapshot of the policy settings read for the request
+     * @return the outcome of the supply chain validation, along with the validated device and credentials
      */
-    private AppraisalStatus.Status doSupplyChainValidation(final ProvisionerTpm2.IdentityClaim identityClaim,
-                                                           final PublicKey ekPublicKey) throws IOException {
+    private ClaimValidation doSupplyChainValidation(final ProvisionerTpm2.IdentityClaim identityClaim,
+                                                    final PublicKey ekPublicKey,
+                                                    final PolicySettings policySettings) throws IOException {
 
         // Find an endorsement credential to validate
         EndorsementCredential endorsementCredential =
@@ -239,14 +245,55 @@ public class IdentityClaimProcessorService {
 
         // Perform supply chain validation
         SupplyChainValidationSummary summary = supplyChainValidationService.validateSupplyChain(
-                endorsementCredential, platformCredentials, device, componentInfoList);
+                endorsementCredential, platformCredentials, device, componentInfoList, policySettings);
         device.setSummaryId(summary.getId().toString());
 
         // Update the validation result in the device and update the updated device in the database
         AppraisalStatus.Status validationResult = summary.getOverallValidationResult();
         device.setSupplyChainValidationStatus(validationResult);
-        deviceInfoProcessorService.saveOrUpdateDevice(device);
+        device = deviceInfoProcessorService.saveOrUpdateDevice(device);
 
-        return validationResult;
+        return new ClaimValidation(validationResult, device, summary.getId(), endorsementCredential,
+                platformCredentials);
+    }
+
+    /**
+     * Creates the provisioning session kept until the client sends its certificate request. Only the
+     * identifiers of what was validated are kept, not the identity claim with its logs and RIM files.
+     *
+     * @param nonce           the nonce sent to the client
+     * @param identityClaim   the identity claim
+     * @param claimValidation the outcome of the supply chain validation
+     * @return the {@link TPM2ProvisionerState} for the session
+     */
+    private TPM2ProvisionerState createTPM2ProvisionerState(final byte[] nonce,
+                                                            final ProvisionerTpm2.IdentityClaim identityClaim,
+                                                            final ClaimValidation claimValidation) {
+        final List<UUID> platformCredentialIds = new ArrayList<>();
+        claimValidation.platformCredentials().forEach(pc -> platformCredentialIds.add(pc.getId()));
+
+        return new TPM2ProvisionerState(nonce,
+                claimValidation.device().getId(),
+                claimValidation.summaryId(),
+                identityClaim.getEkPublicArea().toByteArray(),
+                identityClaim.getAkPublicArea().toByteArray(),
+                identityClaim.hasLdevidPublicArea() ? identityClaim.getLdevidPublicArea().toByteArray() : null,
+                claimValidation.endorsementCredential() == null
+                        ? null : claimValidation.endorsementCredential().getId(),
+                platformCredentialIds);
+    }
+
+    /**
+     * Outcome of the supply chain validation of an identity claim.
+     *
+     * @param validationResult      the {@link AppraisalStatus} of the supply chain validation
+     * @param device                the device that sent the identity claim
+     * @param summaryId             id of the supply chain validation summary
+     * @param endorsementCredential the validated endorsement credential, or null
+     * @param platformCredentials   the validated platform credentials
+     */
+    private record ClaimValidation(AppraisalStatus.Status validationResult, Device device, UUID summaryId,
+                                   EndorsementCredential endorsementCredential,
+                                   List<PlatformCredential> platformCredentials) {
     }
 }
@@ -5,11 +5,15 @@ import hirs.attestationca.persist.entity.tpm.TPM2ProvisionerState;
 import lombok.extern.log4j.Log4j2;
 import org.bouncycastle.util.Arrays;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.IOException;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Service class responsible for handling and processing the TPM2 Provisioner State.
@@ -18,15 +22,21 @@ import java.io.IOException;
 @Log4j2
 public class Tpm2ProvisionerStateService {
     private final TPM2ProvisionerStateRepository tpm2ProvisionerStateRepository;
+    private final long sessionTimeToLiveSeconds;
 
     /**
      * Constructor.
      *
      * @param tpm2ProvisionerStateRepository TPM2 Provisioner State Repository
+     * @param sessionTimeToLiveSeconds       number of seconds a client has to send its certificate request
+     *                                       after its identity claim was accepted
      */
     @Autowired
-    public Tpm2ProvisionerStateService(final TPM2ProvisionerStateRepository tpm2ProvisionerStateRepository) {
+    public Tpm2ProvisionerStateService(final TPM2ProvisionerStateRepository tpm2ProvisionerStateRepository,
+                                       @Value("${aca.provision.session-ttl-seconds:900}")
+                                       final long sessionTimeToLiveSeconds) {
         this.tpm2ProvisionerStateRepository = tpm2ProvisionerStateRepository;
+        this.sessionTimeToLiveSeconds = sessionTimeToLiveSeconds;
     }
 
     /**
@@ -43,6 +53,11 @@ public class Tpm2ProvisionerStateService {
                     tpm2ProvisionerStateRepository.findByFirstPartOfNonce(firstPartOfNonce);
 
             if (stateFound != null && Arrays.areEqual(stateFound.getNonce(), nonce)) {
+                if (stateFound.isExpired(new Date())) {
+                    log.warn("Provisioning session for device {} has expired", stateFound.getDeviceId());
+                    tpm2ProvisionerStateRepository.delete(stateFound);
+                    return null;
+                }
                 return stateFound;
             }
         } catch (IOException ioEx) {
@@ -62,11 +77,25 @@ public class Tpm2ProvisionerStateService {
     }
 
     /**
-     * Save the provided {@link TPM2ProvisionerState} object to the database.
+     * Save the provided {@link TPM2ProvisionerState} object to the database. The state expires once the
+     * configured session time to live has elapsed.
      *
      * @param tpm2ProvisionerStateToBeSaved TPM2 Provisioner State that will be saved
      */
     public void saveTPM2ProvisionerState(final TPM2ProvisionerState tpm2ProvisionerStateToBeSaved) {
+        tpm2ProvisionerStateToBeSaved.setExpiresAt(new Date(System.currentTimeMillis()
+                + TimeUnit.SECONDS.toMillis(sessionTimeToLiveSeconds)));
         tpm2ProvisionerStateRepository.save(tpm2ProvisionerStateToBeSaved);
     }
+
+    /**
+     * Deletes the {@link TPM2ProvisionerState} objects of clients that never sent their certificate request.
+     */
+    @Scheduled(fixedDelayString = "${aca.provision.session-reaper-interval-ms:300000}")
+    public void deleteExpiredTPM2ProvisionerStates() {
+        final int deleted = tpm2ProvisionerStateRepository.deleteExpired(new Date());
+        if (deleted > 0) {
+            log.info("Deleted {} expired provisioning sessions", deleted);
+        }
+    }
 }
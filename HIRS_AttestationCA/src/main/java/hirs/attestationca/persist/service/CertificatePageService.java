@@ -1,24 +1,27 @@
 package hirs.attestationca.persist.service;
 
 import hirs.attestationca.persist.entity.manager.CertificateRepository;
+import hirs.attestationca.persist.entity.manager.CertificateRepository.CertificateFile;
 import hirs.attestationca.persist.entity.manager.ComponentResultRepository;
 import hirs.attestationca.persist.entity.userdefined.Certificate;
 import hirs.attestationca.persist.entity.userdefined.DataTablesColumn;
 import hirs.attestationca.persist.entity.userdefined.DownloadFile;
 import hirs.attestationca.persist.entity.userdefined.certificate.CertificateAuthorityCredential;
 import hirs.attestationca.persist.entity.userdefined.certificate.ComponentResult;
+import hirs.attestationca.persist.entity.userdefined.certificate.EndorsementCredential;
+import hirs.attestationca.persist.entity.userdefined.certificate.IDevIDCertificate;
+import hirs.attestationca.persist.entity.userdefined.certificate.IssuedAttestationCertificate;
 import hirs.attestationca.persist.entity.userdefined.certificate.PlatformCredential;
 import hirs.attestationca.persist.entity.userdefined.certificate.attributes.ComponentIdentifier;
 import hirs.attestationca.persist.entity.userdefined.certificate.attributes.V2.ComponentIdentifierV2;
 import hirs.attestationca.persist.enums.CertificateType;
+import hirs.attestationca.persist.service.util.CriteriaPageQuery;
 import hirs.attestationca.persist.service.util.PageServiceUtils;
 import hirs.attestationca.persist.service.util.PredicateFactory;
 import hirs.attestationca.persist.util.CredentialHelper;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
-import jakarta.persistence.TypedQuery;
 import jakarta.persistence.criteria.CriteriaBuilder;
-import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.Order;
 import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
@@ -27,7 +30,7 @@ import lombok.extern.log4j.Log4j2;
 import org.bouncycastle.util.encoders.DecoderException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
@@ -56,6 +59,17 @@ import java.util.zip.ZipOutputStream;
 @Log4j2
 @Service
 public class CertificatePageService {
+
+    /**
+     * Number of certificates read at a time when packaging certificates into a zip file.
+     */
+    private static final int BULK_DOWNLOAD_PAGE_SIZE = 100;
+
+    /**
+     * Lowest possible id, used to read the first page of certificates.
+     */
+    private static final UUID FIRST_ID = new UUID(0L, 0L);
+
     private final CertificateRepository certificateRepository;
     private final ComponentResultRepository componentResultRepository;
     private final EntityManager entityManager;
@@ -94,32 +108,21 @@ public class CertificatePageService {
             final String globalSearchTerm,
             final boolean archiveFlag,
             final Pageable pageable) {
-        CriteriaBuilder criteriaBuilder = this.entityManager.getCriteriaBuilder();
-        CriteriaQuery<T> query = criteriaBuilder.createQuery(entityClass);
-        Root<T> certificateRoot = query.from(entityClass);
-
-        final Predicate combinedGlobalSearchPredicates =
-                createPredicatesForGlobalSearch(searchableColumnNames, criteriaBuilder, certificateRoot,
-                        globalSearchTerm);
-
-        // Define the conditions (predicates) for the query's WHERE clause.
-        query.where(criteriaBuilder.and(
-                combinedGlobalSearchPredicates,
-                criteriaBuilder.equal(certificateRoot.get("archiveFlag"), archiveFlag)
-        ));
-
-        // Apply sorting if present in the Pageable
-        query.orderBy(getSortingOrders(criteriaBuilder, certificateRoot, pageable.getSort()));
-
-        // Apply pagination
-        TypedQuery<T> typedQuery = this.entityManager.createQuery(query);
-        int totalRows = typedQuery.getResultList().size();  // Get the total count for pagination
-        typedQuery.setFirstResult((int) pageable.getOffset());
-        typedQuery.setMaxResults(pageable.getPageSize());
-
-        // Wrap the result in a Page object to return pagination info
-        List<T> resultList = typedQuery.getResultList();
-        return new PageImpl<>(resultList, pageable, totalRows);
+        return CriteriaPageQuery.findPage(entityManager, entityClass,
+                (criteriaBuilder, certificateRoot) -> {
+                    final Predicate combinedGlobalSearchPredicates =
+                            createPredicatesForGlobalSearch(searchableColumnNames, criteriaBuilder, certificateRoot,
+                                    globalSearchTerm);
+
+                    // Define the conditions (predicates) for the query's WHERE clause.
+                    return criteriaBuilder.and(
+                            combinedGlobalSearchPredicates,
+                            criteriaBuilder.equal(certificateRoot.get("archiveFlag"), archiveFlag)
+                    );
+                },
+                (criteriaBuilder, certificateRoot) ->
+                        getSortingOrders(criteriaBuilder, certificateRoot, pageable.getSort()),
+                pageable);
     }
 
     /**
@@ -138,32 +141,21 @@ public class CertificatePageService {
             final Set<DataTablesColumn> columnsWithSearchCriteria,
             final boolean archiveFlag,
             final Pageable pageable) {
-        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
-        CriteriaQuery<T> query = criteriaBuilder.createQuery(entityClass);
-        Root<T> certificateRoot = query.from(entityClass);
-
-        final Predicate combinedColumnSearchPredicates =
-                createPredicatesForColumnSpecificSearch(columnsWithSearchCriteria, criteriaBuilder,
-                        certificateRoot);
-
-        // Define the conditions (predicates) for the query's WHERE clause.
-        query.where(criteriaBuilder.and(
-                combinedColumnSearchPredicates,
-                criteriaBuilder.equal(certificateRoot.get("archiveFlag"), archiveFlag)
-        ));
-
-        // Apply sorting if present in the Pageable
-        query.orderBy(getSortingOrders(criteriaBuilder, certificateRoot, pageable.getSort()));
-
-        // Apply pagination
-        TypedQuery<T> typedQuery = entityManager.createQuery(query);
-        int totalRows = typedQuery.getResultList().size();  // Get the total count for pagination
-        typedQuery.setFirstResult((int) pageable.getOffset());
-        typedQuery.setMaxResults(pageable.getPageSize());
-
-        // Wrap the result in a Page object to return pagination info
-        List<T> resultList = typedQuery.getResultList();
-        return new PageImpl<>(resultList, pageable, totalRows);
+        return CriteriaPageQuery.findPage(entityManager, entityClass,
+                (criteriaBuilder, certificateRoot) -> {
+                    final Predicate combinedColumnSearchPredicates =
+                            createPredicatesForColumnSpecificSearch(columnsWithSearchCriteria, criteriaBuilder,
+                                    certificateRoot);
+
+                    // Define the conditions (predicates) for the query's WHERE clause.
+                    return criteriaBuilder.and(
+                            combinedColumnSearchPredicates,
+                            criteriaBuilder.equal(certificateRoot.get("archiveFlag"), archiveFlag)
+                    );
+                },
+                (criteriaBuilder, certificateRoot) ->
+                        getSortingOrders(criteriaBuilder, certificateRoot, pageable.getSort()),
+                pageable);
     }
 
     /**
@@ -195,39 +187,27 @@ public class CertificatePageService {
             final Set<DataTablesColumn> columnsWithSearchCriteria,
             final boolean archiveFlag,
             final Pageable pageable) {
-        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
-        CriteriaQuery<T> query = criteriaBuilder.createQuery(entityClass);
-        Root<T> certificateRoot = query.from(entityClass);
-
-        final Predicate globalSearchPartOfChainedPredicates =
-                createPredicatesForGlobalSearch(searchableColumnNames, criteriaBuilder, certificateRoot,
-                        globalSearchTerm);
-
-        final Predicate columnSearchPartOfChainedPredicates =
-                createPredicatesForColumnSpecificSearch(columnsWithSearchCriteria, criteriaBuilder,
-                        certificateRoot);
-
-        // Define the conditions (predicates) for the query's WHERE clause.
-        // Combine global and column-specific predicates using AND logic
-        query.where(criteriaBuilder.and(
-                globalSearchPartOfChainedPredicates,
-                columnSearchPartOfChainedPredicates,
-                criteriaBuilder.equal(certificateRoot.get("archiveFlag"), archiveFlag)
-        ));
-
-        // Apply sorting if present in the Pageable
-        query.orderBy(getSortingOrders(criteriaBuilder, certificateRoot, pageable.getSort()));
-
-        // Apply pagination
-        TypedQuery<T> typedQuery = entityManager.createQuery(query);
-        int totalRows = typedQuery.getResultList().size();  // Get the total count for pagination
-        typedQuery.setFirstResult((int) pageable.getOffset());
-        typedQuery.setMaxResults(pageable.getPageSize());
-
-        // Wrap the result in a Page object to return pagination info
-        List<T> resultList = typedQuery.getResultList();
-        return new PageImpl<>(resultList, pageable, totalRows);
-
+        return CriteriaPageQuery.findPage(entityManager, entityClass,
+                (criteriaBuilder, certificateRoot) -> {
+                    final Predicate globalSearchPartOfChainedPredicates =
+                            createPredicatesForGlobalSearch(searchableColumnNames, criteriaBuilder, certificateRoot,
+                                    globalSearchTerm);
+
+                    final Predicate columnSearchPartOfChainedPredicates =
+                            createPredicatesForColumnSpecificSearch(columnsWithSearchCriteria, criteriaBuilder,
+                                    certificateRoot);
+
+                    // Define the conditions (predicates) for the query's WHERE clause.
+                    // Combine global and column-specific predicates using AND logic
+                    return criteriaBuilder.and(
+                            globalSearchPartOfChainedPredicates,
+                            columnSearchPartOfChainedPredicates,
+                            criteriaBuilder.equal(certificateRoot.get("archiveFlag"), archiveFlag)
+                    );
+                },
+                (criteriaBuilder, certificateRoot) ->
+                        getSortingOrders(criteriaBuilder, certificateRoot, pageable.getSort()),
+                pageable);
     }
 
     /**
@@ -413,6 +393,8 @@ public class CertificatePageService {
 
     /**
      * Packages a collection of {@link Certificate} objects into a zip file for download.
+     * The certificates are read a page at a time, and only their hash and bytes, so that memory use does not
+     * grow with the number of certificates.
      *
      * @param zipOut          zip outputs stream
      * @param singleFileName  zip file name
@@ -422,20 +404,32 @@ public class CertificatePageService {
     public void bulkDownloadCertificates(final ZipOutputStream zipOut,
                                          final CertificateType certificateType,
                                          final String singleFileName) throws IOException {
+        final Class<? extends Certificate> certificateClass = getCertificateClass(certificateType);
+        final Pageable downloadPage = PageRequest.ofSize(BULK_DOWNLOAD_PAGE_SIZE);
         String zipFileName;
 
-        final List<Certificate> certificates =
-                this.certificateRepository.findByType(certificateType.getCertificateTypeName());
-
-        for (Certificate certificate : certificates) {
-            zipFileName = String.format("%s[%s].cer", singleFileName,
-                    Integer.toHexString(certificate.getCertificateHash()));
-            ZipEntry zipEntry = new ZipEntry(zipFileName);
-            zipEntry.setSize((long) certificate.getRawBytes().length * Byte.SIZE);
-            zipEntry.setTime(System.currentTimeMillis());
-            zipOut.putNextEntry(zipEntry);
-            StreamUtils.copy(certificate.getRawBytes(), zipOut);
-            zipOut.closeEntry();
+        List<CertificateFile> certificates =
+                this.certificateRepository.findCertificateFiles(certificateClass, FIRST_ID, downloadPage);
+
+        while (!certificates.isEmpty()) {
+            for (CertificateFile certificate : certificates) {
+                zipFileName = String.format("%s[%s].cer", singleFileName,
+                        Integer.toHexString(certificate.getCertificateHash()));
+                ZipEntry zipEntry = new ZipEntry(zipFileName);
+                zipEntry.setSize((long) certificate.getRawBytes().length * Byte.SIZE);
+                zipEntry.setTime(System.currentTimeMillis());
+                zipOut.putNextEntry(zipEntry);
+                StreamUtils.copy(certificate.getRawBytes(), zipOut);
+                zipOut.closeEntry();
+            }
+
+            if (certificates.size() < BULK_DOWNLOAD_PAGE_SIZE) {
+                break;
+            }
+
+            // continue after the last certificate written rather than counting an offset from the start
+            certificates = this.certificateRepository.findCertificateFiles(certificateClass,
+                    certificates.getLast().getId(), downloadPage);
         }
         zipOut.finish();
     }
@@ -769,4 +763,21 @@ public class CertificatePageService {
             this.componentResultRepository.save(componentResult);
         }
     }
+
+    /**
+     * Helper method that returns the {@link Certificate} class stored in the database for the provided
+     * certificate type.
+     *
+     * @param certificateType certificate type
+     * @return certificate class
+     */
+    private static Class<? extends Certificate> getCertificateClass(final CertificateType certificateType) {
+        return switch (certificateType) {
+            case PLATFORM_CERTIFICATE -> PlatformCredential.class;
+            case ENDORSEMENT_CERTIFICATE -> EndorsementCredential.class;
+            case IDEVID_CERTIFICATE -> IDevIDCertificate.class;
+            case ISSUED_CERTIFICATE -> IssuedAttestationCertificate.class;
+            case TRUST_CHAIN_CERTIFICATE -> CertificateAuthorityCredential.class;
+        };
+    }
 }
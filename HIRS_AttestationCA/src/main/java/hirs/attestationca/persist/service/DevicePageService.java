@@ -1,20 +1,19 @@
 package hirs.attestationca.persist.service;
 
+import com.google.common.collect.Lists;
+import hirs.attestationca.persist.entity.manager.CertificateRepository;
+import hirs.attestationca.persist.entity.manager.CertificateRepository.DeviceCertificateReference;
 import hirs.attestationca.persist.entity.manager.DeviceRepository;
-import hirs.attestationca.persist.entity.manager.EndorsementCertificateRepository;
-import hirs.attestationca.persist.entity.manager.IssuedCertificateRepository;
-import hirs.attestationca.persist.entity.manager.PlatformCertificateRepository;
 import hirs.attestationca.persist.entity.userdefined.DataTablesColumn;
 import hirs.attestationca.persist.entity.userdefined.Device;
 import hirs.attestationca.persist.entity.userdefined.FilteredRecordsList;
 import hirs.attestationca.persist.entity.userdefined.certificate.EndorsementCredential;
 import hirs.attestationca.persist.entity.userdefined.certificate.IssuedAttestationCertificate;
 import hirs.attestationca.persist.entity.userdefined.certificate.PlatformCredential;
+import hirs.attestationca.persist.service.util.CriteriaPageQuery;
 import hirs.attestationca.persist.service.util.PredicateFactory;
 import jakarta.persistence.EntityManager;
-import jakarta.persistence.TypedQuery;
 import jakarta.persistence.criteria.CriteriaBuilder;
-import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.Order;
 import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
@@ -22,17 +21,20 @@ import jakarta.persistence.criteria.Root;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 /**
  * Service class responsible for encapsulating all business logic related to the Device Page.
@@ -40,31 +42,37 @@ import java.util.UUID;
 @Service
 @Log4j2
 public class DevicePageService {
+    /**
+     * Maximum number of device ids sent in a single certificate lookup, so that "Show All Rows"
+     * doesn't produce an unbounded IN list.
+     */
+    private static final int QUERY_BATCH_SIZE = 500;
+
+    /**
+     * Device table keys of the certificate id sets, by certificate type.
+     */
+    private static final Map<String, String> CERTIFICATE_ID_KEYS = Map.of(
+            PlatformCredential.class.getSimpleName(), "PlatformCertificateIds",
+            EndorsementCredential.class.getSimpleName(), "EndorsementCertificateIds",
+            IssuedAttestationCertificate.class.getSimpleName(), "IssuedCertificateIds");
+
     private final DeviceRepository deviceRepository;
-    private final PlatformCertificateRepository platformCertificateRepository;
-    private final EndorsementCertificateRepository endorsementCertificateRepository;
-    private final IssuedCertificateRepository issuedCertificateRepository;
+    private final CertificateRepository certificateRepository;
     private final EntityManager entityManager;
 
     /**
      * Constructor for Device Page Service.
      *
-     * @param deviceRepository                 device repository
-     * @param platformCertificateRepository    platform certificate repository
-     * @param endorsementCertificateRepository endorsement certificate repository
-     * @param issuedCertificateRepository      issued certificate repository
-     * @param entityManager                    entity manager
+     * @param deviceRepository      device repository
+     * @param certificateRepository certificate repository
+     * @param entityManager         entity manager
      */
     @Autowired
     public DevicePageService(final DeviceRepository deviceRepository,
-                             final PlatformCertificateRepository platformCertificateRepository,
-                             final EndorsementCertificateRepository endorsementCertificateRepository,
-                             final IssuedCertificateRepository issuedCertificateRepository,
+                             final CertificateRepository certificateRepository,
                              final EntityManager entityManager) {
         this.deviceRepository = deviceRepository;
-        this.platformCertificateRepository = platformCertificateRepository;
-        this.endorsementCertificateRepository = endorsementCertificateRepository;
-        this.issuedCertificateRepository = issuedCertificateRepository;
+        this.certificateRepository = certificateRepository;
         this.entityManager = entityManager;
     }
 
@@ -81,29 +89,17 @@ public class DevicePageService {
             final Set<String> searchableColumnNames,
             final String globalSearchTerm,
             final Pageable pageable) {
-        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
-        CriteriaQuery<Device> query = criteriaBuilder.createQuery(Device.class);
-        Root<Device> deviceRoot = query.from(Device.class);
-
-        final Predicate combinedGlobalSearchPredicates =
-                createPredicatesForGlobalSearch(searchableColumnNames, criteriaBuilder, deviceRoot,
-                        globalSearchTerm);
-
-        // Define the conditions (predicates) for the query's WHERE clause.
-        query.where(criteriaBuilder.and(combinedGlobalSearchPredicates));
-
-        // Apply sorting if present in the Pageable
-        query.orderBy(getSortingOrders(criteriaBuilder, deviceRoot, pageable.getSort()));
-
-        // Apply pagination
-        TypedQuery<Device> typedQuery = entityManager.createQuery(query);
-        int totalRows = typedQuery.getResultList().size();  // Get the total count for pagination
-        typedQuery.setFirstResult((int) pageable.getOffset());
-        typedQuery.setMaxResults(pageable.getPageSize());
-
-        // Wrap the result in a Page object to return pagination info
-        List<Device> resultList = typedQuery.getResultList();
-        return new PageImpl<>(resultList, pageable, totalRows);
+        return CriteriaPageQuery.findPage(entityManager, Device.class,
+                (criteriaBuilder, deviceRoot) -> {
+                    final Predicate combinedGlobalSearchPredicates =
+                            createPredicatesForGlobalSearch(searchableColumnNames, criteriaBuilder, deviceRoot,
+                                    globalSearchTerm);
+
+                    // Define the conditions (predicates) for the query's WHERE clause.
+                    return criteriaBuilder.and(combinedGlobalSearchPredicates);
+                },
+                (criteriaBuilder, deviceRoot) -> getSortingOrders(criteriaBuilder, deviceRoot, pageable.getSort()),
+                pageable);
     }
 
 
@@ -118,29 +114,17 @@ public class DevicePageService {
     public Page<Device> findDevicesByColumnSpecificSearchTerm(
             final Set<DataTablesColumn> columnsWithSearchCriteria,
             final Pageable pageable) {
-        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
-        CriteriaQuery<Device> query = criteriaBuilder.createQuery(Device.class);
-        Root<Device> deviceRoot = query.from(Device.class);
-
-        final Predicate combinedColumnSearchPredicates =
-                createPredicatesForColumnSpecificSearch(columnsWithSearchCriteria, criteriaBuilder,
-                        deviceRoot);
-
-        // Define the conditions (predicates) for the query's WHERE clause.
-        query.where(criteriaBuilder.and(combinedColumnSearchPredicates));
-
-        // Apply sorting if present in the Pageable
-        query.orderBy(getSortingOrders(criteriaBuilder, deviceRoot, pageable.getSort()));
-
-        // Apply pagination
-        TypedQuery<Device> typedQuery = entityManager.createQuery(query);
-        int totalRows = typedQuery.getResultList().size();  // Get the total count for pagination
-        typedQuery.setFirstResult((int) pageable.getOffset());
-        typedQuery.setMaxResults(pageable.getPageSize());
-
-        // Wrap the result in a Page object to return pagination info
-        List<Device> resultList = typedQuery.getResultList();
-        return new PageImpl<>(resultList, pageable, totalRows);
+        return CriteriaPageQuery.findPage(entityManager, Device.class,
+                (criteriaBuilder, deviceRoot) -> {
+                    final Predicate combinedColumnSearchPredicates =
+                            createPredicatesForColumnSpecificSearch(columnsWithSearchCriteria, criteriaBuilder,
+                                    deviceRoot);
+
+                    // Define the conditions (predicates) for the query's WHERE clause.
+                    return criteriaBuilder.and(combinedColumnSearchPredicates);
+                },
+                (criteriaBuilder, deviceRoot) -> getSortingOrders(criteriaBuilder, deviceRoot, pageable.getSort()),
+                pageable);
     }
 
 
@@ -169,35 +153,23 @@ public class DevicePageService {
             final String globalSearchTerm,
             final Set<DataTablesColumn> columnsWithSearchCriteria,
             final Pageable pageable) {
-        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
-        CriteriaQuery<Device> query = criteriaBuilder.createQuery(Device.class);
-        Root<Device> deviceRoot = query.from(Device.class);
-
-        final Predicate globalSearchPartOfChainedPredicates =
-                createPredicatesForGlobalSearch(searchableColumnNames, criteriaBuilder, deviceRoot,
-                        globalSearchTerm);
-
-        final Predicate columnSearchPartOfChainedPredicates =
-                createPredicatesForColumnSpecificSearch(columnsWithSearchCriteria, criteriaBuilder,
-                        deviceRoot);
-
-        // Define the conditions (predicates) for the query's WHERE clause.
-        // Combine global and column-specific predicates using AND logic
-        query.where(criteriaBuilder.and(globalSearchPartOfChainedPredicates,
-                columnSearchPartOfChainedPredicates));
-
-        // Apply sorting if present in the Pageable
-        query.orderBy(getSortingOrders(criteriaBuilder, deviceRoot, pageable.getSort()));
-
-        // Apply pagination
-        TypedQuery<Device> typedQuery = entityManager.createQuery(query);
-        int totalRows = typedQuery.getResultList().size();  // Get the total count for pagination
-        typedQuery.setFirstResult((int) pageable.getOffset());
-        typedQuery.setMaxResults(pageable.getPageSize());
-
-        // Wrap the result in a Page object to return pagination info
-        List<Device> resultList = typedQuery.getResultList();
-        return new PageImpl<>(resultList, pageable, totalRows);
+        return CriteriaPageQuery.findPage(entityManager, Device.class,
+                (criteriaBuilder, deviceRoot) -> {
+                    final Predicate globalSearchPartOfChainedPredicates =
+                            createPredicatesForGlobalSearch(searchableColumnNames, criteriaBuilder, deviceRoot,
+                                    globalSearchTerm);
+
+                    final Predicate columnSearchPartOfChainedPredicates =
+                            createPredicatesForColumnSpecificSearch(columnsWithSearchCriteria, criteriaBuilder,
+                                    deviceRoot);
+
+                    // Define the conditions (predicates) for the query's WHERE clause.
+                    // Combine global and column-specific predicates using AND logic
+                    return criteriaBuilder.and(globalSearchPartOfChainedPredicates,
+                            columnSearchPartOfChainedPredicates);
+                },
+                (criteriaBuilder, deviceRoot) -> getSortingOrders(criteriaBuilder, deviceRoot, pageable.getSort()),
+                pageable);
     }
 
 
@@ -221,8 +193,9 @@ public class DevicePageService {
     }
 
     /**
-     * Returns a map of {@link Device} objects with their associated {@link PlatformCredential} and
-     * {@link EndorsementCredential} objects.
+     * Returns a map of {@link Device} objects with their associated {@link PlatformCredential},
+     * {@link EndorsementCredential} and {@link IssuedAttestationCertificate} ids. The ids of the
+     * whole page are retrieved at once, rather than loading each device's certificates.
      *
      * @param deviceList a filtered list of {@link Device} objects
      * @return a filtered map of {@link Device} objects and associated certificates.
@@ -231,8 +204,8 @@ public class DevicePageService {
             final FilteredRecordsList<Device> deviceList) {
         FilteredRecordsList<HashMap<String, Object>> records = new FilteredRecordsList<>();
 
-        // hashmap containing the device-certificate relationship
-        HashMap<String, Object> deviceCertMap = new HashMap<>();
+        final Map<UUID, List<DeviceCertificateReference>> certificatesByDevice =
+                findCertificateReferencesByDevice(deviceList);
 
         for (Device device : deviceList) {
             if (device == null) {
@@ -244,21 +217,20 @@ public class DevicePageService {
             // as the value
             HashMap<String, Set<UUID>> certificatePropertyMap = new HashMap<>();
 
-            deviceCertMap.put("device", device);
-
-            // create a new entry for platform certificates associated with the current device in the map
-            addPlatformCertificateEntryToDeviceMap(device, certificatePropertyMap);
-
-            // create a new entry for the endorsement certificate associated with the current device in the map
-            addEndorsementCertificateEntryToDeviceMap(device, certificatePropertyMap);
-
-            // create a new entry for issued certificates associated with the current device in the map
-            addIssuedCertificateEntryToDeviceMap(device, certificatePropertyMap);
+            for (DeviceCertificateReference certificate
+                    : certificatesByDevice.getOrDefault(device.getId(), Collections.emptyList())) {
+                // verify that the certificate is associated with this device
+                if (device.getName().equals(certificate.getDeviceName())) {
+                    // if there is not an entry for this certificate type already in the map, create a new set
+                    certificatePropertyMap.computeIfAbsent(CERTIFICATE_ID_KEYS.get(certificate.getCertificateType()),
+                            _ -> new HashSet<>()).add(certificate.getId());  // Add the new ID to the set
+                }
+            }
 
-            // add the device-certificate map to the record
-            deviceCertMap.putAll(certificatePropertyMap);
-            records.add(new HashMap<>(deviceCertMap));
-            deviceCertMap.clear();
+            // hashmap containing the device-certificate relationship
+            HashMap<String, Object> deviceCertMap = new HashMap<>(certificatePropertyMap);
+            deviceCertMap.put("device", device);
+            records.add(deviceCertMap);
         }
 
         // set pagination values
@@ -268,80 +240,27 @@ public class DevicePageService {
     }
 
     /**
-     * Helper method that attempts to find all the {@link PlatformCredential} objects that are associated with the
-     * provided {@link Device} object and add a new entry to the device-certificate hash map for Platform Certificate
-     * IDs.
+     * Helper method that retrieves the ids of the certificates associated with the provided devices,
+     * grouped by device id.
      *
-     * @param device                 {@link Device} object
-     * @param certificatePropertyMap hash map of the certificate type and list of associated certificate IDs
+     * @param deviceList list of {@link Device} objects
+     * @return map of device ids to the references of their certificates
      */
-    private void addPlatformCertificateEntryToDeviceMap(final Device device,
-                                                        final HashMap<String, Set<UUID>> certificatePropertyMap) {
-        // find all platform certificates associated with this device id
-        final List<PlatformCredential> platformCertificateList =
-                platformCertificateRepository.findByDeviceId(device.getId());
-
-        final String platformCertificateIdsKey = "PlatformCertificateIds";
-
-        for (PlatformCredential pc : platformCertificateList) {
-            // verify that the platform certificate is associated with this device
-            if (device.getName().equals(pc.getDeviceName())) {
-                // if there is not a platform certificate entry already in the map, create a new set
-                certificatePropertyMap.computeIfAbsent(platformCertificateIdsKey, _ -> new HashSet<>())
-                        .add(pc.getId());  // Add the new ID to the set
-            }
-        }
-    }
-
-    /**
-     * Helper method that attempts to find all the {@link EndorsementCredential} objects that are associated with the
-     * provided device and add a new entry to the device-certificate hash map for Endorsement Certificate IDs.
-     *
-     * @param device                 {@link Device} object
-     * @param certificatePropertyMap hash map of the certificate type and list of associated certificate IDs
-     */
-    private void addEndorsementCertificateEntryToDeviceMap(final Device device,
-                                                           final HashMap<String, Set<UUID>> certificatePropertyMap) {
-        // find all endorsement certificates associated with this device id
-        final List<EndorsementCredential> endorsementCertificateList =
-                endorsementCertificateRepository.findByDeviceId(device.getId());
-
-        final String endorsementCertificateIdsKey = "EndorsementCertificateIds";
-
-        for (EndorsementCredential ec : endorsementCertificateList) {
-            // verify that the endorsement certificate is associated with this device
-            if (device.getName().equals(ec.getDeviceName())) {
-                // if there is not an endorsement certificate entry already in the map, create a new set
-                certificatePropertyMap.computeIfAbsent(endorsementCertificateIdsKey, _ -> new HashSet<>())
-                        .add(ec.getId());  // Add the new ID to the set
+    private Map<UUID, List<DeviceCertificateReference>> findCertificateReferencesByDevice(
+            final List<Device> deviceList) {
+        final Set<UUID> deviceIds = new LinkedHashSet<>();
+        for (Device device : deviceList) {
+            if (device != null && device.getId() != null) {
+                deviceIds.add(device.getId());
             }
         }
-    }
 
-    /**
-     * Helper method that attempts to find all the {@link IssuedAttestationCertificate} objects that are associated with
-     * the provided {@link Device} object and add a new entry to the device-certificate hash map for
-     * Issued Certificate IDs.
-     *
-     * @param device                 {@link Device} object
-     * @param certificatePropertyMap hash map of the certificate type and list of associated certificate IDs
-     */
-    private void addIssuedCertificateEntryToDeviceMap(final Device device,
-                                                      final HashMap<String, Set<UUID>> certificatePropertyMap) {
-        // find all issued certificates associated with this device id
-        final List<IssuedAttestationCertificate> issuedCertificateList =
-                issuedCertificateRepository.findByDeviceId(device.getId());
-
-        final String issuedCertificatesIdsKey = "IssuedCertificateIds";
-
-        for (IssuedAttestationCertificate ic : issuedCertificateList) {
-            // verify that the issued certificate is associated with this device
-            if (device.getName().equals(ic.getDeviceName())) {
-                // if there is not an issued certificate entry already in the map, create a new set
-                certificatePropertyMap.computeIfAbsent(issuedCertificatesIdsKey, _ -> new HashSet<>())
-                        .add(ic.getId());  // Add the new ID to the set
-            }
+        final List<DeviceCertificateReference> certificates = new ArrayList<>();
+        for (List<UUID> batch : Lists.partition(new ArrayList<>(deviceIds), QUERY_BATCH_SIZE)) {
+            certificates.addAll(certificateRepository.findDeviceCertificateReferences(batch));
         }
+        return certificates.stream()
+                .collect(Collectors.groupingBy(DeviceCertificateReference::getDeviceId));
     }
 
     /**
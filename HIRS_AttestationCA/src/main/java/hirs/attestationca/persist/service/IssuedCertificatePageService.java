@@ -8,6 +8,11 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
 /**
  * Service class responsible for encapsulating all business logic related to the Issued Certificates Page.
  */
@@ -39,6 +44,29 @@ public class IssuedCertificatePageService {
         return issuedCertificateRepository.findByArchiveFlag(archiveFlag, pageable);
     }
 
+    /**
+     * Loads the endorsement and platform credentials of the provided {@link IssuedAttestationCertificate} objects
+     * in a single query rather than one query per certificate.
+     *
+     * @param issuedCertificates a page of {@link IssuedAttestationCertificate} objects
+     * @return the same {@link IssuedAttestationCertificate} objects, in the same order, with their credentials
+     * loaded
+     */
+    public List<IssuedAttestationCertificate> loadCredentials(
+            final List<IssuedAttestationCertificate> issuedCertificates) {
+        if (issuedCertificates.isEmpty()) {
+            return issuedCertificates;
+        }
+        Map<UUID, IssuedAttestationCertificate> certificatesById = new HashMap<>();
+        for (IssuedAttestationCertificate certificate : issuedCertificateRepository.findByIdIn(
+                issuedCertificates.stream().map(IssuedAttestationCertificate::getId).toList())) {
+            certificatesById.put(certificate.getId(), certificate);
+        }
+        return issuedCertificates.stream()
+                .map(certificate -> certificatesById.getOrDefault(certificate.getId(), certificate))
+                .toList();
+    }
+
     /**
      * Retrieves the total number of records stored in the {@link IssuedCertificateRepository}.
      *
@@ -2,6 +2,7 @@ package hirs.attestationca.persist.service;
 
 import hirs.attestationca.persist.entity.manager.PolicyRepository;
 import hirs.attestationca.persist.entity.userdefined.PolicySettings;
+import hirs.attestationca.persist.validation.PolicySettingsCache;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -13,15 +14,19 @@ import org.springframework.stereotype.Service;
 @Service
 public class PolicyPageService {
     private final PolicyRepository policyRepository;
+    private final PolicySettingsCache policySettingsCache;
 
     /**
      * Constructor for the Policy Page Service.
      *
-     * @param policyRepository policy repository
+     * @param policyRepository    policy repository
+     * @param policySettingsCache policy settings cache
      */
     @Autowired
-    public PolicyPageService(final PolicyRepository policyRepository) {
+    public PolicyPageService(final PolicyRepository policyRepository,
+                             final PolicySettingsCache policySettingsCache) {
         this.policyRepository = policyRepository;
+        this.policySettingsCache = policySettingsCache;
 
         if (this.policyRepository.findByName("Default") == null) {
             this.policyRepository.saveAndFlush(new PolicySettings("Default",
@@ -47,7 +52,7 @@ public class PolicyPageService {
 
         policySettings.setEcValidationEnabled(isEcValidationOptionEnabled);
 
-        policyRepository.saveAndFlush(policySettings);
+        savePolicy(policySettings);
 
         log.debug("Current ACA Policy after updating the Endorsement Certificate "
                 + "Validation policy: {}", policySettings);
@@ -77,7 +82,7 @@ public class PolicyPageService {
             policySettings.setPcAttributeValidationEnabled(false);
         }
 
-        policyRepository.saveAndFlush(policySettings);
+        savePolicy(policySettings);
 
         log.debug("Current ACA Policy after updating the Platform Certificate Validation "
                 + "policy: {}", policySettings);
@@ -110,7 +115,7 @@ public class PolicyPageService {
             policySettings.setIgnoreRevisionEnabled(false);
         }
 
-        policyRepository.saveAndFlush(policySettings);
+        savePolicy(policySettings);
 
         log.debug("Current ACA Policy after updating the Platform Certificate "
                 + "Attribute Validation policy: {}", policySettings);
@@ -137,7 +142,7 @@ public class PolicyPageService {
 
         policySettings.setIgnoreRevisionEnabled(isIgnoreRevisionAttributeOptionEnabled);
 
-        policyRepository.saveAndFlush(policySettings);
+        savePolicy(policySettings);
 
         log.debug("Current ACA Policy after updating the Ignore component revision Attribute"
                 + " option policy: {}", policySettings);
@@ -164,7 +169,7 @@ public class PolicyPageService {
 
         policySettings.setIgnorePcieVpdEnabled(isIgnorePcieVpdOptionEnabled);
 
-        policyRepository.saveAndFlush(policySettings);
+        savePolicy(policySettings);
 
         log.debug("Current ACA Policy after updating the Ignore PCIE VPD policy: {}", policySettings);
 
@@ -196,7 +201,7 @@ public class PolicyPageService {
             policySettings.setIgnoreOsEvtEnabled(false);
         }
 
-        policyRepository.saveAndFlush(policySettings);
+        savePolicy(policySettings);
 
         log.debug("Current ACA Policy after updating the Firmware Validation policy: {}", policySettings);
 
@@ -220,7 +225,7 @@ public class PolicyPageService {
 
         policySettings.setIgnoreImaEnabled(isIgnoreImaOptionEnabled);
 
-        policyRepository.saveAndFlush(policySettings);
+        savePolicy(policySettings);
 
         log.debug("Current ACA Policy after updating the Ignore IMA policy:"
                 + " {}", policySettings);
@@ -246,7 +251,7 @@ public class PolicyPageService {
 
         policySettings.setIgnoretBootEnabled(isIgnoreTbootOptionEnabled);
 
-        policyRepository.saveAndFlush(policySettings);
+        savePolicy(policySettings);
 
         log.debug("Current ACA Policy after updating the Ignore TBoot policy:"
                 + " {}", policySettings);
@@ -272,7 +277,7 @@ public class PolicyPageService {
 
         policySettings.setIgnoreGptEnabled(isIgnoreGptOptionEnabled);
 
-        policyRepository.saveAndFlush(policySettings);
+        savePolicy(policySettings);
 
         log.debug("Current ACA Policy after updating the Ignore GPT events policy:"
                 + " {}", policySettings);
@@ -302,7 +307,7 @@ public class PolicyPageService {
 
         policySettings.setIgnoreOsEvtEnabled(isIgnoreOSEvtOptionEnabled);
 
-        policyRepository.saveAndFlush(policySettings);
+        savePolicy(policySettings);
 
         log.debug("Current ACA Policy after updating the Ignore OS events policy:"
                 + " {}", policySettings);
@@ -325,7 +330,7 @@ public class PolicyPageService {
 
         policySettings.setIssueAttestationCertificateEnabled(isIssuedAttestationOptionEnabled);
 
-        policyRepository.saveAndFlush(policySettings);
+        savePolicy(policySettings);
 
         log.debug("Current ACA Policy after updating the issued attestation Certificate generation "
                 + " policy: {}", policySettings);
@@ -361,7 +366,7 @@ public class PolicyPageService {
             policySettings.setValidityDays(numOfDays);
         }
 
-        policyRepository.saveAndFlush(policySettings);
+        savePolicy(policySettings);
 
         log.debug("Current ACA Policy after updating the attestation Certificate "
                 + "generation expiration value policy: {}", policySettings);
@@ -401,7 +406,7 @@ public class PolicyPageService {
             policySettings.setReissueThreshold(threshold);
         }
 
-        policyRepository.saveAndFlush(policySettings);
+        savePolicy(policySettings);
 
         log.debug("Current ACA Policy after updating the attestation Certificate generation "
                 + "threshold policy: {}", policySettings);
@@ -423,7 +428,7 @@ public class PolicyPageService {
 
         policySettings.setIssueDevIdCertificateEnabled(isLDevIDOptionEnabled);
 
-        policyRepository.saveAndFlush(policySettings);
+        savePolicy(policySettings);
 
         log.debug("Current ACA Policy after updating the LDevID Validation "
                 + " policy: {}", policySettings);
@@ -457,7 +462,7 @@ public class PolicyPageService {
             policySettings.setDevIdValidityDays(numOfDays);
         }
 
-        policyRepository.saveAndFlush(policySettings);
+        savePolicy(policySettings);
 
         log.debug("Current ACA Policy after updating the LDevID Certificate generation expiration "
                 + "value policy: {}", policySettings);
@@ -493,7 +498,7 @@ public class PolicyPageService {
             policySettings.setDevIdReissueThreshold(lDevIDThreshold);
         }
 
-        policyRepository.saveAndFlush(policySettings);
+        savePolicy(policySettings);
 
         log.debug("Current ACA Policy after updating the LDevID Certificate generation "
                 + "threshold policy: {}", policySettings);
@@ -530,7 +535,7 @@ public class PolicyPageService {
                     + "setting the policy to save protobuf data to the ACA log.");
         }
 
-        policyRepository.saveAndFlush(policySettings);
+        savePolicy(policySettings);
 
         log.debug("Current ACA Policy after updating the save protobuf data to ACA log "
                 + "policy: {}", policySettings);
@@ -551,6 +556,16 @@ public class PolicyPageService {
         return defaultSettings;
     }
 
+    /**
+     * Saves the default policy and refreshes the snapshot of it read by provisioning.
+     *
+     * @param policySettings the updated default policy
+     */
+    private void savePolicy(final PolicySettings policySettings) {
+        policyRepository.saveAndFlush(policySettings);
+        policySettingsCache.refresh();
+    }
+
     /**
      * Takes in policy setting states and determines if policy configuration is
      * valid or not. Platform Certificate Attribute Validation must have PC Validation Enabled PC
@@ -5,12 +5,12 @@ import hirs.attestationca.persist.entity.manager.ReferenceManifestRepository;
 import hirs.attestationca.persist.entity.userdefined.DataTablesColumn;
 import hirs.attestationca.persist.entity.userdefined.ReferenceManifest;
 import hirs.attestationca.persist.entity.userdefined.rim.ReferenceDigestValue;
+import hirs.attestationca.persist.service.util.CriteriaPageQuery;
 import hirs.attestationca.persist.service.util.PageServiceUtils;
 import hirs.attestationca.persist.service.util.PredicateFactory;
+import hirs.attestationca.persist.validation.SupportRimCache;
 import jakarta.persistence.EntityManager;
-import jakarta.persistence.TypedQuery;
 import jakarta.persistence.criteria.CriteriaBuilder;
-import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.Order;
 import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
@@ -18,7 +18,6 @@ import jakarta.persistence.criteria.Root;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
@@ -37,6 +36,7 @@ public class ReferenceDigestValuePageService {
     private final ReferenceManifestRepository referenceManifestRepository;
     private final ReferenceDigestValueRepository referenceDigestValueRepository;
     private final EntityManager entityManager;
+    private final SupportRimCache supportRimCache;
 
     /**
      * Constructor for the Reference Digest Value Page Service.
@@ -44,14 +44,17 @@ public class ReferenceDigestValuePageService {
      * @param referenceManifestRepository    reference manifest repository
      * @param referenceDigestValueRepository reference digest value repository
      * @param entityManager                  entity manager
+     * @param supportRimCache                support RIM cache
      */
     @Autowired
     public ReferenceDigestValuePageService(final ReferenceManifestRepository referenceManifestRepository,
                                            final ReferenceDigestValueRepository referenceDigestValueRepository,
-                                           final EntityManager entityManager) {
+                                           final EntityManager entityManager,
+                                           final SupportRimCache supportRimCache) {
         this.referenceManifestRepository = referenceManifestRepository;
         this.referenceDigestValueRepository = referenceDigestValueRepository;
         this.entityManager = entityManager;
+        this.supportRimCache = supportRimCache;
     }
 
     /**
@@ -68,30 +71,19 @@ public class ReferenceDigestValuePageService {
             final Set<String> searchableColumnNames,
             final String globalSearchTerm,
             final Pageable pageable) {
-        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
-        CriteriaQuery<ReferenceDigestValue> query = criteriaBuilder.createQuery(ReferenceDigestValue.class);
-        Root<ReferenceDigestValue> referenceDigestValueRoot = query.from(ReferenceDigestValue.class);
-
-        final Predicate combinedGlobalSearchPredicates =
-                createPredicatesForGlobalSearch(searchableColumnNames, criteriaBuilder,
-                        referenceDigestValueRoot,
-                        globalSearchTerm);
-
-        // Define the conditions (predicates) for the query's WHERE clause.
-        query.where(criteriaBuilder.and(combinedGlobalSearchPredicates));
-
-        // Apply sorting if present in the Pageable
-        query.orderBy(getSortingOrders(criteriaBuilder, referenceDigestValueRoot, pageable.getSort()));
-
-        // Apply pagination
-        TypedQuery<ReferenceDigestValue> typedQuery = entityManager.createQuery(query);
-        int totalRows = typedQuery.getResultList().size();  // Get the total count for pagination
-        typedQuery.setFirstResult((int) pageable.getOffset());
-        typedQuery.setMaxResults(pageable.getPageSize());
-
-        // Wrap the result in a Page object to return pagination info
-        List<ReferenceDigestValue> resultList = typedQuery.getResultList();
-        return new PageImpl<>(resultList, pageable, totalRows);
+        return CriteriaPageQuery.findPage(entityManager, ReferenceDigestValue.class,
+                (criteriaBuilder, referenceDigestValueRoot) -> {
+                    final Predicate combinedGlobalSearchPredicates =
+                            createPredicatesForGlobalSearch(searchableColumnNames, criteriaBuilder,
+                                    referenceDigestValueRoot,
+                                    globalSearchTerm);
+
+                    // Define the conditions (predicates) for the query's WHERE clause.
+                    return criteriaBuilder.and(combinedGlobalSearchPredicates);
+                },
+                (criteriaBuilder, referenceDigestValueRoot) ->
+                        getSortingOrders(criteriaBuilder, referenceDigestValueRoot, pageable.getSort()),
+                pageable);
     }
 
     /**
@@ -106,29 +98,18 @@ public class ReferenceDigestValuePageService {
     public Page<ReferenceDigestValue> findReferenceDigestValuesByColumnSpecificSearchTerm(
             final Set<DataTablesColumn> columnsWithSearchCriteria,
             final Pageable pageable) {
-        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
-        CriteriaQuery<ReferenceDigestValue> query = criteriaBuilder.createQuery(ReferenceDigestValue.class);
-        Root<ReferenceDigestValue> referenceDigestValueRoot = query.from(ReferenceDigestValue.class);
-
-        final Predicate combinedColumnSearchPredicates =
-                createPredicatesForColumnSpecificSearch(columnsWithSearchCriteria, criteriaBuilder,
-                        referenceDigestValueRoot);
-
-        // Define the conditions (predicates) for the query's WHERE clause.
-        query.where(criteriaBuilder.and(combinedColumnSearchPredicates));
-
-        // Apply sorting if present in the Pageable
-        query.orderBy(getSortingOrders(criteriaBuilder, referenceDigestValueRoot, pageable.getSort()));
-
-        // Apply pagination
-        TypedQuery<ReferenceDigestValue> typedQuery = entityManager.createQuery(query);
-        int totalRows = typedQuery.getResultList().size();  // Get the total count for pagination
-        typedQuery.setFirstResult((int) pageable.getOffset());
-        typedQuery.setMaxResults(pageable.getPageSize());
-
-        // Wrap the result in a Page object to return pagination info
-        List<ReferenceDigestValue> resultList = typedQuery.getResultList();
-        return new PageImpl<>(resultList, pageable, totalRows);
+        return CriteriaPageQuery.findPage(entityManager, ReferenceDigestValue.class,
+                (criteriaBuilder, referenceDigestValueRoot) -> {
+                    final Predicate combinedColumnSearchPredicates =
+                            createPredicatesForColumnSpecificSearch(columnsWithSearchCriteria, criteriaBuilder,
+                                    referenceDigestValueRoot);
+
+                    // Define the conditions (predicates) for the query's WHERE clause.
+                    return criteriaBuilder.and(combinedColumnSearchPredicates);
+                },
+                (criteriaBuilder, referenceDigestValueRoot) ->
+                        getSortingOrders(criteriaBuilder, referenceDigestValueRoot, pageable.getSort()),
+                pageable);
     }
 
     /**
@@ -157,36 +138,25 @@ public class ReferenceDigestValuePageService {
             final Set<DataTablesColumn> columnsWithSearchCriteria,
             final Pageable pageable) {
 
-        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
-        CriteriaQuery<ReferenceDigestValue> query = criteriaBuilder.createQuery(ReferenceDigestValue.class);
-        Root<ReferenceDigestValue> referenceDigestValueRoot = query.from(ReferenceDigestValue.class);
-
-        final Predicate globalSearchPartOfChainedPredicates =
-                createPredicatesForGlobalSearch(searchableColumnNames, criteriaBuilder,
-                        referenceDigestValueRoot,
-                        globalSearchTerm);
-
-        final Predicate columnSearchPartOfChainedPredicates =
-                createPredicatesForColumnSpecificSearch(columnsWithSearchCriteria, criteriaBuilder,
-                        referenceDigestValueRoot);
-
-        // Define the conditions (predicates) for the query's WHERE clause.
-        // Combine global and column-specific predicates using AND logic
-        query.where(criteriaBuilder.and(globalSearchPartOfChainedPredicates,
-                columnSearchPartOfChainedPredicates));
-
-        // Apply sorting if present in the Pageable
-        query.orderBy(getSortingOrders(criteriaBuilder, referenceDigestValueRoot, pageable.getSort()));
-
-        // Apply pagination
-        TypedQuery<ReferenceDigestValue> typedQuery = entityManager.createQuery(query);
-        int totalRows = typedQuery.getResultList().size();  // Get the total count for pagination
-        typedQuery.setFirstResult((int) pageable.getOffset());
-        typedQuery.setMaxResults(pageable.getPageSize());
-
-        // Wrap the result in a Page object to return pagination info
-        List<ReferenceDigestValue> resultList = typedQuery.getResultList();
-        return new PageImpl<>(resultList, pageable, totalRows);
+        return CriteriaPageQuery.findPage(entityManager, ReferenceDigestValue.class,
+                (criteriaBuilder, referenceDigestValueRoot) -> {
+                    final Predicate globalSearchPartOfChainedPredicates =
+                            createPredicatesForGlobalSearch(searchableColumnNames, criteriaBuilder,
+                                    referenceDigestValueRoot,
+                                    globalSearchTerm);
+
+                    final Predicate columnSearchPartOfChainedPredicates =
+                            createPredicatesForColumnSpecificSearch(columnsWithSearchCriteria, criteriaBuilder,
+                                    referenceDigestValueRoot);
+
+                    // Define the conditions (predicates) for the query's WHERE clause.
+                    // Combine global and column-specific predicates using AND logic
+                    return criteriaBuilder.and(globalSearchPartOfChainedPredicates,
+                            columnSearchPartOfChainedPredicates);
+                },
+                (criteriaBuilder, referenceDigestValueRoot) ->
+                        getSortingOrders(criteriaBuilder, referenceDigestValueRoot, pageable.getSort()),
+                pageable);
     }
 
     /**
@@ -206,6 +176,7 @@ public class ReferenceDigestValuePageService {
      */
     public void saveReferenceDigestValue(final ReferenceDigestValue referenceDigestValue) {
         referenceDigestValueRepository.save(referenceDigestValue);
+        supportRimCache.invalidateDigestValues();
     }
 
     /**
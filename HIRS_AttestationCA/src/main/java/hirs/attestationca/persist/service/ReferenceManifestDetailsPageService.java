@@ -1,7 +1,6 @@
 package hirs.attestationca.persist.service;
 
 import hirs.attestationca.persist.entity.manager.CACredentialRepository;
-import hirs.attestationca.persist.entity.manager.CertificateRepository;
 import hirs.attestationca.persist.entity.manager.ReferenceDigestValueRepository;
 import hirs.attestationca.persist.entity.manager.ReferenceManifestRepository;
 import hirs.attestationca.persist.entity.userdefined.Certificate;
@@ -10,42 +9,40 @@ import hirs.attestationca.persist.entity.userdefined.certificate.CertificateAuth
 import hirs.attestationca.persist.entity.userdefined.rim.BaseReferenceManifest;
 import hirs.attestationca.persist.entity.userdefined.rim.EventLogMeasurements;
 import hirs.attestationca.persist.entity.userdefined.rim.ReferenceDigestValue;
+import hirs.attestationca.persist.entity.userdefined.rim.ReferenceManifestSigner;
 import hirs.attestationca.persist.entity.userdefined.rim.SupportReferenceManifest;
 import hirs.attestationca.persist.exceptions.DBServiceException;
 import hirs.attestationca.persist.exceptions.SupplyChainValidatorException;
+import hirs.attestationca.persist.validation.CaChain;
+import hirs.attestationca.persist.validation.CaChainCache;
+import hirs.attestationca.persist.validation.EventLogComparison;
+import hirs.attestationca.persist.validation.ReferenceManifestSignerService;
 import hirs.attestationca.persist.validation.SupplyChainCredentialValidator;
+import hirs.attestationca.persist.validation.SupportRimCache;
 import hirs.attestationca.persist.validation.ValidationService;
 import hirs.utils.SwidResource;
 import hirs.utils.rim.ReferenceManifestValidator;
-import hirs.utils.rim.SwidTagParser;
 import hirs.utils.tpm.eventlog.TCGEventLog;
 import hirs.utils.tpm.eventlog.TpmPcrEvent;
-import hirs.utils.tpm.eventlog.events.EvConstants;
 import hirs.utils.tpm.eventlog.uefi.UefiConstants;
-import jakarta.xml.bind.UnmarshalException;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.xml.sax.SAXException;
 
-import javax.xml.parsers.ParserConfigurationException;
 import java.io.IOException;
 import java.security.KeyStore;
 import java.security.KeyStoreException;
-import java.security.cert.CertificateEncodingException;
 import java.security.cert.X509Certificate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * A service layer class responsible for encapsulating all business logic related to the Reference Manifest Details
@@ -56,26 +53,34 @@ import java.util.regex.Pattern;
 public class ReferenceManifestDetailsPageService {
     private final ReferenceManifestRepository referenceManifestRepository;
     private final ReferenceDigestValueRepository referenceDigestValueRepository;
-    private final CertificateRepository certificateRepository;
-    private final CACredentialRepository caCertificateRepository;
+    private final CACredentialRepository caCredentialRepository;
+    private final ReferenceManifestSignerService referenceManifestSignerService;
+    private final CaChainCache caChainCache;
+    private final SupportRimCache supportRimCache;
 
     /**
      * Constructor for the Reference Manifest Details Page Service.
      *
      * @param referenceManifestRepository    reference manifest repository
      * @param referenceDigestValueRepository reference digest value repository
-     * @param certificateRepository          certificate repository
-     * @param caCertificateRepository        certificate authority credential repository
+     * @param caCredentialRepository         CA credential repository
+     * @param referenceManifestSignerService reference manifest signer service
+     * @param caChainCache                   CA chain cache
+     * @param supportRimCache                support RIM cache
      */
     @Autowired
     public ReferenceManifestDetailsPageService(final ReferenceManifestRepository referenceManifestRepository,
                                                final ReferenceDigestValueRepository referenceDigestValueRepository,
-                                               final CertificateRepository certificateRepository,
-                                               final CACredentialRepository caCertificateRepository) {
+                                               final CACredentialRepository caCredentialRepository,
+                                               final ReferenceManifestSignerService referenceManifestSignerService,
+                                               final CaChainCache caChainCache,
+                                               final SupportRimCache supportRimCache) {
         this.referenceManifestRepository = referenceManifestRepository;
         this.referenceDigestValueRepository = referenceDigestValueRepository;
-        this.certificateRepository = certificateRepository;
-        this.caCertificateRepository = caCertificateRepository;
+        this.caCredentialRepository = caCredentialRepository;
+        this.referenceManifestSignerService = referenceManifestSignerService;
+        this.caChainCache = caChainCache;
+        this.supportRimCache = supportRimCache;
     }
 
     /**
@@ -289,39 +294,34 @@ public class ReferenceManifestDetailsPageService {
             data.put("pcrList", support.getExpectedPCRList());
         }
 
+        // the signers were extracted when the RIM was stored: only the CA credentials they name, or that
+        // issued their embedded certificates, can verify the RIM
         List<CertificateAuthorityCredential> embeddedCertificates = new ArrayList<>();
-        List<X509Certificate> rawEmbeddedCertificates;
-        try {
-            rawEmbeddedCertificates = SwidTagParser.getEmbeddedX509Certificates(
-                    SwidTagParser.validateSwidtagSchema(SwidTagParser.convertToDocument(baseRim.getRimBytes())));
-        } catch (ParserConfigurationException e) {
-            log.error("Error while reading RIM: {}", e.getMessage());
-            throw new IOException(e);
-        } catch (SAXException | UnmarshalException e) {
-            log.error("Error while parsing RIM: {}", e.getMessage());
-            throw new IOException(e);
-        }
+        List<X509Certificate> rawEmbeddedCertificates = new ArrayList<>();
         List<String> embeddedCertIds = new ArrayList<>();
-        if (rawEmbeddedCertificates != null && !rawEmbeddedCertificates.isEmpty()) {
-            for (X509Certificate rawEmbeddedCertificate : rawEmbeddedCertificates) {
+        Set<String> signerKeyIds = new HashSet<>();
+        for (ReferenceManifestSigner signer : referenceManifestSignerService.findSigners(baseRim)) {
+            signerKeyIds.add(signer.getSubjectKeyIdString());
+            if (signer.getAuthorityKeyIdString() != null && !signer.getAuthorityKeyIdString().isEmpty()) {
+                signerKeyIds.add(signer.getAuthorityKeyIdString());
+            }
+            if (signer.isEmbeddedCertificate()) {
                 try {
-                    CertificateAuthorityCredential embeddedCertificate =
-                            new CertificateAuthorityCredential(rawEmbeddedCertificate.getEncoded());
-                    embeddedCertificate.setId(UUID.randomUUID());
+                    CertificateAuthorityCredential embeddedCertificate = signer.toCertificateAuthorityCredential();
                     embeddedCertificates.add(embeddedCertificate);
-                    baseRim.setEmbeddedCertificates(embeddedCertificates);
-                    referenceManifestRepository.save(baseRim);
+                    rawEmbeddedCertificates.add(embeddedCertificate.getX509Certificate());
                     embeddedCertIds.add(embeddedCertificate.getId().toString());
-                } catch (CertificateEncodingException | IOException e) {
+                } catch (IOException e) {
                     log.error("Error creating CertificateAuthorityCredential from embedded X509"
                             + "Certificate: {}", e.getMessage());
                 }
             }
+        }
+        if (!embeddedCertIds.isEmpty()) {
             data.put("embeddedCertIds", embeddedCertIds);
-
         }
         List<Certificate> certificates = new ArrayList<>(
-                certificateRepository.findByType("CertificateAuthorityCredential"));
+                caCredentialRepository.findBySubjectKeyIdStringIn(signerKeyIds));
         certificates.addAll(embeddedCertificates);
 
         //Report invalid signature unless referenceManifestValidator validates it and cert path is valid
@@ -329,7 +329,14 @@ public class ReferenceManifestDetailsPageService {
         CertificateAuthorityCredential caCert;
         for (Certificate certificate : certificates) {
             caCert = (CertificateAuthorityCredential) certificate;
-            KeyStore keystore = ValidationService.getCaChain(caCert, caCertificateRepository);
+            CaChain cachedCaChain = caChainCache.getChain(caCert);
+            // the cached key store is shared, so the embedded certificates are added to a copy
+            KeyStore keystore = null;
+            try {
+                keystore = ValidationService.caCertSetToKeystore(cachedCaChain.certificates());
+            } catch (KeyStoreException | IOException e) {
+                log.error("Unable to assemble CA keystore", e);
+            }
             try {
                 for (CertificateAuthorityCredential embedded : embeddedCertificates) {
                     keystore.setCertificateEntry("embedded-" + Arrays.toString(
@@ -339,15 +346,11 @@ public class ReferenceManifestDetailsPageService {
                 log.error("Error adding embedded certificates to keystore: {}", e.getMessage());
             }
             try {
-                Set<CertificateAuthorityCredential> caChain = ValidationService.getCaChainRec(caCert,
-                        Collections.emptySet(),
-                        caCertificateRepository);
+                Set<CertificateAuthorityCredential> caChain = new HashSet<>(cachedCaChain.certificates());
                 caChain.add(caCert);
                 List<X509Certificate> truststore =
                         convertCACsToX509Certificates(caChain);
-                if (rawEmbeddedCertificates != null) {
-                    truststore.addAll(rawEmbeddedCertificates);
-                }
+                truststore.addAll(rawEmbeddedCertificates);
                 referenceManifestValidator.setTrustStore(truststore);
             } catch (IOException e) {
                 log.error("Error building CA chain for {}: {}", caCert.getSubjectKeyIdentifier(),
@@ -415,18 +418,15 @@ public class ReferenceManifestDetailsPageService {
         EventLogMeasurements measurements;
 
         if (supportReferenceManifest.getAssociatedRim() == null) {
-            List<BaseReferenceManifest> baseRims = this.referenceManifestRepository.findAllBaseRims();
-
-            for (BaseReferenceManifest baseRim : baseRims) {
-                if (baseRim != null && baseRim.getAssociatedRim() != null
-                        && baseRim.getAssociatedRim().equals(supportReferenceManifest.getId())) {
-                    supportReferenceManifest.setAssociatedRim(baseRim.getId());
-                    try {
-                        this.referenceManifestRepository.save(supportReferenceManifest);
-                    } catch (DBServiceException ex) {
-                        log.error("Failed to update Support RIM", ex);
-                    }
-                    break;
+            List<BaseReferenceManifest> baseRims =
+                    this.referenceManifestRepository.findBaseRimsByAssociatedRim(supportReferenceManifest.getId());
+
+            if (!baseRims.isEmpty()) {
+                supportReferenceManifest.setAssociatedRim(baseRims.get(0).getId());
+                try {
+                    this.referenceManifestRepository.save(supportReferenceManifest);
+                } catch (DBServiceException ex) {
+                    log.error("Failed to update Support RIM", ex);
                 }
             }
         }
@@ -502,7 +502,6 @@ public class ReferenceManifestDetailsPageService {
     private HashMap<String, Object> getMeasurementsRimInfo(final EventLogMeasurements measurements)
             throws IOException {
         HashMap<String, Object> data = new HashMap<>();
-        LinkedList<TpmPcrEvent> unmatchedAttestationEvents = new LinkedList<>();
         BaseReferenceManifest base;
         List<SupportReferenceManifest> supports = new ArrayList<>();
         SupportReferenceManifest baseSupport = null;
@@ -515,7 +514,6 @@ public class ReferenceManifestDetailsPageService {
         data.put("validationResult", measurements.getOverallValidationResult());
         data.put("swidBase", true);
 
-        List<ReferenceDigestValue> assertions = new LinkedList<>();
         if (measurements.getDeviceName() != null) {
             supports.addAll(this.referenceManifestRepository.getSupportByManufacturerModel(
                     measurements.getPlatformManufacturer(), measurements.getPlatformModel()));
@@ -534,82 +532,45 @@ public class ReferenceManifestDetailsPageService {
                 if (base != null) {
                     data.put("associatedRim", base.getId());
                 }
-
-                assertions.addAll(
-                        this.referenceDigestValueRepository.findBySupportRimId(baseSupport.getId()));
             }
         }
 
         TCGEventLog measurementLog = new TCGEventLog(measurements.getRimBytes());
-        Map<String, ReferenceDigestValue> referenceValueMap = new HashMap<>();
+        Collection<TpmPcrEvent> measuredEvents = measurementLog.getEventList();
 
-        for (ReferenceDigestValue record : assertions) {
-            referenceValueMap.put(record.getDigestValue(), record);
-        }
-        for (TpmPcrEvent attestationEvent : measurementLog.getEventList()) {
-            if (!referenceValueMap.containsKey(attestationEvent.getEventDigestStr())) {
-                unmatchedAttestationEvents.add(attestationEvent);
+        // the comparison stored by the last validation, if the measurement was validated
+        List<TpmPcrEvent> unmatchedAttestationEvents = measurements.getUnmatchedEvents(measuredEvents);
+        if (unmatchedAttestationEvents == null) {
+            Set<String> referenceDigests = new HashSet<>();
+            if (baseSupport != null) {
+                for (ReferenceDigestValue record
+                        : this.referenceDigestValueRepository.findBySupportRimId(baseSupport.getId())) {
+                    referenceDigests.add(record.getDigestValue());
+                }
             }
+            unmatchedAttestationEvents = EventLogComparison.findUnmatchedEvents(measuredEvents, referenceDigests);
         }
 
         if (!supports.isEmpty()) {
-            Map<String, List<TpmPcrEvent>> baselineLogEvents = new HashMap<>();
-            List<TpmPcrEvent> matchedEvents = null;
-            List<TpmPcrEvent> referenceEventValues = new LinkedList<>();
+            List<TpmPcrEvent> referenceEventValues = new ArrayList<>();
             for (SupportReferenceManifest support : supports) {
-                referenceEventValues.addAll(support.getEventLog());
-            }
-            String bootVariable;
-            Pattern variableName = Pattern.compile("Variable Name: (\\w+)");
-            Matcher matcher;
-
-            for (TpmPcrEvent attestationEvent : unmatchedAttestationEvents) {
-                matchedEvents = new ArrayList<>();
-                for (TpmPcrEvent referenceEvent : referenceEventValues) {
-                    if ((referenceEvent.getEventType() == attestationEvent.getEventType())
-                            && (referenceEvent.getPcrIndex() == attestationEvent.getPcrIndex())) {
-                        if (eventIsType(attestationEvent.getEventType())) {
-                            matcher = variableName.matcher(attestationEvent.getEventContentStr());
-                            if (matcher.find()) {
-                                log.debug("Event variable name: {}", matcher.group(1));
-                                bootVariable = matcher.group(1);
-                                if (referenceEvent.getEventContentStr().contains(bootVariable)) {
-                                    matchedEvents.add(referenceEvent);
-                                }
-                            }
-                        } else {
-                            matchedEvents.add(referenceEvent);
-                        }
-                    }
+                try {
+                    referenceEventValues.addAll(supportRimCache.getEventLog(support).getEvents());
+                } catch (IOException e) {
+                    log.error("Unable to parse support RIM {}: {}", support.getFileName(), e.getMessage());
                 }
-                baselineLogEvents.put(attestationEvent.getEventDigestStr(), matchedEvents);
             }
-            data.put("eventTypeMap", baselineLogEvents);
+            data.put("eventTypeMap",
+                    EventLogComparison.findCandidateEvents(unmatchedAttestationEvents, referenceEventValues));
         }
 
-        TCGEventLog logProcessor = new TCGEventLog(measurements.getRimBytes());
         data.put("livelogEvents", unmatchedAttestationEvents);
-        data.put("events", logProcessor.getEventList());
-        getEventSummary(data, logProcessor.getEventList());
+        data.put("events", measuredEvents);
+        getEventSummary(data, measuredEvents);
 
         return data;
     }
 
-
-    /**
-     * This method checks if the given event is of the below event types.
-     *
-     * @param eventType to check for event type
-     * @return true if the below types are matched, otherwise false
-     */
-    private boolean eventIsType(final long eventType) {
-        return eventType == EvConstants.EV_EFI_VARIABLE_AUTHORITY
-                || eventType == EvConstants.EV_EFI_VARIABLE_BOOT
-                || eventType == EvConstants.EV_EFI_VARIABLE_DRIVER_CONFIG
-                || eventType == EvConstants.EV_EFI_SPDM_DEVICE_AUTHORITY
-                || eventType == EvConstants.EV_EFI_SPDM_DEVICE_POLICY;
-    }
-
     /**
      * This method converts a Set of CertificateAuthorityCredentials to a List of X509Certificates.
      *
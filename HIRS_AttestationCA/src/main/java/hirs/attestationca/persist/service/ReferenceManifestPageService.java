@@ -1,22 +1,24 @@
 package hirs.attestationca.persist.service;
 
+import com.google.common.collect.Lists;
 import hirs.attestationca.persist.dto.PageMessages;
 import hirs.attestationca.persist.entity.manager.ReferenceDigestValueRepository;
 import hirs.attestationca.persist.entity.manager.ReferenceManifestRepository;
+import hirs.attestationca.persist.entity.manager.ReferenceManifestRepository.RimFile;
 import hirs.attestationca.persist.entity.userdefined.DataTablesColumn;
 import hirs.attestationca.persist.entity.userdefined.DownloadFile;
 import hirs.attestationca.persist.entity.userdefined.ReferenceManifest;
 import hirs.attestationca.persist.entity.userdefined.rim.BaseReferenceManifest;
 import hirs.attestationca.persist.entity.userdefined.rim.ReferenceDigestValue;
 import hirs.attestationca.persist.entity.userdefined.rim.SupportReferenceManifest;
+import hirs.attestationca.persist.service.util.CriteriaPageQuery;
 import hirs.attestationca.persist.service.util.PredicateFactory;
-import hirs.utils.tpm.eventlog.TCGEventLog;
+import hirs.attestationca.persist.validation.ReferenceManifestSignerService;
+import hirs.attestationca.persist.validation.SupportRimCache;
 import hirs.utils.tpm.eventlog.TpmPcrEvent;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
-import jakarta.persistence.TypedQuery;
 import jakarta.persistence.criteria.CriteriaBuilder;
-import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.Order;
 import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
@@ -24,7 +26,7 @@ import jakarta.persistence.criteria.Root;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
@@ -34,7 +36,11 @@ import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -54,9 +60,14 @@ public class ReferenceManifestPageService {
     private final ReferenceManifestRepository referenceManifestRepository;
     private final ReferenceDigestValueRepository referenceDigestValueRepository;
     private final EntityManager entityManager;
+    private final SupportRimCache supportRimCache;
+    private final ReferenceManifestSignerService referenceManifestSignerService;
 
-    private static final String BASE_RIM_FILE_PATTERN = "(\\S+(\\.(?i)swidtag)$)";
-    private static final String SUPPORT_RIM_FILE_PATTERN = "(\\S+(\\.(?i)(rimpcr|rimel|bin|log))$)";
+    private static final Pattern BASE_RIM_PATTERN = Pattern.compile("(\\S+(\\.(?i)swidtag)$)");
+    private static final Pattern SUPPORT_RIM_PATTERN = Pattern.compile("(\\S+(\\.(?i)(rimpcr|rimel|bin|log))$)");
+    private static final int QUERY_BATCH_SIZE = 500;
+    private static final int BULK_DOWNLOAD_PAGE_SIZE = 20;
+    private static final UUID FIRST_ID = new UUID(0L, 0L);
 
     /**
      * Constructor for the Reference Manifest Page Service.
@@ -64,14 +75,20 @@ public class ReferenceManifestPageService {
      * @param referenceManifestRepository    reference manifest repository
      * @param referenceDigestValueRepository reference digest value repository
      * @param entityManager                  entity manager
+     * @param supportRimCache                support RIM cache
+     * @param referenceManifestSignerService reference manifest signer service
      */
     @Autowired
     public ReferenceManifestPageService(final ReferenceManifestRepository referenceManifestRepository,
                                         final ReferenceDigestValueRepository referenceDigestValueRepository,
-                                        final EntityManager entityManager) {
+                                        final EntityManager entityManager,
+                                        final SupportRimCache supportRimCache,
+                                        final ReferenceManifestSignerService referenceManifestSignerService) {
         this.referenceManifestRepository = referenceManifestRepository;
         this.referenceDigestValueRepository = referenceDigestValueRepository;
         this.entityManager = entityManager;
+        this.supportRimCache = supportRimCache;
+        this.referenceManifestSignerService = referenceManifestSignerService;
     }
 
     /**
@@ -89,34 +106,22 @@ public class ReferenceManifestPageService {
             final String globalSearchTerm,
             final boolean archiveFlag,
             final Pageable pageable) {
-        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
-        CriteriaQuery<ReferenceManifest> query = criteriaBuilder.createQuery(ReferenceManifest.class);
-        Root<ReferenceManifest> rimRoot = query.from(ReferenceManifest.class);
-
-        final Predicate combinedGlobalSearchPredicates =
-                createPredicatesForGlobalSearch(searchableColumnNames, criteriaBuilder,
-                        rimRoot,
-                        globalSearchTerm);
-
-        // Define the conditions (predicates) for the query's WHERE clause.
-        query.where(criteriaBuilder.and(
-                combinedGlobalSearchPredicates,
-                criteriaBuilder.equal(rimRoot.get("archiveFlag"), archiveFlag),
-                criteriaBuilder.notEqual(rimRoot.get("rimType"), "Measurement")
-        ));
-
-        // Apply sorting if present in the Pageable
-        query.orderBy(getSortingOrders(criteriaBuilder, rimRoot, pageable.getSort()));
-
-        // Apply pagination
-        TypedQuery<ReferenceManifest> typedQuery = entityManager.createQuery(query);
-        int totalRows = typedQuery.getResultList().size();  // Get the total count for pagination
-        typedQuery.setFirstResult((int) pageable.getOffset());
-        typedQuery.setMaxResults(pageable.getPageSize());
-
-        // Wrap the result in a Page object to return pagination info
-        List<ReferenceManifest> resultList = typedQuery.getResultList();
-        return new PageImpl<>(resultList, pageable, totalRows);
+        return CriteriaPageQuery.findPage(entityManager, ReferenceManifest.class,
+                (criteriaBuilder, rimRoot) -> {
+                    final Predicate combinedGlobalSearchPredicates =
+                            createPredicatesForGlobalSearch(searchableColumnNames, criteriaBuilder,
+                                    rimRoot,
+                                    globalSearchTerm);
+
+                    // Define the conditions (predicates) for the query's WHERE clause.
+                    return criteriaBuilder.and(
+                            combinedGlobalSearchPredicates,
+                            criteriaBuilder.equal(rimRoot.get("archiveFlag"), archiveFlag),
+                            criteriaBuilder.notEqual(rimRoot.get("rimType"), "Measurement")
+                    );
+                },
+                (criteriaBuilder, rimRoot) -> getSortingOrders(criteriaBuilder, rimRoot, pageable.getSort()),
+                pageable);
     }
 
 
@@ -133,33 +138,21 @@ public class ReferenceManifestPageService {
             final Set<DataTablesColumn> columnsWithSearchCriteria,
             final boolean archiveFlag,
             final Pageable pageable) {
-        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
-        CriteriaQuery<ReferenceManifest> query = criteriaBuilder.createQuery(ReferenceManifest.class);
-        Root<ReferenceManifest> rimRoot = query.from(ReferenceManifest.class);
-
-        final Predicate combinedColumnSearchPredicates =
-                createPredicatesForColumnSpecificSearch(columnsWithSearchCriteria, criteriaBuilder,
-                        rimRoot);
-
-        // Define the conditions (predicates) for the query's WHERE clause.
-        query.where(criteriaBuilder.and(
-                combinedColumnSearchPredicates,
-                criteriaBuilder.equal(rimRoot.get("archiveFlag"), archiveFlag),
-                criteriaBuilder.notEqual(rimRoot.get("rimType"), "Measurement")
-        ));
-
-        // Apply sorting if present in the Pageable
-        query.orderBy(getSortingOrders(criteriaBuilder, rimRoot, pageable.getSort()));
-
-        // Apply pagination
-        TypedQuery<ReferenceManifest> typedQuery = entityManager.createQuery(query);
-        int totalRows = typedQuery.getResultList().size();  // Get the total count for pagination
-        typedQuery.setFirstResult((int) pageable.getOffset());
-        typedQuery.setMaxResults(pageable.getPageSize());
-
-        // Wrap the result in a Page object to return pagination info
-        List<ReferenceManifest> resultList = typedQuery.getResultList();
-        return new PageImpl<>(resultList, pageable, totalRows);
+        return CriteriaPageQuery.findPage(entityManager, ReferenceManifest.class,
+                (criteriaBuilder, rimRoot) -> {
+                    final Predicate combinedColumnSearchPredicates =
+                            createPredicatesForColumnSpecificSearch(columnsWithSearchCriteria, criteriaBuilder,
+                                    rimRoot);
+
+                    // Define the conditions (predicates) for the query's WHERE clause.
+                    return criteriaBuilder.and(
+                            combinedColumnSearchPredicates,
+                            criteriaBuilder.equal(rimRoot.get("archiveFlag"), archiveFlag),
+                            criteriaBuilder.notEqual(rimRoot.get("rimType"), "Measurement")
+                    );
+                },
+                (criteriaBuilder, rimRoot) -> getSortingOrders(criteriaBuilder, rimRoot, pageable.getSort()),
+                pageable);
     }
 
     /**
@@ -188,39 +181,27 @@ public class ReferenceManifestPageService {
             final Set<DataTablesColumn> columnsWithSearchCriteria,
             final boolean archiveFlag,
             final Pageable pageable) {
-        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
-        CriteriaQuery<ReferenceManifest> query = criteriaBuilder.createQuery(ReferenceManifest.class);
-        Root<ReferenceManifest> rimRoot = query.from(ReferenceManifest.class);
-
-        final Predicate globalSearchPartOfChainedPredicates =
-                createPredicatesForGlobalSearch(searchableColumnNames, criteriaBuilder, rimRoot,
-                        globalSearchTerm);
-
-        final Predicate columnSearchPartOfChainedPredicates =
-                createPredicatesForColumnSpecificSearch(columnsWithSearchCriteria, criteriaBuilder,
-                        rimRoot);
-
-        // Define the conditions (predicates) for the query's WHERE clause.
-        // Combine global and column-specific predicates using AND logic
-        query.where(criteriaBuilder.and(
-                globalSearchPartOfChainedPredicates,
-                columnSearchPartOfChainedPredicates,
-                criteriaBuilder.equal(rimRoot.get("archiveFlag"), archiveFlag),
-                criteriaBuilder.notEqual(rimRoot.get("rimType"), "Measurement")
-        ));
-
-        // Apply sorting if present in the Pageable
-        query.orderBy(getSortingOrders(criteriaBuilder, rimRoot, pageable.getSort()));
-
-        // Apply pagination
-        TypedQuery<ReferenceManifest> typedQuery = entityManager.createQuery(query);
-        int totalRows = typedQuery.getResultList().size();  // Get the total count for pagination
-        typedQuery.setFirstResult((int) pageable.getOffset());
-        typedQuery.setMaxResults(pageable.getPageSize());
-
-        // Wrap the result in a Page object to return pagination info
-        List<ReferenceManifest> resultList = typedQuery.getResultList();
-        return new PageImpl<>(resultList, pageable, totalRows);
+        return CriteriaPageQuery.findPage(entityManager, ReferenceManifest.class,
+                (criteriaBuilder, rimRoot) -> {
+                    final Predicate globalSearchPartOfChainedPredicates =
+                            createPredicatesForGlobalSearch(searchableColumnNames, criteriaBuilder, rimRoot,
+                                    globalSearchTerm);
+
+                    final Predicate columnSearchPartOfChainedPredicates =
+                            createPredicatesForColumnSpecificSearch(columnsWithSearchCriteria, criteriaBuilder,
+                                    rimRoot);
+
+                    // Define the conditions (predicates) for the query's WHERE clause.
+                    // Combine global and column-specific predicates using AND logic
+                    return criteriaBuilder.and(
+                            globalSearchPartOfChainedPredicates,
+                            columnSearchPartOfChainedPredicates,
+                            criteriaBuilder.equal(rimRoot.get("archiveFlag"), archiveFlag),
+                            criteriaBuilder.notEqual(rimRoot.get("rimType"), "Measurement")
+                    );
+                },
+                (criteriaBuilder, rimRoot) -> getSortingOrders(criteriaBuilder, rimRoot, pageable.getSort()),
+                pageable);
     }
 
     /**
@@ -276,29 +257,37 @@ public class ReferenceManifestPageService {
 
     /**
      * Packages a collection of RIMs into a zip file.
+     * The base and support RIMs are read a page at a time, and only their file name and bytes, so that memory
+     * use does not grow with the number of RIMs.
      *
      * @param zipOut zip outputs streams
      * @throws IOException if there are any issues packaging or downloading the zip file
      */
     public void bulkDownloadRIMS(final ZipOutputStream zipOut) throws IOException {
-        List<ReferenceManifest> allRIMs = referenceManifestRepository.findAll();
+        final List<Class<? extends ReferenceManifest>> rimTypes =
+                List.of(BaseReferenceManifest.class, SupportReferenceManifest.class);
+        final Pageable downloadPage = PageRequest.ofSize(BULK_DOWNLOAD_PAGE_SIZE);
+        String zipFileName;
 
-        // create a list of all the RIMs that are of base rim or support rim type
-        final List<ReferenceManifest> referenceManifestList =
-                allRIMs.stream().filter(rim ->
-                                rim instanceof BaseReferenceManifest || rim instanceof SupportReferenceManifest)
-                        .toList();
+        List<RimFile> rims = referenceManifestRepository.findRimFiles(rimTypes, FIRST_ID, downloadPage);
+
+        while (!rims.isEmpty()) {
+            for (RimFile rim : rims) {
+                zipFileName = rim.getFileName().isEmpty() ? "" : rim.getFileName();
+                ZipEntry zipEntry = new ZipEntry(zipFileName);
+                zipEntry.setSize((long) rim.getRimBytes().length * Byte.SIZE);
+                zipEntry.setTime(System.currentTimeMillis());
+                zipOut.putNextEntry(zipEntry);
+                StreamUtils.copy(rim.getRimBytes(), zipOut);
+                zipOut.closeEntry();
+            }
 
-        String zipFileName;
+            if (rims.size() < BULK_DOWNLOAD_PAGE_SIZE) {
+                break;
+            }
 
-        for (ReferenceManifest rim : referenceManifestList) {
-            zipFileName = rim.getFileName().isEmpty() ? "" : rim.getFileName();
-            ZipEntry zipEntry = new ZipEntry(zipFileName);
-            zipEntry.setSize((long) rim.getRimBytes().length * Byte.SIZE);
-            zipEntry.setTime(System.currentTimeMillis());
-            zipOut.putNextEntry(zipEntry);
-            StreamUtils.copy(rim.getRimBytes(), zipOut);
-            zipOut.closeEntry();
+            // continue after the last RIM written rather than counting an offset from the start
+            rims = referenceManifestRepository.findRimFiles(rimTypes, rims.getLast().getId(), downloadPage);
         }
         zipOut.finish();
     }
@@ -323,6 +312,8 @@ public class ReferenceManifestPageService {
         }
 
         referenceManifestRepository.delete(referenceManifest);
+        referenceManifestSignerService.deleteSigners(uuid);
+        supportRimCache.invalidate(referenceManifest);
 
         final String deleteCompletedMessage = "RIM successfully deleted";
         successMessages.add(deleteCompletedMessage);
@@ -350,6 +341,7 @@ public class ReferenceManifestPageService {
 
     /**
      * Processes the request from controller to upload one or more {@link ReferenceManifest} objects to the ACA.
+     * The files are parsed in parallel, then stored together.
      *
      * @param files     the files to process
      * @return          a list of error and success messages to the controller
@@ -357,64 +349,49 @@ public class ReferenceManifestPageService {
     public PageMessages processUploads(final MultipartFile[] files) {
 
         PageMessages messages = new PageMessages();
-        List<String> errorMessagesParse = new ArrayList<>();
         List<String> errorMessagesStore = new ArrayList<>();
         List<String> successMessagesStore = new ArrayList<>();
 
-        final Pattern baseRimPattern = Pattern.compile(BASE_RIM_FILE_PATTERN);
-        final Pattern supportRimPattern = Pattern.compile(SUPPORT_RIM_FILE_PATTERN);
-
         List<BaseReferenceManifest> baseRims = new ArrayList<>();
         List<SupportReferenceManifest> supportRims = new ArrayList<>();
 
         log.info("Uploading {} RIM files", files.length);
 
-        for (MultipartFile file : files) {
-            String fileName = file.getOriginalFilename();
+        // parsing a RIM validates its whole content, so spread the files over the available cores;
+        // the results come back in upload order
+        final List<ParsedUpload> uploads = Arrays.stream(files).parallel()
+                .map(this::parseUpload)
+                .toList();
+
+        for (ParsedUpload upload : uploads) {
+            final String fileName = upload.fileName();
 
             if (fileName == null || fileName.isEmpty()) {
                 log.warn("File with empty or null name skipped");
                 continue;  // Skip processing this file
             }
 
-            final boolean isBaseRim = baseRimPattern.matcher(fileName).matches();
-            final boolean isSupportRim = !isBaseRim && supportRimPattern.matcher(fileName).matches();
-
-            if (isBaseRim) {
-                final BaseReferenceManifest baseReferenceManifest =
-                        parseBaseRIM(errorMessagesParse, file);
-                messages.addErrorMessages(errorMessagesParse);
-                if (baseReferenceManifest != null) {
-                    baseRims.add(baseReferenceManifest);
-                    log.info("Uploaded base RIM with manufacturer {} and model {}.",
-                            baseReferenceManifest.getPlatformManufacturer(),
-                            baseReferenceManifest.getPlatformModel());
-                } else {
-                    log.info("Failed to parse Base RIM file {}", fileName);
-                }
-            } else if (isSupportRim) {
-                final SupportReferenceManifest supportReferenceManifest =
-                        parseSupportRIM(errorMessagesParse, file);
-                messages.addErrorMessages(errorMessagesParse);
-                if (supportReferenceManifest != null) {
-                    supportRims.add(supportReferenceManifest);
-                    log.info("Uploaded support RIM with manufacturer {} and model {}.",
-                            supportReferenceManifest.getPlatformManufacturer(),
-                            supportReferenceManifest.getPlatformModel());
-                    String associatedBaseRim = supportReferenceManifest.getAssociatedRim() != null
-                            ? supportReferenceManifest.getAssociatedRim().toString() : "not found";
-                    log.info("Associated base RIM {}", associatedBaseRim);
-                } else {
-                    log.info("Failed to parse support RIM file {}", fileName);
-                }
+            messages.addErrorMessages(upload.errorMessages());
+
+            if (upload.baseRim() != null) {
+                baseRims.add(upload.baseRim());
+                log.info("Uploaded base RIM with manufacturer {} and model {}.",
+                        upload.baseRim().getPlatformManufacturer(),
+                        upload.baseRim().getPlatformModel());
+            } else if (upload.supportRim() != null) {
+                supportRims.add(upload.supportRim());
+                log.info("Uploaded support RIM with manufacturer {} and model {}.",
+                        upload.supportRim().getPlatformManufacturer(),
+                        upload.supportRim().getPlatformModel());
+                String associatedBaseRim = upload.supportRim().getAssociatedRim() != null
+                        ? upload.supportRim().getAssociatedRim().toString() : "not found";
+                log.info("Associated base RIM {}", associatedBaseRim);
+            } else if (upload.isBaseRim()) {
+                log.info("Failed to parse Base RIM file {}", fileName);
+            } else if (upload.isSupportRim()) {
+                log.info("Failed to parse support RIM file {}", fileName);
             } else {
-                String errorString = "The file extension of " + fileName + " was not recognized."
-                        + " Base RIMs support the extension \".swidtag\", and support RIMs support "
-                        + "\".rimpcr\", \".rimel\", \".bin\", and \".log\". "
-                        + "Please verify your upload and retry.";
                 log.error("File extension in {} not recognized as base or support RIM.", fileName);
-                errorMessagesParse.add(errorString);
-                messages.addErrorMessages(errorMessagesParse);
             }
         }
 
@@ -428,6 +405,9 @@ public class ReferenceManifestPageService {
 
     /**
      * Stores the base and support reference manifests to the reference manifest repository.
+     * Manifests that are already stored are skipped, the new ones are saved in batches, and the
+     * support RIMs that are not yet linked to a base RIM are matched against the new manifests.
+     * The signers of the new base RIMs are extracted once here, for the details pages.
      *
      * @param successMessages contains any success messages that will be displayed on the page
      * @param errorMessages contains any error messages that will be displayed on the page
@@ -439,40 +419,34 @@ public class ReferenceManifestPageService {
                           final List<BaseReferenceManifest> baseRims,
                           final List<SupportReferenceManifest> supportRims) {
 
+        if (baseRims.contains(null)) {
+            log.warn("Cannot store a null object as a base RIM.");
+        }
+
         // save the base rims in the repo if they don't already exist in the repo
-        baseRims.forEach((baseRIM) -> {
-            if (baseRIM == null) {
-                log.warn("Cannot store a null object as a base RIM.");
-            } else if (this.referenceManifestRepository.findByHexDecHashAndRimType(
-                    baseRIM.getHexDecHash(), baseRIM.getRimType()) == null) {
-                final String successMessage = "Stored swidtag " + baseRIM.getFileName() + " successfully";
-                this.referenceManifestRepository.save(baseRIM);
-                log.info(successMessage);
-                successMessages.add(successMessage);
-            }
+        final List<BaseReferenceManifest> newBaseRims = filterStoredRims(ReferenceManifest.BASE_RIM, baseRims);
+        this.referenceManifestRepository.saveAll(newBaseRims);
+        referenceManifestSignerService.indexSigners(newBaseRims);
+        newBaseRims.forEach((baseRIM) -> {
+            final String successMessage = "Stored swidtag " + baseRIM.getFileName() + " successfully";
+            log.info(successMessage);
+            successMessages.add(successMessage);
         });
 
         // save the support rims in the repo if they don't already exist in the repo
-        supportRims.forEach((supportRIM) -> {
-            if (referenceManifestRepository.findByHexDecHashAndRimType(
-                    supportRIM.getHexDecHash(), supportRIM.getRimType()) == null) {
-                final String successMessage = "Stored event log " + supportRIM.getFileName() + " successfully";
-                referenceManifestRepository.save(supportRIM);
-                log.info(successMessage);
-                successMessages.add(successMessage);
-            }
+        final List<SupportReferenceManifest> newSupportRims =
+                filterStoredRims(ReferenceManifest.SUPPORT_RIM, supportRims);
+        this.referenceManifestRepository.saveAll(newSupportRims);
+        newSupportRims.forEach((supportRIM) -> {
+            final String successMessage = "Stored event log " + supportRIM.getFileName() + " successfully";
+            log.info(successMessage);
+            successMessages.add(successMessage);
         });
 
-        // Prep a map to associate the swidtag payload hash to the swidtag.
-        // pass it in to update support rims that either were uploaded
-        // or already exist create a map of the supports rims in case an uploaded swidtag
-        // isn't one to one with the uploaded support rims.
-        Map<String, SupportReferenceManifest> updatedSupportRims
-                = updateSupportRimInfo(referenceManifestRepository.findAllSupportRims());
-
-        // pass in the updated support rims
-        // and either update or add the events
-        processTpmEvents(new ArrayList<>(updatedSupportRims.values()));
+        // link the support rims that were uploaded, or already exist without a swidtag,
+        // to the swidtags that reference their hash, then either update or add their events
+        processTpmEvents(linkSupportRims(newBaseRims, newSupportRims));
+        supportRimCache.invalidateDigestValues();
     }
 
     /**
@@ -630,26 +604,126 @@ public class ReferenceManifestPageService {
         return criteriaBuilder.and(combinedColumnSearchPredicates.toArray(new Predicate[0]));
     }
 
-    private Map<String, SupportReferenceManifest> updateSupportRimInfo(
-            final List<SupportReferenceManifest> dbSupportRims) {
-        Map<String, SupportReferenceManifest> updatedSupportRims = new HashMap<>();
-        Map<String, SupportReferenceManifest> hashValues = new HashMap<>();
-        for (SupportReferenceManifest support : dbSupportRims) {
-            hashValues.put(support.getHexDecHash(), support);
+    /**
+     * Parses a single uploaded file as a base or support RIM, depending on its extension.
+     *
+     * @param file uploaded file
+     * @return the parsed RIM, along with any error messages
+     */
+    private ParsedUpload parseUpload(final MultipartFile file) {
+        final String fileName = file.getOriginalFilename();
+        final List<String> errorMessages = new ArrayList<>();
+
+        if (fileName == null || fileName.isEmpty()) {
+            return new ParsedUpload(fileName, false, false, null, null, errorMessages);
+        }
+
+        final boolean isBaseRim = BASE_RIM_PATTERN.matcher(fileName).matches();
+        final boolean isSupportRim = !isBaseRim && SUPPORT_RIM_PATTERN.matcher(fileName).matches();
+
+        if (isBaseRim) {
+            return new ParsedUpload(fileName, true, false,
+                    parseBaseRIM(errorMessages, file), null, errorMessages);
+        } else if (isSupportRim) {
+            return new ParsedUpload(fileName, false, true,
+                    null, parseSupportRIM(errorMessages, file), errorMessages);
+        }
+
+        errorMessages.add("The file extension of " + fileName + " was not recognized."
+                + " Base RIMs support the extension \".swidtag\", and support RIMs support "
+                + "\".rimpcr\", \".rimel\", \".bin\", and \".log\". "
+                + "Please verify your upload and retry.");
+        return new ParsedUpload(fileName, false, false, null, null, errorMessages);
+    }
+
+    /**
+     * Drops the manifests that are already stored, or that appear more than once in the upload.
+     * The stored hashes are looked up a chunk at a time rather than once per manifest.
+     *
+     * @param rimType   rim type of the manifests
+     * @param rims      uploaded manifests
+     * @param <T>       manifest type
+     * @return the manifests that still need to be stored
+     */
+    private <T extends ReferenceManifest> List<T> filterStoredRims(final String rimType, final List<T> rims) {
+        final Map<String, T> newRims = new LinkedHashMap<>();
+        for (T rim : rims) {
+            if (rim != null) {
+                newRims.putIfAbsent(rim.getHexDecHash(), rim);
+            }
+        }
+
+        for (List<String> hashes : Lists.partition(new ArrayList<>(newRims.keySet()), QUERY_BATCH_SIZE)) {
+            newRims.keySet().removeAll(referenceManifestRepository
+                    .findHexDecHashesByRimTypeAndHexDecHashIn(rimType, hashes));
+        }
+        return new ArrayList<>(newRims.values());
+    }
+
+    /**
+     * Links the support RIMs that have not been linked yet to the base RIM whose payload references
+     * their hash. Unlinked support RIMs that were already stored have been matched against every
+     * stored base RIM before, so only the new base RIMs are checked for them; the new support RIMs
+     * are also checked against the base RIMs that were already stored.
+     *
+     * @param newBaseRims    base RIMs stored by this upload
+     * @param newSupportRims support RIMs stored by this upload
+     * @return the support RIMs that were linked to a base RIM
+     */
+    private List<SupportReferenceManifest> linkSupportRims(final List<BaseReferenceManifest> newBaseRims,
+                                                           final List<SupportReferenceManifest> newSupportRims) {
+        final Map<String, SupportReferenceManifest> unlinkedSupportRims = new HashMap<>();
+        for (SupportReferenceManifest supportRim : referenceManifestRepository.findUnlinkedSupportRims()) {
+            unlinkedSupportRims.put(supportRim.getHexDecHash(), supportRim);
         }
 
-        List<BaseReferenceManifest> baseReferenceManifests = referenceManifestRepository.findAllBaseRims();
+        final List<SupportReferenceManifest> linkedSupportRims = new ArrayList<>();
+        final Map<UUID, BaseReferenceManifest> linkedBaseRims = new LinkedHashMap<>();
+        linkSupportRims(newBaseRims, unlinkedSupportRims, linkedSupportRims, linkedBaseRims);
 
-        for (BaseReferenceManifest dbBaseRim : baseReferenceManifests) {
-            for (Map.Entry<String, SupportReferenceManifest> entry : hashValues.entrySet()) {
-                String supportHash = entry.getKey();
-                SupportReferenceManifest supportRim = entry.getValue();
+        final Map<String, SupportReferenceManifest> newUnlinkedSupportRims = new HashMap<>();
+        for (SupportReferenceManifest supportRim : newSupportRims) {
+            final String supportHash = supportRim.getHexDecHash();
+            if (unlinkedSupportRims.containsKey(supportHash)) {
+                newUnlinkedSupportRims.put(supportHash, unlinkedSupportRims.get(supportHash));
+            }
+        }
 
-                String fileString = new String(dbBaseRim.getRimBytes(), StandardCharsets.UTF_8);
+        if (!newUnlinkedSupportRims.isEmpty()) {
+            final Set<UUID> newBaseRimIds = new HashSet<>();
+            newBaseRims.forEach(baseRim -> newBaseRimIds.add(baseRim.getId()));
+            final List<BaseReferenceManifest> storedBaseRims = new ArrayList<>();
+            for (BaseReferenceManifest baseRim : referenceManifestRepository.findAllBaseRims()) {
+                if (!newBaseRimIds.contains(baseRim.getId())) {
+                    storedBaseRims.add(baseRim);
+                }
+            }
+            linkSupportRims(storedBaseRims, newUnlinkedSupportRims, linkedSupportRims, linkedBaseRims);
+        }
 
-                // I have to assume the baseRim is from the database
-                // Updating the id values, manufacturer, model
-                if (fileString.contains(supportHash) && supportRim != null && !supportRim.isUpdated()) {
+        referenceManifestRepository.saveAll(linkedSupportRims);
+        referenceManifestRepository.saveAll(linkedBaseRims.values());
+        return linkedSupportRims;
+    }
+
+    private void linkSupportRims(final List<BaseReferenceManifest> baseRims,
+                                 final Map<String, SupportReferenceManifest> unlinkedSupportRims,
+                                 final List<SupportReferenceManifest> linkedSupportRims,
+                                 final Map<UUID, BaseReferenceManifest> linkedBaseRims) {
+        for (BaseReferenceManifest dbBaseRim : baseRims) {
+            if (unlinkedSupportRims.isEmpty()) {
+                return;
+            }
+
+            final String fileString = new String(dbBaseRim.getRimBytes(), StandardCharsets.UTF_8);
+            final Iterator<Map.Entry<String, SupportReferenceManifest>> entries =
+                    unlinkedSupportRims.entrySet().iterator();
+
+            while (entries.hasNext()) {
+                final Map.Entry<String, SupportReferenceManifest> entry = entries.next();
+                if (fileString.contains(entry.getKey())) {
+                    // Updating the id values, manufacturer, model
+                    final SupportReferenceManifest supportRim = entry.getValue();
                     supportRim.setSwidTagVersion(dbBaseRim.getSwidTagVersion());
                     supportRim.setPlatformManufacturer(dbBaseRim.getPlatformManufacturer());
                     supportRim.setPlatformModel(dbBaseRim.getPlatformModel());
@@ -657,14 +731,12 @@ public class ReferenceManifestPageService {
                     supportRim.setAssociatedRim(dbBaseRim.getId());
                     dbBaseRim.setAssociatedRim(supportRim.getId());
                     supportRim.setUpdated(true);
-                    referenceManifestRepository.save(supportRim);
-                    updatedSupportRims.put(supportHash, supportRim);
+                    linkedSupportRims.add(supportRim);
+                    linkedBaseRims.put(dbBaseRim.getId(), dbBaseRim);
+                    entries.remove();
                 }
             }
-            referenceManifestRepository.save(dbBaseRim);
         }
-
-        return updatedSupportRims;
     }
 
     /**
@@ -691,44 +763,86 @@ public class ReferenceManifestPageService {
     }
 
     private void processTpmEvents(final List<SupportReferenceManifest> dbSupportRims) {
-        List<ReferenceDigestValue> referenceValues;
-        TCGEventLog logProcessor;
-        ReferenceManifest baseRim;
-        ReferenceDigestValue newRdv;
-
-        for (SupportReferenceManifest dbSupport : dbSupportRims) {
-            // So first we'll have to pull values based on support rim
-            // get by support rim id NEXT
-            if (dbSupport.getPlatformManufacturer() != null) {
-                referenceValues = referenceDigestValueRepository.findBySupportRimId(dbSupport.getId());
-                baseRim = findBaseRim(dbSupport);
-                if (referenceValues.isEmpty()) {
-                    try {
-                        logProcessor = new TCGEventLog(dbSupport.getRimBytes());
-                        for (TpmPcrEvent tpe : logProcessor.getEventList()) {
-                            newRdv = new ReferenceDigestValue(baseRim.getId(),
-                                    dbSupport.getId(), dbSupport.getPlatformManufacturer(),
-                                    dbSupport.getPlatformModel(), tpe.getPcrIndex(),
-                                    tpe.getEventDigestStr(), dbSupport.getHexDecHash(),
-                                    tpe.getEventTypeStr(), false, false,
-                                    true, tpe.getEventContent());
-
-                            referenceDigestValueRepository.save(newRdv);
-                        }
-                    } catch (IOException e) {
-                        e.printStackTrace();
+        final List<SupportReferenceManifest> supportRims = dbSupportRims.stream()
+                .filter(dbSupport -> dbSupport.getPlatformManufacturer() != null)
+                .toList();
+        if (supportRims.isEmpty()) {
+            return;
+        }
+
+        // So first we'll have to pull values based on support rim
+        final Map<UUID, List<ReferenceDigestValue>> referenceValues = new HashMap<>();
+        final List<UUID> supportRimIds = supportRims.stream().map(SupportReferenceManifest::getId).toList();
+        for (List<UUID> ids : Lists.partition(supportRimIds, QUERY_BATCH_SIZE)) {
+            for (ReferenceDigestValue rdv : referenceDigestValueRepository.findBySupportRimIdIn(ids)) {
+                referenceValues.computeIfAbsent(rdv.getSupportRimId(), id -> new ArrayList<>()).add(rdv);
+            }
+        }
+
+        // decode the event logs that have no values yet in parallel, they are kept by the cache
+        supportRims.parallelStream()
+                .filter(dbSupport -> !referenceValues.containsKey(dbSupport.getId()))
+                .forEach(this::loadEventLog);
+
+        final Map<List<String>, ReferenceManifest> baseRims = new HashMap<>();
+        final List<ReferenceDigestValue> digestValues = new ArrayList<>();
+
+        for (SupportReferenceManifest dbSupport : supportRims) {
+            final ReferenceManifest baseRim = baseRims.computeIfAbsent(
+                    Arrays.asList(dbSupport.getPlatformManufacturer(), dbSupport.getPlatformModel()),
+                    key -> findBaseRim(dbSupport));
+            if (baseRim == null) {
+                log.warn("No base RIM found for support RIM {}", dbSupport.getFileName());
+                continue;
+            }
+
+            final List<ReferenceDigestValue> supportValues = referenceValues.get(dbSupport.getId());
+            if (supportValues == null) {
+                try {
+                    for (TpmPcrEvent tpe : supportRimCache.getEventLog(dbSupport).getEvents()) {
+                        digestValues.add(new ReferenceDigestValue(baseRim.getId(),
+                                dbSupport.getId(), dbSupport.getPlatformManufacturer(),
+                                dbSupport.getPlatformModel(), tpe.getPcrIndex(),
+                                tpe.getEventDigestStr(), dbSupport.getHexDecHash(),
+                                tpe.getEventTypeStr(), false, false,
+                                true, tpe.getEventContent()));
                     }
-                } else {
-                    for (ReferenceDigestValue referenceValue : referenceValues) {
-                        if (!referenceValue.isUpdated()) {
-                            referenceValue.updateInfo(dbSupport, baseRim.getId());
-                            referenceDigestValueRepository.save(referenceValue);
-                        }
+                } catch (IOException e) {
+                    log.error("Failed to read the events of support RIM {}", dbSupport.getFileName(), e);
+                }
+            } else {
+                for (ReferenceDigestValue referenceValue : supportValues) {
+                    if (!referenceValue.isUpdated()) {
+                        referenceValue.updateInfo(dbSupport, baseRim.getId());
+                        digestValues.add(referenceValue);
                     }
                 }
             }
         }
+
+        referenceDigestValueRepository.saveAll(digestValues);
     }
-}
 
+    private void loadEventLog(final SupportReferenceManifest dbSupport) {
+        try {
+            supportRimCache.getEventLog(dbSupport);
+        } catch (IOException e) {
+            log.error("Failed to read the events of support RIM {}", dbSupport.getFileName(), e);
+        }
+    }
 
+    /**
+     * Result of parsing a single uploaded file.
+     *
+     * @param fileName      name of the uploaded file
+     * @param isBaseRim     whether the file has a base RIM extension
+     * @param isSupportRim  whether the file has a support RIM extension
+     * @param baseRim       parsed base RIM, or null
+     * @param supportRim    parsed support RIM, or null
+     * @param errorMessages error messages raised while parsing the file
+     */
+    private record ParsedUpload(String fileName, boolean isBaseRim, boolean isSupportRim,
+                                BaseReferenceManifest baseRim, SupportReferenceManifest supportRim,
+                                List<String> errorMessages) {
+    }
+}
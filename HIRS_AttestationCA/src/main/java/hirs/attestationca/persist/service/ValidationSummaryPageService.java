@@ -1,14 +1,16 @@
 package hirs.attestationca.persist.service;
 
 import hirs.attestationca.persist.entity.manager.SupplyChainValidationSummaryRepository;
+import hirs.attestationca.persist.entity.manager.SupplyChainValidationSummaryRepository.ValidationReportRow;
+import hirs.attestationca.persist.entity.manager.SupplyChainValidationSummaryRepository.ValidationResultRow;
 import hirs.attestationca.persist.entity.userdefined.DataTablesColumn;
 import hirs.attestationca.persist.entity.userdefined.Device;
 import hirs.attestationca.persist.entity.userdefined.SupplyChainValidation;
 import hirs.attestationca.persist.entity.userdefined.SupplyChainValidationSummary;
+import hirs.attestationca.persist.service.util.CriteriaPageQuery;
 import hirs.attestationca.persist.service.util.PageServiceUtils;
 import hirs.attestationca.persist.service.util.PredicateFactory;
 import jakarta.persistence.EntityManager;
-import jakarta.persistence.TypedQuery;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.Join;
@@ -20,7 +22,7 @@ import jakarta.persistence.criteria.Root;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
@@ -28,12 +30,17 @@ import org.springframework.stereotype.Service;
 import java.io.BufferedWriter;
 import java.io.IOException;
 import java.sql.Timestamp;
+import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.UUID;
 
 /**
  * Service class responsible for encapsulating all business logic related to the Validation Summary Page.
@@ -41,6 +48,12 @@ import java.util.Set;
 @Service
 @Log4j2
 public class ValidationSummaryPageService {
+
+    /**
+     * Number of validation summary reports read at a time when downloading the CSV report.
+     */
+    public static final int EXPORT_PAGE_SIZE = 500;
+
     private final SupplyChainValidationSummaryRepository supplyChainValidationSummaryRepository;
     private final EntityManager entityManager;
 
@@ -73,36 +86,22 @@ public class ValidationSummaryPageService {
             final String globalSearchTerm,
             final boolean archiveFlag,
             final Pageable pageable) {
-        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
-        CriteriaQuery<SupplyChainValidationSummary> query =
-                criteriaBuilder.createQuery(SupplyChainValidationSummary.class);
-        Root<SupplyChainValidationSummary> supplyChainValidationSummaryRoot =
-                query.from(SupplyChainValidationSummary.class);
-
-        final Predicate combinedGlobalSearchPredicates =
-                createPredicatesForGlobalSearch(searchableColumnNames, criteriaBuilder,
-                        supplyChainValidationSummaryRoot,
-                        globalSearchTerm);
-
-        // Define the conditions (predicates) for the query's WHERE clause.
-        query.where(criteriaBuilder.and(
-                combinedGlobalSearchPredicates,
-                criteriaBuilder.equal(supplyChainValidationSummaryRoot.get("archiveFlag"), archiveFlag)
-        ));
-
-        // Apply sorting if present in the Pageable
-        query.orderBy(
-                getSortingOrders(criteriaBuilder, supplyChainValidationSummaryRoot, pageable.getSort()));
-
-        // Apply pagination
-        TypedQuery<SupplyChainValidationSummary> typedQuery = entityManager.createQuery(query);
-        int totalRows = typedQuery.getResultList().size();  // Get the total count for pagination
-        typedQuery.setFirstResult((int) pageable.getOffset());
-        typedQuery.setMaxResults(pageable.getPageSize());
-
-        // Wrap the result in a Page object to return pagination info
-        List<SupplyChainValidationSummary> resultList = typedQuery.getResultList();
-        return new PageImpl<>(resultList, pageable, totalRows);
+        return CriteriaPageQuery.findPage(entityManager, SupplyChainValidationSummary.class,
+                (criteriaBuilder, supplyChainValidationSummaryRoot) -> {
+                    final Predicate combinedGlobalSearchPredicates =
+                            createPredicatesForGlobalSearch(searchableColumnNames, criteriaBuilder,
+                                    supplyChainValidationSummaryRoot,
+                                    globalSearchTerm);
+
+                    // Define the conditions (predicates) for the query's WHERE clause.
+                    return criteriaBuilder.and(
+                            combinedGlobalSearchPredicates,
+                            criteriaBuilder.equal(supplyChainValidationSummaryRoot.get("archiveFlag"), archiveFlag)
+                    );
+                },
+                (criteriaBuilder, supplyChainValidationSummaryRoot) ->
+                        getSortingOrders(criteriaBuilder, supplyChainValidationSummaryRoot, pageable.getSort()),
+                pageable);
     }
 
     /**
@@ -120,32 +119,18 @@ public class ValidationSummaryPageService {
             final Set<DataTablesColumn> columnsWithSearchCriteria,
             final boolean archiveFlag,
             final Pageable pageable) {
-        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
-        CriteriaQuery<SupplyChainValidationSummary> query =
-                criteriaBuilder.createQuery(SupplyChainValidationSummary.class);
-        Root<SupplyChainValidationSummary> supplyChainValidationSummaryRoot =
-                query.from(SupplyChainValidationSummary.class);
-
-        final Predicate combinedColumnSearchPredicates =
-                createPredicatesForColumnSpecificSearch(columnsWithSearchCriteria, criteriaBuilder,
-                        supplyChainValidationSummaryRoot);
-
-        query.where(criteriaBuilder.and(combinedColumnSearchPredicates,
-                criteriaBuilder.equal(supplyChainValidationSummaryRoot.get("archiveFlag"), archiveFlag)));
-
-        // Apply sorting if present in the Pageable
-        query.orderBy(
-                getSortingOrders(criteriaBuilder, supplyChainValidationSummaryRoot, pageable.getSort()));
-
-        // Apply pagination
-        TypedQuery<SupplyChainValidationSummary> typedQuery = entityManager.createQuery(query);
-        int totalRows = typedQuery.getResultList().size();  // Get the total count for pagination
-        typedQuery.setFirstResult((int) pageable.getOffset());
-        typedQuery.setMaxResults(pageable.getPageSize());
-
-        // Wrap the result in a Page object to return pagination info
-        List<SupplyChainValidationSummary> resultList = typedQuery.getResultList();
-        return new PageImpl<>(resultList, pageable, totalRows);
+        return CriteriaPageQuery.findPage(entityManager, SupplyChainValidationSummary.class,
+                (criteriaBuilder, supplyChainValidationSummaryRoot) -> {
+                    final Predicate combinedColumnSearchPredicates =
+                            createPredicatesForColumnSpecificSearch(columnsWithSearchCriteria, criteriaBuilder,
+                                    supplyChainValidationSummaryRoot);
+
+                    return criteriaBuilder.and(combinedColumnSearchPredicates,
+                            criteriaBuilder.equal(supplyChainValidationSummaryRoot.get("archiveFlag"), archiveFlag));
+                },
+                (criteriaBuilder, supplyChainValidationSummaryRoot) ->
+                        getSortingOrders(criteriaBuilder, supplyChainValidationSummaryRoot, pageable.getSort()),
+                pageable);
     }
 
 
@@ -177,42 +162,28 @@ public class ValidationSummaryPageService {
             final Set<DataTablesColumn> columnsWithSearchCriteria,
             final boolean archiveFlag,
             final Pageable pageable) {
-        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
-        CriteriaQuery<SupplyChainValidationSummary> query =
-                criteriaBuilder.createQuery(SupplyChainValidationSummary.class);
-        Root<SupplyChainValidationSummary> supplyChainValidationSummaryRoot =
-                query.from(SupplyChainValidationSummary.class);
-
-        final Predicate globalSearchPartOfChainedPredicates =
-                createPredicatesForGlobalSearch(searchableColumnNames, criteriaBuilder,
-                        supplyChainValidationSummaryRoot,
-                        globalSearchTerm);
-
-        final Predicate columnSearchPartOfChainedPredicates =
-                createPredicatesForColumnSpecificSearch(columnsWithSearchCriteria, criteriaBuilder,
-                        supplyChainValidationSummaryRoot);
-
-        // Define the conditions (predicates) for the query's WHERE clause.
-        // Combine global and column-specific predicates using AND logic
-        query.where(criteriaBuilder.and(
-                globalSearchPartOfChainedPredicates,
-                columnSearchPartOfChainedPredicates,
-                criteriaBuilder.equal(supplyChainValidationSummaryRoot.get("archiveFlag"), archiveFlag)
-        ));
-
-        // Apply sorting if present in the Pageable
-        query.orderBy(
-                getSortingOrders(criteriaBuilder, supplyChainValidationSummaryRoot, pageable.getSort()));
-
-        // Apply pagination
-        TypedQuery<SupplyChainValidationSummary> typedQuery = entityManager.createQuery(query);
-        int totalRows = typedQuery.getResultList().size();  // Get the total count for pagination
-        typedQuery.setFirstResult((int) pageable.getOffset());
-        typedQuery.setMaxResults(pageable.getPageSize());
-
-        // Wrap the result in a Page object to return pagination info
-        List<SupplyChainValidationSummary> resultList = typedQuery.getResultList();
-        return new PageImpl<>(resultList, pageable, totalRows);
+        return CriteriaPageQuery.findPage(entityManager, SupplyChainValidationSummary.class,
+                (criteriaBuilder, supplyChainValidationSummaryRoot) -> {
+                    final Predicate globalSearchPartOfChainedPredicates =
+                            createPredicatesForGlobalSearch(searchableColumnNames, criteriaBuilder,
+                                    supplyChainValidationSummaryRoot,
+                                    globalSearchTerm);
+
+                    final Predicate columnSearchPartOfChainedPredicates =
+                            createPredicatesForColumnSpecificSearch(columnsWithSearchCriteria, criteriaBuilder,
+                                    supplyChainValidationSummaryRoot);
+
+                    // Define the conditions (predicates) for the query's WHERE clause.
+                    // Combine global and column-specific predicates using AND logic
+                    return criteriaBuilder.and(
+                            globalSearchPartOfChainedPredicates,
+                            columnSearchPartOfChainedPredicates,
+                            criteriaBuilder.equal(supplyChainValidationSummaryRoot.get("archiveFlag"), archiveFlag)
+                    );
+                },
+                (criteriaBuilder, supplyChainValidationSummaryRoot) ->
+                        getSortingOrders(criteriaBuilder, supplyChainValidationSummaryRoot, pageable.getSort()),
+                pageable);
     }
 
     /**
@@ -225,6 +196,27 @@ public class ValidationSummaryPageService {
         return supplyChainValidationSummaryRepository.findByArchiveFlagFalse(pageable);
     }
 
+    /**
+     * Loads the validations of the provided Supply Chain Validation Summaries, along with the certificates
+     * used by those validations, in a single query rather than one query per summary.
+     *
+     * @param summaries a page of supply chain validation summaries
+     * @return the same supply chain validation summaries, in the same order, with their validations loaded
+     */
+    public List<SupplyChainValidationSummary> loadValidations(final List<SupplyChainValidationSummary> summaries) {
+        if (summaries.isEmpty()) {
+            return summaries;
+        }
+        Map<UUID, SupplyChainValidationSummary> summariesById = new HashMap<>();
+        for (SupplyChainValidationSummary summary : supplyChainValidationSummaryRepository.findByIdIn(
+                summaries.stream().map(SupplyChainValidationSummary::getId).toList())) {
+            summariesById.put(summary.getId(), summary);
+        }
+        return summaries.stream()
+                .map(summary -> summariesById.getOrDefault(summary.getId(), summary))
+                .toList();
+    }
+
     /**
      * Retrieves the total number of records stored in the {@link SupplyChainValidationSummaryRepository}.
      *
@@ -235,14 +227,20 @@ public class ValidationSummaryPageService {
     }
 
     /**
-     * Downloads a CSV report of the validation summary reports.
+     * Downloads a CSV report of the validation summary reports created within the provided dates.
+     * The reports are read and written one page at a time, newest first, so that memory use does not grow
+     * with the number of reports.
      *
      * @param bufferedWriter buffered writer
+     * @param fromDate       first day of the reports to download, or null to start with the oldest report
+     * @param toDate         last day of the reports to download, or null to end with the newest report
      * @throws IOException if there are any issues while trying to download the validation summary reports
      */
-    public void downloadValidationReports(final BufferedWriter bufferedWriter) throws IOException {
-        List<SupplyChainValidationSummary> summaries =
-                supplyChainValidationSummaryRepository.findByArchiveFlagFalseOrderByCreateTimeDesc();
+    public void downloadValidationReports(final BufferedWriter bufferedWriter, final LocalDate fromDate,
+                                          final LocalDate toDate) throws IOException {
+        final Date from = fromDate == null ? null : Timestamp.valueOf(fromDate.atStartOfDay());
+        final Date to = toDate == null ? null : Timestamp.valueOf(toDate.plusDays(1).atStartOfDay());
+        final Pageable exportPage = PageRequest.ofSize(EXPORT_PAGE_SIZE);
 
         final String validationReportsCsvHeader =
                 "Device Status, Device Name, Validation Timestamp, Endorsement Certificate Validation Status,"
@@ -250,28 +248,61 @@ public class ValidationSummaryPageService {
 
         bufferedWriter.append(new StringBuilder(validationReportsCsvHeader)).append(System.lineSeparator());
 
-        for (SupplyChainValidationSummary supplyChainValidationSummary : summaries) {
-            bufferedWriter.append(supplyChainValidationSummary.getOverallValidationResult().toString())
+        List<ValidationReportRow> rows =
+                supplyChainValidationSummaryRepository.findValidationReportRows(from, to, exportPage);
+
+        while (!rows.isEmpty()) {
+            writeValidationReportRows(bufferedWriter, rows);
+            bufferedWriter.flush();
+
+            if (rows.size() < EXPORT_PAGE_SIZE) {
+                break;
+            }
+
+            // continue after the last row written rather than counting an offset from the start
+            final ValidationReportRow lastRow = rows.getLast();
+            rows = supplyChainValidationSummaryRepository.findValidationReportRowsAfter(from, to,
+                    lastRow.getCreateTime(), lastRow.getId(), exportPage);
+        }
+    }
+
+    /**
+     * Helper method that writes a page of validation summary reports, along with the result of each type of
+     * validation, to the CSV report.
+     *
+     * @param bufferedWriter buffered writer
+     * @param rows           page of validation summary reports
+     * @throws IOException if the rows can't be written
+     */
+    private void writeValidationReportRows(final BufferedWriter bufferedWriter,
+                                           final List<ValidationReportRow> rows) throws IOException {
+        final List<UUID> summaryIds = rows.stream().map(ValidationReportRow::getId).toList();
+
+        // Build a map of validation summary → validation type → result
+        Map<UUID, Map<SupplyChainValidation.ValidationType, String>> validationResults = new HashMap<>();
+        for (ValidationResultRow validation
+                : supplyChainValidationSummaryRepository.findValidationResults(summaryIds)) {
+            validationResults.computeIfAbsent(validation.getSummaryId(), _ -> new HashMap<>())
+                    .put(validation.getValidationType(), validation.getValidationResult().toString());
+        }
+
+        for (ValidationReportRow row : rows) {
+            bufferedWriter.append(row.getOverallValidationResult().toString())
                     .append(",")
-                    .append(supplyChainValidationSummary.getDevice().getName())
+                    .append(Objects.toString(row.getDeviceName(), ""))
                     .append(",")
-                    .append(supplyChainValidationSummary.getCreateTime().toString())
+                    .append(row.getCreateTime().toString())
                     .append(",");
 
-            Set<SupplyChainValidation> supplyChainValidations = supplyChainValidationSummary.getValidations();
-
-            // Build a map of validation type → result
-            Map<SupplyChainValidation.ValidationType, String> validationResults = new HashMap<>();
-            for (SupplyChainValidation validation : supplyChainValidations) {
-                validationResults.put(validation.getValidationType(), validation.getValidationResult().toString());
-            }
+            final Map<SupplyChainValidation.ValidationType, String> summaryResults =
+                    validationResults.getOrDefault(row.getId(), Collections.emptyMap());
 
             // Append CSV columns in the order of the CSV header
-            bufferedWriter.append(validationResults.getOrDefault(
+            bufferedWriter.append(summaryResults.getOrDefault(
                     SupplyChainValidation.ValidationType.ENDORSEMENT_CERTIFICATE, "")).append(",");
-            bufferedWriter.append(validationResults.getOrDefault(
+            bufferedWriter.append(summaryResults.getOrDefault(
                     SupplyChainValidation.ValidationType.PLATFORM_CERTIFICATE, "")).append(",");
-            bufferedWriter.append(validationResults.getOrDefault(
+            bufferedWriter.append(summaryResults.getOrDefault(
                     SupplyChainValidation.ValidationType.FIRMWARE, ""));
             bufferedWriter.append(System.lineSeparator());
         }
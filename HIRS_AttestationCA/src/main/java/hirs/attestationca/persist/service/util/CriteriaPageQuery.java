@@ -0,0 +1,93 @@
+package hirs.attestationca.persist.service.util;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * Utility class that runs paginated JPA Criteria queries for the DataTables backed pages.
+ *
+ * <p>The requested page is fetched with a LIMIT/OFFSET query and the total number of matching rows is
+ * obtained with a separate <code>SELECT COUNT(*)</code> query that applies the same predicates, so
+ * that the matching entities (and their BLOB columns) are never loaded just to be counted. Because the
+ * predicates have to be bound to the root of each query, they are supplied as a function of the
+ * {@link CriteriaBuilder} and {@link Root} rather than as a ready built {@link Predicate}.</p>
+ */
+public final class CriteriaPageQuery {
+
+    /**
+     * Private constructor was created to silence checkstyle error.
+     */
+    private CriteriaPageQuery() {
+    }
+
+    /**
+     * Finds a single page of entities that match the provided predicates.
+     * The count query is skipped when the page contents already tell the total, e.g. on the last page.
+     *
+     * @param entityManager   entity manager
+     * @param entityClass     entity class to query
+     * @param whereClause     creates the conditions of the WHERE clause for the given query root
+     * @param orderByClause   creates the sorting orders for the given query root
+     * @param pageable        pageable
+     * @param <T>             entity type
+     * @return page of entities along with the total number of matching entities
+     */
+    public static <T> Page<T> findPage(final EntityManager entityManager,
+                                       final Class<T> entityClass,
+                                       final BiFunction<CriteriaBuilder, Root<T>, Predicate> whereClause,
+                                       final BiFunction<CriteriaBuilder, Root<T>, List<Order>> orderByClause,
+                                       final Pageable pageable) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = criteriaBuilder.createQuery(entityClass);
+        Root<T> root = query.from(entityClass);
+
+        // Define the conditions (predicates) for the query's WHERE clause.
+        query.where(whereClause.apply(criteriaBuilder, root));
+
+        // Apply sorting if present in the Pageable
+        query.orderBy(orderByClause.apply(criteriaBuilder, root));
+
+        // Apply pagination
+        TypedQuery<T> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+
+        // Wrap the result in a Page object to return pagination info
+        List<T> resultList = typedQuery.getResultList();
+        return PageableExecutionUtils.getPage(resultList, pageable,
+                () -> count(entityManager, entityClass, whereClause));
+    }
+
+    /**
+     * Counts the entities that match the provided predicates.
+     *
+     * @param entityManager entity manager
+     * @param entityClass   entity class to count
+     * @param whereClause   creates the conditions of the WHERE clause for the given query root
+     * @param <T>           entity type
+     * @return number of matching entities
+     */
+    public static <T> long count(final EntityManager entityManager,
+                                 final Class<T> entityClass,
+                                 final BiFunction<CriteriaBuilder, Root<T>, Predicate> whereClause) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> countQuery = criteriaBuilder.createQuery(Long.class);
+        Root<T> root = countQuery.from(entityClass);
+        countQuery.select(criteriaBuilder.count(root))
+                .where(whereClause.apply(criteriaBuilder, root));
+        return entityManager.createQuery(countQuery).getSingleResult();
+    }
+}
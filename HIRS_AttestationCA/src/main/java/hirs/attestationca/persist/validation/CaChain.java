@@ -0,0 +1,32 @@
+package hirs.attestationca.persist.validation;
+
+import hirs.attestationca.persist.entity.userdefined.certificate.CertificateAuthorityCredential;
+
+import java.security.KeyStore;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * The CA certificates that can be used to build the trust chain of a certificate, along with
+ * a trust store holding them. Instances are built by {@link CaChainCache} and shared between
+ * provisioning requests, so neither the certificates nor the key store may be modified; callers
+ * that need to add certificates must copy them into a key store of their own.
+ *
+ * @param certificates all CA credentials relevant to the certificate's issuer, up to the roots
+ * @param keyStore     a key store containing the certificates, or null if it couldn't be assembled
+ */
+public record CaChain(
+        Set<CertificateAuthorityCredential> certificates,
+        KeyStore keyStore
+) {
+    /**
+     * Canonical constructor. Copies the certificates into an unmodifiable set.
+     *
+     * @param certificates all CA credentials relevant to the certificate's issuer, up to the roots
+     * @param keyStore     a key store containing the certificates, or null if it couldn't be assembled
+     */
+    public CaChain {
+        certificates = Collections.unmodifiableSet(new LinkedHashSet<>(certificates));
+    }
+}
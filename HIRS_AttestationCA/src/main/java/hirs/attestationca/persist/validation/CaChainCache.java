@@ -0,0 +1,285 @@
+package hirs.attestationca.persist.validation;
+
+import hirs.attestationca.persist.entity.manager.CACredentialRepository;
+import hirs.attestationca.persist.entity.userdefined.Certificate;
+import hirs.attestationca.persist.entity.userdefined.certificate.CertificateAuthorityCredential;
+import hirs.utils.BouncyCastleUtils;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.log4j.Log4j2;
+import org.bouncycastle.util.encoders.Hex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.security.KeyStore;
+import java.security.KeyStoreException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * In-memory index of the trust chain (CA) certificates, used to build the CA chain of endorsement,
+ * platform and RIM signing certificates without querying the database for every link of the chain.
+ * <p>
+ * All CA credentials are loaded once and indexed by subject key identifier, subject and sorted
+ * subject, mirroring the repository lookups previously made for each certificate. The chain built
+ * for an issuer, together with its key store, is kept until the cache is invalidated, so that every
+ * certificate from the same issuer reuses it. The outcome of verifying a base RIM's signature
+ * against these CA credentials is kept the same way, keyed by the RIM's hash. The cache must be
+ * invalidated whenever trust chain certificates are added, restored or deleted.
+ */
+@Log4j2
+@Service
+public class CaChainCache implements MeterBinder {
+
+    private final CACredentialRepository caCredentialRepository;
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    private final Object loadLock = new Object();
+
+    private volatile TrustGraph trustGraph;
+
+    /**
+     * Constructor.
+     *
+     * @param caCredentialRepository CA credential repository
+     */
+    @Autowired
+    public CaChainCache(final CACredentialRepository caCredentialRepository) {
+        this.caCredentialRepository = caCredentialRepository;
+    }
+
+    /**
+     * Retrieves the entire CA chain (up to a trusted self-signed certificate) for the given
+     * certificate. CA certificates are matched by the certificate's authority key identifier, or by
+     * its issuer if no CA has that key identifier, and then recursively by the issuer of each
+     * matched CA. For that reason, the returned chain may be larger than the single trust chain for
+     * the certificate, but is guaranteed to include the trust chain if it exists.
+     *
+     * @param certificate the certificate whose CA chain should be retrieved
+     * @return the shared, unmodifiable CA chain of the certificate
+     */
+    public CaChain getChain(final Certificate certificate) {
+        TrustGraph graph = getTrustGraph();
+        ChainKey key = new ChainKey(certificate.getAuthorityKeyIdentifier(),
+                certificate.getIssuer(), certificate.getIssuerSorted());
+        CaChain chain = graph.chains.get(key);
+        if (chain != null) {
+            hitCount.incrementAndGet();
+            return chain;
+        }
+        missCount.incrementAndGet();
+        return graph.chains.computeIfAbsent(key, graph::buildChain);
+    }
+
+    /**
+     * Retrieves the CA credential with the given subject key identifier.
+     *
+     * @param subjectKeyIdString hex encoded subject key identifier
+     * @return the CA credential, or null if no CA credential has that subject key identifier
+     */
+    public CertificateAuthorityCredential findBySubjectKeyIdString(final String subjectKeyIdString) {
+        if (subjectKeyIdString == null) {
+            return null;
+        }
+        return getTrustGraph().bySubjectKeyIdentifier.get(subjectKeyIdString);
+    }
+
+    /**
+     * Retrieves the verdict of a base RIM's signature verification, running the verification if
+     * the RIM hasn't been verified against the current CA credentials yet.
+     *
+     * @param rimHash  hash of the base RIM's bytes; verdicts are not kept if it is empty
+     * @param verifier verifies the base RIM's signature
+     * @return the signature verdict
+     */
+    RimSignatureVerdict getRimSignatureVerdict(final String rimHash,
+                                               final Supplier<RimSignatureVerdict> verifier) {
+        if (rimHash == null || rimHash.isEmpty()) {
+            return verifier.get();
+        }
+        Map<String, RimSignatureVerdict> verdicts = getTrustGraph().rimSignatureVerdicts;
+        RimSignatureVerdict verdict = verdicts.get(rimHash);
+        if (verdict == null) {
+            verdict = verifier.get();
+            RimSignatureVerdict existing = verdicts.putIfAbsent(rimHash, verdict);
+            if (existing != null) {
+                verdict = existing;
+            }
+        }
+        return verdict;
+    }
+
+    /**
+     * Discards the indexed CA credentials and all chains built from them. The CA credentials are
+     * reloaded from the database on the next lookup.
+     */
+    public void invalidate() {
+        synchronized (loadLock) {
+            trustGraph = null;
+        }
+        log.debug("Invalidated the CA chain cache");
+    }
+
+    /**
+     * Retrieves the number of chain lookups answered from the cache.
+     *
+     * @return number of cache hits
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * Retrieves the number of chain lookups that had to build the chain.
+     *
+     * @return number of cache misses
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * Retrieves the fraction of chain lookups answered from the cache.
+     *
+     * @return the hit rate, between 0 and 1, or 0 if no lookups were made yet
+     */
+    public double getHitRate() {
+        long hits = hitCount.get();
+        long total = hits + missCount.get();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * Registers the cache hit and miss counters and the hit rate with the given registry.
+     *
+     * @param registry meter registry
+     */
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        FunctionCounter.builder("hirs.aca.ca.chain.cache.lookups", hitCount, AtomicLong::get)
+                .tag("result", "hit")
+                .description("CA chain lookups answered from the cache")
+                .register(registry);
+        FunctionCounter.builder("hirs.aca.ca.chain.cache.lookups", missCount, AtomicLong::get)
+                .tag("result", "miss")
+                .description("CA chain lookups that had to build the chain")
+                .register(registry);
+        Gauge.builder("hirs.aca.ca.chain.cache.hit.rate", this, CaChainCache::getHitRate)
+                .description("Fraction of CA chain lookups answered from the cache")
+                .register(registry);
+    }
+
+    private TrustGraph getTrustGraph() {
+        TrustGraph graph = trustGraph;
+        if (graph == null) {
+            synchronized (loadLock) {
+                graph = trustGraph;
+                if (graph == null) {
+                    List<CertificateAuthorityCredential> caCredentials = caCredentialRepository.findAll();
+                    graph = new TrustGraph(caCredentials);
+                    trustGraph = graph;
+                    log.info("Loaded {} CA credentials into the CA chain cache", caCredentials.size());
+                }
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * The fields of a certificate that determine its CA chain.
+     *
+     * @param authorityKeyIdentifier hex encoded authority key identifier
+     * @param issuer                 issuer
+     * @param issuerSorted           sorted issuer
+     */
+    private record ChainKey(String authorityKeyIdentifier, String issuer, String issuerSorted) {
+    }
+
+    /**
+     * Snapshot of the CA credentials, indexed for chain building, along with the chains built from it.
+     */
+    private static final class TrustGraph {
+        private final Map<String, CertificateAuthorityCredential> bySubjectKeyIdentifier = new HashMap<>();
+
+        private final Map<String, List<CertificateAuthorityCredential>> bySubject = new HashMap<>();
+
+        private final Map<String, List<CertificateAuthorityCredential>> bySubjectSorted = new HashMap<>();
+
+        private final Map<ChainKey, CaChain> chains = new ConcurrentHashMap<>();
+
+        private final Map<String, RimSignatureVerdict> rimSignatureVerdicts = new ConcurrentHashMap<>();
+
+        TrustGraph(final List<CertificateAuthorityCredential> caCredentials) {
+            for (CertificateAuthorityCredential caCredential : caCredentials) {
+                byte[] subjectKeyIdentifier = caCredential.getSubjectKeyIdentifier();
+                if (subjectKeyIdentifier != null) {
+                    bySubjectKeyIdentifier.putIfAbsent(Hex.toHexString(subjectKeyIdentifier), caCredential);
+                }
+                bySubject.computeIfAbsent(caCredential.getSubject(), k -> new ArrayList<>())
+                        .add(caCredential);
+                bySubjectSorted.computeIfAbsent(caCredential.getSubjectSorted(), k -> new ArrayList<>())
+                        .add(caCredential);
+            }
+        }
+
+        /**
+         * Walks up from the issuers of a certificate until every reachable CA has been added.
+         * Each CA is only expanded once, so issuer cycles terminate.
+         *
+         * @param key the chain fields of the certificate
+         * @return the CA chain
+         */
+        private CaChain buildChain(final ChainKey key) {
+            Set<CertificateAuthorityCredential> caCredentials = new LinkedHashSet<>();
+            Deque<CertificateAuthorityCredential> pending = new ArrayDeque<>(findIssuers(key));
+            while (!pending.isEmpty()) {
+                CertificateAuthorityCredential caCredential = pending.poll();
+                if (caCredentials.add(caCredential)
+                        && !BouncyCastleUtils.x500NameCompare(caCredential.getIssuer(),
+                        caCredential.getSubject())) {
+                    pending.addAll(findIssuers(new ChainKey(caCredential.getAuthorityKeyIdentifier(),
+                            caCredential.getIssuer(), caCredential.getIssuerSorted())));
+                }
+            }
+
+            KeyStore keyStore = null;
+            try {
+                keyStore = ValidationService.caCertSetToKeystore(caCredentials);
+            } catch (KeyStoreException | IOException e) {
+                log.error("Unable to assemble CA keystore", e);
+            }
+            return new CaChain(caCredentials, keyStore);
+        }
+
+        private List<CertificateAuthorityCredential> findIssuers(final ChainKey key) {
+            if (key.authorityKeyIdentifier() != null && !key.authorityKeyIdentifier().isEmpty()) {
+                CertificateAuthorityCredential skiCA = bySubjectKeyIdentifier.get(
+                        Hex.toHexString(Hex.decode(key.authorityKeyIdentifier())));
+                if (skiCA != null) {
+                    return List.of(skiCA);
+                }
+            }
+
+            if (key.issuerSorted() == null || key.issuerSorted().isEmpty()) {
+                return bySubject.getOrDefault(key.issuer(), List.of());
+            }
+            //Get certificates by subject organization
+            return bySubjectSorted.getOrDefault(key.issuerSorted(), List.of());
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package hirs.attestationca.persist.validation;
+
+import hirs.utils.tpm.eventlog.TpmPcrEvent;
+import hirs.utils.tpm.eventlog.events.EvConstants;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the events of a measured event log with the reference events of its platform.
+ * <p>
+ * An event matches if its digest is one of the reference digests. Each unmatched event is then paired with
+ * the reference events it could have replaced: those extended into the same PCR with the same event type,
+ * and, for UEFI variable events, measuring the same variable. The reference events are indexed once by
+ * PCR and event type, so pairing costs one lookup per unmatched event rather than a scan of the reference
+ * log.
+ */
+public final class EventLogComparison {
+
+    private static final Pattern VARIABLE_NAME = Pattern.compile("Variable Name: (\\w+)");
+
+    private EventLogComparison() {
+    }
+
+    /**
+     * Finds the events whose digest is not one of the reference digests.
+     *
+     * @param events           events of the measured event log
+     * @param referenceDigests digests of the reference events
+     * @return the unmatched events, in log order
+     */
+    public static List<TpmPcrEvent> findUnmatchedEvents(final Collection<TpmPcrEvent> events,
+                                                        final Set<String> referenceDigests) {
+        List<TpmPcrEvent> unmatchedEvents = new ArrayList<>();
+        for (TpmPcrEvent event : events) {
+            if (!referenceDigests.contains(event.getEventDigestStr())) {
+                unmatchedEvents.add(event);
+            }
+        }
+        return unmatchedEvents;
+    }
+
+    /**
+     * Pairs each unmatched event with the reference events it could have replaced.
+     *
+     * @param unmatchedEvents unmatched events of the measured event log
+     * @param referenceEvents events of the reference event logs
+     * @return the candidate reference events, keyed by the digest of each unmatched event
+     */
+    public static Map<String, List<TpmPcrEvent>> findCandidateEvents(
+            final Collection<TpmPcrEvent> unmatchedEvents,
+            final Collection<TpmPcrEvent> referenceEvents) {
+        Map<EventKey, List<TpmPcrEvent>> referenceIndex = new HashMap<>();
+        for (TpmPcrEvent referenceEvent : referenceEvents) {
+            referenceIndex.computeIfAbsent(EventKey.of(referenceEvent), _ -> new ArrayList<>())
+                    .add(referenceEvent);
+        }
+
+        Map<String, List<TpmPcrEvent>> candidateEvents = new HashMap<>();
+        for (TpmPcrEvent unmatchedEvent : unmatchedEvents) {
+            List<TpmPcrEvent> sameKind =
+                    referenceIndex.getOrDefault(EventKey.of(unmatchedEvent), Collections.emptyList());
+            List<TpmPcrEvent> candidates = new ArrayList<>();
+            if (isVariableEvent(unmatchedEvent.getEventType())) {
+                Matcher matcher = VARIABLE_NAME.matcher(unmatchedEvent.getEventContentStr());
+                if (matcher.find()) {
+                    String variableName = matcher.group(1);
+                    for (TpmPcrEvent referenceEvent : sameKind) {
+                        if (referenceEvent.getEventContentStr().contains(variableName)) {
+                            candidates.add(referenceEvent);
+                        }
+                    }
+                }
+            } else {
+                candidates.addAll(sameKind);
+            }
+            candidateEvents.put(unmatchedEvent.getEventDigestStr(), candidates);
+        }
+        return candidateEvents;
+    }
+
+    /**
+     * Checks if the given event type measures a UEFI variable or SPDM device, whose events are only
+     * comparable when they measure the same variable.
+     *
+     * @param eventType event type
+     * @return true if events of that type are matched by variable name
+     */
+    private static boolean isVariableEvent(final long eventType) {
+        return eventType == EvConstants.EV_EFI_VARIABLE_AUTHORITY
+                || eventType == EvConstants.EV_EFI_VARIABLE_BOOT
+                || eventType == EvConstants.EV_EFI_VARIABLE_DRIVER_CONFIG
+                || eventType == EvConstants.EV_EFI_SPDM_DEVICE_AUTHORITY
+                || eventType == EvConstants.EV_EFI_SPDM_DEVICE_POLICY;
+    }
+
+    /**
+     * PCR index and event type of an event.
+     *
+     * @param pcrIndex  PCR the event was extended into
+     * @param eventType type of the event
+     */
+    private record EventKey(int pcrIndex, long eventType) {
+        static EventKey of(final TpmPcrEvent event) {
+            return new EventKey(event.getPcrIndex(), event.getEventType());
+        }
+    }
+}
@@ -1,7 +1,5 @@
 package hirs.attestationca.persist.validation;
 
-import hirs.attestationca.persist.entity.manager.CACredentialRepository;
-import hirs.attestationca.persist.entity.manager.ReferenceDigestValueRepository;
 import hirs.attestationca.persist.entity.manager.ReferenceManifestRepository;
 import hirs.attestationca.persist.entity.userdefined.Device;
 import hirs.attestationca.persist.entity.userdefined.PolicySettings;
@@ -14,21 +12,22 @@ import hirs.attestationca.persist.enums.AppraisalStatus;
 import hirs.attestationca.persist.exceptions.SupplyChainValidatorException;
 import hirs.utils.SwidResource;
 import hirs.utils.rim.ReferenceManifestValidator;
+import hirs.utils.rim.SwidTagParser;
 import hirs.utils.tpm.eventlog.TCGEventLog;
 import hirs.utils.tpm.eventlog.TpmPcrEvent;
 import lombok.extern.log4j.Log4j2;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
-import java.security.KeyStore;
+import java.security.cert.CertificateEncodingException;
+import java.security.cert.CertificateExpiredException;
+import java.security.cert.CertificateNotYetValidException;
 import java.security.cert.X509Certificate;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 
 import static hirs.attestationca.persist.enums.AppraisalStatus.Status.ERROR;
 import static hirs.attestationca.persist.enums.AppraisalStatus.Status.FAIL;
@@ -40,28 +39,26 @@ import static hirs.attestationca.persist.enums.AppraisalStatus.Status.PASS;
 @Log4j2
 public class FirmwareScvValidator extends SupplyChainCredentialValidator {
 
-    private static PcrValidator pcrValidator;
-    private static ReferenceManifest supportReferenceManifest;
-
     /**
-     * Validates the firmware and returns an {@link AppraisalStatus}.
+     * Validates the firmware and returns an {@link AppraisalStatus}. All state needed across the
+     * validation steps is kept on the stack or in the provided {@link ValidationContext}, so this
+     * method can be called concurrently for different devices.
      *
-     * @param device                         device
-     * @param policySettings                 policy settings
+     * @param validationContext              the request-scoped validation context
      * @param referenceManifestRepository    reference manifest repository
-     * @param referenceDigestValueRepository reference digest value repository
-     * @param caCredentialRepository         CA Credential repository
+     * @param supportRimCache                support RIM cache
+     * @param caChainCache                   CA chain cache
      * @return an appraisal status
      */
     @SuppressWarnings("methodlength")
     public static AppraisalStatus validateFirmware(
-            final Device device, final PolicySettings policySettings,
+            final ValidationContext validationContext,
             final ReferenceManifestRepository referenceManifestRepository,
-            final ReferenceDigestValueRepository referenceDigestValueRepository,
-            final CACredentialRepository caCredentialRepository) {
+            final SupportRimCache supportRimCache,
+            final CaChainCache caChainCache) {
         boolean passed = true;
         AppraisalStatus fwStatus = null;
-        String hostName = device.getDeviceInfo().getNetworkInfo().getHostname();
+        String hostName = validationContext.hostName();
         BaseReferenceManifest baseReferenceManifest = null;
         EventLogMeasurements measurement = null;
         log.info("Validating firmware...");
@@ -111,12 +108,15 @@ public class FirmwareScvValidator extends SupplyChainCredentialValidator {
         }
 
         if (passed) {
-            AppraisalStatus rimSignatureStatus = validateRimSignature(baseReferenceManifest,
-                    caCredentialRepository, referenceManifestRepository);
+            List<SwidResource> resources = baseReferenceManifest.getFileResources();
+            ReferenceManifest supportReferenceManifest = findSupportRim(resources, referenceManifestRepository);
+            AppraisalStatus rimSignatureStatus = validateRimSignature(baseReferenceManifest, resources,
+                    supportReferenceManifest, caChainCache,
+                    validationContext.policySettings().isExpiredCertificateValidationEnabled());
             fwStatus = rimSignatureStatus;
             if (rimSignatureStatus.getAppStatus() == PASS) {
-                AppraisalStatus pcrStatus = validatePcrValues(device, hostName, baseReferenceManifest,
-                        measurement, referenceDigestValueRepository, policySettings);
+                AppraisalStatus pcrStatus = validatePcrValues(validationContext, baseReferenceManifest,
+                        supportReferenceManifest, measurement, supportRimCache);
                 fwStatus = pcrStatus;
                 if (pcrStatus.getAppStatus() == PASS) {
                     EventLogMeasurements eventLog = measurement;
@@ -143,16 +143,99 @@ public class FirmwareScvValidator extends SupplyChainCredentialValidator {
         return fwStatus;
     }
 
+    /**
+     * Looks up the support RIM referenced by the file resources of a base RIM.
+     *
+     * @param resources                   file resources of the base RIM
+     * @param referenceManifestRepository reference manifest repository
+     * @return the support RIM referenced by the last file resource, or null if it can't be found
+     */
+    private static ReferenceManifest findSupportRim(
+            final List<SwidResource> resources,
+            final ReferenceManifestRepository referenceManifestRepository) {
+        ReferenceManifest supportReferenceManifest = null;
+        for (SwidResource swidRes : resources) {
+            supportReferenceManifest = referenceManifestRepository.findByHexDecHashAndRimType(
+                    swidRes.getHashValue(), ReferenceManifest.SUPPORT_RIM);
+        }
+        return supportReferenceManifest;
+    }
+
     private static AppraisalStatus validateRimSignature(
             final BaseReferenceManifest baseReferenceManifest,
-            final CACredentialRepository caCredentialRepository,
-            final ReferenceManifestRepository referenceManifestRepository) {
-        List<SwidResource> resources =
-                baseReferenceManifest.getFileResources();
-        AppraisalStatus rimSignatureStatus = new AppraisalStatus(PASS, "RIM signature valid.");
-        boolean passed = true;
+            final List<SwidResource> resources,
+            final ReferenceManifest supportReferenceManifest,
+            final CaChainCache caChainCache,
+            final boolean acceptExpired) {
         log.info("Validating RIM signature...");
 
+        // base RIMs don't change once uploaded, so the signature is only verified once per trust chain
+        RimSignatureVerdict verdict = caChainCache.getRimSignatureVerdict(
+                baseReferenceManifest.getHexDecHash(),
+                () -> verifyRimSignature(baseReferenceManifest, caChainCache));
+        AppraisalStatus rimSignatureStatus = verdict.status();
+        boolean passed = true;
+
+        // the signer can expire or leave the trust chain after the signature was verified
+        if (verdict.signingCert() != null && verdict.signatureValid()) {
+            AppraisalStatus signerStatus = validateRimSigner(verdict.signingCert(), caChainCache, acceptExpired);
+            if (signerStatus != null) {
+                passed = false;
+                rimSignatureStatus = signerStatus;
+            }
+        }
+
+        ReferenceManifestValidator referenceManifestValidator =
+                new ReferenceManifestValidator();
+        if (supportReferenceManifest != null) {
+            // the support RIM was resolved from the last file resource of the base RIM
+            referenceManifestValidator.validateSupportRimHash(supportReferenceManifest.getRimBytes(),
+                    resources.get(resources.size() - 1).getHashValue());
+        }
+
+        if (passed && verdict.signingCert() == null) {
+            passed = false;
+            rimSignatureStatus = new AppraisalStatus(FAIL,
+                    "RIM signature validation failed: signing cert not found.");
+        }
+
+        if (passed && supportReferenceManifest == null) {
+            rimSignatureStatus = new AppraisalStatus(FAIL,
+                    "Support Reference Integrity Manifest can not be found");
+            passed = false;
+        }
+
+        if (passed && !verdict.signatureValid()) {
+            passed = false;
+            String validationErrorMessage = verdict.validationErrorMessage();
+            if (validationErrorMessage != null && !validationErrorMessage.isEmpty()) {
+                rimSignatureStatus = new AppraisalStatus(FAIL, validationErrorMessage);
+            } else {
+                rimSignatureStatus = new AppraisalStatus(FAIL, "Base RIM signature invalid.");
+            }
+        }
+
+        if (passed && !referenceManifestValidator.isSupportRimValid()) {
+            rimSignatureStatus = new AppraisalStatus(FAIL,
+                    "RIM signature validation failed: Hash validation "
+                            + "failed for Support RIM.");
+        }
+
+        return rimSignatureStatus;
+    }
+
+    /**
+     * Verifies the XML signature of a base RIM with the certificate that signed it.
+     *
+     * @param baseReferenceManifest base RIM
+     * @param caChainCache          CA chain cache
+     * @return the signature verdict
+     */
+    private static RimSignatureVerdict verifyRimSignature(
+            final BaseReferenceManifest baseReferenceManifest,
+            final CaChainCache caChainCache) {
+        AppraisalStatus rimSignatureStatus = new AppraisalStatus(PASS, "RIM signature valid.");
+
         // verify signatures
         ReferenceManifestValidator referenceManifestValidator =
                 new ReferenceManifestValidator();
@@ -164,24 +247,11 @@ public class FirmwareScvValidator extends SupplyChainCredentialValidator {
         }
 
         //Validate signing cert
-        List<CertificateAuthorityCredential> allCerts = caCredentialRepository.findAll();
-        CertificateAuthorityCredential signingCert = null;
-        for (CertificateAuthorityCredential cert : allCerts) {
-            signingCert = cert;
-            KeyStore keyStore = null;
-            Set<CertificateAuthorityCredential> set = ValidationService.getCaChainRec(signingCert,
-                    Collections.emptySet(),
-                    caCredentialRepository);
-            try {
-                keyStore = ValidationService.caCertSetToKeystore(set);
-            } catch (Exception e) {
-                log.error("Error building CA chain for "
-                        + Arrays.toString(signingCert.getSubjectKeyIdentifier()) + ": "
-                        + e.getMessage());
-            }
-
-            ArrayList<X509Certificate> certs = new ArrayList<>(set.size());
-            for (CertificateAuthorityCredential cac : set) {
+        CertificateAuthorityCredential signingCert = findRimSigner(referenceManifestValidator, caChainCache);
+        if (signingCert != null) {
+            CaChain caChain = caChainCache.getChain(signingCert);
+            ArrayList<X509Certificate> certs = new ArrayList<>(caChain.certificates().size());
+            for (CertificateAuthorityCredential cac : caChain.certificates()) {
                 try {
                     certs.add(cac.getX509Certificate());
                 } catch (IOException e) {
@@ -193,93 +263,108 @@ public class FirmwareScvValidator extends SupplyChainCredentialValidator {
             }
             referenceManifestValidator.setTrustStore(certs);
             try {
-                if (referenceManifestValidator.validateXmlSignature(
+                referenceManifestValidator.validateXmlSignature(
                         signingCert.getX509Certificate().getPublicKey(),
-                        signingCert.getSubjectKeyIdString())) {
-                    try {
-                        if (!SupplyChainCredentialValidator.verifyCertificate(
-                                signingCert.getX509Certificate(), keyStore)) {
-                            passed = false;
-                            rimSignatureStatus = new AppraisalStatus(FAIL,
-                                    "RIM signature validation failed: invalid certificate path.");
-                        }
-                    } catch (IOException ioEx) {
-                        log.error("Error getting X509 cert from manager: " + ioEx.getMessage());
-                    } catch (SupplyChainValidatorException scvEx) {
-                        log.error("Error validating cert against keystore: " + scvEx.getMessage());
-                        rimSignatureStatus = new AppraisalStatus(FAIL,
-                                "RIM signature validation failed: invalid certificate path.");
-                    }
-                    break;
-                }
+                        signingCert.getSubjectKeyIdString());
             } catch (IOException ioEx) {
                 log.error("Error getting X509 cert from manager: " + ioEx.getMessage());
             }
         }
 
-        for (SwidResource swidRes : resources) {
-            supportReferenceManifest = referenceManifestRepository.findByHexDecHashAndRimType(
-                    swidRes.getHashValue(), ReferenceManifest.SUPPORT_RIM);
-            if (supportReferenceManifest != null) {
-                // Removed the filename check from this if statement
-                referenceManifestValidator.validateSupportRimHash(
-                        supportReferenceManifest.getRimBytes(), swidRes.getHashValue());
-            }
-        }
+        return new RimSignatureVerdict(rimSignatureStatus, signingCert,
+                referenceManifestValidator.isSignatureValid(),
+                referenceManifestValidator.getValidationErrorMessage());
+    }
 
-        if (passed && signingCert == null) {
-            passed = false;
-            rimSignatureStatus = new AppraisalStatus(FAIL,
-                    "RIM signature validation failed: signing cert not found.");
+    /**
+     * Checks the validity period of the certificate that signed a base RIM, and its certificate path
+     * to the trusted CAs.
+     *
+     * @param signingCert   the certificate that signed the RIM
+     * @param caChainCache  CA chain cache
+     * @param acceptExpired whether to accept expired and not yet valid certificates
+     * @return the failure status, or null if the signer is valid
+     */
+    static AppraisalStatus validateRimSigner(
+            final CertificateAuthorityCredential signingCert,
+            final CaChainCache caChainCache,
+            final boolean acceptExpired) {
+        try {
+            X509Certificate signer = signingCert.getX509Certificate();
+            if (!acceptExpired) {
+                signer.checkValidity();
+            }
+            if (!SupplyChainCredentialValidator.verifyCertificate(signer,
+                    caChainCache.getChain(signingCert).keyStore())) {
+                return new AppraisalStatus(FAIL, "RIM signature validation failed: invalid certificate path.");
+            }
+        } catch (CertificateExpiredException e) {
+            return new AppraisalStatus(FAIL,
+                    "RIM signature validation failed: the signing certificate is expired.");
+        } catch (CertificateNotYetValidException e) {
+            return new AppraisalStatus(FAIL,
+                    "RIM signature validation failed: the signing certificate is not yet valid.");
+        } catch (IOException ioEx) {
+            log.error("Error getting X509 cert from manager: " + ioEx.getMessage());
+        } catch (SupplyChainValidatorException scvEx) {
+            log.error("Error validating cert against keystore: " + scvEx.getMessage());
+            return new AppraisalStatus(FAIL, "RIM signature validation failed: invalid certificate path.");
         }
+        return null;
+    }
 
-        if (passed && supportReferenceManifest == null) {
-            rimSignatureStatus = new AppraisalStatus(FAIL,
-                    "Support Reference Integrity Manifest can not be found");
-            passed = false;
+    /**
+     * Finds the certificate that signed a base RIM. A certificate embedded in the signature is used
+     * as is and only has to chain up to a trusted CA; when the signature embeds a chain, the signer is
+     * the certificate named by the KeyName element or the one that verifies the signature. Otherwise
+     * the trusted CA is looked up by the subject key identifier in the KeyName element.
+     *
+     * @param referenceManifestValidator validator holding the base RIM
+     * @param caChainCache               CA chain cache
+     * @return the signing certificate, or null if it can't be found
+     */
+    private static CertificateAuthorityCredential findRimSigner(
+            final ReferenceManifestValidator referenceManifestValidator,
+            final CaChainCache caChainCache) {
+        if (referenceManifestValidator.getRim() == null) {
+            return null;
         }
 
-        if (passed && !referenceManifestValidator.isSignatureValid()) {
-            passed = false;
-            String validationErrorMessage = referenceManifestValidator.getValidationErrorMessage();
-            if (!validationErrorMessage.isEmpty()) {
-                rimSignatureStatus = new AppraisalStatus(FAIL, validationErrorMessage);
-            } else {
-                rimSignatureStatus = new AppraisalStatus(FAIL, "Base RIM signature invalid.");
+        List<X509Certificate> embeddedCerts =
+                SwidTagParser.getEmbeddedX509Certificates(referenceManifestValidator.getRim());
+        if (embeddedCerts != null && !embeddedCerts.isEmpty()) {
+            try {
+                return new CertificateAuthorityCredential(
+                        referenceManifestValidator.findEmbeddedSigningCertificate(embeddedCerts).getEncoded());
+            } catch (CertificateEncodingException | IOException e) {
+                log.error("Error reading the certificate embedded in the RIM signature: " + e.getMessage());
+                return null;
             }
         }
-
-        if (passed && !referenceManifestValidator.isSupportRimValid()) {
-            rimSignatureStatus = new AppraisalStatus(FAIL,
-                    "RIM signature validation failed: Hash validation "
-                            + "failed for Support RIM.");
-        }
-
-        return rimSignatureStatus;
+        return caChainCache.findBySubjectKeyIdString(referenceManifestValidator.getKeyName());
     }
 
     private static AppraisalStatus validatePcrValues(
-            final Device device,
-            final String hostName,
+            final ValidationContext validationContext,
             final ReferenceManifest baseReferenceManifest,
+            final ReferenceManifest supportReferenceManifest,
             final EventLogMeasurements measurement,
-            final ReferenceDigestValueRepository referenceDigestValueRepository,
-            final PolicySettings policySettings) {
-
+            final SupportRimCache supportRimCache) {
+        final Device device = validationContext.device();
+        final String hostName = validationContext.hostName();
+        final PolicySettings policySettings = validationContext.policySettings();
         String[] baseline = new String[Integer.SIZE];
-        TCGEventLog logProcessor;
         AppraisalStatus pcrAppraisalStatus = new AppraisalStatus(PASS, "PCR values validated.");
         log.info("Validating PCR values...");
 
         try {
-            logProcessor = new TCGEventLog(supportReferenceManifest.getRimBytes());
-            baseline = logProcessor.getExpectedPCRValues();
+            baseline = supportRimCache.getEventLog(supportReferenceManifest).getExpectedPcrValues();
         } catch (IOException ioEx) {
             log.error(ioEx);
         }
 
         // part 1 of firmware validation check: PCR baseline match
-        pcrValidator = new PcrValidator(baseline);
+        PcrValidator pcrValidator = new PcrValidator(baseline);
 
         if (baseline.length > 0) {
             String pcrContent = "";
@@ -304,19 +389,17 @@ public class FirmwareScvValidator extends SupplyChainCredentialValidator {
                 // find the measurement
                 TCGEventLog tcgMeasurementLog;
                 LinkedList<TpmPcrEvent> tpmPcrEvents = new LinkedList<>();
-                List<ReferenceDigestValue> eventValue;
-                HashMap<String, ReferenceDigestValue> eventValueMap = new HashMap<>();
                 try {
                     if (measurement.getDeviceName().equals(hostName)) {
                         tcgMeasurementLog = new TCGEventLog(measurement.getRimBytes());
-                        eventValue = referenceDigestValueRepository
-                                .findValuesByBaseRimId(baseReferenceManifest.getId());
-                        for (ReferenceDigestValue rdv : eventValue) {
-                            eventValueMap.put(rdv.getDigestValue(), rdv);
-                        }
+                        Map<String, ReferenceDigestValue> eventValueMap =
+                                supportRimCache.getDigestValues(baseReferenceManifest.getId());
 
                         tpmPcrEvents.addAll(pcrValidator.validateTpmEvents(
                                 tcgMeasurementLog, eventValueMap, policySettings));
+                        // kept for the RIM details page, which displays every unmatched event
+                        measurement.setUnmatchedEvents(EventLogComparison.findUnmatchedEvents(
+                                tcgMeasurementLog.getEventList(), eventValueMap.keySet()));
                     }
                 } catch (IOException e) {
                     log.error(e);
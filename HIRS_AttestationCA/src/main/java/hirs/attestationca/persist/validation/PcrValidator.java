@@ -7,6 +7,7 @@ import hirs.attestationca.persist.tpm.PcrComposite;
 import hirs.attestationca.persist.tpm.PcrInfoShort;
 import hirs.attestationca.persist.tpm.PcrSelection;
 import hirs.utils.tpm.eventlog.TCGEventLog;
+import hirs.utils.tpm.eventlog.TcgTpmtHa;
 import hirs.utils.tpm.eventlog.TpmPcrEvent;
 import lombok.extern.log4j.Log4j2;
 import org.apache.commons.codec.DecoderException;
@@ -227,9 +228,51 @@ public class PcrValidator {
     public boolean validateQuote(final byte[] tpmQuote, final String[] storedPcrs,
                                  final PolicySettings policySettings) {
         log.info("Validating quote from associated device.");
-        boolean validated = false;
-        short localityAtRelease = 0;
         String quoteString = new String(tpmQuote, StandardCharsets.UTF_8);
+        String calculatedString = calculatePcrDigest(tpmQuote, storedPcrs, policySettings);
+        boolean validated = calculatedString != null && quoteString.contains(calculatedString);
+        if (!validated) {
+            log.warn(calculatedString + " not found in " + quoteString);
+        }
+        return validated;
+    }
+
+    /**
+     * Compares hashs to validate the quote from the client against each PCR bank replayed from
+     * the event log. The quote is valid if it holds the digest of one of the banks, which is the
+     * bank the TPM quoted.
+     *
+     * @param tpmQuote       the provided quote
+     * @param pcrBanks       values of each bank from the RIM file, keyed by TCG algorithm id
+     * @param policySettings db entity that holds all of policy
+     * @return true if validated, false if not
+     */
+    public boolean validateQuote(final byte[] tpmQuote, final Map<Integer, String[]> pcrBanks,
+                                 final PolicySettings policySettings) {
+        log.info("Validating quote from associated device.");
+        String quoteString = new String(tpmQuote, StandardCharsets.UTF_8);
+        for (Map.Entry<Integer, String[]> pcrBank : pcrBanks.entrySet()) {
+            String calculatedString = calculatePcrDigest(tpmQuote, pcrBank.getValue(), policySettings);
+            if (calculatedString != null && quoteString.contains(calculatedString)) {
+                log.info("Quote matches the {} PCR bank", TcgTpmtHa.tcgAlgIdToString(pcrBank.getKey()));
+                return true;
+            }
+        }
+        log.warn("No PCR bank of the event log matches the quote " + quoteString);
+        return false;
+    }
+
+    /**
+     * Calculates the digest of the PCR values the same way the TPM does when quoting them.
+     *
+     * @param tpmQuote       the provided quote
+     * @param storedPcrs     values from the RIM file
+     * @param policySettings db entity that holds all of policy
+     * @return the hex encoded digest, or null if it can't be calculated
+     */
+    private String calculatePcrDigest(final byte[] tpmQuote, final String[] storedPcrs,
+                                      final PolicySettings policySettings) {
+        short localityAtRelease = 0;
         int pcrMaskSelection = ALL_PCRS_ON;
 
         if (policySettings.isIgnoreImaEnabled()) {
@@ -267,15 +310,13 @@ public class PcrValidator {
                     pcrInfoShort.getCalculatedDigest());
             log.debug("Validating PCR information with the following:"
                     + System.lineSeparator() + "calculatedString = " + calculatedString
-                    + System.lineSeparator() + "quoteString = " + quoteString);
-            validated = quoteString.contains(calculatedString);
-            if (!validated) {
-                log.warn(calculatedString + " not found in " + quoteString);
-            }
+                    + System.lineSeparator() + "quoteString = "
+                    + new String(tpmQuote, StandardCharsets.UTF_8));
+            return calculatedString;
         } catch (NoSuchAlgorithmException naEx) {
             log.error(naEx);
         }
 
-        return validated;
+        return null;
     }
 }
@@ -0,0 +1,106 @@
+package hirs.attestationca.persist.validation;
+
+import hirs.attestationca.persist.entity.manager.PolicyRepository;
+import hirs.attestationca.persist.entity.userdefined.PolicySettings;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-memory snapshot of the default policy settings, read by every provisioning request instead of
+ * querying the policy for each step of the request.
+ * <p>
+ * The snapshot is loaded on first use and replaced by {@link #refresh()}, which must be called
+ * whenever the policy is saved. Each snapshot carries a version, and a refresh only replaces the
+ * snapshot with one loaded after it, so concurrent refreshes can't leave an older policy in place.
+ * A provisioning request reads the snapshot once and passes it to each step, so that a policy
+ * change during the request can't lead to inconsistent decisions. The snapshot holds its own copy
+ * of the policy, and each caller receives another copy, so changes made by a request to its settings
+ * are neither saved nor seen by other requests.
+ */
+@Log4j2
+@Service
+public class PolicySettingsCache {
+
+    private static final String DEFAULT_POLICY_NAME = "Default";
+
+    private final PolicyRepository policyRepository;
+
+    private final AtomicLong versions = new AtomicLong();
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+    /**
+     * Constructor.
+     *
+     * @param policyRepository policy repository
+     */
+    @Autowired
+    public PolicySettingsCache(final PolicyRepository policyRepository) {
+        this.policyRepository = policyRepository;
+    }
+
+    /**
+     * Retrieves a copy of the current snapshot of the default policy settings, loading it on first use.
+     *
+     * @return a copy of the default policy settings
+     */
+    public PolicySettings getPolicySettings() {
+        Snapshot current = snapshot.get();
+        if (current == null) {
+            current = load();
+        }
+        return new PolicySettings(current.policySettings());
+    }
+
+    /**
+     * Retrieves the version of the current snapshot, which increases every time it is refreshed.
+     *
+     * @return the version of the current snapshot, or 0 if it hasn't been loaded yet
+     */
+    public long getVersion() {
+        Snapshot current = snapshot.get();
+        return current == null ? 0 : current.version();
+    }
+
+    /**
+     * Reloads the default policy settings. Must be called after the policy has been saved.
+     */
+    public void refresh() {
+        Snapshot refreshed = load();
+        log.debug("Refreshed the default policy settings to version {}", refreshed.version());
+    }
+
+    /**
+     * Loads the default policy settings and installs them unless a later load was installed first.
+     * If the default policy doesn't exist yet, settings with no validation enabled are returned
+     * without being kept, so that the policy is looked up again by the next request.
+     *
+     * @return the loaded snapshot
+     */
+    private Snapshot load() {
+        final long version = versions.incrementAndGet();
+        PolicySettings policySettings = policyRepository.findByName(DEFAULT_POLICY_NAME);
+        if (policySettings == null) {
+            return new Snapshot(version, new PolicySettings(DEFAULT_POLICY_NAME,
+                    "Settings are configured for no validation flags set."));
+        }
+        final Snapshot loaded = new Snapshot(version, new PolicySettings(policySettings));
+        snapshot.accumulateAndGet(loaded,
+                (current, candidate) -> current == null || candidate.version() > current.version()
+                        ? candidate : current);
+        return loaded;
+    }
+
+    /**
+     * Default policy settings as loaded at a given version.
+     *
+     * @param version        order in which the snapshot was loaded
+     * @param policySettings copy of the default policy settings, never handed out
+     */
+    private record Snapshot(long version, PolicySettings policySettings) {
+    }
+}
@@ -0,0 +1,126 @@
+package hirs.attestationca.persist.validation;
+
+import hirs.attestationca.persist.entity.manager.ReferenceManifestRepository;
+import hirs.attestationca.persist.entity.manager.ReferenceManifestSignerRepository;
+import hirs.attestationca.persist.entity.userdefined.rim.BaseReferenceManifest;
+import hirs.attestationca.persist.entity.userdefined.rim.ReferenceManifestSigner;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Service class responsible for the index of the signers of the base RIMs: the certificates embedded in
+ * their signature, and the subject key identifiers naming their signing certificate.
+ * The signers of a base RIM are extracted once, when it is uploaded or received from a device, so that
+ * the details pages look them up instead of parsing the XML of every RIM.
+ * <p>
+ * A base RIM is flagged once its signers are indexed, even if it has none. The signers are indexed while
+ * holding a lock on the base RIM, so concurrent requests extract them only once.
+ */
+@Service
+@Log4j2
+public class ReferenceManifestSignerService {
+    private final ReferenceManifestRepository referenceManifestRepository;
+    private final ReferenceManifestSignerRepository referenceManifestSignerRepository;
+
+    /**
+     * Constructor for the Reference Manifest Signer Service.
+     *
+     * @param referenceManifestRepository       reference manifest repository
+     * @param referenceManifestSignerRepository reference manifest signer repository
+     */
+    @Autowired
+    public ReferenceManifestSignerService(
+            final ReferenceManifestRepository referenceManifestRepository,
+            final ReferenceManifestSignerRepository referenceManifestSignerRepository) {
+        this.referenceManifestRepository = referenceManifestRepository;
+        this.referenceManifestSignerRepository = referenceManifestSignerRepository;
+    }
+
+    /**
+     * Extracts the signers of the provided stored base RIMs and adds them to the index.
+     *
+     * @param baseRims base RIMs that were just stored
+     */
+    @Transactional
+    public void indexSigners(final List<BaseReferenceManifest> baseRims) {
+        for (BaseReferenceManifest baseRim : baseRims) {
+            index(baseRim);
+        }
+    }
+
+    /**
+     * Extracts the signers of the provided stored base RIM and adds them to the index, unless they
+     * already were.
+     *
+     * @param baseRim base RIM that was just stored
+     * @return the signers of the RIM
+     */
+    @Transactional
+    public List<ReferenceManifestSigner> indexSigners(final BaseReferenceManifest baseRim) {
+        return index(baseRim);
+    }
+
+    /**
+     * Retrieves the signers of a base RIM. The signers of RIMs stored before the index existed are
+     * extracted and added to the index on first use.
+     *
+     * @param baseRim stored base RIM
+     * @return the signers of the RIM
+     */
+    @Transactional
+    public List<ReferenceManifestSigner> findSigners(final BaseReferenceManifest baseRim) {
+        if (baseRim.isSignersIndexed()) {
+            return referenceManifestSignerRepository.findByRimId(baseRim.getId());
+        }
+        return index(baseRim);
+    }
+
+    /**
+     * Removes the signers of a deleted RIM from the index.
+     *
+     * @param rimId id of the deleted RIM
+     */
+    public void deleteSigners(final UUID rimId) {
+        referenceManifestSignerRepository.deleteByRimId(rimId);
+    }
+
+    /**
+     * Indexes the signers of a base RIM while holding a lock on it. The signers of a RIM that can't
+     * be parsed are recorded as empty, as parsing it again would fail the same way.
+     *
+     * @param baseRim stored base RIM
+     * @return the signers of the RIM
+     */
+    private List<ReferenceManifestSigner> index(final BaseReferenceManifest baseRim) {
+        final BaseReferenceManifest lockedRim = referenceManifestRepository.lockBaseRimById(baseRim.getId());
+        if (lockedRim == null) {
+            return Collections.emptyList();
+        }
+        if (lockedRim.isSignersIndexed()) {
+            baseRim.setSignersIndexed(true);
+            return referenceManifestSignerRepository.findByRimId(lockedRim.getId());
+        }
+
+        // the flag may have been reset by saving a stale copy of the RIM
+        referenceManifestSignerRepository.deleteByRimId(lockedRim.getId());
+        List<ReferenceManifestSigner> signers;
+        try {
+            signers = referenceManifestSignerRepository.saveAll(
+                    ReferenceManifestSigner.extract(lockedRim.getId(), lockedRim.getRimBytes()));
+        } catch (IOException e) {
+            log.warn("Unable to extract the signers of base RIM {}: {}", lockedRim.getFileName(), e.getMessage());
+            signers = Collections.emptyList();
+        }
+        lockedRim.setSignersIndexed(true);
+        referenceManifestRepository.save(lockedRim);
+        baseRim.setSignersIndexed(true);
+        return signers;
+    }
+}
@@ -0,0 +1,23 @@
+package hirs.attestationca.persist.validation;
+
+import hirs.attestationca.persist.entity.userdefined.certificate.CertificateAuthorityCredential;
+import hirs.attestationca.persist.enums.AppraisalStatus;
+
+/**
+ * Outcome of verifying the XML signature of a base RIM. Base RIMs are immutable once uploaded, so
+ * {@link CaChainCache} keeps the verdict per RIM hash until the trust chain changes. The validity
+ * period and certificate path of the signer depend on the current time, so they aren't part of the
+ * verdict and are checked on every validation.
+ *
+ * @param status                 the RIM signature status before the signer and support RIM checks
+ * @param signingCert            the certificate that signed the RIM, or null if it wasn't found
+ * @param signatureValid         whether the XML signature of the RIM verified
+ * @param validationErrorMessage error message reported while verifying the XML signature
+ */
+record RimSignatureVerdict(
+        AppraisalStatus status,
+        CertificateAuthorityCredential signingCert,
+        boolean signatureValid,
+        String validationErrorMessage
+) {
+}
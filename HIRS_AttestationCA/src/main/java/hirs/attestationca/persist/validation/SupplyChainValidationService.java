@@ -1,12 +1,9 @@
 package hirs.attestationca.persist.validation;
 
 import hirs.attestationca.persist.entity.ArchivableEntity;
-import hirs.attestationca.persist.entity.manager.CACredentialRepository;
 import hirs.attestationca.persist.entity.manager.CertificateRepository;
 import hirs.attestationca.persist.entity.manager.ComponentAttributeRepository;
 import hirs.attestationca.persist.entity.manager.ComponentResultRepository;
-import hirs.attestationca.persist.entity.manager.PolicyRepository;
-import hirs.attestationca.persist.entity.manager.ReferenceDigestValueRepository;
 import hirs.attestationca.persist.entity.manager.ReferenceManifestRepository;
 import hirs.attestationca.persist.entity.manager.SupplyChainValidationSummaryRepository;
 import hirs.attestationca.persist.entity.userdefined.Device;
@@ -49,68 +46,66 @@ import static hirs.attestationca.persist.enums.AppraisalStatus.Status.PASS;
 @Service
 public class SupplyChainValidationService {
 
-    private final CACredentialRepository caCredentialRepository;
-    private final PolicyRepository policyRepository;
+    private final CaChainCache caChainCache;
     private final ReferenceManifestRepository referenceManifestRepository;
-    private final ReferenceDigestValueRepository referenceDigestValueRepository;
+    private final SupportRimCache supportRimCache;
     private final ComponentResultRepository componentResultRepository;
     private final ComponentAttributeRepository componentAttributeRepository;
     private final CertificateRepository certificateRepository;
     private final SupplyChainValidationSummaryRepository supplyChainValidationSummaryRepository;
-    private UUID provisionSessionId;
 
     /**
      * Constructor.
      *
-     * @param caCredentialRepository                 ca credential repository
-     * @param policyRepository                       the policy manager
+     * @param caChainCache                           CA chain cache
      * @param certificateRepository                  the cert manager
      * @param componentResultRepository              the comp result manager
      * @param componentAttributeRepository           component attribute repository
      * @param referenceManifestRepository            the RIM manager
      * @param supplyChainValidationSummaryRepository the summary manager
-     * @param referenceDigestValueRepository         the even manager
+     * @param supportRimCache                        support RIM cache
      */
     @Autowired
     public SupplyChainValidationService(
-            final CACredentialRepository caCredentialRepository,
-            final PolicyRepository policyRepository,
+            final CaChainCache caChainCache,
             final CertificateRepository certificateRepository,
             final ComponentResultRepository componentResultRepository,
             final ComponentAttributeRepository componentAttributeRepository,
             final ReferenceManifestRepository referenceManifestRepository,
             final SupplyChainValidationSummaryRepository supplyChainValidationSummaryRepository,
-            final ReferenceDigestValueRepository referenceDigestValueRepository) {
-        this.caCredentialRepository = caCredentialRepository;
-        this.policyRepository = policyRepository;
+            final SupportRimCache supportRimCache) {
+        this.caChainCache = caChainCache;
         this.certificateRepository = certificateRepository;
         this.componentResultRepository = componentResultRepository;
         this.componentAttributeRepository = componentAttributeRepository;
         this.referenceManifestRepository = referenceManifestRepository;
         this.supplyChainValidationSummaryRepository = supplyChainValidationSummaryRepository;
-        this.referenceDigestValueRepository = referenceDigestValueRepository;
+        this.supportRimCache = supportRimCache;
     }
 
     /**
      * The "main" method of supply chain validation. Takes the credentials from
      * an identity request and validates the supply chain in accordance to the
-     * current supply chain policy.
+     * current supply chain policy. This service is a shared singleton, so all per-request state
+     * is carried in a {@link ValidationContext} that is created here and passed to the validators.
      *
      * @param ec             The endorsement credential from the identity request.
      * @param pcs            The platform credentials from the identity request.
      * @param device         The device to be validated.
      * @param componentInfos list of components from the device
+     * @param policySettings snapshot of the policy settings read for the request
      * @return A summary of the validation results.
      * @throws IOException if any issues arise from validating the supply chain
      */
     public SupplyChainValidationSummary validateSupplyChain(final EndorsementCredential ec,
                                                             final List<PlatformCredential> pcs,
                                                             final Device device,
-                                                            final List<ComponentInfo> componentInfos)
+                                                            final List<ComponentInfo> componentInfos,
+                                                            final PolicySettings policySettings)
             throws IOException {
-        final PolicySettings policySettings = getPolicySettings();
+        final ValidationContext validationContext =
+                ValidationContext.newSession(device, policySettings, componentInfos);
         boolean acceptExpiredCerts = policySettings.isExpiredCertificateValidationEnabled();
-        provisionSessionId = UUID.randomUUID();
         PlatformCredential baseCredential = null;
         SupplyChainValidation platformScv = null;
         SupplyChainValidation basePlatformScv = null;
@@ -125,7 +120,7 @@ public class SupplyChainValidationService {
         if (policySettings.isEcValidationEnabled()) {
             log.info("Beginning Endorsement Certificate Validation...");
             validations.add(ValidationService.evaluateEndorsementCertificateStatus(ec,
-                    this.caCredentialRepository, acceptExpiredCerts));
+                    this.caChainCache, acceptExpiredCerts));
             // store the device with the credential
             if (ec != null) {
                 ec.setDeviceId(device.getId());
@@ -143,7 +138,7 @@ public class SupplyChainValidationService {
                 pcErrorMessage = "Platform Certificate(s) missing\n";
             } else {
                 for (PlatformCredential pc : pcs) {
-                    KeyStore trustedCa = ValidationService.getCaChain(pc, caCredentialRepository);
+                    KeyStore trustedCa = ValidationService.getCaChain(pc, caChainCache);
                     platformScv = ValidationService.evaluatePlatformCertificateStatus(
                             pc, trustedCa, acceptExpiredCerts);
 
@@ -220,13 +215,9 @@ public class SupplyChainValidationService {
                     achievableEntities.addAll(basePlatformScv.getCertificatesUsed());
 
                     attributeScv = ValidationService.evaluateDeltaAttributesStatus(
-                            device.getDeviceInfo(),
-                            baseCredential, deltaMapping, certificateRepository,
-                            componentResultRepository,
-                            componentAttributeRepository,
-                            componentInfos, provisionSessionId,
-                            policySettings.isIgnoreRevisionEnabled(),
-                            policySettings.isIgnorePcieVpdEnabled());
+                            baseCredential, deltaMapping, validationContext,
+                            certificateRepository, componentResultRepository,
+                            componentAttributeRepository);
                     if (attributeScv.getValidationResult() == AppraisalStatus.Status.FAIL) {
                         attrErrorMessage = String.format("%s%s%n", attrErrorMessage,
                                 attributeScv.getMessage());
@@ -237,17 +228,15 @@ public class SupplyChainValidationService {
                     validations.remove(platformScv);
                     // if there are no deltas, just check base credential
                     platformScv = ValidationService.evaluatePCAttributesStatus(
-                            baseCredential, device.getDeviceInfo(), ec,
+                            baseCredential, ec, validationContext,
                             certificateRepository, componentResultRepository,
-                            componentAttributeRepository, componentInfos, provisionSessionId,
-                            policySettings.isIgnoreRevisionEnabled(),
-                            policySettings.isIgnorePcieVpdEnabled());
+                            componentAttributeRepository);
                     validations.add(new SupplyChainValidation(
                             SupplyChainValidation.ValidationType.PLATFORM_CERTIFICATE,
                             platformScv.getValidationResult(), achievableEntities, platformScv.getMessage()));
                 }
 
-                updateComponentStatus(componentResultRepository
+                updateComponentStatus(validationContext, componentResultRepository
                         .findByCertificateSerialNumberAndBoardSerialNumber(
                                 baseCredential.getSerialNumber().toString(),
                                 baseCredential.getPlatformSerial()));
@@ -266,15 +255,15 @@ public class SupplyChainValidationService {
             log.info("Beginning Firmware Validation...");
             // may need to associated with device to pull the correct info
             // compare tpm quote with what is pulled from RIM associated file
-            validations.add(ValidationService.evaluateFirmwareStatus(device, policySettings,
-                    referenceManifestRepository, referenceDigestValueRepository,
-                    caCredentialRepository));
+            validations.add(ValidationService.evaluateFirmwareStatus(validationContext,
+                    referenceManifestRepository, supportRimCache, caChainCache));
         }
 
         log.info("The validation finished, summarizing...");
         // Generate validation summary, save it, and return it.
         SupplyChainValidationSummary summary =
-                new SupplyChainValidationSummary(device, validations, provisionSessionId);
+                new SupplyChainValidationSummary(device, validations,
+                        validationContext.provisionSessionId());
         try {
             supplyChainValidationSummaryRepository.save(summary);
         } catch (DBManagerException dbMEx) {
@@ -287,10 +276,11 @@ public class SupplyChainValidationService {
     /**
      * A supplemental method that handles validating just the quote post main validation.
      *
-     * @param device the associated device.
+     * @param device         the associated device.
+     * @param policySettings snapshot of the policy settings read for the request
      * @return True if validation is successful, false otherwise.
      */
-    public SupplyChainValidationSummary validateQuote(final Device device) {
+    public SupplyChainValidationSummary validateQuote(final Device device, final PolicySettings policySettings) {
         SupplyChainValidation quoteScv = null;
         SupplyChainValidationSummary summary = null;
         Level level = Level.ERROR;
@@ -299,8 +289,6 @@ public class SupplyChainValidationService {
         SupportReferenceManifest sRim = null;
         EventLogMeasurements eventLog = null;
 
-        final PolicySettings policySettings = getPolicySettings();
-
         // check if the policy is enabled
         if (policySettings.isFirmwareValidationEnabled()) {
             String deviceName = device.getDeviceInfo()
@@ -336,11 +324,13 @@ public class SupplyChainValidationService {
                             String.format("Firmware Quote validation failed: verify RIMs for %s",
                                     deviceName));
                 } else {
-                    String[] storedPcrs = eventLog.getExpectedPCRList();
-                    PcrValidator pcrValidator = new PcrValidator(sRim.getExpectedPCRList());
+                    // the TPM may have quoted any of the PCR banks replayed from the event log
+                    Map<Integer, String[]> storedPcrBanks = eventLog.getExpectedPCRBanks();
+                    PcrValidator pcrValidator = new PcrValidator(
+                            supportRimCache.getEventLog(sRim).getExpectedPcrValues());
                     // grab the quote
                     byte[] tpmQuoteHash = device.getDeviceInfo().getTpmInfo().getTpmQuoteHash();
-                    if (pcrValidator.validateQuote(tpmQuoteHash, storedPcrs, policySettings)) {
+                    if (pcrValidator.validateQuote(tpmQuoteHash, storedPcrBanks, policySettings)) {
                         level = Level.INFO;
                         fwStatus = new AppraisalStatus(PASS,
                                 SupplyChainCredentialValidator.FIRMWARE_VALID);
@@ -377,7 +367,7 @@ public class SupplyChainValidationService {
             Optional<SupplyChainValidationSummary> previousOpt
                     //= this.supplyChainValidationSummaryRepository.findByDevice(deviceName);
                     //= this.supplyChainValidationSummaryRepository.findByDevice(device);
-                    = this.supplyChainValidationSummaryRepository.findById(
+                    = this.supplyChainValidationSummaryRepository.findWithValidationsById(
                     UUID.fromString(device.getSummaryId()));
             if (previousOpt.isPresent()) {
                 SupplyChainValidationSummary previous = previousOpt.get();
@@ -405,31 +395,18 @@ public class SupplyChainValidationService {
         return summary;
     }
 
-    /**
-     * Helper function that retrieves the default policy settings from the database.
-     *
-     * @return The default Supply Chain Policy Settings
-     */
-    private PolicySettings getPolicySettings() {
-        PolicySettings defaultSettings = this.policyRepository.findByName("Default");
-
-        if (defaultSettings == null) {
-            defaultSettings = new PolicySettings("Default",
-                    "Settings are configured for no validation flags set.");
-        }
-        return defaultSettings;
-    }
-
     /**
      * If the platform attributes policy is enabled, this method updates the matched
      * status for the component result.  This is done so that the details page for the
      * platform certificate highlights the title card red.
      *
-     * @param componentResults list of associated component results
+     * @param validationContext the request-scoped validation context
+     * @param componentResults  list of associated component results
      */
-    private void updateComponentStatus(final List<ComponentResult> componentResults) {
+    private void updateComponentStatus(final ValidationContext validationContext,
+                                       final List<ComponentResult> componentResults) {
         List<ComponentAttributeResult> componentAttributeResults = componentAttributeRepository
-                .findByProvisionSessionId(provisionSessionId);
+                .findByProvisionSessionId(validationContext.provisionSessionId());
         List<UUID> componentIdList = new ArrayList<>();
 
         for (ComponentAttributeResult componentAttributeResult : componentAttributeResults) {
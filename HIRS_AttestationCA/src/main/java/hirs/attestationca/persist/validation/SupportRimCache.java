@@ -0,0 +1,253 @@
+package hirs.attestationca.persist.validation;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import hirs.attestationca.persist.entity.manager.ReferenceDigestValueRepository;
+import hirs.attestationca.persist.entity.userdefined.ReferenceManifest;
+import hirs.attestationca.persist.entity.userdefined.rim.ReferenceDigestValue;
+import hirs.utils.tpm.eventlog.TCGEventLog;
+import hirs.utils.tpm.eventlog.TpmPcrEvent;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Bounded cache of parsed support RIMs, used while provisioning so that the event log of a support
+ * RIM shared by every device of a platform model is only parsed once.
+ * <p>
+ * Parsed event logs and expected PCR values are keyed by the hash of the support RIM's bytes and
+ * evicted once the total size of the cached RIMs exceeds {@link #MAXIMUM_EVENT_LOG_BYTES}. The
+ * reference digest values of a base RIM are kept as a digest to value map, keyed by the base RIM's
+ * id. Entries must be invalidated when a RIM is deleted or archived, and the digest maps whenever
+ * reference digest values are added or updated.
+ */
+@Log4j2
+@Service
+public class SupportRimCache implements MeterBinder {
+
+    /**
+     * Maximum total size, in bytes, of the support RIMs whose event logs are cached.
+     */
+    public static final long MAXIMUM_EVENT_LOG_BYTES = 64L * 1024 * 1024;
+
+    /**
+     * Maximum number of base RIMs whose reference digest values are cached.
+     */
+    public static final long MAXIMUM_DIGEST_MAPS = 256;
+
+    private final ReferenceDigestValueRepository referenceDigestValueRepository;
+
+    private final Cache<String, SupportRimEventLog> eventLogs;
+
+    private final Cache<UUID, Map<String, ReferenceDigestValue>> digestValues;
+
+    /**
+     * Constructor.
+     *
+     * @param referenceDigestValueRepository reference digest value repository
+     */
+    @Autowired
+    public SupportRimCache(final ReferenceDigestValueRepository referenceDigestValueRepository) {
+        this(referenceDigestValueRepository, MAXIMUM_EVENT_LOG_BYTES, MAXIMUM_DIGEST_MAPS);
+    }
+
+    /**
+     * Constructor with explicit bounds.
+     *
+     * @param referenceDigestValueRepository reference digest value repository
+     * @param maximumEventLogBytes           maximum total size of the cached support RIMs
+     * @param maximumDigestMaps              maximum number of cached digest maps
+     */
+    SupportRimCache(final ReferenceDigestValueRepository referenceDigestValueRepository,
+                    final long maximumEventLogBytes,
+                    final long maximumDigestMaps) {
+        this.referenceDigestValueRepository = referenceDigestValueRepository;
+        this.eventLogs = CacheBuilder.newBuilder()
+                .maximumWeight(maximumEventLogBytes)
+                .weigher((String hash, SupportRimEventLog eventLog) -> eventLog.getSize())
+                .recordStats()
+                .build();
+        this.digestValues = CacheBuilder.newBuilder()
+                .maximumSize(maximumDigestMaps)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Retrieves the parsed event log of a support RIM, parsing it if it isn't cached yet.
+     *
+     * @param supportRim the support RIM
+     * @return the parsed event log
+     * @throws IOException if the support RIM isn't a parsable event log
+     */
+    public SupportRimEventLog getEventLog(final ReferenceManifest supportRim) throws IOException {
+        String hash = supportRim.getHexDecHash();
+        if (hash == null || hash.isEmpty()) {
+            return new SupportRimEventLog(supportRim.getRimBytes());
+        }
+        try {
+            return eventLogs.get(hash, () -> new SupportRimEventLog(supportRim.getRimBytes()));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            if (e.getCause() instanceof IOException ioEx) {
+                throw ioEx;
+            }
+            throw new IOException("Unable to parse the event log of support RIM " + hash, e.getCause());
+        }
+    }
+
+    /**
+     * Retrieves the reference digest values of a base RIM, mapped by digest. The returned map and
+     * its values are shared and must not be modified.
+     *
+     * @param baseRimId id of the base RIM
+     * @return unmodifiable map of digest to reference digest value
+     */
+    public Map<String, ReferenceDigestValue> getDigestValues(final UUID baseRimId) {
+        try {
+            return digestValues.get(baseRimId, () -> {
+                Map<String, ReferenceDigestValue> digestValueMap = new HashMap<>();
+                for (ReferenceDigestValue rdv : referenceDigestValueRepository.findValuesByBaseRimId(baseRimId)) {
+                    digestValueMap.put(rdv.getDigestValue(), rdv);
+                }
+                return Collections.unmodifiableMap(digestValueMap);
+            });
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            throw new IllegalStateException("Unable to load the reference digest values of " + baseRimId,
+                    e.getCause());
+        }
+    }
+
+    /**
+     * Discards everything cached for the given RIM. Must be called when a RIM is deleted or archived.
+     *
+     * @param referenceManifest the RIM
+     */
+    public void invalidate(final ReferenceManifest referenceManifest) {
+        if (referenceManifest.getHexDecHash() != null) {
+            eventLogs.invalidate(referenceManifest.getHexDecHash());
+        }
+        if (referenceManifest.getId() != null) {
+            digestValues.invalidate(referenceManifest.getId());
+        }
+        if (referenceManifest.getAssociatedRim() != null) {
+            digestValues.invalidate(referenceManifest.getAssociatedRim());
+        }
+        log.debug("Invalidated the cached support RIM data of {}", referenceManifest.getFileName());
+    }
+
+    /**
+     * Discards the cached reference digest values. Must be called whenever reference digest values
+     * are added or updated.
+     */
+    public void invalidateDigestValues() {
+        digestValues.invalidateAll();
+    }
+
+    /**
+     * Discards everything in the cache.
+     */
+    public void invalidateAll() {
+        eventLogs.invalidateAll();
+        digestValues.invalidateAll();
+    }
+
+    /**
+     * Retrieves the number of lookups answered from the cache.
+     *
+     * @return number of cache hits
+     */
+    public long getHitCount() {
+        return eventLogs.stats().hitCount() + digestValues.stats().hitCount();
+    }
+
+    /**
+     * Retrieves the number of lookups that had to parse a RIM or query the database.
+     *
+     * @return number of cache misses
+     */
+    public long getMissCount() {
+        return eventLogs.stats().missCount() + digestValues.stats().missCount();
+    }
+
+    /**
+     * Registers the hit, miss and eviction counters of both caches with the given registry.
+     *
+     * @param registry meter registry
+     */
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        bindCache(registry, "event.log", eventLogs);
+        bindCache(registry, "digest.values", digestValues);
+    }
+
+    private static void bindCache(final MeterRegistry registry, final String name, final Cache<?, ?> cache) {
+        FunctionCounter.builder("hirs.aca.support.rim.cache.lookups", cache, c -> c.stats().hitCount())
+                .tag("cache", name)
+                .tag("result", "hit")
+                .description("Support RIM cache lookups answered from the cache")
+                .register(registry);
+        FunctionCounter.builder("hirs.aca.support.rim.cache.lookups", cache, c -> c.stats().missCount())
+                .tag("cache", name)
+                .tag("result", "miss")
+                .description("Support RIM cache lookups that had to load the entry")
+                .register(registry);
+        FunctionCounter.builder("hirs.aca.support.rim.cache.evictions", cache, c -> c.stats().evictionCount())
+                .tag("cache", name)
+                .description("Support RIM cache entries evicted to stay within bounds")
+                .register(registry);
+    }
+
+    /**
+     * The parsed event log of a support RIM. Instances are shared between provisioning requests, so
+     * the events must not be modified.
+     */
+    public static final class SupportRimEventLog {
+        private final List<TpmPcrEvent> events;
+
+        private final String[] expectedPcrValues;
+
+        private final int size;
+
+        private SupportRimEventLog(final byte[] rimBytes) throws IOException {
+            TCGEventLog eventLog = new TCGEventLog(rimBytes);
+            this.events = Collections.unmodifiableList(new ArrayList<>(eventLog.getEventList()));
+            this.expectedPcrValues = eventLog.getExpectedPCRValues();
+            this.size = rimBytes.length;
+        }
+
+        /**
+         * Retrieves the events of the event log, in order.
+         *
+         * @return unmodifiable list of events
+         */
+        public List<TpmPcrEvent> getEvents() {
+            return events;
+        }
+
+        /**
+         * Retrieves the PCR values expected from replaying the event log.
+         *
+         * @return a copy of the expected PCR values
+         */
+        public String[] getExpectedPcrValues() {
+            return expectedPcrValues.clone();
+        }
+
+        private int getSize() {
+            return size;
+        }
+    }
+}
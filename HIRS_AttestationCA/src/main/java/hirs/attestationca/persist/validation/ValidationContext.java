@@ -0,0 +1,68 @@
+package hirs.attestationca.persist.validation;
+
+import hirs.attestationca.persist.entity.userdefined.Device;
+import hirs.attestationca.persist.entity.userdefined.PolicySettings;
+import hirs.attestationca.persist.entity.userdefined.info.ComponentInfo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Immutable, request-scoped state for a single run of supply chain validation. A new context is
+ * created for every identity claim and handed to each validator, so that concurrent provisioning
+ * requests never share a provision session id, device or policy snapshot.
+ *
+ * @param provisionSessionId unique id linking the validation summary to its component results
+ * @param device             the device being validated
+ * @param policySettings     the policy settings in effect for this request
+ * @param componentInfos     the components reported by the device
+ */
+public record ValidationContext(
+        UUID provisionSessionId,
+        Device device,
+        PolicySettings policySettings,
+        List<ComponentInfo> componentInfos
+) {
+    /**
+     * Canonical constructor. Copies the component list so later changes by the caller are not
+     * visible to the validators.
+     *
+     * @param provisionSessionId unique id linking the validation summary to its component results
+     * @param device             the device being validated
+     * @param policySettings     the policy settings in effect for this request
+     * @param componentInfos     the components reported by the device
+     */
+    public ValidationContext {
+        Objects.requireNonNull(provisionSessionId, "provisionSessionId cannot be null");
+        Objects.requireNonNull(policySettings, "policySettings cannot be null");
+        componentInfos = componentInfos == null
+                ? Collections.emptyList()
+                : Collections.unmodifiableList(new ArrayList<>(componentInfos));
+    }
+
+    /**
+     * Creates a context for a new provision session.
+     *
+     * @param device         the device being validated
+     * @param policySettings the policy settings in effect for this request
+     * @param componentInfos the components reported by the device
+     * @return a new validation context with a freshly generated provision session id
+     */
+    public static ValidationContext newSession(final Device device,
+                                               final PolicySettings policySettings,
+                                               final List<ComponentInfo> componentInfos) {
+        return new ValidationContext(UUID.randomUUID(), device, policySettings, componentInfos);
+    }
+
+    /**
+     * Returns the host name of the device being validated.
+     *
+     * @return the device host name
+     */
+    public String hostName() {
+        return device.getDeviceInfo().getNetworkInfo().getHostname();
+    }
+}
@@ -1,27 +1,20 @@
 package hirs.attestationca.persist.validation;
 
 import hirs.attestationca.persist.entity.ArchivableEntity;
-import hirs.attestationca.persist.entity.manager.CACredentialRepository;
 import hirs.attestationca.persist.entity.manager.CertificateRepository;
 import hirs.attestationca.persist.entity.manager.ComponentAttributeRepository;
 import hirs.attestationca.persist.entity.manager.ComponentResultRepository;
-import hirs.attestationca.persist.entity.manager.ReferenceDigestValueRepository;
 import hirs.attestationca.persist.entity.manager.ReferenceManifestRepository;
 import hirs.attestationca.persist.entity.userdefined.Certificate;
-import hirs.attestationca.persist.entity.userdefined.Device;
 import hirs.attestationca.persist.entity.userdefined.PolicySettings;
 import hirs.attestationca.persist.entity.userdefined.ReferenceManifest;
 import hirs.attestationca.persist.entity.userdefined.SupplyChainValidation;
 import hirs.attestationca.persist.entity.userdefined.certificate.CertificateAuthorityCredential;
 import hirs.attestationca.persist.entity.userdefined.certificate.EndorsementCredential;
 import hirs.attestationca.persist.entity.userdefined.certificate.PlatformCredential;
-import hirs.attestationca.persist.entity.userdefined.info.ComponentInfo;
-import hirs.attestationca.persist.entity.userdefined.report.DeviceInfoReport;
 import hirs.attestationca.persist.enums.AppraisalStatus;
-import hirs.utils.BouncyCastleUtils;
 import lombok.extern.log4j.Log4j2;
 import org.apache.logging.log4j.Level;
-import org.bouncycastle.util.encoders.Hex;
 
 import java.io.IOException;
 import java.security.KeyStore;
@@ -29,13 +22,9 @@ import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
 import java.security.cert.CertificateException;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.UUID;
 
 /**
  * Service class responsible for validating platform credentials, endorsement credentials, firmware
@@ -53,14 +42,14 @@ public final class ValidationService {
     /**
      * Evaluates the provided endorsement certificate status.
      *
-     * @param endorsementCredential  endorsement certificate
-     * @param caCredentialRepository CA Credential repository
-     * @param acceptExpiredCerts     whether to accept expired certificates
+     * @param endorsementCredential endorsement certificate
+     * @param caChainCache          CA chain cache
+     * @param acceptExpiredCerts    whether to accept expired certificates
      * @return a supply chain validation
      */
     public static SupplyChainValidation evaluateEndorsementCertificateStatus(
             final EndorsementCredential endorsementCredential,
-            final CACredentialRepository caCredentialRepository,
+            final CaChainCache caChainCache,
             final boolean acceptExpiredCerts) {
         final SupplyChainValidation.ValidationType validationType =
                 SupplyChainValidation.ValidationType.ENDORSEMENT_CERTIFICATE;
@@ -72,7 +61,7 @@ public final class ValidationService {
                     null, Level.ERROR);
         }
 
-        KeyStore ecStore = getCaChain(endorsementCredential, caCredentialRepository);
+        KeyStore ecStore = getCaChain(endorsementCredential, caChainCache);
         AppraisalStatus result = CredentialValidator.
                 validateEndorsementCredential(endorsementCredential, ecStore, acceptExpiredCerts);
         return switch (result.getAppStatus()) {
@@ -125,28 +114,21 @@ public final class ValidationService {
      * Evaluates PC Attributes status.
      *
      * @param platformCredential           platform certificate
-     * @param deviceInfoReport             device information report
      * @param endorsementCredential        endorsement certificate
+     * @param validationContext            the request-scoped validation context
      * @param certificateRepository        certificate repository
      * @param componentResultRepository    component result repository
      * @param componentAttributeRepository component attribute repository
-     * @param componentInfos               list of component information
-     * @param provisionSessionId           uuid representation of the provision session id
-     * @param ignoreRevisionAttribute      whether to ignore revision attribute
-     * @param ignorePcieVpdAttribute       whether to ignore the pcie vpd attribute
      * @return a supply chain validation
      * @throws IOException if any issues arise while evaluating the platform credential attributes
      */
     public static SupplyChainValidation evaluatePCAttributesStatus(
-            final PlatformCredential platformCredential, final DeviceInfoReport deviceInfoReport,
+            final PlatformCredential platformCredential,
             final EndorsementCredential endorsementCredential,
+            final ValidationContext validationContext,
             final CertificateRepository certificateRepository,
             final ComponentResultRepository componentResultRepository,
-            final ComponentAttributeRepository componentAttributeRepository,
-            final List<ComponentInfo> componentInfos,
-            final UUID provisionSessionId,
-            final boolean ignoreRevisionAttribute,
-            final boolean ignorePcieVpdAttribute) throws IOException {
+            final ComponentAttributeRepository componentAttributeRepository) throws IOException {
         final SupplyChainValidation.ValidationType validationType
                 = SupplyChainValidation.ValidationType.PLATFORM_CERTIFICATE_ATTRIBUTES;
 
@@ -160,10 +142,12 @@ public final class ValidationService {
         log.info("Validating platform certificate attributes");
 
         AppraisalStatus result = CredentialValidator.
-                validatePlatformCredentialAttributes(platformCredential, deviceInfoReport,
-                        endorsementCredential,
+                validatePlatformCredentialAttributes(platformCredential,
+                        validationContext.device().getDeviceInfo(), endorsementCredential,
                         componentResultRepository, componentAttributeRepository,
-                        componentInfos, provisionSessionId, ignoreRevisionAttribute, ignorePcieVpdAttribute);
+                        validationContext.componentInfos(), validationContext.provisionSessionId(),
+                        validationContext.policySettings().isIgnoreRevisionEnabled(),
+                        validationContext.policySettings().isIgnorePcieVpdEnabled());
 
         return switch (result.getAppStatus()) {
             case PASS -> buildValidationRecord(validationType, AppraisalStatus.Status.PASS,
@@ -185,38 +169,32 @@ public final class ValidationService {
     /**
      * Evaluates delta attributes status.
      *
-     * @param deviceInfoReport             device information report
      * @param base                         base platform certificate
      * @param deltaMapping                 delta mapping
+     * @param validationContext            the request-scoped validation context
      * @param certificateRepository        certificate repository
      * @param componentResultRepository    component result repository
      * @param componentAttributeRepository component attribute repository
-     * @param componentInfos               list of component information
-     * @param provisionSessionId           uuid representation of the provision session ID
-     * @param ignoreRevisionAttribute      whether to ignore the revision attribute
-     * @param ignorePcieVpdAttribute       whether to ignore the pcie vpd attribute
      * @return a supply chain validation
      */
     public static SupplyChainValidation evaluateDeltaAttributesStatus(
-            final DeviceInfoReport deviceInfoReport,
             final PlatformCredential base,
             final Map<PlatformCredential, SupplyChainValidation> deltaMapping,
+            final ValidationContext validationContext,
             final CertificateRepository certificateRepository,
             final ComponentResultRepository componentResultRepository,
-            final ComponentAttributeRepository componentAttributeRepository,
-            final List<ComponentInfo> componentInfos,
-            final UUID provisionSessionId,
-            final boolean ignoreRevisionAttribute,
-            final boolean ignorePcieVpdAttribute) {
+            final ComponentAttributeRepository componentAttributeRepository) {
         final SupplyChainValidation.ValidationType validationType
                 = SupplyChainValidation.ValidationType.PLATFORM_CERTIFICATE_ATTRIBUTES;
 
         log.info("Validating delta platform certificate attributes");
         AppraisalStatus result = CredentialValidator.
-                validateDeltaPlatformCredentialAttributes(deviceInfoReport,
-                        base, deltaMapping, componentInfos,
+                validateDeltaPlatformCredentialAttributes(validationContext.device().getDeviceInfo(),
+                        base, deltaMapping, validationContext.componentInfos(),
                         componentResultRepository, componentAttributeRepository,
-                        provisionSessionId, ignoreRevisionAttribute, ignorePcieVpdAttribute);
+                        validationContext.provisionSessionId(),
+                        validationContext.policySettings().isIgnoreRevisionEnabled(),
+                        validationContext.policySettings().isIgnorePcieVpdEnabled());
 
         return switch (result.getAppStatus()) {
             case PASS -> buildValidationRecord(validationType, AppraisalStatus.Status.PASS,
@@ -242,25 +220,23 @@ public final class ValidationService {
     /**
      * Evaluates the firmware status.
      *
-     * @param device         device
-     * @param policySettings policy settings
-     * @param rimRepo        reference manifest repository
-     * @param rdvRepo        reference digest value repository
-     * @param caRepo         CA Credential repository
+     * @param validationContext the request-scoped validation context
+     * @param rimRepo           reference manifest repository
+     * @param supportRimCache   support RIM cache
+     * @param caChainCache      CA chain cache
      * @return a supply chain validation
      */
     public static SupplyChainValidation evaluateFirmwareStatus(
-            final Device device,
-            final PolicySettings policySettings, final ReferenceManifestRepository rimRepo,
-            final ReferenceDigestValueRepository rdvRepo,
-            final CACredentialRepository caRepo) {
+            final ValidationContext validationContext, final ReferenceManifestRepository rimRepo,
+            final SupportRimCache supportRimCache,
+            final CaChainCache caChainCache) {
         final SupplyChainValidation.ValidationType validationType
                 = SupplyChainValidation.ValidationType.FIRMWARE;
 
-        AppraisalStatus result = FirmwareScvValidator.validateFirmware(device, policySettings,
-                rimRepo, rdvRepo, caRepo);
+        AppraisalStatus result = FirmwareScvValidator.validateFirmware(validationContext,
+                rimRepo, supportRimCache, caChainCache);
         Level logLevel;
-        List<ReferenceManifest> rims = rimRepo.findByDeviceName(device.getName());
+        List<ReferenceManifest> rims = rimRepo.findByDeviceName(validationContext.device().getName());
         ReferenceManifest referenceManifest = null;
         String rimType = "";
         if (result.getAdditionalInfo().equals(ReferenceManifest.MEASUREMENT_RIM)) {
@@ -311,95 +287,17 @@ public final class ValidationService {
     }
 
     /**
-     * This method is used to retrieve the entire CA chain (up to a trusted
-     * self-signed certificate) for the given certificate. This method will look
-     * up CA certificates that have a matching issuer organization as the given
-     * certificate, and will perform that operation recursively until all
-     * certificates for all relevant organizations have been retrieved. For that
-     * reason, the returned set of certificates may be larger than the the
-     * single trust chain for the queried certificate, but is guaranteed to
-     * include the trust chain if it exists in this class' CertificateManager.
-     * Returns the certificate authority credentials in a KeyStore.
+     * Retrieves a key store holding the entire CA chain (up to a trusted self-signed certificate)
+     * for the given certificate. The chain is taken from the {@link CaChainCache}, so the
+     * returned key store is shared and must not be modified.
      *
-     * @param certificate            the credential whose CA chain should be retrieved
-     * @param caCredentialRepository db service to get CA Certs
+     * @param certificate  the credential whose CA chain should be retrieved
+     * @param caChainCache CA chain cache
      * @return A keystore containing all relevant CA credentials to the given
      * certificate's organization or null if the keystore can't be assembled
      */
-    public static KeyStore getCaChain(final Certificate certificate,
-                                      final CACredentialRepository caCredentialRepository) {
-        KeyStore caKeyStore = null;
-        try {
-            caKeyStore = caCertSetToKeystore(getCaChainRec(certificate, Collections.emptySet(),
-                    caCredentialRepository));
-        } catch (KeyStoreException | IOException e) {
-            log.error("Unable to assemble CA keystore", e);
-        }
-        return caKeyStore;
-    }
-
-    /**
-     * This is a recursive method which is used to retrieve the entire CA chain
-     * (up to a trusted self-signed certificate) for the given certificate. This
-     * method will look up CA certificates that have a matching issuer
-     * organization as the given certificate, and will perform that operation
-     * recursively until all certificates for all relevant organizations have
-     * been retrieved. For that reason, the returned set of certificates may be
-     * larger than the the single trust chain for the queried certificate, but
-     * is guaranteed to include the trust chain if it exists in this class'
-     * CertificateManager.
-     * <p>
-     * Implementation notes: 1. Queries for CA certs with a subject org matching
-     * the given (argument's) issuer org 2. Add that org to
-     * queriedOrganizations, so we don't search for that organization again 3.
-     * For each returned CA cert, add that cert to the result set, and recurse
-     * with that as the argument (to go up the chain), if and only if we haven't
-     * already queried for that organization (which prevents infinite loops on
-     * certs with an identical subject and issuer org)
-     *
-     * @param credential                the credential whose CA chain should be retrieved
-     * @param previouslyQueriedSubjects a list of organizations to refrain
-     *                                  from querying
-     * @param caCredentialRepository    CA Credential repository
-     * @return a Set containing all relevant CA credentials to the given
-     * certificate's organization
-     */
-    public static Set<CertificateAuthorityCredential> getCaChainRec(
-            final Certificate credential,
-            final Set<String> previouslyQueriedSubjects,
-            final CACredentialRepository caCredentialRepository) {
-        CertificateAuthorityCredential skiCA = null;
-        List<CertificateAuthorityCredential> certAuthsWithMatchingIssuer = new LinkedList<>();
-        if (credential.getAuthorityKeyIdentifier() != null
-                && !credential.getAuthorityKeyIdentifier().isEmpty()) {
-            byte[] bytes = Hex.decode(credential.getAuthorityKeyIdentifier());
-            skiCA = caCredentialRepository.findBySubjectKeyIdentifier(bytes);
-        }
-
-        if (skiCA == null) {
-            if (credential.getIssuerSorted() == null
-                    || credential.getIssuerSorted().isEmpty()) {
-                certAuthsWithMatchingIssuer = caCredentialRepository.findBySubject(credential.getIssuer());
-            } else {
-                //Get certificates by subject organization
-                certAuthsWithMatchingIssuer =
-                        caCredentialRepository.findBySubjectSorted(credential.getIssuerSorted());
-            }
-        } else {
-            certAuthsWithMatchingIssuer.add(skiCA);
-        }
-        Set<String> queriedOrganizations = new HashSet<>(previouslyQueriedSubjects);
-        queriedOrganizations.add(credential.getIssuer());
-
-        HashSet<CertificateAuthorityCredential> caCreds = new HashSet<>();
-        for (CertificateAuthorityCredential cred : certAuthsWithMatchingIssuer) {
-            caCreds.add(cred);
-            if (!BouncyCastleUtils.x500NameCompare(cred.getIssuer(),
-                    cred.getSubject())) {
-                caCreds.addAll(getCaChainRec(cred, queriedOrganizations, caCredentialRepository));
-            }
-        }
-        return caCreds;
+    public static KeyStore getCaChain(final Certificate certificate, final CaChainCache caChainCache) {
+        return caChainCache.getChain(certificate).keyStore();
     }
 
     /**
@@ -5,19 +5,25 @@ import hirs.attestationca.persist.provision.service.Tpm2ProvisionerStateService;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.IOException;
+import java.util.Date;
+import java.util.List;
 import java.util.Random;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -27,7 +33,10 @@ public class TPM2ProvisionerStateServiceTest {
 
     private static final Random RANDOM_GENERATOR = new Random();
 
-    @InjectMocks
+    private static final long SESSION_TTL_SECONDS = 900;
+
+    private static final int PUBLIC_AREA_SIZE = 360;
+
     private Tpm2ProvisionerStateService tpm2ProvisionerStateService;
 
     @Mock
@@ -42,6 +51,8 @@ public class TPM2ProvisionerStateServiceTest {
     public void setupTests() {
         // Initializes mocks before each test
         mocks = MockitoAnnotations.openMocks(this);
+        tpm2ProvisionerStateService =
+                new Tpm2ProvisionerStateService(tpm2ProvisionerStateRepository, SESSION_TTL_SECONDS);
     }
 
     /**
@@ -63,17 +74,27 @@ public class TPM2ProvisionerStateServiceTest {
     @Test
     public final void testTPM2ProvisionerState() {
         final int nonceSize = 32;
-        final int identityClaimSize = 360;
         byte[] nonce = new byte[nonceSize];
-        byte[] identityClaim = new byte[identityClaimSize];
+        byte[] ekPublicArea = randomPublicArea();
+        byte[] akPublicArea = randomPublicArea();
+        final UUID deviceId = UUID.randomUUID();
+        final UUID summaryId = UUID.randomUUID();
+        final UUID endorsementCredentialId = UUID.randomUUID();
+        final List<UUID> platformCredentialIds = List.of(UUID.randomUUID(), UUID.randomUUID());
 
         RANDOM_GENERATOR.nextBytes(nonce);
-        RANDOM_GENERATOR.nextBytes(identityClaim);
 
-        final TPM2ProvisionerState state = new TPM2ProvisionerState(nonce, identityClaim);
+        final TPM2ProvisionerState state = new TPM2ProvisionerState(nonce, deviceId, summaryId,
+                ekPublicArea, akPublicArea, null, endorsementCredentialId, platformCredentialIds);
 
         assertArrayEquals(nonce, state.getNonce());
-        assertArrayEquals(identityClaim, state.getIdentityClaim());
+        assertEquals(deviceId, state.getDeviceId());
+        assertEquals(summaryId, state.getSummaryId());
+        assertArrayEquals(ekPublicArea, state.getEkPublicArea());
+        assertArrayEquals(akPublicArea, state.getAkPublicArea());
+        assertNull(state.getLdevidPublicArea());
+        assertEquals(endorsementCredentialId, state.getEndorsementCredentialId());
+        assertEquals(platformCredentialIds, state.getPlatformCredentialIds());
     }
 
     /**
@@ -84,27 +105,24 @@ public class TPM2ProvisionerStateServiceTest {
      */
     @Test
     public final void testNullNonce() throws IllegalArgumentException {
-        final int identityClaimSize = 360;
-        byte[] identityClaim = new byte[identityClaimSize];
-
-        RANDOM_GENERATOR.nextBytes(identityClaim);
-        assertThrows(IllegalArgumentException.class, () -> new TPM2ProvisionerState(null, identityClaim));
+        assertThrows(IllegalArgumentException.class, () -> createState(null));
     }
 
     /**
      * Test that the constructor throws an {@link IllegalArgumentException} when a null is
-     * passed in for the identity claim.
+     * passed in for the AK public area.
      *
      * @throws IllegalArgumentException if any issues any arise while retrieving the TPM Provisioner State
      */
     @Test
-    public final void testNullIdentityClaim() throws IllegalArgumentException {
+    public final void testNullAkPublicArea() throws IllegalArgumentException {
         final int nonceSize = 32;
         byte[] nonce = new byte[nonceSize];
 
         RANDOM_GENERATOR.nextBytes(nonce);
 
-        assertThrows(IllegalArgumentException.class, () -> new TPM2ProvisionerState(nonce, null));
+        assertThrows(IllegalArgumentException.class, () -> new TPM2ProvisionerState(nonce, UUID.randomUUID(),
+                null, randomPublicArea(), null, null, null, List.of()));
     }
 
     /**
@@ -116,13 +134,10 @@ public class TPM2ProvisionerStateServiceTest {
     @Test
     public final void testNonceToSmall() throws IllegalArgumentException {
         final int nonceSize = 7;
-        final int identityClaimSize = 360;
         byte[] nonce = new byte[nonceSize];
-        byte[] identityClaim = new byte[identityClaimSize];
 
         RANDOM_GENERATOR.nextBytes(nonce);
-        RANDOM_GENERATOR.nextBytes(identityClaim);
-        assertThrows(IllegalArgumentException.class, () -> new TPM2ProvisionerState(nonce, identityClaim));
+        assertThrows(IllegalArgumentException.class, () -> createState(nonce));
     }
 
     /**
@@ -134,23 +149,20 @@ public class TPM2ProvisionerStateServiceTest {
     public final void testGetTPM2ProvisionerStateNominal() throws IOException {
 
         final int nonceSize = 32;
-        final int identityClaimSize = 360;
         byte[] nonce = new byte[nonceSize];
-        byte[] identityClaim = new byte[identityClaimSize];
 
         RANDOM_GENERATOR.nextBytes(nonce);
-        RANDOM_GENERATOR.nextBytes(identityClaim);
 
         DataInputStream dis = new DataInputStream(new ByteArrayInputStream(nonce));
         Long index = dis.readLong();
         dis.close();
 
-        final TPM2ProvisionerState value = new TPM2ProvisionerState(nonce, identityClaim);
+        final TPM2ProvisionerState value = createState(nonce);
         when(tpm2ProvisionerStateRepository.findByFirstPartOfNonce(index)).thenReturn(value);
 
         final TPM2ProvisionerState tpm2ProvisionerState = tpm2ProvisionerStateService.getTPM2ProvisionerState(nonce);
         assertNotNull(tpm2ProvisionerState);
-        assertArrayEquals(value.getIdentityClaim(), tpm2ProvisionerState.getIdentityClaim());
+        assertEquals(value.getDeviceId(), tpm2ProvisionerState.getDeviceId());
     }
 
     /**
@@ -162,18 +174,15 @@ public class TPM2ProvisionerStateServiceTest {
     @Test
     public final void testGetTPM2ProvisionerStateNullNonce() throws IOException {
         final int nonceSize = 32;
-        final int identityClaimSize = 360;
         byte[] nonce = new byte[nonceSize];
-        byte[] identityClaim = new byte[identityClaimSize];
 
         RANDOM_GENERATOR.nextBytes(nonce);
-        RANDOM_GENERATOR.nextBytes(identityClaim);
 
         DataInputStream dis = new DataInputStream(new ByteArrayInputStream(nonce));
         Long index = dis.readLong();
         dis.close();
 
-        final TPM2ProvisionerState value = new TPM2ProvisionerState(nonce, identityClaim);
+        final TPM2ProvisionerState value = createState(nonce);
         when(tpm2ProvisionerStateRepository.findByFirstPartOfNonce(index)).thenReturn(value);
 
         assertThrows(NullPointerException.class, () -> tpm2ProvisionerStateService.getTPM2ProvisionerState(null));
@@ -188,19 +197,16 @@ public class TPM2ProvisionerStateServiceTest {
     @Test
     public final void testGetTPM2ProvisionerStateNonceTooSmall() throws IOException {
         final int nonceSize = 32;
-        final int identityClaimSize = 360;
         byte[] nonce = new byte[nonceSize];
-        byte[] identityClaim = new byte[identityClaimSize];
 
         RANDOM_GENERATOR.nextBytes(nonce);
-        RANDOM_GENERATOR.nextBytes(identityClaim);
 
         DataInputStream dis = new DataInputStream(new ByteArrayInputStream(nonce));
         Long index = dis.readLong();
         dis.close();
 
         final int nonce2Size = 7;
-        final TPM2ProvisionerState value = new TPM2ProvisionerState(nonce, identityClaim);
+        final TPM2ProvisionerState value = createState(nonce);
 
         when(tpm2ProvisionerStateRepository.findByFirstPartOfNonce(index)).thenReturn(value);
         final TPM2ProvisionerState tpm2ProvisionerState =
@@ -208,4 +214,44 @@ public class TPM2ProvisionerStateServiceTest {
 
         assertNull(tpm2ProvisionerState);
     }
+
+    /**
+     * Tests that {@link Tpm2ProvisionerStateService#saveTPM2ProvisionerState(TPM2ProvisionerState)} sets the
+     * session expiry, and that an expired session is deleted rather than returned.
+     *
+     * @throws IOException if any issues any arise while retrieving the TPM Provisioner State
+     */
+    @Test
+    public final void testExpiredTPM2ProvisionerState() throws IOException {
+        final int nonceSize = 32;
+        byte[] nonce = new byte[nonceSize];
+
+        RANDOM_GENERATOR.nextBytes(nonce);
+
+        DataInputStream dis = new DataInputStream(new ByteArrayInputStream(nonce));
+        Long index = dis.readLong();
+        dis.close();
+
+        final TPM2ProvisionerState value = createState(nonce);
+        tpm2ProvisionerStateService.saveTPM2ProvisionerState(value);
+        assertFalse(value.isExpired(new Date()));
+
+        value.setExpiresAt(new Date(System.currentTimeMillis() - 1));
+        assertTrue(value.isExpired(new Date()));
+
+        when(tpm2ProvisionerStateRepository.findByFirstPartOfNonce(index)).thenReturn(value);
+        assertNull(tpm2ProvisionerStateService.getTPM2ProvisionerState(nonce));
+        verify(tpm2ProvisionerStateRepository).delete(value);
+    }
+
+    private static TPM2ProvisionerState createState(final byte[] nonce) {
+        return new TPM2ProvisionerState(nonce, UUID.randomUUID(), UUID.randomUUID(),
+                randomPublicArea(), randomPublicArea(), null, null, List.of());
+    }
+
+    private static byte[] randomPublicArea() {
+        byte[] publicArea = new byte[PUBLIC_AREA_SIZE];
+        RANDOM_GENERATOR.nextBytes(publicArea);
+        return publicArea;
+    }
 }
@@ -0,0 +1,80 @@
+package hirs.attestationca.persist.entity.userdefined.certificate.attributes;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Tests for the ComponentClassRegistry class.
+ */
+public class ComponentClassRegistryTest {
+
+    private static final String JSON_FILE = "/config/component-class.json";
+
+    private static final String REGISTRY_JSON = """
+            {"TCG": {"Processors": {"ID": "0x00010000", "Types": {"0x00000002": "%s"}}}}
+            """;
+
+    /**
+     * Tests that the registries of a file are loaded once and shared.
+     *
+     * @throws URISyntaxException if there is a problem constructing the URI
+     */
+    @Test
+    public void testRegistryIsShared() throws URISyntaxException {
+        final Path jsonPath = Paths.get(Objects.requireNonNull(this.getClass().getResource(JSON_FILE)).toURI());
+        final ComponentClassRegistry registry = ComponentClassRegistry.forPath(jsonPath);
+        assertSame(registry, ComponentClassRegistry.forPath(jsonPath));
+        assertEquals("Processors", registry.getCategoryName("TCG", "0001"));
+        assertEquals("CPU", registry.getComponentName("TCG", "0001", "0002"));
+        assertNull(registry.getComponentName("TCG", "0001", "FFFF"));
+        assertNull(registry.getCategoryName("PCIE", "0001"));
+        assertNull(registry.getCategoryName("TCG", "00x1"));
+    }
+
+    /**
+     * Tests that the registries are reloaded once the file changes.
+     *
+     * @param tempDir temporary directory for the component class file
+     * @throws IOException          if the component class file can't be written
+     * @throws InterruptedException if the test is interrupted while waiting for the next check
+     */
+    @Test
+    public void testRegistryReloadedWhenModified(@TempDir final Path tempDir)
+            throws IOException, InterruptedException {
+        final Path jsonPath = tempDir.resolve("component-class.json");
+        Files.writeString(jsonPath, String.format(REGISTRY_JSON, "CPU"), StandardCharsets.UTF_8);
+        assertEquals("CPU", ComponentClassRegistry.forPath(jsonPath)
+                .getComponentName("TCG", "0001", "0002"));
+
+        Files.writeString(jsonPath, String.format(REGISTRY_JSON, "Central Processor"), StandardCharsets.UTF_8);
+        Files.setLastModifiedTime(jsonPath, FileTime.fromMillis(System.currentTimeMillis() + 1));
+        TimeUnit.NANOSECONDS.sleep(ComponentClassRegistry.CHECK_INTERVAL_NANOS);
+        assertEquals("Central Processor", ComponentClassRegistry.forPath(jsonPath)
+                .getComponentName("TCG", "0001", "0002"));
+    }
+
+    /**
+     * Tests that a missing file results in empty registries.
+     *
+     * @param tempDir temporary directory without a component class file
+     */
+    @Test
+    public void testMissingFile(@TempDir final Path tempDir) {
+        final ComponentClassRegistry registry = ComponentClassRegistry.forPath(tempDir.resolve("missing.json"));
+        assertNull(registry.getCategoryName("TCG", "0001"));
+    }
+}
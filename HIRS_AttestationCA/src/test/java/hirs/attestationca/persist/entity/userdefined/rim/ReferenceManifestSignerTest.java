@@ -0,0 +1,85 @@
+package hirs.attestationca.persist.entity.userdefined.rim;
+
+import hirs.attestationca.persist.entity.userdefined.certificate.CertificateAuthorityCredential;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that the signers of a base RIM are extracted from its signature.
+ */
+public class ReferenceManifestSignerTest {
+
+    private static final String KEY_NAME_RIM = "/rim/generated_user_cert.swidtag";
+
+    private static final String EMBEDDED_CERT_RIM = "/rim/generated_user_cert_embed.swidtag";
+
+    private static final String SIGNER_SKI = "2fdeb8e7d030a2209daa01861a964fedecf2bcc1";
+
+    private static final String SIGNER_ISSUER_SKI = "46a1b8eddba6715fd0d2e77a8a3c5d6e9ac39638";
+
+    private static final UUID RIM_ID = UUID.randomUUID();
+
+    /**
+     * Tests that a RIM naming its signer with a KeyName element has a single signer, holding no certificate.
+     *
+     * @throws IOException if the RIM can't be read or parsed
+     */
+    @Test
+    public void testExtractKeyName() throws IOException {
+        final List<ReferenceManifestSigner> signers =
+                ReferenceManifestSigner.extract(RIM_ID, readResource(KEY_NAME_RIM));
+
+        assertEquals(1, signers.size());
+        assertEquals(RIM_ID, signers.get(0).getRimId());
+        assertEquals(SIGNER_SKI, signers.get(0).getSubjectKeyIdString());
+        assertFalse(signers.get(0).isEmbeddedCertificate());
+        assertNull(signers.get(0).toCertificateAuthorityCredential());
+    }
+
+    /**
+     * Tests that a RIM embedding its signing certificate has a single signer, holding the certificate,
+     * when its KeyName element names the same certificate.
+     *
+     * @throws IOException if the RIM can't be read or parsed
+     */
+    @Test
+    public void testExtractEmbeddedCertificate() throws IOException {
+        final List<ReferenceManifestSigner> signers =
+                ReferenceManifestSigner.extract(RIM_ID, readResource(EMBEDDED_CERT_RIM));
+
+        assertEquals(1, signers.size());
+        final ReferenceManifestSigner signer = signers.get(0);
+        assertTrue(signer.isEmbeddedCertificate());
+        assertEquals(SIGNER_SKI, signer.getSubjectKeyIdString());
+        assertEquals(SIGNER_ISSUER_SKI, signer.getAuthorityKeyIdString());
+
+        final CertificateAuthorityCredential certificate = signer.toCertificateAuthorityCredential();
+        assertEquals(SIGNER_SKI, certificate.getSubjectKeyIdString());
+        assertEquals(certificate.getCertificateHash(), signer.getCertificateHash());
+    }
+
+    /**
+     * Tests that content that isn't XML is rejected.
+     */
+    @Test
+    public void testExtractInvalidRim() {
+        assertThrows(IOException.class, () -> ReferenceManifestSigner.extract(RIM_ID, new byte[] {1, 2, 3}));
+    }
+
+    private byte[] readResource(final String resource) throws IOException {
+        try (InputStream is = Objects.requireNonNull(getClass().getResourceAsStream(resource))) {
+            return is.readAllBytes();
+        }
+    }
+}
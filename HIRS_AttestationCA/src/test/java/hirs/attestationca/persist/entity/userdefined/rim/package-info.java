@@ -0,0 +1 @@
+package hirs.attestationca.persist.entity.userdefined.rim;
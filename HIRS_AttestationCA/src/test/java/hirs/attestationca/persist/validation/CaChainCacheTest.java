@@ -0,0 +1,188 @@
+package hirs.attestationca.persist.validation;
+
+import hirs.attestationca.persist.entity.manager.CACredentialRepository;
+import hirs.attestationca.persist.entity.userdefined.certificate.CertificateAuthorityCredential;
+import hirs.attestationca.persist.entity.userdefined.certificate.EndorsementCredential;
+import hirs.attestationca.persist.enums.AppraisalStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.KeyStoreException;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests that {@link CaChainCache} builds CA chains from the indexed CA credentials and only goes
+ * back to the repository after it has been invalidated.
+ */
+public class CaChainCacheTest {
+
+    private static final String TEST_EK_CERT = "/certificates/nuc-2/tpmcert.pem";
+
+    private static final String INT_CA_CERT02 = "/certificates/fakestmtpmekint02.pem";
+
+    private static final String FAKE_ROOT_CA_ORIG = "/certificates/fakeCA.pem";
+
+    private CACredentialRepository caCredentialRepository;
+
+    private CaChainCache caChainCache;
+
+    private EndorsementCredential endorsementCredential;
+
+    private CertificateAuthorityCredential intermediateCa;
+
+    private CertificateAuthorityCredential rootCa;
+
+    /**
+     * Creates a cache backed by a repository holding the EK's intermediate and root CA.
+     *
+     * @throws IOException        if error occurs while reading files
+     * @throws URISyntaxException if error occurs while reading files
+     */
+    @BeforeEach
+    public void setUp() throws IOException, URISyntaxException {
+        endorsementCredential = new EndorsementCredential(readResource(TEST_EK_CERT));
+        intermediateCa = new CertificateAuthorityCredential(readResource(INT_CA_CERT02));
+        intermediateCa.setId(UUID.randomUUID());
+        rootCa = new CertificateAuthorityCredential(readResource(FAKE_ROOT_CA_ORIG));
+        rootCa.setId(UUID.randomUUID());
+
+        caCredentialRepository = mock(CACredentialRepository.class);
+        when(caCredentialRepository.findAll()).thenReturn(List.of(intermediateCa, rootCa));
+        caChainCache = new CaChainCache(caCredentialRepository);
+    }
+
+    /**
+     * Tests that the chain of an EK reaches the root CA and that its key store validates the EK.
+     *
+     * @throws KeyStoreException if the key store can't be read
+     */
+    @Test
+    public void testChainValidatesEndorsementCredential() throws KeyStoreException {
+        CaChain chain = caChainCache.getChain(endorsementCredential);
+
+        assertEquals(2, chain.certificates().size());
+        assertTrue(chain.certificates().contains(intermediateCa));
+        assertTrue(chain.certificates().contains(rootCa));
+        assertEquals(2, chain.keyStore().size());
+        assertThrows(UnsupportedOperationException.class, () -> chain.certificates().clear());
+
+        AppraisalStatus result = CredentialValidator.validateEndorsementCredential(
+                endorsementCredential, chain.keyStore(), true);
+        assertEquals(AppraisalStatus.Status.PASS, result.getAppStatus());
+    }
+
+    /**
+     * Tests that chains are shared between lookups until the cache is invalidated, and that the
+     * CA credentials are only read from the repository once per invalidation.
+     */
+    @Test
+    public void testChainIsCachedUntilInvalidated() {
+        CaChain chain = caChainCache.getChain(endorsementCredential);
+        assertSame(chain, caChainCache.getChain(endorsementCredential));
+        assertEquals(1, caChainCache.getHitCount());
+        assertEquals(1, caChainCache.getMissCount());
+        assertEquals(0.5, caChainCache.getHitRate());
+        verify(caCredentialRepository, times(1)).findAll();
+
+        caChainCache.invalidate();
+        assertNotSame(chain, caChainCache.getChain(endorsementCredential));
+        assertEquals(2, caChainCache.getMissCount());
+        verify(caCredentialRepository, times(2)).findAll();
+    }
+
+    /**
+     * Tests that the chain of a self-signed root only holds the root itself.
+     */
+    @Test
+    public void testChainOfRootStopsAtRoot() {
+        assertTrue(caChainCache.getChain(rootCa).certificates().contains(rootCa));
+        assertEquals(1, caChainCache.getChain(rootCa).certificates().size());
+    }
+
+    /**
+     * Tests that CA credentials are found by their subject key identifier.
+     */
+    @Test
+    public void testFindBySubjectKeyIdString() {
+        assertSame(rootCa, caChainCache.findBySubjectKeyIdString(rootCa.getSubjectKeyIdString()));
+        assertSame(intermediateCa, caChainCache.findBySubjectKeyIdString(intermediateCa.getSubjectKeyIdString()));
+        assertNull(caChainCache.findBySubjectKeyIdString("0102"));
+        assertNull(caChainCache.findBySubjectKeyIdString(null));
+    }
+
+    /**
+     * Tests that a RIM signature is only verified once per RIM hash until the cache is invalidated.
+     */
+    @Test
+    public void testRimSignatureVerdictIsCachedUntilInvalidated() {
+        AtomicInteger verifications = new AtomicInteger();
+        Supplier<RimSignatureVerdict> verifier = () -> {
+            verifications.incrementAndGet();
+            return new RimSignatureVerdict(new AppraisalStatus(AppraisalStatus.Status.PASS, "RIM signature valid."),
+                    intermediateCa, true, "");
+        };
+
+        RimSignatureVerdict verdict = caChainCache.getRimSignatureVerdict("aa", verifier);
+        assertSame(verdict, caChainCache.getRimSignatureVerdict("aa", verifier));
+        assertEquals(1, verifications.get());
+
+        caChainCache.getRimSignatureVerdict("bb", verifier);
+        caChainCache.getRimSignatureVerdict("", verifier);
+        caChainCache.getRimSignatureVerdict("", verifier);
+        assertEquals(4, verifications.get());
+
+        caChainCache.invalidate();
+        assertNotSame(verdict, caChainCache.getRimSignatureVerdict("aa", verifier));
+        assertEquals(5, verifications.get());
+    }
+
+    /**
+     * Tests that the validity period of a RIM signer is checked against the current time, so that a
+     * signer verified before it expired fails once it has expired, while its certificate path still
+     * validates against the cached chain.
+     *
+     * @throws IOException        if error occurs while reading files
+     * @throws URISyntaxException if error occurs while reading files
+     */
+    @Test
+    public void testRimSignerValidityIsCheckedOnEachValidation() throws IOException, URISyntaxException {
+        CertificateAuthorityCredential signer = new CertificateAuthorityCredential(readResource(TEST_EK_CERT));
+        assertTrue(signer.getX509Certificate().getNotAfter().before(new Date()));
+
+        AppraisalStatus expired = FirmwareScvValidator.validateRimSigner(signer, caChainCache, false);
+        assertEquals(AppraisalStatus.Status.FAIL, expired.getAppStatus());
+        assertTrue(expired.getMessage().contains("expired"));
+        assertNull(FirmwareScvValidator.validateRimSigner(signer, caChainCache, true));
+
+        CertificateAuthorityCredential rootOnly = new CertificateAuthorityCredential(readResource(FAKE_ROOT_CA_ORIG));
+        rootOnly.setId(UUID.randomUUID());
+        caChainCache.invalidate();
+        when(caCredentialRepository.findAll()).thenReturn(List.of(rootOnly));
+        AppraisalStatus invalidPath = FirmwareScvValidator.validateRimSigner(signer, caChainCache, true);
+        assertEquals(AppraisalStatus.Status.FAIL, invalidPath.getAppStatus());
+    }
+
+    private byte[] readResource(final String resource) throws IOException, URISyntaxException {
+        return Files.readAllBytes(Paths.get(Objects.requireNonNull(getClass().getResource(resource)).toURI()));
+    }
+}
@@ -0,0 +1,91 @@
+package hirs.attestationca.persist.validation;
+
+import hirs.utils.tpm.eventlog.TCGEventLog;
+import hirs.utils.tpm.eventlog.TpmPcrEvent;
+import hirs.utils.tpm.eventlog.events.EvConstants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that {@link EventLogComparison} finds the unmatched events of a measured event log and pairs
+ * each one with the reference events of the same PCR and event type.
+ */
+public class EventLogComparisonTest {
+
+    private static final String DEFAULT_TCG_EVENT_LOG = "/tcgeventlog/TpmLog.bin";
+
+    private Collection<TpmPcrEvent> events;
+
+    /**
+     * Parses the event log used as both the measured and the reference event log.
+     *
+     * @throws IOException        if error occurs while reading files
+     * @throws URISyntaxException if error occurs while reading files
+     */
+    @BeforeEach
+    public void setUp() throws IOException, URISyntaxException {
+        events = new TCGEventLog(Files.readAllBytes(Paths.get(Objects.requireNonNull(
+                getClass().getResource(DEFAULT_TCG_EVENT_LOG)).toURI()))).getEventList();
+    }
+
+    /**
+     * Tests that events are unmatched exactly when their digest isn't a reference digest.
+     */
+    @Test
+    public void testFindUnmatchedEvents() {
+        Set<String> referenceDigests = new HashSet<>();
+        for (TpmPcrEvent event : events) {
+            referenceDigests.add(event.getEventDigestStr());
+        }
+        assertTrue(EventLogComparison.findUnmatchedEvents(events, referenceDigests).isEmpty());
+        assertEquals(new ArrayList<>(events),
+                EventLogComparison.findUnmatchedEvents(events, Collections.emptySet()));
+    }
+
+    /**
+     * Tests that each unmatched event is paired with reference events of its PCR and event type,
+     * including itself when it is one of the reference events. UEFI variable events are only paired
+     * with events naming the same variable.
+     */
+    @Test
+    public void testFindCandidateEvents() {
+        for (TpmPcrEvent event : events) {
+            Map<String, List<TpmPcrEvent>> candidateEvents =
+                    EventLogComparison.findCandidateEvents(List.of(event), events);
+
+            List<TpmPcrEvent> candidates = candidateEvents.get(event.getEventDigestStr());
+            if (!isVariableEvent(event)) {
+                assertTrue(candidates.contains(event));
+            }
+            for (TpmPcrEvent candidate : candidates) {
+                assertEquals(event.getPcrIndex(), candidate.getPcrIndex());
+                assertEquals(event.getEventType(), candidate.getEventType());
+            }
+        }
+    }
+
+    private boolean isVariableEvent(final TpmPcrEvent event) {
+        long eventType = event.getEventType();
+        return eventType == EvConstants.EV_EFI_VARIABLE_AUTHORITY
+                || eventType == EvConstants.EV_EFI_VARIABLE_BOOT
+                || eventType == EvConstants.EV_EFI_VARIABLE_DRIVER_CONFIG
+                || eventType == EvConstants.EV_EFI_SPDM_DEVICE_AUTHORITY
+                || eventType == EvConstants.EV_EFI_SPDM_DEVICE_POLICY;
+    }
+}
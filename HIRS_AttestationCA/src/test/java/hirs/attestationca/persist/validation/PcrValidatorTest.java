@@ -0,0 +1,142 @@
+package hirs.attestationca.persist.validation;
+
+import hirs.attestationca.persist.entity.userdefined.PolicySettings;
+import hirs.utils.tpm.eventlog.TcgTpmtHa;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that {@link PcrValidator} validates a quote against every PCR bank replayed from an event
+ * log, and accepts it when it holds the digest of any one of them.
+ */
+public class PcrValidatorTest {
+
+    private static final int PCR_COUNT = 24;
+
+    // size and mask of a selection of all 24 PCRs, as quoted by a TPM 1.2
+    private static final byte[] ALL_PCRS_SELECTION = {0x00, 0x03, (byte) 0xff, (byte) 0xff, (byte) 0xff};
+
+    private static final int SHA256_SEED = 0x40;
+
+    private static final String QUOTE_PREFIX = "quoted:";
+
+    private PcrValidator pcrValidator;
+
+    private PolicySettings policySettings;
+
+    private String[] sha1Bank;
+
+    private String[] sha256Bank;
+
+    private Map<Integer, String[]> pcrBanks;
+
+    /**
+     * Creates a validator and the SHA-1 and SHA-256 banks of an event log.
+     */
+    @BeforeEach
+    public void setUp() {
+        pcrValidator = new PcrValidator();
+        policySettings = new PolicySettings("Default", "test");
+        sha1Bank = createBank(TcgTpmtHa.TPM_ALG_SHA1_LENGTH, 0);
+        sha256Bank = createBank(TcgTpmtHa.TPM_ALG_SHA256_LENGTH, SHA256_SEED);
+        pcrBanks = Map.of(TcgTpmtHa.TPM_ALG_SHA1, sha1Bank, TcgTpmtHa.TPM_ALG_SHA256, sha256Bank);
+    }
+
+    /**
+     * Tests that a quote over the SHA-1 bank is valid.
+     *
+     * @throws NoSuchAlgorithmException if SHA-1 isn't available
+     */
+    @Test
+    public void testQuoteOverSha1Bank() throws NoSuchAlgorithmException {
+        assertTrue(pcrValidator.validateQuote(quoteSha1Bank(sha1Bank), pcrBanks, policySettings));
+    }
+
+    /**
+     * Tests that a quote over the SHA-256 bank is valid.
+     *
+     * @throws NoSuchAlgorithmException if SHA-256 isn't available
+     */
+    @Test
+    public void testQuoteOverSha256Bank() throws NoSuchAlgorithmException {
+        assertTrue(pcrValidator.validateQuote(quoteSha256Bank(sha256Bank), pcrBanks, policySettings));
+    }
+
+    /**
+     * Tests that a quote that matches none of the banks is not valid.
+     *
+     * @throws NoSuchAlgorithmException if SHA-256 isn't available
+     */
+    @Test
+    public void testQuoteMatchingNoBank() throws NoSuchAlgorithmException {
+        String[] otherBank = createBank(TcgTpmtHa.TPM_ALG_SHA256_LENGTH, SHA256_SEED + PCR_COUNT);
+
+        assertFalse(pcrValidator.validateQuote(quoteSha256Bank(otherBank), pcrBanks, policySettings));
+    }
+
+    /**
+     * Creates the hex encoded values of all PCRs of a bank, each PCR filled with a distinct byte.
+     *
+     * @param digestLength length of the digests of the bank
+     * @param seed         byte filling the first PCR
+     * @return the PCR values
+     */
+    private static String[] createBank(final int digestLength, final int seed) {
+        String[] bank = new String[PCR_COUNT];
+        for (int i = 0; i < PCR_COUNT; i++) {
+            byte[] digest = new byte[digestLength];
+            Arrays.fill(digest, (byte) (seed + i));
+            bank[i] = HexFormat.of().formatHex(digest);
+        }
+        return bank;
+    }
+
+    /**
+     * Creates a TPM 1.2 quote over a SHA-1 bank, which holds the digest of the PCR selection, the
+     * size of the PCR values and the values.
+     *
+     * @param bank PCR values
+     * @return the quote
+     * @throws NoSuchAlgorithmException if SHA-1 isn't available
+     */
+    private static byte[] quoteSha1Bank(final String[] bank) throws NoSuchAlgorithmException {
+        byte[] values = concatenate(bank);
+        ByteBuffer composite = ByteBuffer.allocate(ALL_PCRS_SELECTION.length + Integer.BYTES + values.length);
+        composite.put(ALL_PCRS_SELECTION).putInt(values.length).put(values);
+        return quote(MessageDigest.getInstance("SHA-1").digest(composite.array()));
+    }
+
+    /**
+     * Creates a TPM 2.0 quote over a SHA-256 bank, which holds the digest of the PCR values.
+     *
+     * @param bank PCR values
+     * @return the quote
+     * @throws NoSuchAlgorithmException if SHA-256 isn't available
+     */
+    private static byte[] quoteSha256Bank(final String[] bank) throws NoSuchAlgorithmException {
+        return quote(MessageDigest.getInstance("SHA-256").digest(concatenate(bank)));
+    }
+
+    private static byte[] concatenate(final String[] bank) {
+        StringBuilder values = new StringBuilder();
+        for (String pcr : bank) {
+            values.append(pcr);
+        }
+        return HexFormat.of().parseHex(values);
+    }
+
+    private static byte[] quote(final byte[] pcrDigest) {
+        return (QUOTE_PREFIX + HexFormat.of().formatHex(pcrDigest)).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,109 @@
+package hirs.attestationca.persist.validation;
+
+import hirs.attestationca.persist.entity.manager.PolicyRepository;
+import hirs.attestationca.persist.entity.userdefined.PolicySettings;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests that {@link PolicySettingsCache} reads the default policy once and only replaces it when
+ * refreshed.
+ */
+public class PolicySettingsCacheTest {
+
+    private static final String DEFAULT_POLICY_NAME = "Default";
+
+    private static final int VALIDITY_DAYS = 42;
+
+    private PolicyRepository policyRepository;
+
+    private PolicySettingsCache policySettingsCache;
+
+    /**
+     * Creates a cache backed by a mocked policy repository.
+     */
+    @BeforeEach
+    public void setUp() {
+        policyRepository = mock(PolicyRepository.class);
+        policySettingsCache = new PolicySettingsCache(policyRepository);
+    }
+
+    /**
+     * Tests that the default policy is loaded on first use and then kept until it is refreshed,
+     * and that each refresh installs a newer version.
+     */
+    @Test
+    public void testRefreshReplacesSnapshot() {
+        PolicySettings original = new PolicySettings(DEFAULT_POLICY_NAME, "original");
+        PolicySettings updated = new PolicySettings(DEFAULT_POLICY_NAME, "updated");
+        updated.setFirmwareValidationEnabled(true);
+        when(policyRepository.findByName(DEFAULT_POLICY_NAME)).thenReturn(original, updated);
+
+        assertEquals(0, policySettingsCache.getVersion());
+        assertEquals("original", policySettingsCache.getPolicySettings().getDescription());
+        assertEquals("original", policySettingsCache.getPolicySettings().getDescription());
+        verify(policyRepository, times(1)).findByName(DEFAULT_POLICY_NAME);
+        long originalVersion = policySettingsCache.getVersion();
+
+        policySettingsCache.refresh();
+        assertEquals("updated", policySettingsCache.getPolicySettings().getDescription());
+        assertTrue(policySettingsCache.getPolicySettings().isFirmwareValidationEnabled());
+        assertTrue(policySettingsCache.getVersion() > originalVersion);
+        verify(policyRepository, times(2)).findByName(DEFAULT_POLICY_NAME);
+    }
+
+    /**
+     * Tests that settings with no validation enabled are returned while the default policy doesn't
+     * exist, without being kept.
+     */
+    @Test
+    public void testMissingPolicyIsNotCached() {
+        PolicySettings created = new PolicySettings(DEFAULT_POLICY_NAME, "created");
+        when(policyRepository.findByName(DEFAULT_POLICY_NAME)).thenReturn(null, created);
+
+        PolicySettings fallback = policySettingsCache.getPolicySettings();
+        assertFalse(fallback.isEcValidationEnabled());
+        assertFalse(fallback.isFirmwareValidationEnabled());
+        assertEquals(0, policySettingsCache.getVersion());
+
+        assertEquals("created", policySettingsCache.getPolicySettings().getDescription());
+        verify(policyRepository, times(2)).findByName(DEFAULT_POLICY_NAME);
+    }
+
+    /**
+     * Tests that changes made to the returned settings, or to the loaded policy, don't reach the
+     * cached snapshot.
+     */
+    @Test
+    public void testReturnedSettingsAreCopies() {
+        PolicySettings stored = new PolicySettings(DEFAULT_POLICY_NAME, "stored");
+        stored.setEcValidationEnabled(true);
+        stored.setValidityDays(VALIDITY_DAYS);
+        when(policyRepository.findByName(DEFAULT_POLICY_NAME)).thenReturn(stored);
+
+        PolicySettings returned = policySettingsCache.getPolicySettings();
+        assertNotSame(stored, returned);
+        assertTrue(returned.isEcValidationEnabled());
+        assertEquals(VALIDITY_DAYS, returned.getValidityDays());
+
+        returned.setEcValidationEnabled(false);
+        returned.setValidityDays(1);
+        stored.setFirmwareValidationEnabled(true);
+
+        PolicySettings cached = policySettingsCache.getPolicySettings();
+        assertNotSame(returned, cached);
+        assertTrue(cached.isEcValidationEnabled());
+        assertEquals(VALIDITY_DAYS, cached.getValidityDays());
+        assertFalse(cached.isFirmwareValidationEnabled());
+        verify(policyRepository, times(1)).findByName(DEFAULT_POLICY_NAME);
+    }
+}
@@ -0,0 +1,133 @@
+package hirs.attestationca.persist.validation;
+
+import hirs.attestationca.persist.entity.manager.ReferenceManifestRepository;
+import hirs.attestationca.persist.entity.manager.ReferenceManifestSignerRepository;
+import hirs.attestationca.persist.entity.userdefined.rim.BaseReferenceManifest;
+import hirs.attestationca.persist.entity.userdefined.rim.ReferenceManifestSigner;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests that {@link ReferenceManifestSignerService} extracts the signers of a base RIM once and records
+ * that the RIM was indexed, even when it has no signers.
+ */
+public class ReferenceManifestSignerServiceTest {
+
+    private static final String KEY_NAME_RIM = "/rim/generated_user_cert.swidtag";
+
+    private static final UUID RIM_ID = UUID.randomUUID();
+
+    private ReferenceManifestRepository referenceManifestRepository;
+
+    private ReferenceManifestSignerRepository referenceManifestSignerRepository;
+
+    private ReferenceManifestSignerService referenceManifestSignerService;
+
+    private BaseReferenceManifest baseRim;
+
+    private BaseReferenceManifest lockedRim;
+
+    /**
+     * Creates a service backed by mocked repositories, and a stored base RIM that wasn't indexed yet.
+     */
+    @BeforeEach
+    public void setUp() {
+        referenceManifestRepository = mock(ReferenceManifestRepository.class);
+        referenceManifestSignerRepository = mock(ReferenceManifestSignerRepository.class);
+        referenceManifestSignerService = new ReferenceManifestSignerService(referenceManifestRepository,
+                referenceManifestSignerRepository);
+        when(referenceManifestSignerRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        baseRim = mock(BaseReferenceManifest.class);
+        when(baseRim.getId()).thenReturn(RIM_ID);
+        lockedRim = mock(BaseReferenceManifest.class);
+        when(lockedRim.getId()).thenReturn(RIM_ID);
+        when(referenceManifestRepository.lockBaseRimById(RIM_ID)).thenReturn(lockedRim);
+    }
+
+    /**
+     * Tests that the signers of a RIM that wasn't indexed are extracted, replace any stale signers, and
+     * that the RIM is flagged as indexed.
+     *
+     * @throws IOException if the RIM can't be read
+     */
+    @Test
+    public void testFindSignersIndexesRim() throws IOException {
+        when(lockedRim.getRimBytes()).thenReturn(readResource(KEY_NAME_RIM));
+
+        List<ReferenceManifestSigner> signers = referenceManifestSignerService.findSigners(baseRim);
+
+        assertEquals(1, signers.size());
+        assertEquals(RIM_ID, signers.get(0).getRimId());
+        verify(referenceManifestSignerRepository).deleteByRimId(RIM_ID);
+        verify(lockedRim).setSignersIndexed(true);
+        verify(referenceManifestRepository).save(lockedRim);
+        verify(baseRim).setSignersIndexed(true);
+    }
+
+    /**
+     * Tests that the signers of an indexed RIM are read from the index without parsing or locking the RIM.
+     */
+    @Test
+    public void testFindSignersOfIndexedRim() {
+        List<ReferenceManifestSigner> indexed = List.of(new ReferenceManifestSigner(RIM_ID, "0a0b"));
+        when(baseRim.isSignersIndexed()).thenReturn(true);
+        when(referenceManifestSignerRepository.findByRimId(RIM_ID)).thenReturn(indexed);
+
+        assertSame(indexed, referenceManifestSignerService.findSigners(baseRim));
+        verify(referenceManifestRepository, never()).lockBaseRimById(any());
+        verify(referenceManifestSignerRepository, never()).saveAll(anyList());
+    }
+
+    /**
+     * Tests that a RIM whose signers can't be extracted is flagged as indexed with no signers, so that it
+     * isn't parsed again on every use.
+     */
+    @Test
+    public void testRimWithoutSignersIsFlagged() {
+        when(lockedRim.getRimBytes()).thenReturn("not a swidtag".getBytes(StandardCharsets.UTF_8));
+
+        assertTrue(referenceManifestSignerService.findSigners(baseRim).isEmpty());
+        verify(lockedRim).setSignersIndexed(true);
+        verify(referenceManifestRepository).save(lockedRim);
+        verify(baseRim).setSignersIndexed(true);
+    }
+
+    /**
+     * Tests that a RIM indexed by another request while waiting for the lock isn't indexed again.
+     */
+    @Test
+    public void testRimIndexedConcurrentlyIsNotIndexedAgain() {
+        List<ReferenceManifestSigner> indexed = List.of(new ReferenceManifestSigner(RIM_ID, "0a0b"));
+        when(lockedRim.isSignersIndexed()).thenReturn(true);
+        when(referenceManifestSignerRepository.findByRimId(RIM_ID)).thenReturn(indexed);
+
+        assertSame(indexed, referenceManifestSignerService.indexSigners(baseRim));
+        verify(referenceManifestSignerRepository, never()).deleteByRimId(any());
+        verify(referenceManifestSignerRepository, never()).saveAll(anyList());
+        verify(baseRim).setSignersIndexed(true);
+    }
+
+    private byte[] readResource(final String path) throws IOException {
+        try (InputStream inputStream = Objects.requireNonNull(getClass().getResourceAsStream(path))) {
+            return inputStream.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package hirs.attestationca.persist.validation;
+
+import hirs.attestationca.persist.entity.manager.ReferenceDigestValueRepository;
+import hirs.attestationca.persist.entity.userdefined.rim.ReferenceDigestValue;
+import hirs.attestationca.persist.entity.userdefined.rim.SupportReferenceManifest;
+import hirs.utils.tpm.eventlog.TCGEventLog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests that {@link SupportRimCache} parses each support RIM once and keeps the reference digest
+ * values of a base RIM until they are invalidated.
+ */
+public class SupportRimCacheTest {
+
+    private static final String DEFAULT_TCG_EVENT_LOG = "/tcgeventlog/TpmLog.bin";
+
+    private ReferenceDigestValueRepository referenceDigestValueRepository;
+
+    private SupportRimCache supportRimCache;
+
+    private byte[] eventLogBytes;
+
+    /**
+     * Creates a cache backed by a mocked reference digest value repository.
+     *
+     * @throws IOException        if error occurs while reading files
+     * @throws URISyntaxException if error occurs while reading files
+     */
+    @BeforeEach
+    public void setUp() throws IOException, URISyntaxException {
+        eventLogBytes = Files.readAllBytes(Paths.get(Objects.requireNonNull(
+                getClass().getResource(DEFAULT_TCG_EVENT_LOG)).toURI()));
+        referenceDigestValueRepository = mock(ReferenceDigestValueRepository.class);
+        supportRimCache = new SupportRimCache(referenceDigestValueRepository);
+    }
+
+    /**
+     * Tests that support RIMs with the same bytes share one parsed event log, which matches a
+     * freshly parsed one.
+     *
+     * @throws IOException if the event log can't be parsed
+     */
+    @Test
+    public void testEventLogIsParsedOnce() throws IOException {
+        SupportReferenceManifest supportRim = new SupportReferenceManifest("first.rimel", eventLogBytes);
+        SupportReferenceManifest sameSupportRim = new SupportReferenceManifest("second.rimel", eventLogBytes);
+
+        SupportRimCache.SupportRimEventLog eventLog = supportRimCache.getEventLog(supportRim);
+        assertSame(eventLog, supportRimCache.getEventLog(sameSupportRim));
+        assertEquals(1, supportRimCache.getHitCount());
+        assertEquals(1, supportRimCache.getMissCount());
+
+        TCGEventLog expected = new TCGEventLog(eventLogBytes);
+        assertArrayEquals(expected.getExpectedPCRValues(), eventLog.getExpectedPcrValues());
+        assertEquals(expected.getEventList().size(), eventLog.getEvents().size());
+        assertThrows(UnsupportedOperationException.class, () -> eventLog.getEvents().clear());
+
+        supportRimCache.invalidate(supportRim);
+        assertNotSame(eventLog, supportRimCache.getEventLog(sameSupportRim));
+        assertEquals(2, supportRimCache.getMissCount());
+    }
+
+    /**
+     * Tests that event logs larger than the cache's bound are parsed but not kept.
+     *
+     * @throws IOException if the event log can't be parsed
+     */
+    @Test
+    public void testEventLogLargerThanBoundIsNotKept() throws IOException {
+        SupportRimCache smallCache = new SupportRimCache(referenceDigestValueRepository,
+                eventLogBytes.length - 1, 1);
+        SupportReferenceManifest supportRim = new SupportReferenceManifest(eventLogBytes);
+
+        assertNotSame(smallCache.getEventLog(supportRim), smallCache.getEventLog(supportRim));
+        assertEquals(2, smallCache.getMissCount());
+    }
+
+    /**
+     * Tests that reference digest values are only read from the repository again after they have
+     * been invalidated.
+     */
+    @Test
+    public void testDigestValuesAreCachedUntilInvalidated() {
+        UUID baseRimId = UUID.randomUUID();
+        ReferenceDigestValue rdv = new ReferenceDigestValue(baseRimId, UUID.randomUUID(), "manufacturer",
+                "model", 0, "aa", "bb", "EV_POST_CODE", false, false, true, new byte[0]);
+        when(referenceDigestValueRepository.findValuesByBaseRimId(baseRimId)).thenReturn(List.of(rdv));
+
+        Map<String, ReferenceDigestValue> digestValues = supportRimCache.getDigestValues(baseRimId);
+        assertEquals(Map.of("aa", rdv), digestValues);
+        assertSame(digestValues, supportRimCache.getDigestValues(baseRimId));
+        verify(referenceDigestValueRepository, times(1)).findValuesByBaseRimId(baseRimId);
+
+        supportRimCache.invalidateDigestValues();
+        supportRimCache.getDigestValues(baseRimId);
+        verify(referenceDigestValueRepository, times(2)).findValuesByBaseRimId(baseRimId);
+    }
+}
@@ -2,12 +2,14 @@ package hirs.attestationca.portal;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Spring Boot Application starting point for the HIRS application.
  */
 @SuppressWarnings("checkstyle:hideutilityclassconstructor")
 @SpringBootApplication
+@EnableScheduling
 public class HIRSApplication {
     /**
      * This is the starting point of the HIRS application.
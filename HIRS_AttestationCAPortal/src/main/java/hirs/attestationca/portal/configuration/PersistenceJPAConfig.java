@@ -1,5 +1,6 @@
 package hirs.attestationca.portal.configuration;
 
+import com.zaxxer.hikari.HikariDataSource;
 import jakarta.annotation.PostConstruct;
 import lombok.extern.log4j.Log4j2;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
@@ -14,7 +15,6 @@ import org.springframework.context.annotation.PropertySource;
 import org.springframework.context.annotation.PropertySources;
 import org.springframework.core.env.Environment;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.JpaVendorAdapter;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
@@ -70,6 +70,16 @@ import java.util.Set;
         "hirs.attestationca.persist.service"})
 @EnableJpaRepositories(basePackages = "hirs.attestationca.persist.entity.manager")
 public class PersistenceJPAConfig {
+    private static final String POOL_NAME = "HIRS_ACA_Pool";
+    private static final int DEFAULT_MAXIMUM_POOL_SIZE = 20;
+    private static final int DEFAULT_MINIMUM_IDLE = 5;
+    private static final long DEFAULT_IDLE_TIMEOUT_MS = 600_000L;
+    private static final long DEFAULT_MAX_LIFETIME_MS = 1_800_000L;
+    private static final long DEFAULT_CONNECTION_TIMEOUT_MS = 30_000L;
+    private static final long DEFAULT_LEAK_DETECTION_THRESHOLD_MS = 60_000L;
+    private static final int DEFAULT_STATEMENT_CACHE_SIZE = 250;
+    private static final int DEFAULT_JDBC_BATCH_SIZE = 50;
+
     @Value("${server.ssl.key-store}")
     private String keyStoreLocation;
 
@@ -108,19 +118,50 @@ public class PersistenceJPAConfig {
     }
 
     /**
-     * Data source bean.
+     * Data source bean. Connections are served from a HikariCP pool so that repository calls made
+     * while provisioning reuse open connections instead of opening a new one each time. The pool is
+     * configured through the aca.datasource.* properties. Because the pool is a
+     * {@link HikariDataSource}, Spring Boot Actuator publishes its metrics (hikaricp.connections.active,
+     * hikaricp.connections.idle, hikaricp.connections.pending, hikaricp.connections.acquire, ...)
+     * on the metrics endpoint.
      *
-     * @return a data source
+     * @return a pooled data source
      */
-    @Bean
+    @Bean(destroyMethod = "close")
     public DataSource dataSource() {
-        final DriverManagerDataSource dataSource = new DriverManagerDataSource();
+        final HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(POOL_NAME);
         dataSource.setDriverClassName(environment.getProperty("hibernate.connection.driver_class",
                 "org.mariadb.jdbc.Driver"));
-        dataSource.setUrl(environment.getProperty("hibernate.connection.url"));
+        dataSource.setJdbcUrl(environment.getProperty("hibernate.connection.url"));
         dataSource.setUsername(environment.getProperty("hibernate.connection.username"));
         dataSource.setPassword(environment.getProperty("hibernate.connection.password"));
 
+        dataSource.setMaximumPoolSize(environment.getProperty("aca.datasource.pool.maximum-pool-size",
+                Integer.class, DEFAULT_MAXIMUM_POOL_SIZE));
+        dataSource.setMinimumIdle(environment.getProperty("aca.datasource.pool.minimum-idle",
+                Integer.class, DEFAULT_MINIMUM_IDLE));
+        dataSource.setIdleTimeout(environment.getProperty("aca.datasource.pool.idle-timeout-ms",
+                Long.class, DEFAULT_IDLE_TIMEOUT_MS));
+        dataSource.setMaxLifetime(environment.getProperty("aca.datasource.pool.max-lifetime-ms",
+                Long.class, DEFAULT_MAX_LIFETIME_MS));
+        dataSource.setConnectionTimeout(environment.getProperty("aca.datasource.pool.connection-timeout-ms",
+                Long.class, DEFAULT_CONNECTION_TIMEOUT_MS));
+        dataSource.setLeakDetectionThreshold(environment.getProperty(
+                "aca.datasource.pool.leak-detection-threshold-ms",
+                Long.class, DEFAULT_LEAK_DETECTION_THRESHOLD_MS));
+
+        // server side prepared statement cache, passed through to the JDBC driver
+        final boolean statementCacheEnabled = environment.getProperty(
+                "aca.datasource.statement-cache.enabled", Boolean.class, true);
+        dataSource.addDataSourceProperty("useServerPrepStmts", statementCacheEnabled);
+        dataSource.addDataSourceProperty("cachePrepStmts", statementCacheEnabled);
+        dataSource.addDataSourceProperty("prepStmtCacheSize", environment.getProperty(
+                "aca.datasource.statement-cache.size", Integer.class, DEFAULT_STATEMENT_CACHE_SIZE));
+
+        log.info("Configured database connection pool {} with a maximum of {} connections",
+                POOL_NAME, dataSource.getMaximumPoolSize());
+
         return dataSource;
     }
 
@@ -312,6 +353,11 @@ public class PersistenceJPAConfig {
                 environment.getProperty("hibernate.dialect"));
         hibernateProperties.setProperty("hibernate.cache.use_second_level_cache",
                 "false");
+        // group the inserts and updates of saveAll calls into JDBC batches
+        hibernateProperties.setProperty("hibernate.jdbc.batch_size", String.valueOf(environment.getProperty(
+                "aca.datasource.batch-size", Integer.class, DEFAULT_JDBC_BATCH_SIZE)));
+        hibernateProperties.setProperty("hibernate.order_inserts", "true");
+        hibernateProperties.setProperty("hibernate.order_updates", "true");
 
         return hibernateProperties;
     }
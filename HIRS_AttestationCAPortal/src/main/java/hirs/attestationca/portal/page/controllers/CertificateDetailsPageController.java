@@ -3,7 +3,8 @@ package hirs.attestationca.portal.page.controllers;
 import hirs.attestationca.persist.entity.manager.CACredentialRepository;
 import hirs.attestationca.persist.entity.manager.CertificateRepository;
 import hirs.attestationca.persist.entity.manager.ComponentResultRepository;
-import hirs.attestationca.persist.entity.manager.ReferenceManifestRepository;
+import hirs.attestationca.persist.entity.manager.IssuedCertificateRepository;
+import hirs.attestationca.persist.entity.manager.ReferenceManifestSignerRepository;
 import hirs.attestationca.portal.page.Page;
 import hirs.attestationca.persist.dto.PageMessages;
 import hirs.attestationca.portal.page.params.CertificateDetailsPageParams;
@@ -34,26 +35,31 @@ public class CertificateDetailsPageController extends PageController<Certificate
     private final CertificateRepository certificateRepository;
     private final CACredentialRepository caCredentialRepository;
     private final ComponentResultRepository componentResultRepository;
-    private final ReferenceManifestRepository referenceManifestRepository;
+    private final IssuedCertificateRepository issuedCertificateRepository;
+    private final ReferenceManifestSignerRepository referenceManifestSignerRepository;
 
     /**
      * Constructor providing the Page's display and routing specification.
      *
-     * @param certificateRepository     the certificate repository
-     * @param componentResultRepository the component result repository
-     * @param caCredentialRepository    the ca credential manager
-     * @param referenceManifestRepository the rim repository
+     * @param certificateRepository             the certificate repository
+     * @param componentResultRepository         the component result repository
+     * @param issuedCertificateRepository       the issued certificate repository
+     * @param caCredentialRepository            the ca credential manager
+     * @param referenceManifestSignerRepository the rim signer repository
      */
     @Autowired
     public CertificateDetailsPageController(final CertificateRepository certificateRepository,
                                             final ComponentResultRepository componentResultRepository,
+                                            final IssuedCertificateRepository issuedCertificateRepository,
                                             final CACredentialRepository caCredentialRepository,
-                                            final ReferenceManifestRepository referenceManifestRepository) {
+                                            final ReferenceManifestSignerRepository
+                                                    referenceManifestSignerRepository) {
         super(Page.CERTIFICATE_DETAILS);
         this.certificateRepository = certificateRepository;
         this.componentResultRepository = componentResultRepository;
+        this.issuedCertificateRepository = issuedCertificateRepository;
         this.caCredentialRepository = caCredentialRepository;
-        this.referenceManifestRepository = referenceManifestRepository;
+        this.referenceManifestSignerRepository = referenceManifestSignerRepository;
     }
 
     /**
@@ -91,7 +97,8 @@ public class CertificateDetailsPageController extends PageController<Certificate
                 switch (type) {
                     case "certificateauthority":
                         data.putAll(CertificateStringMapBuilder.getCertificateAuthorityInformation(
-                                uuid, certificateRepository, caCredentialRepository, referenceManifestRepository));
+                                uuid, certificateRepository, caCredentialRepository,
+                                referenceManifestSignerRepository));
                         break;
                     case "endorsement":
                         data.putAll(CertificateStringMapBuilder.getEndorsementInformation(uuid,
@@ -103,7 +110,7 @@ public class CertificateDetailsPageController extends PageController<Certificate
                         break;
                     case "issued":
                         data.putAll(CertificateStringMapBuilder.getIssuedInformation(uuid,
-                                certificateRepository, caCredentialRepository));
+                                certificateRepository, issuedCertificateRepository, caCredentialRepository));
                         break;
                     case "idevid":
                         data.putAll(CertificateStringMapBuilder.getIdevidInformation(uuid,
@@ -321,7 +321,8 @@ public class IssuedCertificatePageController extends PageController<NoPageParams
                 new FilteredRecordsList<>();
 
         if (pagedResult.hasContent()) {
-            issuedCertificateFilteredRecordsList.addAll(pagedResult.getContent());
+            issuedCertificateFilteredRecordsList.addAll(
+                    issuedCertificatePageService.loadCredentials(pagedResult.getContent()));
         }
 
         issuedCertificateFilteredRecordsList.setRecordsFiltered(pagedResult.getTotalElements());
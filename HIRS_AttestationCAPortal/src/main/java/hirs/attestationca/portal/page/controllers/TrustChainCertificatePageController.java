@@ -9,6 +9,7 @@ import hirs.attestationca.persist.entity.userdefined.certificate.CertificateAuth
 import hirs.attestationca.persist.enums.CertificateType;
 import hirs.attestationca.persist.service.CertificatePageService;
 import hirs.attestationca.persist.service.TrustChainCertificatePageService;
+import hirs.attestationca.persist.validation.CaChainCache;
 import hirs.attestationca.portal.datatables.DataTableInput;
 import hirs.attestationca.portal.datatables.DataTableResponse;
 import hirs.attestationca.portal.datatables.Order;
@@ -88,6 +89,7 @@ public class TrustChainCertificatePageController extends PageController<NoPagePa
     private final CACredentialRepository caCredentialRepository;
     private final CertificatePageService certificatePageService;
     private final TrustChainCertificatePageService trustChainCertificatePageService;
+    private final CaChainCache caChainCache;
 
     /**
      * Constructor for the Trust Chain Certificate Page Controller.
@@ -96,6 +98,7 @@ public class TrustChainCertificatePageController extends PageController<NoPagePa
      * @param caCredentialRepository           caCredential repository
      * @param certificatePageService           certificate page service
      * @param trustChainCertificatePageService trust chain certificate page service
+     * @param caChainCache                     CA chain cache
      * @param acaTrustChainX509Certificates    ACA Trust Chain X509 certificates
      */
     @Autowired
@@ -103,6 +106,7 @@ public class TrustChainCertificatePageController extends PageController<NoPagePa
                                                final CACredentialRepository caCredentialRepository,
                                                final CertificatePageService certificatePageService,
                                                final TrustChainCertificatePageService trustChainCertificatePageService,
+                                               final CaChainCache caChainCache,
                                                @Qualifier("acaTrustChainCerts") final X509Certificate[]
                                                        acaTrustChainX509Certificates) {
         super(Page.TRUST_CHAIN);
@@ -110,6 +114,7 @@ public class TrustChainCertificatePageController extends PageController<NoPagePa
         this.caCredentialRepository = caCredentialRepository;
         this.certificatePageService = certificatePageService;
         this.trustChainCertificatePageService = trustChainCertificatePageService;
+        this.caChainCache = caChainCache;
         this.acaTrustChainCertificates = new CertificateAuthorityCredential[ACA_TRUST_CHAIN_LEN];
 
         try {
@@ -335,6 +340,7 @@ public class TrustChainCertificatePageController extends PageController<NoPagePa
             messages.addSuccessMessages(successMessages);
             messages.addErrorMessages(errorMessages);
         }
+        caChainCache.invalidate();
 
         model.put(MESSAGES_ATTRIBUTE, messages);
         return redirectTo(Page.TRUST_CHAIN, new NoPageParams(), model, redirectAttributes);
@@ -371,6 +377,7 @@ public class TrustChainCertificatePageController extends PageController<NoPagePa
             messages.addErrorMessage(errorMessage);
             log.error(errorMessage, exception);
         }
+        caChainCache.invalidate();
 
         model.put(MESSAGES_ATTRIBUTE, messages);
         return redirectTo(Page.TRUST_CHAIN, new NoPageParams(), model, redirectAttributes);
@@ -406,6 +413,7 @@ public class TrustChainCertificatePageController extends PageController<NoPagePa
             messages.addErrorMessage(errorMessage);
             log.error(errorMessage, exception);
         }
+        caChainCache.invalidate();
 
         model.put(MESSAGES_ATTRIBUTE, messages);
         return redirectTo(Page.TRUST_CHAIN, new NoPageParams(), model, redirectAttributes);
@@ -15,12 +15,14 @@ import lombok.extern.log4j.Log4j2;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.servlet.ModelAndView;
 
@@ -28,6 +30,7 @@ import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.Set;
 
 /**
@@ -113,14 +116,30 @@ public class ValidationReportsPageController extends PageController<NoPageParams
     }
 
     /**
-     * Processes the request to download a CSV file of all the {@link SupplyChainValidationSummary} objects.
+     * Processes the request to download a CSV file of the {@link SupplyChainValidationSummary} objects,
+     * optionally limited to the reports created within the provided dates.
      *
      * @param response http response
+     * @param from     first day of the reports to download (yyyy-MM-dd), or null for no lower bound
+     * @param to       last day of the reports to download (yyyy-MM-dd), or null for no upper bound
      * @throws IOException if any issues arise from downloading the validation report.
      */
     @GetMapping("/download")
-    public void downloadValidationReports(final HttpServletResponse response) throws IOException {
-        log.info("Received request to download all Validation Summary Reports");
+    public void downloadValidationReports(final HttpServletResponse response,
+                                          @RequestParam(required = false)
+                                          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) final LocalDate from,
+                                          @RequestParam(required = false)
+                                          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) final LocalDate to)
+            throws IOException {
+        log.info("Received request to download Validation Summary Reports from {} to {}",
+                from == null ? "the first report" : from, to == null ? "the last report" : to);
+
+        if (from != null && to != null && to.isBefore(from)) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST,
+                    "The end date of the validation reports is before their start date");
+            return;
+        }
+
         final String zipFileName = "validation_report.csv";
 
         response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + zipFileName);
@@ -128,7 +147,7 @@ public class ValidationReportsPageController extends PageController<NoPageParams
 
         try (BufferedWriter bufferedWriter = new BufferedWriter(
                 new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8))) {
-            validationSummaryPageService.downloadValidationReports(bufferedWriter);
+            validationSummaryPageService.downloadValidationReports(bufferedWriter, from, to);
             bufferedWriter.flush();
         } catch (Exception exception) {
             log.error("An exception was thrown while attempting to download a CSV file of the "
@@ -204,7 +223,7 @@ public class ValidationReportsPageController extends PageController<NoPageParams
                 new FilteredRecordsList<>();
 
         if (pagedResult.hasContent()) {
-            reportsFilteredRecordsList.addAll(pagedResult.getContent());
+            reportsFilteredRecordsList.addAll(validationSummaryPageService.loadValidations(pagedResult.getContent()));
         }
 
         reportsFilteredRecordsList.setRecordsFiltered(pagedResult.getTotalElements());
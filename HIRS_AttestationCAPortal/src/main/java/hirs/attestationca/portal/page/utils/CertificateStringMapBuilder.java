@@ -3,9 +3,9 @@ package hirs.attestationca.portal.page.utils;
 import hirs.attestationca.persist.entity.manager.CACredentialRepository;
 import hirs.attestationca.persist.entity.manager.CertificateRepository;
 import hirs.attestationca.persist.entity.manager.ComponentResultRepository;
-import hirs.attestationca.persist.entity.manager.ReferenceManifestRepository;
+import hirs.attestationca.persist.entity.manager.IssuedCertificateRepository;
+import hirs.attestationca.persist.entity.manager.ReferenceManifestSignerRepository;
 import hirs.attestationca.persist.entity.userdefined.Certificate;
-import hirs.attestationca.persist.entity.userdefined.ReferenceManifest;
 import hirs.attestationca.persist.entity.userdefined.certificate.CertificateAuthorityCredential;
 import hirs.attestationca.persist.entity.userdefined.certificate.ComponentResult;
 import hirs.attestationca.persist.entity.userdefined.certificate.EndorsementCredential;
@@ -17,7 +17,7 @@ import hirs.attestationca.persist.entity.userdefined.certificate.attributes.Dice
 import hirs.attestationca.persist.entity.userdefined.certificate.attributes.PlatformConfigurationV1;
 import hirs.attestationca.persist.entity.userdefined.certificate.attributes.V2.ComponentIdentifierV2;
 import hirs.attestationca.persist.entity.userdefined.certificate.attributes.V2.PlatformConfigurationV2;
-import hirs.attestationca.persist.entity.userdefined.rim.BaseReferenceManifest;
+import hirs.attestationca.persist.entity.userdefined.rim.ReferenceManifestSigner;
 import hirs.attestationca.persist.exceptions.NonUniqueSKIException;
 import hirs.attestationca.persist.util.AcaPciIds;
 import hirs.utils.BouncyCastleUtils;
@@ -41,6 +41,7 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -346,52 +347,45 @@ public final class CertificateStringMapBuilder {
     }
 
     /**
-     * Returns the Certificate Authority information using the provided uuid.
+     * Returns the Certificate Authority information using the provided uuid. The certificate is either a
+     * stored CA credential, or a certificate embedded in a base RIM, which is identified by the id of its
+     * entry in the RIM signer index.
      *
-     * @param uuid                    ID for the certificate.
-     * @param certificateRepository   the certificate manager for retrieving certs.
-     * @param caCertificateRepository CA Certificate repository
-     * @param referenceManifestRepository rim repository
+     * @param uuid                              ID for the certificate.
+     * @param certificateRepository             the certificate manager for retrieving certs.
+     * @param caCertificateRepository           CA Certificate repository
+     * @param referenceManifestSignerRepository rim signer repository
      * @return a hash map with the certificate authority credential information.
      */
     public static HashMap<String, String>
     getCertificateAuthorityInformation(final UUID uuid,
                                        final CertificateRepository certificateRepository,
                                        final CACredentialRepository caCertificateRepository,
-                                       final ReferenceManifestRepository referenceManifestRepository) {
+                                       final ReferenceManifestSignerRepository referenceManifestSignerRepository) {
 
         CertificateAuthorityCredential certificate = null;
-        Iterable<ReferenceManifest> rims = Collections.emptyList();
         List<CertificateAuthorityCredential> embeddedCertificates = Collections.emptyList();
         if (caCertificateRepository.existsById(uuid)) {
             certificate = caCertificateRepository.getReferenceById(uuid);
         }
 
-        if (certificate == null && referenceManifestRepository != null) {
-            try {
-                rims = referenceManifestRepository.findAll();
-            } catch (Exception e) {
-                log.warn("RIM repository unavailable during embedded cert lookup");
-            }
-            for (ReferenceManifest rim : rims) {
-                if (!rim.isBase()) {
-                    continue;
-                }
-                BaseReferenceManifest baseRim = (BaseReferenceManifest) rim;
-                embeddedCertificates = baseRim.getEmbeddedCertificates();
-                if (embeddedCertificates == null || embeddedCertificates.isEmpty()) {
-                    continue;
-                }
-                for (CertificateAuthorityCredential embeddedCert : embeddedCertificates) {
-                    UUID certId = embeddedCert.getId();
-                    if (certId != null && certId.equals(uuid)) {
-                        certificate = embeddedCert;
-                        break;
+        if (certificate == null && referenceManifestSignerRepository != null) {
+            Optional<ReferenceManifestSigner> signer = referenceManifestSignerRepository.findById(uuid)
+                    .filter(ReferenceManifestSigner::isEmbeddedCertificate);
+            if (signer.isPresent()) {
+                // the other certificates embedded in the same RIM may complete the chain
+                embeddedCertificates = new ArrayList<>();
+                try {
+                    for (ReferenceManifestSigner rimSigner
+                            : referenceManifestSignerRepository.findByRimId(signer.get().getRimId())) {
+                        if (rimSigner.isEmbeddedCertificate()) {
+                            embeddedCertificates.add(rimSigner.toCertificateAuthorityCredential());
+                        }
                     }
-                }
-                if (certificate != null) {
-                    break;
-                } else {
+                    certificate = signer.get().toCertificateAuthorityCredential();
+                } catch (IOException e) {
+                    log.error("Unable to parse certificate embedded in RIM {}: {}",
+                            signer.get().getRimId(), e.getMessage());
                     embeddedCertificates = Collections.emptyList();
                 }
             }
@@ -746,19 +740,23 @@ public final class CertificateStringMapBuilder {
     /**
      * Returns the Issued Attestation Certificate information.
      *
-     * @param uuid                   ID for the certificate.
-     * @param certificateRepository  the certificate manager for retrieving certs.
-     * @param caCredentialRepository CA Credential repository.
+     * @param uuid                        ID for the certificate.
+     * @param certificateRepository       the certificate manager for retrieving certs.
+     * @param issuedCertificateRepository issued certificate repository, used to load the certificate along
+     *                                    with its endorsement and platform credentials.
+     * @param caCredentialRepository      CA Credential repository.
      * @return a hash map with the endorsement certificate information.
      */
     public static HashMap<String, String> getIssuedInformation(final UUID uuid,
                                                                final CertificateRepository
                                                                        certificateRepository,
+                                                               final IssuedCertificateRepository
+                                                                       issuedCertificateRepository,
                                                                final CACredentialRepository
                                                                        caCredentialRepository) {
         HashMap<String, String> data = new HashMap<>();
         IssuedAttestationCertificate certificate =
-                (IssuedAttestationCertificate) certificateRepository.getCertificate(uuid);
+                issuedCertificateRepository.findWithCredentialsById(uuid).orElse(null);
 
         if (certificate != null) {
             data.putAll(getGeneralCertificateInfo(certificate, certificateRepository,
@@ -0,0 +1,110 @@
+package hirs.attestationca.portal.page;
+
+import hirs.attestationca.persist.entity.manager.DeviceRepository;
+import hirs.attestationca.persist.entity.userdefined.Device;
+import hirs.attestationca.persist.enums.AppraisalStatus;
+import hirs.attestationca.persist.enums.HealthStatus;
+import hirs.attestationca.persist.service.DevicePageService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that the page services report the total number of matching rows, which is now obtained with a
+ * separate count query, alongside the requested page of results.
+ */
+@SpringBootTest
+@ContextConfiguration(classes = PageTestConfiguration.class)
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+public class DevicePageServicePagingTest {
+
+    private static final int NUMBER_OF_MATCHING_DEVICES = 25;
+
+    private static final int NUMBER_OF_OTHER_DEVICES = 3;
+
+    private static final int PAGE_SIZE = 10;
+
+    private static final Set<String> SEARCHABLE_COLUMNS = Set.of("name");
+
+    @Autowired
+    private DeviceRepository deviceRepository;
+
+    @Autowired
+    private DevicePageService devicePageService;
+
+    /**
+     * Stores the devices searched for by the tests.
+     */
+    @BeforeAll
+    public void prepareTests() {
+        for (int i = 0; i < NUMBER_OF_MATCHING_DEVICES; i++) {
+            saveDevice(String.format("paging-device-%02d", i));
+        }
+        for (int i = 0; i < NUMBER_OF_OTHER_DEVICES; i++) {
+            saveDevice(String.format("other-device-%02d", i));
+        }
+    }
+
+    /**
+     * Tests that every page carries the total number of matching devices, not just the page size.
+     */
+    @Test
+    public void testTotalIsCountedAcrossPages() {
+        Page<Device> firstPage = findPage(0);
+        assertEquals(PAGE_SIZE, firstPage.getNumberOfElements());
+        assertEquals(NUMBER_OF_MATCHING_DEVICES, firstPage.getTotalElements());
+        assertEquals(3, firstPage.getTotalPages());
+        assertEquals("paging-device-00", firstPage.getContent().get(0).getName());
+
+        Page<Device> lastPage = findPage(2);
+        assertEquals(NUMBER_OF_MATCHING_DEVICES - 2 * PAGE_SIZE, lastPage.getNumberOfElements());
+        assertEquals(NUMBER_OF_MATCHING_DEVICES, lastPage.getTotalElements());
+        assertEquals("paging-device-20", lastPage.getContent().get(0).getName());
+    }
+
+    /**
+     * Tests that a page past the end of the results is empty but still reports the total.
+     */
+    @Test
+    public void testPagePastTheEnd() {
+        Page<Device> page = findPage(5);
+        assertTrue(page.getContent().isEmpty());
+        assertEquals(NUMBER_OF_MATCHING_DEVICES, page.getTotalElements());
+    }
+
+    /**
+     * Tests that the count only includes the devices matching the search term.
+     */
+    @Test
+    public void testTotalHonorsSearchTerm() {
+        Page<Device> page = devicePageService.findDevicesByGlobalSearchTerm(SEARCHABLE_COLUMNS,
+                "other-device", PageRequest.of(0, PAGE_SIZE));
+        assertEquals(NUMBER_OF_OTHER_DEVICES, page.getNumberOfElements());
+        assertEquals(NUMBER_OF_OTHER_DEVICES, page.getTotalElements());
+    }
+
+    private Page<Device> findPage(final int pageNumber) {
+        return devicePageService.findDevicesByGlobalSearchTerm(SEARCHABLE_COLUMNS, "paging-device",
+                PageRequest.of(pageNumber, PAGE_SIZE, Sort.by("name")));
+    }
+
+    private void saveDevice(final String name) {
+        deviceRepository.save(new Device(name, null, HealthStatus.TRUSTED, AppraisalStatus.Status.PASS,
+                null, false, "tmp_overrideReason", "tmp_summId"));
+    }
+}
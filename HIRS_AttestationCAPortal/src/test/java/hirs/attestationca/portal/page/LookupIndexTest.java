@@ -0,0 +1,101 @@
+package hirs.attestationca.portal.page;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that the lookups run while provisioning a device are answered from the indexes declared on
+ * the entities instead of a full table scan. The schema is generated by Hibernate in HSQLDB, so each
+ * lookup is run through <code>EXPLAIN PLAN FOR</code> and the plan is checked for the expected index.
+ */
+@SpringBootTest
+@ContextConfiguration(classes = PageTestConfiguration.class)
+@ActiveProfiles("test")
+public class LookupIndexTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    /**
+     * Tests the certificate lookups made while validating the supply chain of a device.
+     *
+     * @throws SQLException if the plan can't be retrieved
+     */
+    @Test
+    public void testCertificateLookupsUseIndexes() throws SQLException {
+        assertPlanUsesIndex("SELECT * FROM Certificate WHERE certificateHash = 1 "
+                + "AND DTYPE = 'PlatformCredential'", "idx_certificate_hash");
+        assertPlanUsesIndex("SELECT * FROM Certificate WHERE subject = 'CN=ca' "
+                + "AND DTYPE = 'CertificateAuthorityCredential'", "idx_certificate_subject");
+        assertPlanUsesIndex("SELECT * FROM Certificate WHERE subjectSorted = 'CN=ca' "
+                + "AND DTYPE = 'CertificateAuthorityCredential'", "idx_certificate_subject_sorted");
+        assertPlanUsesIndex("SELECT * FROM Certificate WHERE subjectKeyIdentifier = X'0102'",
+                "idx_certificate_ski");
+        assertPlanUsesIndex("SELECT * FROM Certificate WHERE holderSerialNumber = 1 "
+                + "AND DTYPE = 'PlatformCredential'", "idx_certificate_holder_serial_number");
+    }
+
+    /**
+     * Tests the native queries of the ReferenceManifestRepository used during firmware validation.
+     *
+     * @throws SQLException if the plan can't be retrieved
+     */
+    @Test
+    public void testReferenceManifestLookupsUseIndexes() throws SQLException {
+        assertPlanUsesIndex("SELECT * FROM ReferenceManifest WHERE hexDecHash = 'aa' AND rimType = 'Support' "
+                + "AND archiveFlag is false", "idx_rim_hex_dec_hash_type");
+        assertPlanUsesIndex("SELECT * FROM ReferenceManifest WHERE base64Hash = 'qg=='",
+                "idx_rim_base64_hash");
+        assertPlanUsesIndex("SELECT * FROM ReferenceManifest WHERE eventLogHash = 'aa' "
+                + "AND rimType = 'Measurement'", "idx_rim_event_log_hash_type");
+        assertPlanUsesIndex("SELECT * FROM ReferenceManifest WHERE deviceName = 'device' "
+                + "AND DTYPE = 'EventLogMeasurements' AND archiveFlag is false", "idx_rim_device_name");
+        assertPlanUsesIndex("SELECT * FROM ReferenceManifest WHERE platformManufacturer = 'Dell' "
+                + "AND platformModel = 'R740' AND rimType = 'Base'", "idx_rim_manufacturer_model_type");
+        assertPlanUsesIndex("SELECT * FROM ReferenceManifest WHERE platformModel = 'R740' "
+                + "AND DTYPE = 'EventLogMeasurements'", "idx_rim_model");
+    }
+
+    /**
+     * Tests the component result lookups made while validating a platform credential.
+     *
+     * @throws SQLException if the plan can't be retrieved
+     */
+    @Test
+    public void testComponentResultLookupsUseIndexes() throws SQLException {
+        assertPlanUsesIndex("SELECT * FROM ComponentResult WHERE boardSerialNumber = '1234' "
+                + "AND delta = false", "idx_component_result_board_serial_delta");
+        assertPlanUsesIndex("SELECT * FROM ComponentResult WHERE certificateSerialNumber = '1' "
+                + "AND boardSerialNumber = '1234'", "idx_component_result_cert_board_serial");
+    }
+
+    private void assertPlanUsesIndex(final String query, final String indexName) throws SQLException {
+        String plan = explain(query);
+        assertTrue(plan.contains("INDEX=" + indexName.toUpperCase(Locale.ROOT)),
+                String.format("Expected %s to use %s, but the plan was:%n%s", query, indexName, plan));
+    }
+
+    private String explain(final String query) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("EXPLAIN PLAN FOR " + query)) {
+            while (resultSet.next()) {
+                plan.append(resultSet.getString(1)).append(System.lineSeparator());
+            }
+        }
+        return plan.toString().toUpperCase(Locale.ROOT);
+    }
+}
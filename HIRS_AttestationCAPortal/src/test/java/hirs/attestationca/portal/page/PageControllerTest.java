@@ -7,6 +7,9 @@ import hirs.attestationca.persist.entity.userdefined.certificate.IDevIDCertifica
 import hirs.attestationca.persist.entity.userdefined.certificate.IssuedAttestationCertificate;
 import hirs.attestationca.persist.entity.userdefined.certificate.PlatformCredential;
 import hirs.attestationca.portal.page.controllers.PageController;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
@@ -15,6 +18,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
@@ -40,6 +44,12 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)              // needed to use non-static BeforeAll
 public abstract class PageControllerTest {
 
+    /**
+     * Upper bound of the SQL statements run to list a page of a portal table, whatever the number of rows
+     * in the page.
+     */
+    protected static final long MAX_TABLE_STATEMENTS = 10;
+
     // Pre-prefix path for all the Controllers.
     // There's an option in Page to add prefix path used for some Controllers.
     private static final String PRE_PREFIX_PATH = "/HIRS_AttestationCAPortal/portal/";
@@ -52,6 +62,10 @@ public abstract class PageControllerTest {
     @Autowired
     private WebApplicationContext webApplicationContext;
 
+    // Used to count the SQL statements run while handling a request
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     // Used to set up mocked servlet environment to test the HTTP controller
     // endpoints without the need to launch the embedded servlet container.
     private MockMvc mockMvc;
@@ -83,6 +97,20 @@ public abstract class PageControllerTest {
         return mockMvc;
     }
 
+    /**
+     * Performs a request and counts the SQL statements that were prepared while handling it.
+     *
+     * @param request the request to perform
+     * @return the number of SQL statements prepared while handling the request
+     * @throws Exception if the request fails
+     */
+    protected long countStatements(final RequestBuilder request) throws Exception {
+        final Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(request).andExpect(status().isOk());
+        return statistics.getPrepareStatementCount();
+    }
+
     /**
      * Construct a test certificate from the given parameters.
      *
@@ -136,6 +136,8 @@ public class PageTestConfiguration {
                 environment.getProperty("hibernate.dialect"));
         hibernateProperties.setProperty("hibernate.current_session_context_class",
                 "thread");
+        // needed to count the SQL statements run by the page controllers
+        hibernateProperties.setProperty("hibernate.generate_statistics", "true");
 
         return hibernateProperties;
     }
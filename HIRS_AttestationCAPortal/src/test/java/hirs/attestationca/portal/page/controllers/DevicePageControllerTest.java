@@ -18,6 +18,7 @@ import java.io.IOException;
 
 import static hirs.attestationca.portal.page.Page.DEVICES;
 import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -73,6 +74,7 @@ public class DevicePageControllerTest extends PageControllerTest {
                 getTestCertificate(EndorsementCredential.class,
                         TEST_ENDORSEMENT_CREDENTIAL);
         ec.setDeviceId(device.getId());
+        ec.setDeviceName(device.getName());
         certificateRepository.save(ec);
 
         //Add second EK Cert without a device
@@ -84,6 +86,7 @@ public class DevicePageControllerTest extends PageControllerTest {
         PlatformCredential pc = (PlatformCredential)
                 getTestCertificate(PlatformCredential.class, TEST_PLATFORM_CREDENTIAL);
         pc.setDeviceId(device.getId());
+        pc.setDeviceName(device.getName());
         certificateRepository.save(pc);
     }
 
@@ -103,4 +106,33 @@ public class DevicePageControllerTest extends PageControllerTest {
                 .andReturn();
     }
 
+    /**
+     * Tests that the device list holds the ids of the certificates associated with each device.
+     *
+     * @throws Exception if test fails
+     */
+    @Test
+    public void getDeviceListWithCertificates() throws Exception {
+
+        // perform test
+        getMockMvc()
+                .perform(MockMvcRequestBuilders.get(pagePath + "/list"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].EndorsementCertificateIds", hasSize(1)))
+                .andExpect(jsonPath("$.data[0].PlatformCertificateIds", hasSize(1)))
+                .andExpect(jsonPath("$.data[0].IssuedCertificateIds").doesNotExist())
+                .andReturn();
+    }
+
+    /**
+     * Tests that listing the devices, along with the ids of their certificates, runs a bounded number of
+     * statements.
+     *
+     * @throws Exception if test fails
+     */
+    @Test
+    public void getDeviceListStatementCount() throws Exception {
+        final long statements = countStatements(MockMvcRequestBuilders.get(pagePath + "/list"));
+        assertTrue(statements <= MAX_TABLE_STATEMENTS, "SQL statements run: " + statements);
+    }
 }
@@ -16,12 +16,20 @@ import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 import static hirs.attestationca.portal.page.Page.ISSUED_CERTIFICATES;
 import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -151,6 +159,17 @@ public class IssuedCertificatesPageControllerTest extends PageControllerTest {
                 .andReturn();
     }
 
+    /**
+     * Tests that listing the issued certificates loads their credentials with a bounded number of statements.
+     *
+     * @throws Exception if test fails
+     */
+    @Test
+    public void testGetIssuedCertificateListStatementCount() throws Exception {
+        final long statements = countStatements(MockMvcRequestBuilders.get(pagePath + "/list"));
+        assertTrue(statements <= MAX_TABLE_STATEMENTS, "SQL statements run: " + statements);
+    }
+
     /**
      * Tests downloading the certificate.
      *
@@ -178,6 +197,34 @@ public class IssuedCertificatesPageControllerTest extends PageControllerTest {
 
     }
 
+    /**
+     * Tests downloading all the issued certificates in a zip file, which only holds issued certificates.
+     *
+     * @throws Exception when getting the zip file
+     */
+    @Test
+    @Rollback
+    public void testBulkDownloadIssuedCertificates() throws Exception {
+
+        final byte[] zipBytes = getMockMvc()
+                .perform(MockMvcRequestBuilders.get(pagePath + "/bulk-download"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/zip"))
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+
+        // verify the zip file holds the issued certificate only
+        try (ZipInputStream zipIn = new ZipInputStream(new ByteArrayInputStream(zipBytes))) {
+            ZipEntry zipEntry = zipIn.getNextEntry();
+            assertNotNull(zipEntry);
+            assertEquals("Issued_Certificate[" + Integer.toHexString(issued.getCertificateHash()) + "].cer",
+                    zipEntry.getName());
+            assertArrayEquals(issued.getRawBytes(), zipIn.readAllBytes());
+            assertNull(zipIn.getNextEntry());
+        }
+    }
+
     /**
      * Tests the delete REST endpoint on the Issued Certificate page controller.
      * todo Finish writing up tests
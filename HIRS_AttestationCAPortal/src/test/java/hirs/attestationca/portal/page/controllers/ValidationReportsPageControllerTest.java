@@ -0,0 +1,178 @@
+package hirs.attestationca.portal.page.controllers;
+
+import hirs.attestationca.persist.entity.manager.DeviceRepository;
+import hirs.attestationca.persist.entity.manager.SupplyChainValidationSummaryRepository;
+import hirs.attestationca.persist.entity.userdefined.Device;
+import hirs.attestationca.persist.entity.userdefined.SupplyChainValidation;
+import hirs.attestationca.persist.entity.userdefined.SupplyChainValidationSummary;
+import hirs.attestationca.persist.enums.AppraisalStatus;
+import hirs.attestationca.persist.enums.HealthStatus;
+import hirs.attestationca.persist.service.ValidationSummaryPageService;
+import hirs.attestationca.portal.page.PageControllerTest;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static hirs.attestationca.portal.page.Page.VALIDATION_REPORTS;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests that test the URL End Points of ValidationReportsPageController.
+ */
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+public class ValidationReportsPageControllerTest extends PageControllerTest {
+
+    // More reports than fit in a single page of the CSV export
+    private static final int NUMBER_OF_REPORTS = ValidationSummaryPageService.EXPORT_PAGE_SIZE + 5;
+
+    // Number of reports listed in a page of the table
+    private static final int REPORTS_PER_PAGE = 100;
+
+    // Base path for the page
+    private final String pagePath;
+
+    // Repository manager to handle data access between device entity and data storage in db
+    @Autowired
+    private DeviceRepository deviceRepository;
+
+    // Repository manager to handle data access between validation summary entity and data storage in db
+    @Autowired
+    private SupplyChainValidationSummaryRepository supplyChainValidationSummaryRepository;
+
+    /**
+     * Constructor providing the Page's display and routing specification.
+     */
+    public ValidationReportsPageControllerTest() {
+        super(VALIDATION_REPORTS);
+        pagePath = getPagePath();
+    }
+
+    /**
+     * Prepares a testing environment.
+     */
+    @BeforeAll
+    public void prepareTests() {
+        Device device = new Device("Test Device", null, HealthStatus.TRUSTED, AppraisalStatus.Status.PASS,
+                null, false, "tmp_overrideReason", "tmp_summId");
+        device = deviceRepository.save(device);
+
+        List<SupplyChainValidationSummary> summaries = new ArrayList<>();
+        for (int i = 0; i < NUMBER_OF_REPORTS; i++) {
+            summaries.add(new SupplyChainValidationSummary(device, List.of(
+                    new SupplyChainValidation(SupplyChainValidation.ValidationType.ENDORSEMENT_CERTIFICATE,
+                            AppraisalStatus.Status.PASS, Collections.emptyList(), "EK valid"),
+                    new SupplyChainValidation(SupplyChainValidation.ValidationType.PLATFORM_CERTIFICATE,
+                            AppraisalStatus.Status.FAIL, Collections.emptyList(), "PC invalid"))));
+        }
+
+        // an archived report, which is left out of the CSV file
+        SupplyChainValidationSummary archivedSummary =
+                new SupplyChainValidationSummary(device, Collections.emptyList());
+        archivedSummary.archive();
+        summaries.add(archivedSummary);
+
+        supplyChainValidationSummaryRepository.saveAll(summaries);
+    }
+
+    /**
+     * Tests that listing a page of reports loads their validations with a bounded number of statements,
+     * rather than with one statement per report and per validation.
+     *
+     * @throws Exception if test fails
+     */
+    @Test
+    public void getValidationReportListStatementCount() throws Exception {
+        final long statements = countStatements(MockMvcRequestBuilders.get(pagePath + "/list")
+                .param("length", String.valueOf(REPORTS_PER_PAGE)));
+        assertTrue(statements <= MAX_TABLE_STATEMENTS, "SQL statements run: " + statements);
+
+        getMockMvc()
+                .perform(MockMvcRequestBuilders.get(pagePath + "/list")
+                        .param("length", String.valueOf(REPORTS_PER_PAGE)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data", hasSize(REPORTS_PER_PAGE)))
+                .andExpect(jsonPath("$.data[0].validations", hasSize(2)))
+                .andExpect(jsonPath("$.data[0].device.name").value("Test Device"));
+    }
+
+    /**
+     * Tests that the CSV file holds every unarchived report, with the result of each validation, when the
+     * reports span several pages of the export.
+     *
+     * @throws Exception if test fails
+     */
+    @Test
+    public void downloadValidationReports() throws Exception {
+        final String[] lines = download(MockMvcRequestBuilders.get(pagePath + "/download"));
+
+        assertEquals(NUMBER_OF_REPORTS + 1, lines.length);
+        assertTrue(lines[0].startsWith("Device Status, Device Name"));
+        for (int i = 1; i < lines.length; i++) {
+            assertTrue(lines[i].startsWith("FAIL,Test Device,"));
+            assertTrue(lines[i].endsWith(",PASS,FAIL,"));
+        }
+    }
+
+    /**
+     * Tests that the CSV file only holds the reports created within the requested dates.
+     *
+     * @throws Exception if test fails
+     */
+    @Test
+    public void downloadValidationReportsWithinDates() throws Exception {
+        final LocalDate today = LocalDate.now();
+
+        assertEquals(NUMBER_OF_REPORTS + 1, download(MockMvcRequestBuilders.get(pagePath + "/download")
+                .param("from", today.toString())
+                .param("to", today.toString())).length);
+        assertEquals(1, download(MockMvcRequestBuilders.get(pagePath + "/download")
+                .param("from", today.plusDays(1).toString())).length);
+        assertEquals(1, download(MockMvcRequestBuilders.get(pagePath + "/download")
+                .param("to", today.minusDays(1).toString())).length);
+    }
+
+    /**
+     * Tests that a date range ending before it starts is rejected.
+     *
+     * @throws Exception if test fails
+     */
+    @Test
+    public void downloadValidationReportsWithReversedDates() throws Exception {
+        final LocalDate today = LocalDate.now();
+
+        getMockMvc()
+                .perform(MockMvcRequestBuilders.get(pagePath + "/download")
+                        .param("from", today.toString())
+                        .param("to", today.minusDays(1).toString()))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Downloads the CSV file and splits it into lines.
+     *
+     * @param request the download request
+     * @return the lines of the CSV file, starting with the header
+     * @throws Exception if the download fails
+     */
+    private String[] download(final RequestBuilder request) throws Exception {
+        return getMockMvc()
+                .perform(request)
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString()
+                .split(System.lineSeparator());
+    }
+}
@@ -0,0 +1,607 @@
+package hirs.attestationca.portal.provision;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
+import hirs.attestationca.configuration.provisionerTpm2.ProvisionerTpm2;
+import hirs.attestationca.persist.entity.manager.CACredentialRepository;
+import hirs.attestationca.persist.entity.manager.ComponentAttributeRepository;
+import hirs.attestationca.persist.entity.manager.ComponentResultRepository;
+import hirs.attestationca.persist.entity.manager.DeviceRepository;
+import hirs.attestationca.persist.entity.manager.PolicyRepository;
+import hirs.attestationca.persist.entity.manager.ReferenceManifestRepository;
+import hirs.attestationca.persist.entity.manager.SupplyChainValidationSummaryRepository;
+import hirs.attestationca.persist.entity.userdefined.Certificate;
+import hirs.attestationca.persist.entity.userdefined.Device;
+import hirs.attestationca.persist.entity.userdefined.PolicySettings;
+import hirs.attestationca.persist.entity.userdefined.SupplyChainValidation;
+import hirs.attestationca.persist.entity.userdefined.SupplyChainValidationSummary;
+import hirs.attestationca.persist.entity.userdefined.certificate.CertificateAuthorityCredential;
+import hirs.attestationca.persist.entity.userdefined.certificate.ComponentResult;
+import hirs.attestationca.persist.entity.userdefined.certificate.PlatformCredential;
+import hirs.attestationca.persist.entity.userdefined.certificate.attributes.ComponentAttributeResult;
+import hirs.attestationca.persist.enums.AppraisalStatus;
+import hirs.attestationca.persist.provision.service.AttestationCertificateAuthorityService;
+import hirs.attestationca.persist.validation.CaChainCache;
+import hirs.attestationca.persist.validation.PolicySettingsCache;
+import hirs.attestationca.portal.page.PageTestConfiguration;
+import org.bouncycastle.asn1.ASN1Encodable;
+import org.bouncycastle.asn1.ASN1Integer;
+import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+import org.bouncycastle.asn1.DEROctetString;
+import org.bouncycastle.asn1.DERSequence;
+import org.bouncycastle.asn1.DERTaggedObject;
+import org.bouncycastle.asn1.DERUTF8String;
+import org.bouncycastle.asn1.x500.RDN;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.BasicConstraints;
+import org.bouncycastle.asn1.x509.CertificatePolicies;
+import org.bouncycastle.asn1.x509.DisplayText;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.asn1.x509.GeneralNames;
+import org.bouncycastle.asn1.x509.PolicyInformation;
+import org.bouncycastle.asn1.x509.PolicyQualifierId;
+import org.bouncycastle.asn1.x509.PolicyQualifierInfo;
+import org.bouncycastle.asn1.x509.UserNotice;
+import org.bouncycastle.cert.AttributeCertificateHolder;
+import org.bouncycastle.cert.AttributeCertificateIssuer;
+import org.bouncycastle.cert.X509v2AttributeCertificateBuilder;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateHolder;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.bouncycastle.util.encoders.Hex;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Security;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Stress test that sends identity claims for many different devices through the
+ * {@link AttestationCertificateAuthorityService} at the same time and verifies that every
+ * device ends up with its own validation summary, and that the component and firmware results
+ * produced while validating a device are only tied to that device's summary.
+ */
+@SpringBootTest
+@ContextConfiguration(classes = PageTestConfiguration.class)
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+public class ConcurrentIdentityClaimTest {
+
+    private static final String EK_PUBLIC_KEY_PATH = "/tpm2/ek.pub";
+
+    private static final String AK_PUBLIC_KEY_PATH = "/tpm2/ak.pub";
+
+    private static final String EVENT_LOG_PATH = "/tcgeventlog/TpmLog.bin";
+
+    private static final int NUMBER_OF_CLAIMS = 200;
+
+    private static final int NUMBER_OF_THREADS = 32;
+
+    private static final long TIMEOUT_IN_MINUTES = 5;
+
+    private static final String DEFAULT_POLICY_NAME = "Default";
+
+    private static final String PLATFORM_MANUFACTURER = "Test Manufacturer";
+
+    private static final String PLATFORM_MODEL = "Test Model";
+
+    private static final String PLATFORM_VERSION = "1.0";
+
+    private static final String CA_SUBJECT = "CN=Concurrent Identity Claim Test CA";
+
+    private static final String SIGNATURE_ALGORITHM = "SHA256WithRSA";
+
+    private static final int KEY_SIZE = 2048;
+
+    private static final long VALIDITY_IN_MILLISECONDS = TimeUnit.DAYS.toMillis(365);
+
+    private static final long ENDORSEMENT_SERIAL_BASE = 1000;
+
+    private static final long PLATFORM_SERIAL_BASE = 5000;
+
+    // OIDs of the TCG platform certificate fields, as read by PlatformCredential
+    private static final String TEST_POLICY_OID = "1.2.3.4.5";
+    private static final String PLATFORM_MANUFACTURER_OID = "2.23.133.5.1.1";
+    private static final String PLATFORM_MODEL_OID = "2.23.133.5.1.4";
+    private static final String PLATFORM_VERSION_OID = "2.23.133.5.1.5";
+    private static final String PLATFORM_SERIAL_OID = "2.23.133.5.1.6";
+    private static final String TCG_PLATFORM_SPECIFICATION_OID = "2.23.133.2.17";
+    private static final String PLATFORM_CREDENTIAL_TYPE_OID = "2.23.133.2.25";
+    private static final String PLATFORM_BASE_CERT_OID = "2.23.133.8.2";
+    private static final String PLATFORM_CONFIGURATION_V2_OID = "2.23.133.5.1.7.2";
+    private static final String PC_CLIENT_PLATFORM_CLASS = "00000001";
+
+    // the single component listed by each device and by its platform certificate
+    private static final String COMPONENT_CLASS_REGISTRY = "2.23.133.18.3.1";
+    private static final String COMPONENT_CLASS_VALUE = "00010002";
+    private static final String COMPONENT_MANUFACTURER = "Test Vendor";
+    private static final String COMPONENT_MODEL = "Test Processor";
+    private static final String COMPONENT_REVISION = "1.0";
+
+    @Autowired
+    private AttestationCertificateAuthorityService attestationCertificateAuthorityService;
+
+    @Autowired
+    private DeviceRepository deviceRepository;
+
+    @Autowired
+    private SupplyChainValidationSummaryRepository supplyChainValidationSummaryRepository;
+
+    @Autowired
+    private ComponentResultRepository componentResultRepository;
+
+    @Autowired
+    private ComponentAttributeRepository componentAttributeRepository;
+
+    @Autowired
+    private ReferenceManifestRepository referenceManifestRepository;
+
+    @Autowired
+    private CACredentialRepository caCredentialRepository;
+
+    @Autowired
+    private PolicyRepository policyRepository;
+
+    @Autowired
+    private PolicySettingsCache policySettingsCache;
+
+    @Autowired
+    private CaChainCache caChainCache;
+
+    private byte[] ekPublicArea;
+
+    private byte[] akPublicArea;
+
+    private byte[] eventLog;
+
+    private KeyPair caKeyPair;
+
+    private X509Certificate caCertificate;
+
+    private KeyPair endorsementKeyPair;
+
+    /**
+     * Loads the TPM public areas and event log shared by every identity claim, and stores a CA
+     * that signs the credentials of each device.
+     *
+     * @throws Exception if the resources can't be read or the CA can't be created
+     */
+    @BeforeAll
+    public void setUp() throws Exception {
+        ekPublicArea = readResource(EK_PUBLIC_KEY_PATH);
+        akPublicArea = readResource(AK_PUBLIC_KEY_PATH);
+        eventLog = readResource(EVENT_LOG_PATH);
+
+        if (Security.getProvider(BouncyCastleProvider.PROVIDER_NAME) == null) {
+            Security.addProvider(new BouncyCastleProvider());
+        }
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        keyPairGenerator.initialize(KEY_SIZE);
+        caKeyPair = keyPairGenerator.generateKeyPair();
+        endorsementKeyPair = keyPairGenerator.generateKeyPair();
+
+        X500Name caName = new X500Name(CA_SUBJECT);
+        caCertificate = new JcaX509CertificateConverter().setProvider(BouncyCastleProvider.PROVIDER_NAME)
+                .getCertificate(new JcaX509v3CertificateBuilder(caName, BigInteger.ONE, notBefore(), notAfter(),
+                        caName, caKeyPair.getPublic())
+                        .addExtension(Extension.basicConstraints, true, new BasicConstraints(true))
+                        .build(contentSigner()));
+        caCredentialRepository.save(new CertificateAuthorityCredential(caCertificate.getEncoded()));
+        caChainCache.invalidate();
+    }
+
+    /**
+     * Sends {@value #NUMBER_OF_CLAIMS} identity claims concurrently and checks that each device
+     * received a passing response and a validation summary that belongs to it alone.
+     *
+     * @throws Exception if a claim could not be processed
+     */
+    @Test
+    public void testConcurrentIdentityClaims() throws Exception {
+        List<byte[]> identityClaims = new ArrayList<>();
+        for (int i = 0; i < NUMBER_OF_CLAIMS; i++) {
+            identityClaims.add(buildIdentityClaim(hostName("concurrent-device", i)).build().toByteArray());
+        }
+
+        for (ProvisionerTpm2.IdentityClaimResponse response : processConcurrently(identityClaims)) {
+            assertEquals(ProvisionerTpm2.ResponseStatus.PASS, response.getStatus());
+            assertTrue(response.hasCredentialBlob());
+        }
+
+        Set<String> summaryIds = new HashSet<>();
+        for (int i = 0; i < NUMBER_OF_CLAIMS; i++) {
+            final String hostName = hostName("concurrent-device", i);
+            Device device = deviceRepository.findByName(hostName);
+            assertNotNull(device, "No device was stored for " + hostName);
+            assertNotNull(device.getSummaryId(), "No summary was linked to " + hostName);
+            assertTrue(summaryIds.add(device.getSummaryId()),
+                    "Validation summary " + device.getSummaryId() + " was linked to more than one device");
+
+            Optional<SupplyChainValidationSummary> summary =
+                    supplyChainValidationSummaryRepository.findById(UUID.fromString(device.getSummaryId()));
+            assertTrue(summary.isPresent());
+            assertEquals(hostName, summary.get().getDevice().getName(),
+                    "Validation summary for " + hostName + " belongs to another device");
+        }
+        assertEquals(NUMBER_OF_CLAIMS, summaryIds.size());
+    }
+
+    /**
+     * Sends {@value #NUMBER_OF_CLAIMS} identity claims concurrently with platform certificate,
+     * platform attribute and firmware validation enabled. Each device sends its own endorsement
+     * credential, a platform credential whose component serial differs from the one the device
+     * reports, and a firmware measurement. Checks that the component attribute results and the
+     * firmware result of each device belong to its own validation summary only.
+     *
+     * @throws Exception if a claim could not be processed
+     */
+    @Test
+    public void testConcurrentValidationResultsStayWithTheirSession() throws Exception {
+        List<byte[]> identityClaims = new ArrayList<>();
+        for (int i = 0; i < NUMBER_OF_CLAIMS; i++) {
+            identityClaims.add(buildValidatedIdentityClaim(i).toByteArray());
+        }
+
+        PolicySettings policySettings = policyRepository.findByName(DEFAULT_POLICY_NAME);
+        assertNotNull(policySettings);
+        final boolean ecValidation = policySettings.isEcValidationEnabled();
+        final boolean pcValidation = policySettings.isPcValidationEnabled();
+        final boolean pcAttributeValidation = policySettings.isPcAttributeValidationEnabled();
+        final boolean firmwareValidation = policySettings.isFirmwareValidationEnabled();
+
+        List<ProvisionerTpm2.IdentityClaimResponse> responses;
+        try {
+            policySettings.setEcValidationEnabled(false);
+            policySettings.setPcValidationEnabled(true);
+            policySettings.setPcAttributeValidationEnabled(true);
+            policySettings.setFirmwareValidationEnabled(true);
+            policyRepository.save(policySettings);
+            policySettingsCache.refresh();
+
+            responses = processConcurrently(identityClaims);
+        } finally {
+            policySettings.setEcValidationEnabled(ecValidation);
+            policySettings.setPcValidationEnabled(pcValidation);
+            policySettings.setPcAttributeValidationEnabled(pcAttributeValidation);
+            policySettings.setFirmwareValidationEnabled(firmwareValidation);
+            policyRepository.save(policySettings);
+            policySettingsCache.refresh();
+        }
+
+        // every device reports a component serial that its platform credential doesn't list
+        for (ProvisionerTpm2.IdentityClaimResponse response : responses) {
+            assertEquals(ProvisionerTpm2.ResponseStatus.FAIL, response.getStatus());
+        }
+
+        Set<UUID> provisionSessionIds = new HashSet<>();
+        for (int i = 0; i < NUMBER_OF_CLAIMS; i++) {
+            final String hostName = hostName("validated-device", i);
+            Device device = deviceRepository.findByName(hostName);
+            assertNotNull(device, "No device was stored for " + hostName);
+            assertNotNull(device.getSummaryId(), "No summary was linked to " + hostName);
+
+            SupplyChainValidationSummary summary = supplyChainValidationSummaryRepository
+                    .findWithValidationsById(UUID.fromString(device.getSummaryId())).orElseThrow();
+            assertEquals(hostName, summary.getDevice().getName(),
+                    "Validation summary for " + hostName + " belongs to another device");
+            final UUID provisionSessionId = summary.getProvisionSessionId();
+            assertTrue(provisionSessionIds.add(provisionSessionId),
+                    "Provision session " + provisionSessionId + " was used by more than one device");
+
+            assertComponentResultsBelongTo(hostName, i, provisionSessionId);
+            assertValidationsBelongTo(hostName, summary);
+        }
+        assertEquals(NUMBER_OF_CLAIMS, provisionSessionIds.size());
+    }
+
+    /**
+     * Checks that the component of the device's platform credential failed validation, and that the
+     * attribute results of the device's provision session are exactly the results for that component.
+     *
+     * @param hostName           host name of the device
+     * @param index              index of the device
+     * @param provisionSessionId provision session id of the device's validation summary
+     */
+    private void assertComponentResultsBelongTo(final String hostName, final int index,
+                                                final UUID provisionSessionId) {
+        List<ComponentResult> componentResults = componentResultRepository
+                .findByCertificateSerialNumberAndBoardSerialNumber(
+                        platformCredentialSerial(index).toString(), hostName);
+        assertEquals(1, componentResults.size(), "Unexpected components for " + hostName);
+        ComponentResult componentResult = componentResults.getFirst();
+        assertTrue(componentResult.isFailedValidation(),
+                "The component of " + hostName + " wasn't marked as failed");
+
+        List<ComponentAttributeResult> sessionResults =
+                componentAttributeRepository.findByProvisionSessionId(provisionSessionId);
+        assertFalse(sessionResults.isEmpty(), "No attribute results were stored for " + hostName);
+        boolean serialMismatchFound = false;
+        for (ComponentAttributeResult attributeResult : sessionResults) {
+            assertEquals(componentResult.getId(), attributeResult.getComponentId(),
+                    "Attribute result of " + hostName + " refers to another device's component");
+            if (ComponentResult.ATTRIBUTE_SERIAL.equals(attributeResult.getAttribute())) {
+                assertEquals(certifiedComponentSerial(hostName), attributeResult.getExpectedValue());
+                assertEquals(reportedComponentSerial(hostName), attributeResult.getActualValue());
+                serialMismatchFound = true;
+            }
+        }
+        assertTrue(serialMismatchFound, "The component serial mismatch of " + hostName + " wasn't recorded");
+
+        for (ComponentAttributeResult attributeResult
+                : componentAttributeRepository.findByComponentId(componentResult.getId())) {
+            assertEquals(provisionSessionId, attributeResult.getProvisionSessionId(),
+                    "Attribute result for the component of " + hostName + " was stored under another session");
+        }
+    }
+
+    /**
+     * Checks that the platform credentials used by the summary's validations are the device's own,
+     * and that the firmware validation was run against the device's own measurement.
+     *
+     * @param hostName host name of the device
+     * @param summary  validation summary of the device
+     */
+    private void assertValidationsBelongTo(final String hostName, final SupplyChainValidationSummary summary) {
+        SupplyChainValidation firmwareValidation = null;
+        for (SupplyChainValidation validation : summary.getValidations()) {
+            for (Certificate certificate : validation.getCertificatesUsed()) {
+                if (certificate instanceof PlatformCredential platformCredential) {
+                    assertEquals(hostName, platformCredential.getPlatformSerial(),
+                            "Validation summary for " + hostName + " used another device's platform credential");
+                }
+            }
+            if (validation.getValidationType() == SupplyChainValidation.ValidationType.FIRMWARE) {
+                firmwareValidation = validation;
+            }
+        }
+
+        assertNotNull(firmwareValidation, "No firmware validation was run for " + hostName);
+        assertNotEquals(AppraisalStatus.Status.PASS, firmwareValidation.getValidationResult());
+        assertTrue(firmwareValidation.getMessage().contains(hostName),
+                "Firmware validation for " + hostName + " reported on another device: "
+                        + firmwareValidation.getMessage());
+        assertFalse(firmwareValidation.getMessage().contains("Bios measurement not found"),
+                "Firmware validation for " + hostName + " didn't find the device's measurement");
+        assertNotNull(referenceManifestRepository.byMeasurementDeviceNameUnarchived(hostName));
+    }
+
+    /**
+     * Sends the identity claims all at once from a thread pool.
+     *
+     * @param identityClaims serialized identity claims
+     * @return the responses, in the order of the identity claims
+     * @throws Exception if a claim could not be processed
+     */
+    private List<ProvisionerTpm2.IdentityClaimResponse> processConcurrently(final List<byte[]> identityClaims)
+            throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(NUMBER_OF_THREADS);
+        CountDownLatch startGate = new CountDownLatch(1);
+        List<Future<ProvisionerTpm2.IdentityClaimResponse>> futures = new ArrayList<>();
+        List<ProvisionerTpm2.IdentityClaimResponse> responses = new ArrayList<>();
+
+        try {
+            for (final byte[] identityClaim : identityClaims) {
+                Callable<ProvisionerTpm2.IdentityClaimResponse> task = () -> {
+                    startGate.await();
+                    return parseResponse(
+                            attestationCertificateAuthorityService.processIdentityClaimTpm2(identityClaim));
+                };
+                futures.add(executorService.submit(task));
+            }
+
+            // release every claim at once
+            startGate.countDown();
+
+            for (Future<ProvisionerTpm2.IdentityClaimResponse> future : futures) {
+                responses.add(future.get(TIMEOUT_IN_MINUTES, TimeUnit.MINUTES));
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+        return responses;
+    }
+
+    private static String hostName(final String prefix, final int index) {
+        return String.format("%s-%03d", prefix, index);
+    }
+
+    private static BigInteger platformCredentialSerial(final int index) {
+        return BigInteger.valueOf(PLATFORM_SERIAL_BASE + index);
+    }
+
+    private static String certifiedComponentSerial(final String hostName) {
+        return "PC-" + hostName;
+    }
+
+    private static String reportedComponentSerial(final String hostName) {
+        return "DEVICE-" + hostName;
+    }
+
+    private ProvisionerTpm2.IdentityClaim.Builder buildIdentityClaim(final String hostName) {
+        ProvisionerTpm2.DeviceInfo deviceInfo = buildDeviceInfo(hostName).build();
+
+        return ProvisionerTpm2.IdentityClaim.newBuilder()
+                .setDv(deviceInfo)
+                .setEkPublicArea(ByteString.copyFrom(ekPublicArea))
+                .setAkPublicArea(ByteString.copyFrom(akPublicArea));
+    }
+
+    private ProvisionerTpm2.DeviceInfo.Builder buildDeviceInfo(final String hostName) {
+        return ProvisionerTpm2.DeviceInfo.newBuilder()
+                .setFw(ProvisionerTpm2.FirmwareInfo.newBuilder()
+                        .setBiosVendor("Test Vendor")
+                        .setBiosVersion("1.0")
+                        .setBiosReleaseDate("01/01/2026"))
+                .setHw(ProvisionerTpm2.HardwareInfo.newBuilder()
+                        .setManufacturer(PLATFORM_MANUFACTURER)
+                        .setProductName(PLATFORM_MODEL)
+                        .setProductVersion(PLATFORM_VERSION)
+                        .setSystemSerialNumber(hostName))
+                .setNw(ProvisionerTpm2.NetworkInfo.newBuilder()
+                        .setHostname(hostName)
+                        .setIpAddress("127.0.0.1")
+                        .setMacAddress("00:00:00:00:00:00"))
+                .setOs(ProvisionerTpm2.OsInfo.newBuilder()
+                        .setOsName("Linux")
+                        .setOsVersion("6.0")
+                        .setOsArch("x86_64")
+                        .setDistribution("Test")
+                        .setDistributionRelease("1"));
+    }
+
+    /**
+     * Builds an identity claim carrying the device's own endorsement credential, platform
+     * credential, component list and firmware measurement.
+     *
+     * @param index index of the device
+     * @return the identity claim
+     * @throws Exception if the credentials can't be created
+     */
+    private ProvisionerTpm2.IdentityClaim buildValidatedIdentityClaim(final int index) throws Exception {
+        final String hostName = hostName("validated-device", index);
+        X509Certificate endorsementCredential = createEndorsementCredential(hostName,
+                BigInteger.valueOf(ENDORSEMENT_SERIAL_BASE + index));
+        byte[] platformCredential = createPlatformCredential(hostName, platformCredentialSerial(index),
+                endorsementCredential);
+
+        return buildIdentityClaim(hostName)
+                .setDv(buildDeviceInfo(hostName).setLivelog(ByteString.copyFrom(eventLog)))
+                .setEndorsementCredential(ByteString.copyFrom(endorsementCredential.getEncoded()))
+                .addPlatformCredential(ByteString.copyFrom(platformCredential))
+                .setPaccorOutput(paccorOutput(hostName))
+                .build();
+    }
+
+    private X509Certificate createEndorsementCredential(final String hostName, final BigInteger serialNumber)
+            throws GeneralSecurityException, OperatorCreationException {
+        return new JcaX509CertificateConverter().setProvider(BouncyCastleProvider.PROVIDER_NAME)
+                .getCertificate(new JcaX509v3CertificateBuilder(caCertificate, serialNumber, notBefore(),
+                        notAfter(), new X500Name("CN=" + hostName), endorsementKeyPair.getPublic())
+                        .build(contentSigner()));
+    }
+
+    /**
+     * Creates a TCG 2.0 base platform credential for the device, signed by the test CA, that lists
+     * a single component with a serial number the device doesn't report.
+     *
+     * @param hostName              host name of the device, used as the platform serial
+     * @param serialNumber          serial number of the platform credential
+     * @param endorsementCredential the device's endorsement credential, which holds the platform credential
+     * @return the encoded platform credential
+     * @throws Exception if the platform credential can't be created
+     */
+    private byte[] createPlatformCredential(final String hostName, final BigInteger serialNumber,
+                                            final X509Certificate endorsementCredential) throws Exception {
+        X509v2AttributeCertificateBuilder builder = new X509v2AttributeCertificateBuilder(
+                new AttributeCertificateHolder(new JcaX509CertificateHolder(endorsementCredential)),
+                new AttributeCertificateIssuer(new X500Name(CA_SUBJECT)), serialNumber, notBefore(), notAfter());
+
+        UserNotice userNotice = new UserNotice(null,
+                new DisplayText(DisplayText.CONTENT_TYPE_UTF8STRING, PlatformCredential.CERTIFICATE_TYPE_2_0));
+        builder.addExtension(Extension.certificatePolicies, false, new CertificatePolicies(
+                new PolicyInformation(new ASN1ObjectIdentifier(TEST_POLICY_OID),
+                        new DERSequence(new PolicyQualifierInfo(PolicyQualifierId.id_qt_unotice, userNotice)))));
+        builder.addExtension(Extension.subjectAlternativeName, false, new GeneralNames(new GeneralName(
+                new X500Name(new RDN[] {
+                        new RDN(new ASN1ObjectIdentifier(PLATFORM_MANUFACTURER_OID),
+                                new DERUTF8String(PLATFORM_MANUFACTURER)),
+                        new RDN(new ASN1ObjectIdentifier(PLATFORM_MODEL_OID), new DERUTF8String(PLATFORM_MODEL)),
+                        new RDN(new ASN1ObjectIdentifier(PLATFORM_VERSION_OID),
+                                new DERUTF8String(PLATFORM_VERSION)),
+                        new RDN(new ASN1ObjectIdentifier(PLATFORM_SERIAL_OID), new DERUTF8String(hostName))}))));
+
+        builder.addAttribute(new ASN1ObjectIdentifier(TCG_PLATFORM_SPECIFICATION_OID),
+                new DERSequence(new ASN1Encodable[] {
+                        new DERSequence(new ASN1Encodable[] {
+                                new ASN1Integer(2), new ASN1Integer(0), new ASN1Integer(0)}),
+                        new DEROctetString(Hex.decode(PC_CLIENT_PLATFORM_CLASS))}));
+        builder.addAttribute(new ASN1ObjectIdentifier(PLATFORM_CREDENTIAL_TYPE_OID),
+                new DERSequence(new ASN1ObjectIdentifier(PLATFORM_BASE_CERT_OID)));
+
+        DERSequence componentIdentifier = new DERSequence(new ASN1Encodable[] {
+                new DERSequence(new ASN1Encodable[] {
+                        new ASN1ObjectIdentifier(COMPONENT_CLASS_REGISTRY),
+                        new DEROctetString(Hex.decode(COMPONENT_CLASS_VALUE))}),
+                new DERUTF8String(COMPONENT_MANUFACTURER),
+                new DERUTF8String(COMPONENT_MODEL),
+                new DERTaggedObject(false, 0, new DERUTF8String(certifiedComponentSerial(hostName))),
+                new DERTaggedObject(false, 1, new DERUTF8String(COMPONENT_REVISION))});
+        builder.addAttribute(new ASN1ObjectIdentifier(PLATFORM_CONFIGURATION_V2_OID),
+                new DERSequence(new DERTaggedObject(false, 0, new DERSequence(componentIdentifier))));
+
+        return builder.build(contentSigner()).getEncoded();
+    }
+
+    private static String paccorOutput(final String hostName) {
+        return String.format("{\"PLATFORM\": {\"PLATFORMMANUFACTURERSTR\": \"%s\", \"PLATFORMMODEL\": \"%s\", "
+                        + "\"PLATFORMVERSION\": \"%s\", \"PLATFORMSERIAL\": \"%s\"}, "
+                        + "\"COMPONENTS\": [{\"COMPONENTCLASS\": {\"COMPONENTCLASSREGISTRY\": \"%s\", "
+                        + "\"COMPONENTCLASSVALUE\": \"%s\"}, \"MANUFACTURER\": \"%s\", \"MODEL\": \"%s\", "
+                        + "\"SERIAL\": \"%s\", \"REVISION\": \"%s\"}], \"PROPERTIES\": []}",
+                PLATFORM_MANUFACTURER, PLATFORM_MODEL, PLATFORM_VERSION, hostName,
+                COMPONENT_CLASS_REGISTRY, COMPONENT_CLASS_VALUE, COMPONENT_MANUFACTURER, COMPONENT_MODEL,
+                reportedComponentSerial(hostName), COMPONENT_REVISION);
+    }
+
+    private ContentSigner contentSigner() throws OperatorCreationException {
+        return new JcaContentSignerBuilder(SIGNATURE_ALGORITHM).setProvider(BouncyCastleProvider.PROVIDER_NAME)
+                .build(caKeyPair.getPrivate());
+    }
+
+    private static Date notBefore() {
+        return new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(1));
+    }
+
+    private static Date notAfter() {
+        return new Date(System.currentTimeMillis() + VALIDITY_IN_MILLISECONDS);
+    }
+
+    private static ProvisionerTpm2.IdentityClaimResponse parseResponse(final byte[] response)
+            throws InvalidProtocolBufferException {
+        return ProvisionerTpm2.IdentityClaimResponse.parseFrom(response);
+    }
+
+    private byte[] readResource(final String path) throws IOException {
+        try (InputStream inputStream = Objects.requireNonNull(getClass().getResourceAsStream(path))) {
+            return inputStream.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1 @@
+package hirs.attestationca.portal.provision;
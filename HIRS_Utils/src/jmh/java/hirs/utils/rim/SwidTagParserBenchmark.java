@@ -0,0 +1,95 @@
+package hirs.utils.rim;
+
+import hirs.utils.swid.SwidTagConstants;
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.Unmarshaller;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.w3c.dom.Document;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the latency of parsing and schema validating a signed base RIM, as done by
+ * ReferenceManifestValidator.setRim for every firmware validation and RIM upload.
+ * {@link #validateShared} uses the schema and JAXBContext from {@link SwidSchemaHolder};
+ * {@link #validateCompilingSchema} compiles both for every document, as SwidTagParser did
+ * before they were shared.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SwidTagParserBenchmark {
+    private static final String BASE_RIM = "/rim/base_rim.swidtag";
+
+    private byte[] rimBytes;
+
+    /**
+     * Loads the base RIM and warms up the shared schema.
+     *
+     * @throws Exception if the RIM can't be read or validated
+     */
+    @Setup
+    public void setup() throws Exception {
+        try (InputStream is = Objects.requireNonNull(getClass().getResourceAsStream(BASE_RIM))) {
+            rimBytes = is.readAllBytes();
+        }
+        Objects.requireNonNull(validateShared(), "Base RIM failed schema validation");
+    }
+
+    /**
+     * Parses and validates the base RIM with the shared schema and JAXBContext.
+     *
+     * @return the validated document
+     * @throws Exception if the RIM can't be parsed
+     */
+    @Benchmark
+    public Document validateShared() throws Exception {
+        return SwidTagParser.validateSwidtagSchema(SwidTagParser.convertToDocument(rimBytes));
+    }
+
+    /**
+     * Parses and validates the base RIM, compiling the schema and creating the JAXBContext
+     * and DocumentBuilder for this document alone.
+     *
+     * @return the validated document
+     * @throws Exception if the RIM can't be parsed
+     */
+    @Benchmark
+    public Document validateCompilingSchema() throws Exception {
+        DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
+        dbf.setNamespaceAware(true);
+        Document doc = dbf.newDocumentBuilder().parse(new ByteArrayInputStream(rimBytes));
+        try (InputStream is = getClass().getClassLoader().getResourceAsStream(SwidTagConstants.SCHEMA_URL)) {
+            if (is == null) {
+                throw new IOException("Schema resource not found");
+            }
+            Schema schema = SchemaFactory.newInstance(SwidTagConstants.SCHEMA_LANGUAGE)
+                    .newSchema(new StreamSource(is));
+            Unmarshaller unmarshaller = JAXBContext.newInstance(SwidTagConstants.SCHEMA_PACKAGE)
+                    .createUnmarshaller();
+            unmarshaller.setSchema(schema);
+            unmarshaller.unmarshal(doc);
+        }
+        return doc;
+    }
+}
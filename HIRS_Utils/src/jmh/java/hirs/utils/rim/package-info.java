@@ -0,0 +1,5 @@
+/**
+ * Microbenchmarks for RIM parsing and validation.
+ */
+
+package hirs.utils.rim;
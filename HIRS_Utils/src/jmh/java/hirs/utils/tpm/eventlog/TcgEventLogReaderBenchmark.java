@@ -0,0 +1,191 @@
+package hirs.utils.tpm.eventlog;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import static hirs.utils.tpm.eventlog.events.EvConstants.EV_NO_ACTION;
+
+/**
+ * Measures the cost of reading the TCG event logs used by the unit tests.
+ * {@link #parseEventLog} builds a {@link TCGEventLog}, which only parses the event headers and
+ * digests, and {@link #describeEventLog} also decodes the content of every event, as done when
+ * displaying the log; {@link #readEventViews} only walks the events with a {@link TcgEventLogReader}, and
+ * {@link #replayEventLog} and {@link #replayMappedEventLog} only compute the expected PCR values,
+ * as done when validating a quote, and {@link #replayPcrBanks} computes them for every PCR bank of
+ * the log. The {@code copies} parameter repeats the events of the log to measure the cost of
+ * replaying logs much larger than the test ones. Run with {@code -prof gc} to compare allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TcgEventLogReaderBenchmark {
+
+    /**
+     * Event log to read: crypto agile (SHA256) or SHA1 format.
+     */
+    @Param({"/tcgeventlog/TpmLog.bin", "/tcgeventlog/TpmLogSHA1.bin"})
+    private String eventLog;
+
+    /**
+     * Number of times the events of the log, after its first one, are repeated.
+     */
+    @Param({"1", "100"})
+    private int copies;
+
+    private byte[] rawlog;
+
+    private Path mappedLog;
+
+    /**
+     * Loads the event log, repeats its events, and copies it to a temporary file for the memory mapped
+     * reader.
+     *
+     * @throws IOException if the event log can't be read or copied
+     */
+    @Setup
+    public void setup() throws IOException {
+        try (InputStream is = Objects.requireNonNull(getClass().getResourceAsStream(eventLog))) {
+            rawlog = repeatEvents(is.readAllBytes(), copies);
+        }
+        mappedLog = Files.createTempFile("tcg-event-log", ".bin");
+        Files.write(mappedLog, rawlog);
+    }
+
+    /**
+     * Deletes the temporary copy of the event log.
+     *
+     * @throws IOException if the file can't be deleted
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(mappedLog);
+    }
+
+    /**
+     * Parses the event log, without decoding the content of the events.
+     *
+     * @return the parsed event log
+     * @throws IOException if the event log can't be parsed
+     */
+    @Benchmark
+    public TCGEventLog parseEventLog() throws IOException {
+        return new TCGEventLog(rawlog);
+    }
+
+    /**
+     * Parses the event log and decodes the content of every event into its description.
+     *
+     * @param blackhole sink for the event descriptions
+     * @throws IOException if the event log can't be parsed
+     */
+    @Benchmark
+    public void describeEventLog(final Blackhole blackhole) throws IOException {
+        for (TpmPcrEvent event : new TCGEventLog(rawlog).getEventList()) {
+            blackhole.consume(event.toString());
+        }
+    }
+
+    /**
+     * Walks the event log, reading the header fields of every event without decoding its content.
+     *
+     * @param blackhole sink for the event fields
+     * @throws IOException if the event log can't be read
+     */
+    @Benchmark
+    public void readEventViews(final Blackhole blackhole) throws IOException {
+        TcgEventLogReader reader = new TcgEventLogReader(rawlog);
+        for (TcgEventView view = reader.next(); view != null; view = reader.next()) {
+            blackhole.consume(view.getPcrIndex());
+            blackhole.consume(view.getEventType());
+            blackhole.consume(view.getContentLength());
+        }
+    }
+
+    /**
+     * Computes the expected PCR values of the event log held on the heap.
+     *
+     * @return the expected PCR values
+     * @throws IOException if the event log can't be read
+     */
+    @Benchmark
+    public String[] replayEventLog() throws IOException {
+        return new TcgEventLogReader(rawlog).replay();
+    }
+
+    /**
+     * Computes the expected PCR values of the memory mapped event log file.
+     *
+     * @return the expected PCR values
+     * @throws IOException if the event log can't be mapped or read
+     */
+    @Benchmark
+    public String[] replayMappedEventLog() throws IOException {
+        return TcgEventLogReader.open(mappedLog).replay();
+    }
+
+    /**
+     * Computes the expected PCR values of every PCR bank of the event log.
+     *
+     * @return the PCR banks
+     * @throws IOException if the event log can't be read
+     */
+    @Benchmark
+    public PcrBanks replayPcrBanks() throws IOException {
+        TcgEventLogReader reader = new TcgEventLogReader(rawlog);
+        reader.replay();
+        return reader.getPcrBanks();
+    }
+
+    /**
+     * Builds an event log holding the first event of a log, followed by its other events repeated
+     * several times. EV_NO_ACTION events are only kept once, since they may only appear at the start.
+     *
+     * @param log   the event log
+     * @param times  number of times the events are repeated
+     * @return the larger event log
+     * @throws IOException if the event log can't be read
+     */
+    private static byte[] repeatEvents(final byte[] log, final int times) throws IOException {
+        if (times == 1) {
+            return log;
+        }
+        ByteArrayOutputStream repeated = new ByteArrayOutputStream(log.length * times);
+        for (int copy = 0; copy < times; copy++) {
+            TcgEventLogReader reader = new TcgEventLogReader(log);
+            TcgEventView view = reader.next();
+            if (copy == 0) {
+                repeated.write(view.getHeaderBytes());
+                repeated.write(view.getContentBytes());
+            }
+            for (view = reader.next(); view != null; view = reader.next()) {
+                if (copy == 0 || view.getEventType() != EV_NO_ACTION) {
+                    repeated.write(view.getHeaderBytes());
+                    repeated.write(view.getContentBytes());
+                }
+            }
+        }
+        return repeated.toByteArray();
+    }
+}
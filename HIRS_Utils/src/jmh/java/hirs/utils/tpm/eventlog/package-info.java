@@ -0,0 +1,5 @@
+/**
+ * Microbenchmarks for TCG event log processing.
+ */
+
+package hirs.utils.tpm.eventlog;
@@ -0,0 +1,150 @@
+package hirs.utils.tpm.eventlog.uefi;
+
+import com.eclipsesource.json.JsonObject;
+import hirs.utils.JsonUtils;
+import hirs.utils.tpm.eventlog.events.EvConstants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures GUID vendor lookups while parsing a large Secure Boot dbx variable.
+ * {@link #parseDbxVariable} parses an EV_EFI_VARIABLE_DRIVER_CONFIG event holding a single
+ * EFI_CERT_SHA256_GUID signature list, which resolves the signature type and owner GUID of
+ * every entry. {@link #jsonLookupPerGuid} reproduces the previous behaviour of re-reading
+ * vendor-table.json for every GUID, for comparison with {@link #cachedLookupPerGuid}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class UefiVendorTableBenchmark {
+    private static final UUID IMAGE_SECURITY_DATABASE_GUID =
+            UUID.fromString("d719b2cb-3d3a-4596-a3bc-dad00e67656f");
+    private static final UUID CERT_SHA256_GUID =
+            UUID.fromString("c1c41626-504c-4092-aca9-41f936934328");
+    private static final UUID MICROSOFT_OWNER_GUID =
+            UUID.fromString("77fa9abd-0359-4d32-bd60-28f4e78f784b");
+    private static final String VARIABLE_NAME = "dbx";
+    private static final int SIGNATURE_LIST_HEADER_SIZE = 28;
+    private static final int SHA256_SIZE = 32;
+    private static final int SIGNATURE_SIZE = UefiConstants.SIZE_16 + SHA256_SIZE;
+    private static final long RANDOM_SEED = 42L;
+
+    /**
+     * Number of hashes in the dbx signature list.
+     */
+    @Param({"500", "5000"})
+    private int entries;
+
+    private byte[] dbxVariable;
+
+    private UUID[] guids;
+
+    /**
+     * Builds the dbx variable and the list of GUIDs to look up.
+     */
+    @Setup
+    public void setup() {
+        Random random = new Random(RANDOM_SEED);
+        int listSize = SIGNATURE_LIST_HEADER_SIZE + entries * SIGNATURE_SIZE;
+        ByteBuffer buffer = ByteBuffer.allocate(UefiConstants.SIZE_32
+                        + VARIABLE_NAME.length() * UefiConstants.SIZE_2 + listSize)
+                .order(ByteOrder.LITTLE_ENDIAN);
+
+        // UEFI_VARIABLE_DATA header
+        putGuid(buffer, IMAGE_SECURITY_DATABASE_GUID);
+        buffer.putLong(VARIABLE_NAME.length());
+        buffer.putLong(listSize);
+        buffer.put(VARIABLE_NAME.getBytes(StandardCharsets.UTF_16LE));
+
+        // EFI_SIGNATURE_LIST
+        putGuid(buffer, CERT_SHA256_GUID);
+        buffer.putInt(listSize);
+        buffer.putInt(0);
+        buffer.putInt(SIGNATURE_SIZE);
+        byte[] hash = new byte[SHA256_SIZE];
+        for (int i = 0; i < entries; i++) {
+            putGuid(buffer, MICROSOFT_OWNER_GUID);
+            random.nextBytes(hash);
+            buffer.put(hash);
+        }
+        dbxVariable = buffer.array();
+
+        // two GUID lookups per signature, as done while parsing
+        guids = new UUID[entries * 2];
+        for (int i = 0; i < guids.length; i += 2) {
+            guids[i] = CERT_SHA256_GUID;
+            guids[i + 1] = MICROSOFT_OWNER_GUID;
+        }
+        UefiVendorTable.getInstance();
+    }
+
+    /**
+     * Parses the dbx variable, resolving every GUID through the shared vendor table.
+     *
+     * @return the parsed variable
+     * @throws IOException if the variable can't be parsed
+     */
+    @Benchmark
+    public UefiVariable parseDbxVariable() throws IOException {
+        return new UefiVariable(EvConstants.EV_EFI_VARIABLE_DRIVER_CONFIG, dbxVariable);
+    }
+
+    /**
+     * Resolves each GUID through the shared vendor table.
+     *
+     * @param blackhole sink for the looked up names
+     */
+    @Benchmark
+    public void cachedLookupPerGuid(final Blackhole blackhole) {
+        UefiVendorTable table = UefiVendorTable.getInstance();
+        for (UUID guid : guids) {
+            blackhole.consume(table.lookup(guid));
+        }
+    }
+
+    /**
+     * Resolves each GUID by re-reading vendor-table.json, as UefiGuid did before the
+     * vendor table was cached.
+     *
+     * @param blackhole sink for the looked up names
+     */
+    @Benchmark
+    public void jsonLookupPerGuid(final Blackhole blackhole) {
+        for (UUID guid : guids) {
+            JsonObject vendorTable = JsonUtils.getSpecificJsonObject("vendor-table.json", "VendorTable");
+            blackhole.consume(vendorTable.getString(guid.toString(), UefiVendorTable.UNKNOWN_GUID_REFERENCE));
+        }
+    }
+
+    private static void putGuid(final ByteBuffer buffer, final UUID guid) {
+        long msb = guid.getMostSignificantBits();
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt((int) (msb >>> Integer.SIZE));
+        buffer.putShort((short) (msb >>> Short.SIZE));
+        buffer.putShort((short) msb);
+        buffer.order(ByteOrder.BIG_ENDIAN);
+        buffer.putLong(guid.getLeastSignificantBits());
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
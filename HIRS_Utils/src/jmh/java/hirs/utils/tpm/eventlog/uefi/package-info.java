@@ -0,0 +1,5 @@
+/**
+ * Microbenchmarks for UEFI event data processing.
+ */
+
+package hirs.utils.tpm.eventlog.uefi;
@@ -791,11 +791,12 @@ public class ReferenceManifestValidator {
     }
 
     /**
-     * This method parses the subject key identifier from the KeyName element of a signature.
+     * This method parses the subject key identifier from the KeyName element of the RIM's signature.
+     * The RIM must have been set before calling this method.
      *
-     * @return SKID if found, or an empty string.
+     * @return SKID if found, or null.
      */
-    private String getKeyName() {
+    public String getKeyName() {
         NodeList keyName = getXmlElement(XMLSignature.XMLNS, "KeyName");
         if (keyName.getLength() > 0) {
             return keyName.item(0).getTextContent();
@@ -804,6 +805,63 @@ public class ReferenceManifestValidator {
         }
     }
 
+    /**
+     * This method picks the certificate that signed the RIM among the certificates embedded in its
+     * signature, which may also hold the rest of the signer's chain in any order. The certificate
+     * whose subject key identifier is in the KeyName element is picked, else the one whose public key
+     * verifies the signature value, else the first one.
+     * The RIM must have been set before calling this method.
+     *
+     * @param embeddedCerts the certificates embedded in the RIM's signature
+     * @return the signing certificate, or null if there are no embedded certificates
+     */
+    public X509Certificate findEmbeddedSigningCertificate(final List<X509Certificate> embeddedCerts) {
+        if (embeddedCerts == null || embeddedCerts.isEmpty()) {
+            return null;
+        }
+
+        String keyName = getKeyName();
+        if (keyName != null) {
+            for (X509Certificate embeddedCert : embeddedCerts) {
+                try {
+                    if (keyName.equals(getCertificateSubjectKeyIdentifier(embeddedCert))) {
+                        return embeddedCert;
+                    }
+                } catch (IOException e) {
+                    log.warn("Error while parsing certificate data: {}", e.getMessage());
+                }
+            }
+        }
+        for (X509Certificate embeddedCert : embeddedCerts) {
+            if (isSignatureValueValid(embeddedCert.getPublicKey())) {
+                return embeddedCert;
+            }
+        }
+        return embeddedCerts.get(0);
+    }
+
+    /**
+     * This method checks if the signature value of the RIM verifies with a given public key. Only
+     * the <SignedInfo> element is checked, not the digests of its references.
+     *
+     * @param key the public key
+     * @return true if the signature value verifies with the key
+     */
+    private boolean isSignatureValueValid(final PublicKey key) {
+        NodeList nodes = getXmlElement(XMLSignature.XMLNS, "Signature");
+        if (nodes.getLength() == 0) {
+            return false;
+        }
+        try {
+            DOMValidateContext context = new DOMValidateContext(key, nodes.item(0));
+            XMLSignature signature = XMLSignatureFactory.getInstance("DOM").unmarshalXMLSignature(context);
+            return signature.getSignatureValue().validate(context);
+        } catch (MarshalException | XMLSignatureException e) {
+            log.debug("Signature value not verified with the key: {}", e.getMessage());
+        }
+        return false;
+    }
+
     /**
      * This method parses an XML element from the rim document, checking for a namespace
      * prefix if necessary.
@@ -0,0 +1,149 @@
+package hirs.utils.rim;
+
+import hirs.utils.swid.SwidTagConstants;
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.Unmarshaller;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Holds the compiled SWID tag schema and the JAXBContext for the generated SWID classes.
+ * Compiling the schema and building the context are expensive, so both are done once per
+ * process on first use and shared afterwards. Schema and JAXBContext are thread-safe;
+ * Unmarshallers and DocumentBuilders are not, so each thread is handed its own instance
+ * which is reused for every document that thread parses.
+ */
+public final class SwidSchemaHolder {
+
+    private static final DocumentBuilderFactory DOCUMENT_BUILDER_FACTORY = createDocumentBuilderFactory();
+
+    private static final ThreadLocal<Unmarshaller> UNMARSHALLER = new ThreadLocal<>();
+
+    private static final ThreadLocal<DocumentBuilder> DOCUMENT_BUILDER = new ThreadLocal<>();
+
+    private static volatile Schema schema;
+
+    private static volatile JAXBContext jaxbContext;
+
+    /**
+     * Private constructor for utility class.
+     */
+    private SwidSchemaHolder() {
+    }
+
+    /**
+     * Returns the compiled SWID tag schema, compiling it on first use.
+     *
+     * @return the SWID tag schema
+     * @throws IOException  if the schema resource can't be read
+     * @throws SAXException if the schema can't be compiled
+     */
+    public static Schema getSchema() throws IOException, SAXException {
+        Schema result = schema;
+        if (result == null) {
+            synchronized (SwidSchemaHolder.class) {
+                result = schema;
+                if (result == null) {
+                    try (InputStream is = SwidSchemaHolder.class.getClassLoader().getResourceAsStream(
+                            SwidTagConstants.SCHEMA_URL)) {
+                        if (is == null) {
+                            throw new FileNotFoundException("Schema resource not found: "
+                                    + SwidTagConstants.SCHEMA_URL);
+                        }
+                        SchemaFactory schemaFactory = SchemaFactory.newInstance(SwidTagConstants.SCHEMA_LANGUAGE);
+                        result = schemaFactory.newSchema(new StreamSource(is));
+                    }
+                    schema = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the JAXBContext for the generated SWID tag classes, creating it on first use.
+     *
+     * @return the SWID tag JAXBContext
+     * @throws JAXBException if the context can't be created
+     */
+    public static JAXBContext getJaxbContext() throws JAXBException {
+        JAXBContext result = jaxbContext;
+        if (result == null) {
+            synchronized (SwidSchemaHolder.class) {
+                result = jaxbContext;
+                if (result == null) {
+                    result = JAXBContext.newInstance(SwidTagConstants.SCHEMA_PACKAGE);
+                    jaxbContext = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the calling thread's Unmarshaller, which validates against the SWID tag schema.
+     * The Unmarshaller must not be handed to another thread.
+     *
+     * @return an Unmarshaller bound to the SWID tag schema
+     * @throws IOException   if the schema resource can't be read
+     * @throws SAXException  if the schema can't be compiled
+     * @throws JAXBException if the Unmarshaller can't be created
+     */
+    public static Unmarshaller getUnmarshaller() throws IOException, SAXException, JAXBException {
+        Unmarshaller unmarshaller = UNMARSHALLER.get();
+        if (unmarshaller == null) {
+            unmarshaller = getJaxbContext().createUnmarshaller();
+            unmarshaller.setSchema(getSchema());
+            UNMARSHALLER.set(unmarshaller);
+        }
+        return unmarshaller;
+    }
+
+    /**
+     * Returns the calling thread's namespace aware DocumentBuilder, reset so that no state
+     * is carried over from the previous document. The DocumentBuilder must not be handed to
+     * another thread.
+     *
+     * @return a namespace aware DocumentBuilder
+     * @throws ParserConfigurationException if the DocumentBuilder can't be created
+     */
+    public static DocumentBuilder getDocumentBuilder() throws ParserConfigurationException {
+        DocumentBuilder builder = DOCUMENT_BUILDER.get();
+        if (builder == null) {
+            builder = newDocumentBuilder();
+            DOCUMENT_BUILDER.set(builder);
+        } else {
+            builder.reset();
+        }
+        return builder;
+    }
+
+    /**
+     * Creates a new namespace aware DocumentBuilder owned by the caller.
+     *
+     * @return a new namespace aware DocumentBuilder
+     * @throws ParserConfigurationException if the DocumentBuilder can't be created
+     */
+    public static DocumentBuilder newDocumentBuilder() throws ParserConfigurationException {
+        // DocumentBuilderFactory is not guaranteed to be thread-safe
+        synchronized (DOCUMENT_BUILDER_FACTORY) {
+            return DOCUMENT_BUILDER_FACTORY.newDocumentBuilder();
+        }
+    }
+
+    private static DocumentBuilderFactory createDocumentBuilderFactory() {
+        DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
+        dbf.setNamespaceAware(true);
+        return dbf;
+    }
+}
@@ -1,7 +1,5 @@
 package hirs.utils.rim;
 
-import hirs.utils.swid.SwidTagConstants;
-import jakarta.xml.bind.JAXBContext;
 import jakarta.xml.bind.JAXBException;
 import jakarta.xml.bind.UnmarshalException;
 import jakarta.xml.bind.Unmarshaller;
@@ -12,11 +10,7 @@ import org.xml.sax.SAXException;
 
 import javax.xml.crypto.dsig.XMLSignature;
 import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.stream.StreamSource;
-import javax.xml.validation.Schema;
-import javax.xml.validation.SchemaFactory;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
@@ -41,24 +35,16 @@ public final class SwidTagParser {
     }
 
     /**
-     * This method validates the Document against the schema.
+     * This method validates the Document against the schema. The compiled schema and
+     * the JAXBContext are shared through {@link SwidSchemaHolder}.
      *
      * @param doc of the input swidtag.
      * @return document validated against the schema.
      */
     public static Document validateSwidtagSchema(final Document doc) throws UnmarshalException {
 
-        try (InputStream is = SwidTagParser.class.getClassLoader().getResourceAsStream(
-                SwidTagConstants.SCHEMA_URL)) {
-            if (is == null) {
-                log.error("Schema resource not found");
-                return null;
-            }
-            SchemaFactory schemaFactory = SchemaFactory.newInstance(SwidTagConstants.SCHEMA_LANGUAGE);
-            Schema schema = schemaFactory.newSchema(new StreamSource(is));
-            JAXBContext jaxbContext = JAXBContext.newInstance(SwidTagConstants.SCHEMA_PACKAGE);
-            Unmarshaller unmarshaller = jaxbContext.createUnmarshaller();
-            unmarshaller.setSchema(schema);
+        try {
+            Unmarshaller unmarshaller = SwidSchemaHolder.getUnmarshaller();
             unmarshaller.unmarshal(doc);
             return doc;
         } catch (UnmarshalException e) {
@@ -141,9 +127,7 @@ public final class SwidTagParser {
      */
     public static Document convertToDocument(final byte[] bytes)
             throws ParserConfigurationException, IOException, SAXException {
-        DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-        dbf.setNamespaceAware(true);
-        DocumentBuilder builder = dbf.newDocumentBuilder();
+        DocumentBuilder builder = SwidSchemaHolder.getDocumentBuilder();
         ByteArrayInputStream bytesIn = new ByteArrayInputStream(bytes);
         return builder.parse(bytesIn);
     }
@@ -159,9 +143,7 @@ public final class SwidTagParser {
      */
     public static Document convertToDocument(final String filename)
             throws ParserConfigurationException, IOException, SAXException {
-        DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-        dbf.setNamespaceAware(true);
-        DocumentBuilder builder = dbf.newDocumentBuilder();
+        DocumentBuilder builder = SwidSchemaHolder.getDocumentBuilder();
         File fileIn = new File(filename);
         return builder.parse(fileIn);
     }
@@ -1,5 +1,6 @@
 package hirs.utils.rim.unsignedRim.xml.pcclientrim;
 
+import hirs.utils.rim.SwidSchemaHolder;
 import hirs.utils.swid.CredentialParser;
 import hirs.utils.swid.HashSwid;
 import hirs.utils.swid.SwidTagConstants;
@@ -46,7 +47,6 @@ import javax.xml.crypto.dsig.spec.C14NMethodParameterSpec;
 import javax.xml.crypto.dsig.spec.TransformParameterSpec;
 import javax.xml.namespace.QName;
 import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.Source;
 import javax.xml.transform.Transformer;
@@ -94,7 +94,6 @@ public class PcClientRimBuilder {
     protected String timestampFormat;
     protected String timestampArgument;
     protected String errorRequiredFields;
-    protected DocumentBuilderFactory dbf;
     protected DocumentBuilder builder;
 
     /**
@@ -103,7 +102,7 @@ public class PcClientRimBuilder {
      */
     public PcClientRimBuilder() {
         try {
-            JAXBContext jaxbContext = JAXBContext.newInstance("hirs.utils.xjc");
+            JAXBContext jaxbContext = SwidSchemaHolder.getJaxbContext();
             this.marshaller = jaxbContext.createMarshaller();
             this.configFile = "";
             this.defaultCredentials = true;
@@ -113,9 +112,7 @@ public class PcClientRimBuilder {
             this.timestampFormat = "";
             this.timestampArgument = "";
             this.errorRequiredFields = "";
-            this.dbf = DocumentBuilderFactory.newInstance();
-            this.dbf.setNamespaceAware(true);
-            this.builder = this.dbf.newDocumentBuilder();
+            this.builder = SwidSchemaHolder.newDocumentBuilder();
         } catch (JAXBException e) {
             throw new RuntimeException("Error initializing jaxb context: " + e.getMessage());
         } catch (ParserConfigurationException e) {
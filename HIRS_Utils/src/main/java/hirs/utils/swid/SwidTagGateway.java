@@ -1,5 +1,6 @@
 package hirs.utils.swid;
 
+import hirs.utils.rim.SwidSchemaHolder;
 import hirs.utils.xjc.Directory;
 import hirs.utils.xjc.Entity;
 import hirs.utils.xjc.FilesystemItem;
@@ -45,7 +46,6 @@ import javax.xml.crypto.dsig.spec.C14NMethodParameterSpec;
 import javax.xml.crypto.dsig.spec.TransformParameterSpec;
 import javax.xml.namespace.QName;
 import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Source;
@@ -142,8 +142,6 @@ public class SwidTagGateway {
 
     private String errorRequiredFields;
 
-    private DocumentBuilderFactory dbf;
-
     private DocumentBuilder builder;
 
     /**
@@ -151,7 +149,7 @@ public class SwidTagGateway {
      */
     public SwidTagGateway() {
         try {
-            JAXBContext jaxbContext = JAXBContext.newInstance(SwidTagConstants.SCHEMA_PACKAGE);
+            JAXBContext jaxbContext = SwidSchemaHolder.getJaxbContext();
             marshaller = jaxbContext.createMarshaller();
             attributesFile = "";
             defaultCredentials = true;
@@ -161,9 +159,7 @@ public class SwidTagGateway {
             timestampFormat = "";
             timestampArgument = "";
             errorRequiredFields = "";
-            dbf = DocumentBuilderFactory.newInstance();
-            dbf.setNamespaceAware(true);
-            builder = dbf.newDocumentBuilder();
+            builder = SwidSchemaHolder.newDocumentBuilder();
         } catch (JAXBException e) {
             System.out.println("Error initializing jaxbcontext: " + e.getMessage());
         } catch (ParserConfigurationException e) {
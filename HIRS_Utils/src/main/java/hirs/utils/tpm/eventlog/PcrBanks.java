@@ -0,0 +1,225 @@
+package hirs.utils.tpm.eventlog;
+
+import hirs.utils.crypto.AlgorithmsIds;
+import lombok.extern.log4j.Log4j2;
+import org.apache.commons.codec.binary.Hex;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import static hirs.utils.crypto.AlgorithmsIds.ALG_TYPE_HASH;
+import static hirs.utils.crypto.AlgorithmsIds.SPEC_TCG_ALG;
+
+/**
+ * PCR banks replayed from a TCG event log: the 24 expected PCR values of each hash algorithm used
+ * in the log (SHA1, SHA256, SHA384 or SHA512).
+ * <p>
+ * Each bank holds its own {@link MessageDigest}, created once for the whole log. A PCR is extended
+ * in place: the digest is fed the current PCR value and the event digest, read straight from the
+ * event log buffer, and writes the result back over the PCR value, so extending allocates nothing.
+ * A bank is dropped if an event doesn't hold a digest for its algorithm, since its values can no
+ * longer be trusted. Instances are filled in by {@link TcgEventLogReader} and are not thread safe.
+ */
+@Log4j2
+public final class PcrBanks {
+
+    private final int[] algIds;
+
+    private final MessageDigest[] messageDigests;
+
+    private final byte[][][] pcrValues;
+
+    private final boolean[] dropped;
+
+    /**
+     * Creates the banks of the provided algorithms, each holding the initial PCR values.
+     *
+     * @param algIds TCG ids of the hash algorithms, without duplicates
+     * @throws IOException if one of the algorithms is not supported
+     */
+    PcrBanks(final int... algIds) throws IOException {
+        this.algIds = algIds.clone();
+        this.messageDigests = new MessageDigest[algIds.length];
+        this.pcrValues = new byte[algIds.length][][];
+        this.dropped = new boolean[algIds.length];
+        for (int bank = 0; bank < algIds.length; bank++) {
+            String algName = TcgTpmtHa.tcgAlgIdToString(algIds[bank]);
+            int length = TcgTpmtHa.tcgAlgLength(algIds[bank]);
+            try {
+                messageDigests[bank] = MessageDigest.getInstance(AlgorithmsIds.translateAlgId(ALG_TYPE_HASH,
+                        SPEC_TCG_ALG, algName, AlgorithmsIds.SPEC_COSE_ALG));
+            } catch (NoSuchAlgorithmException | NoSuchElementException | IllegalArgumentException e) {
+                throw new IOException("Unsupported event log hash algorithm " + algName, e);
+            }
+            if (length == 0 || messageDigests[bank].getDigestLength() != length) {
+                throw new IOException("Unsupported event log hash algorithm " + algName);
+            }
+            pcrValues[bank] = TcgEventLogReader.initialPcrValues(length);
+        }
+    }
+
+    /**
+     * Returns the TCG ids of the hash algorithms of the banks, in the order they are listed in the
+     * log. Banks that were dropped are left out.
+     *
+     * @return TCG algorithm ids
+     */
+    public int[] getAlgIds() {
+        int[] ids = new int[algIds.length];
+        int count = 0;
+        for (int bank = 0; bank < algIds.length; bank++) {
+            if (!dropped[bank]) {
+                ids[count++] = algIds[bank];
+            }
+        }
+        return Arrays.copyOf(ids, count);
+    }
+
+    /**
+     * Indicates whether the log was replayed into a bank of the provided algorithm.
+     *
+     * @param algId TCG id of the hash algorithm
+     * @return true if the bank exists and wasn't dropped
+     */
+    public boolean hasBank(final int algId) {
+        int bank = indexOf(algId);
+        return bank >= 0 && !dropped[bank];
+    }
+
+    /**
+     * Returns a copy of the PCR values of a bank.
+     *
+     * @param algId TCG id of the hash algorithm of the bank
+     * @return 24 PCR values
+     * @throws IllegalArgumentException if the log wasn't replayed into a bank of that algorithm
+     */
+    public byte[][] getPcrValues(final int algId) {
+        byte[][] values = pcrValues[checkBank(algId)];
+        byte[][] pcrs = new byte[TCGEventLog.PCR_COUNT][];
+        for (int i = 0; i < TCGEventLog.PCR_COUNT; i++) {
+            pcrs[i] = values[i].clone();
+        }
+        return pcrs;
+    }
+
+    /**
+     * Returns the PCR values of a bank, hex encoded.
+     *
+     * @param algId TCG id of the hash algorithm of the bank
+     * @return 24 PCR values
+     * @throws IllegalArgumentException if the log wasn't replayed into a bank of that algorithm
+     */
+    public String[] getExpectedPCRValues(final int algId) {
+        return toHex(pcrValues[checkBank(algId)]);
+    }
+
+    /**
+     * Hex encodes PCR values.
+     *
+     * @param values 24 PCR values
+     * @return 24 hex encoded PCR values
+     */
+    static String[] toHex(final byte[][] values) {
+        String[] pcrs = new String[TCGEventLog.PCR_COUNT];
+        for (int i = 0; i < TCGEventLog.PCR_COUNT; i++) {
+            pcrs[i] = Hex.encodeHexString(values[i]);
+        }
+        return pcrs;
+    }
+
+    /**
+     * Returns the number of banks, including the dropped ones.
+     *
+     * @return number of banks
+     */
+    int size() {
+        return algIds.length;
+    }
+
+    /**
+     * Returns the index of the bank of the provided algorithm.
+     *
+     * @param algId TCG id of the hash algorithm
+     * @return index of the bank, or -1 if the log doesn't use that algorithm
+     */
+    int indexOf(final int algId) {
+        for (int bank = 0; bank < algIds.length; bank++) {
+            if (algIds[bank] == algId) {
+                return bank;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the length of the PCR values of a bank.
+     *
+     * @param bank index of the bank
+     * @return PCR length in bytes
+     */
+    int getPcrLength(final int bank) {
+        return pcrValues[bank][0].length;
+    }
+
+    /**
+     * Extends a PCR of a bank with an event digest. The digest is read from the buffer's position up
+     * to its limit.
+     *
+     * @param bank     index of the bank
+     * @param pcrIndex index of the PCR
+     * @param digest   the event digest for the bank's algorithm
+     * @throws IOException if the digest can't be computed
+     */
+    void extend(final int bank, final int pcrIndex, final ByteBuffer digest) throws IOException {
+        if (dropped[bank]) {
+            return;
+        }
+        byte[] pcr = pcrValues[bank][pcrIndex];
+        MessageDigest messageDigest = messageDigests[bank];
+        messageDigest.update(pcr);
+        messageDigest.update(digest);
+        try {
+            messageDigest.digest(pcr, 0, pcr.length);
+        } catch (DigestException e) {
+            throw new IOException("Unable to extend PCR " + pcrIndex, e);
+        }
+    }
+
+    /**
+     * Drops a bank, because an event doesn't hold a digest for its algorithm.
+     *
+     * @param bank        index of the bank
+     * @param eventNumber number of the event missing the digest
+     */
+    void drop(final int bank, final int eventNumber) {
+        if (!dropped[bank]) {
+            dropped[bank] = true;
+            log.warn("Event #{} has no {} digest; dropping that PCR bank", eventNumber,
+                    TcgTpmtHa.tcgAlgIdToString(algIds[bank]));
+        }
+    }
+
+    /**
+     * Sets the startup locality in PCR0 of every bank, as required before PCR0 is first extended.
+     *
+     * @param locality the startup locality
+     */
+    void setStartupLocality(final int locality) {
+        for (byte[][] values : pcrValues) {
+            values[0][values[0].length - 1] = (byte) locality;
+        }
+    }
+
+    private int checkBank(final int algId) {
+        int bank = indexOf(algId);
+        if (bank < 0 || dropped[bank]) {
+            throw new IllegalArgumentException("No " + TcgTpmtHa.tcgAlgIdToString(algId) + " PCR bank");
+        }
+        return bank;
+    }
+}
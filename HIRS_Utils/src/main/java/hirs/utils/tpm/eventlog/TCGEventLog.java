@@ -1,38 +1,21 @@
 package hirs.utils.tpm.eventlog;
 
 import hirs.utils.HexUtils;
-import hirs.utils.crypto.AlgorithmsIds;
-import hirs.utils.digest.AbstractDigest;
 import hirs.utils.tpm.eventlog.events.EvConstants;
-import hirs.utils.tpm.eventlog.events.EvEfiSpecIdEvent;
-import hirs.utils.tpm.eventlog.events.EvNoAction;
 import hirs.utils.tpm.eventlog.uefi.UefiConstants;
 import lombok.Getter;
 import lombok.extern.log4j.Log4j2;
-import org.apache.commons.codec.DecoderException;
 import org.apache.commons.codec.binary.Hex;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.LinkedHashMap;
-import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
-import static hirs.utils.crypto.AlgorithmsIds.ALG_TYPE_HASH;
-import static hirs.utils.crypto.AlgorithmsIds.SPEC_TCG_ALG;
-import static hirs.utils.crypto.AlgorithmsIds.findAlgId;
-import static hirs.utils.tpm.eventlog.TcgTpmtHa.TPM_ALG_SHA256_STR;
-import static hirs.utils.tpm.eventlog.TcgTpmtHa.TPM_ALG_SHA384_STR;
-import static hirs.utils.tpm.eventlog.TcgTpmtHa.TPM_ALG_SHA512_STR;
-
 /**
  * Class for handling different formats of TCG Event logs.
+ * Events are read with a {@link TcgEventLogReader} and fully decoded into {@link TpmPcrEvent}s.
  */
 @Log4j2
 public final class TCGEventLog {
@@ -77,44 +60,10 @@ public final class TCGEventLog {
     // Ex. An EV_NO_ACTION Boot Event with StartupLocality 3 refers to Locality 3, which refers to a
     //     state transition S3 to S0, corresponding to TPM Restart. Requires PCR0 to be initialized to 3.
 
-    /**
-     * Initial values for the PCR registers environment locality 0-3.
-     */
-    private static final byte PCR_INIT = (byte) 0x00;
-    /**
-     * Initial values for the PCR registers environment locality 4.
-     */
-    private static final byte PCR_INIT_ENVLOCALITY4 = (byte) 0xff;
     /**
      * Each PCR bank holds 24 registers.
      */
     public static final int PCR_COUNT = 24;
-    /**
-     * Environment Locality 4 starts at PCR 17.
-     */
-    private static final int PCR_ENVLOCALITY4_MIN = 17;
-    /**
-     * Environment Locality 4 ends at PCR 22.
-     */
-    private static final int PCR_ENVLOCALITY4_MAX = 22;
-    /**
-     * PFP defined EV_NO_ACTION identifier.
-     */
-    private static final int NO_ACTION_EVENT = 0x00000003;
-    /**
-     * Startup locality 3 defined in the TCG PFP section 10.4.5.3.
-     * Used for NO_ACTION_EVENT with "StartupLocality" in the signature.
-     */
-    private static final int STARTUP_LOCALITY3 = 0x03;
-    /**
-     * Startup locality 4 defined in the TCG PFP section 10.4.5.3.
-     * Used for NO_ACTION_EVENT with "StartupLocality" in the signature.
-     */
-    private static final int STARTUP_LOCALITY4 = 0x04;
-    /**
-     * Logger.
-     */
-    private static final Logger LOGGER = LogManager.getLogger(TCGEventLog.class);
     /**
      * List of parsed events within the log.
      */
@@ -124,20 +73,15 @@ public final class TCGEventLog {
      */
     @Getter
     private String strongestEvLogHashAlgName = "";
-    /**
-     * Length of PCR. Indicates which hash algorithm is used.
-     *
-     */
-    private int pcrLength;
     /**
      * 2-dimensional array holding the PCR values.
      * If more than one set of PCR banks exists in this log, store the one with the strongest algorithm.
      */
     private byte[][] pcrList;
     /**
-     * Startup locality. If none, then value is -1.
+     * PCR values of every bank replayed from this log, keyed by TCG algorithm id.
      */
-    private int startupLocality = -0x01;
+    private final Map<Integer, byte[][]> pcrBanks = new LinkedHashMap<>();
     /**
      * Content Output Flag use.
      */
@@ -168,24 +112,14 @@ public final class TCGEventLog {
 //     */
 //    @Getter
 //    private String guidTableFileStatus = UefiConstants.FILESTATUS_FROM_FILESYSTEM;
-    /**
-     * Track status of pci.ids file.
-     * This is only used if there is an event that uses functions from the pciids class.
-     * Default is normal status (normal status is from-filesystem).
-     * Status will only change IF there is an event that uses pciids file, and the file
-     * causes a different status.
-     */
-    @Getter
-    private String pciidsFileStatus = UefiConstants.FILESTATUS_FROM_FILESYSTEM;
 
     /**
      * Default blank object constructor.
      */
     public TCGEventLog() {
-        this.pcrList = new byte[PCR_COUNT][EvConstants.SHA1_LENGTH];
-        pcrLength = EvConstants.SHA1_LENGTH;
+        this.pcrList = TcgEventLogReader.initialPcrValues(EvConstants.SHA1_LENGTH);
         strongestEvLogHashAlgName = "TPM_ALG_SHA1";
-        initPcrList();
+        pcrBanks.put(TcgTpmtHa.TPM_ALG_SHA1, pcrList);
     }
 
     /**
@@ -217,64 +151,17 @@ public final class TCGEventLog {
         bHexEvent = bHexEventFlag;
 
         int eventNumber = 0;
-        ByteArrayInputStream is = new ByteArrayInputStream(rawlog);
-        long logFileBytesRemaining = rawlog.length;
+        TcgEventLogReader reader = new TcgEventLogReader(rawlog);
 
         try {
-            // Process the 1st entry as a SHA1 format (per the spec) and put into the event list
-            TpmPcrEvent1 firstEvent = new TpmPcrEvent1(is, logFileBytesRemaining, eventNumber);
-            eventList.put(eventNumber++, firstEvent);
-            logFileBytesRemaining -= (firstEvent.getEventHeader().length + firstEvent.getEventContent().length);
-            useFirstEventToInitValues(firstEvent);
-
-            // put the remaining events into the event list
-            while (is.available() > 0) {
-                if (bCryptoAgile) {
-                    TpmPcrEvent2 event2 =
-                            new TpmPcrEvent2(is, logFileBytesRemaining, eventNumber, strongestEvLogHashAlgName);
-                    eventList.put(eventNumber++, event2);
-                    logFileBytesRemaining -= (event2.getEventHeader().length + event2.getEventContent().length);
-                    if (event2.isStartupLocalityEvent()) {
-                        EvNoAction event = new EvNoAction(event2.getEventContent());
-                        startupLocality = event.getStartupLocality();
-                    }
-                } else {
-                    TpmPcrEvent1 event1 = new TpmPcrEvent1(is, logFileBytesRemaining, eventNumber);
-                    eventList.put(eventNumber++, event1);
-                    logFileBytesRemaining -= (event1.getEventHeader().length + event1.getEventContent().length);
-                }
-
-                // first check if any previous event has not been able to access vendor-table.json,
-                // and if that is the case, the first comparison in the if-statement returns false and
-                // the if-statement is not executed
-                // [previous event file status = guidTableFileStatus]
-                // (ie. keep the file status to reflect that file was not accessible at some point)
-                // next, check if the new event has any status other than the default 'filesystem',
-                // and if that is the case, the 2nd comparison in the if-statement returns true and
-                // the if-statement is executed
-                // [new event file status = eventList.get(eventNumber-1).getGuidTableFileStatus()]
-                // (ie. if the new file status is not-accessible or from-code, then want to update)
-    //            if ((guidTableFileStatus != UefiConstants.FILESTATUS_NOT_ACCESSIBLE)
-    //                    && (eventList.get(eventNumber - 1).getGuidTableFileStatus()
-    //                    != UefiConstants.FILESTATUS_FROM_FILESYSTEM)) {
-    //                guidTableFileStatus = eventList.get(eventNumber - 1).getGuidTableFileStatus();
-    //            }
-
-                // first check if any previous event has not been able to access pci.ids file,
-                // and if that is the case, the first comparison in the if-statement returns false and
-                // the if-statement is not executed
-                // [previous event file status = pciidsFileStatus]
-                // (ie. keep the file status to reflect that file was not accessible at some point)
-                // next, check if the new event has any status other than the default 'filesystem',
-                // and if that is the case, the 2nd comparison in the if-statement returns true and
-                // the if-statement is executed
-                // [new event file status = eventList.get(eventNumber-1).getPciidsFileStatus()]
-                // (ie. if the new file status is not-accessible or from-code, then want to update)
-                if ((!Objects.equals(pciidsFileStatus, UefiConstants.FILESTATUS_NOT_ACCESSIBLE))
-                        && (!Objects.equals(eventList.get(eventNumber - 1).getPciidsFileStatus(),
-                        UefiConstants.FILESTATUS_FROM_FILESYSTEM))) {
-                    pciidsFileStatus = eventList.get(eventNumber - 1).getPciidsFileStatus();
-                }
+            // the reader processes the 1st entry as a SHA1 format (per the spec), which tells whether
+            // the remaining events are crypto agile, and replays each event into the PCR values
+            for (TcgEventView view = reader.next(); view != null; view = reader.next()) {
+                TpmPcrEvent event = view.toTpmPcrEvent();
+                eventList.put(eventNumber++, event);
+            }
+            if (eventNumber == 0) {
+                throw new IOException("Event log holds no events");
             }
         } catch (IOException i) {
             String error = "IO error parsing event log at Event #" + (eventNumber);
@@ -286,159 +173,103 @@ public final class TCGEventLog {
             throw new RuntimeException(error);
         }
 
-        calculatePcrValues();
+        bCryptoAgile = reader.isCryptoAgile();
+        strongestEvLogHashAlgName = reader.getStrongestEvLogHashAlgName();
+        for (int algId : reader.getPcrBanks().getAlgIds()) {
+            pcrBanks.put(algId, reader.getPcrBanks().getPcrValues(algId));
+        }
+        pcrList = pcrBanks.get(getStrongestEvLogHashAlgId());
     }
 
     /**
-     * If first event is EV_NO_ACTION Spec Id, then the log is crypto agile.
-     * Need info from this event about algorithms.
+     * Returns the status of the pci.ids file.
+     * This is only used if there is an event that uses functions from the pciids class.
+     * Default is normal status (normal status is from-filesystem).
+     * Status will only change IF there is an event that uses pciids file, and the file
+     * causes a different status.
+     * The status is gathered when requested, so that only the events that look up the pci.ids
+     * file have their content decoded.
      *
-     * @param firstEvent               the first event in the log.
-     * @throws java.io.IOException     if first event cannot initialize values.
+     * @return the pci.ids file status
      */
-    private void useFirstEventToInitValues(final TpmPcrEvent1 firstEvent)
-            throws IOException {
-
-        // if first event is EV_NO_ACTION Spec Id Event, the log is crypto agile
-        if (firstEvent.isNoActionSpecIdEvent()) {
-
-            bCryptoAgile = true;
-            EvEfiSpecIdEvent specEvent = new EvEfiSpecIdEvent(firstEvent.getEventContent());
-            List<String> algList = specEvent.getAlgList();
-
-            // find the strongest algorithm used and select that for processing
-            String currentStrongestAlg = algList.get(0);
-            try {
-                int currentStrongestAlgRow = findAlgId(ALG_TYPE_HASH, SPEC_TCG_ALG, currentStrongestAlg);
-                for (int i = 1; i < algList.size(); i++) {
-                    String newAlg = algList.get(i);
-                    int newAlgRow = findAlgId(ALG_TYPE_HASH, SPEC_TCG_ALG, newAlg);
-                    if (newAlgRow > currentStrongestAlgRow) {
-                        currentStrongestAlg = newAlg;
-                    }
-                }
-            } catch (IllegalArgumentException i) {
-                throw new IOException("Could not determine info about algorithm from first event", i);
-            }
-            strongestEvLogHashAlgName = currentStrongestAlg;
-
-            //TEMPORARILY use SHA256 until updates on Provisioner are pushed
-//            strongestEvLogHashAlgName = "TPM_ALG_SHA256";
-
-            // if more than one set of PCR banks exists in this log, store the one with strongest algorithm
-            switch (strongestEvLogHashAlgName) {
-                case TPM_ALG_SHA256_STR:
-                    pcrLength = EvConstants.SHA256_LENGTH;
-                    break;
-                case TPM_ALG_SHA384_STR:
-                    pcrLength = EvConstants.SHA384_LENGTH;
-                    break;
-                case TPM_ALG_SHA512_STR:
-                    pcrLength = EvConstants.SHA512_LENGTH;
-                    break;
-                default:
-                    break;
+    public String getPciidsFileStatus() {
+        String pciidsFileStatus = UefiConstants.FILESTATUS_FROM_FILESYSTEM;
+        boolean firstEvent = true;
+        for (TpmPcrEvent event : eventList.values()) {
+            if (firstEvent) {
+                firstEvent = false;
+                continue;
             }
-        } else {    // not crypto agile
-            strongestEvLogHashAlgName = "TPM_ALG_SHA1";
-            pcrLength = EvConstants.SHA1_LENGTH;
 
-            // startup locality event could be the first event in a non-crypto-agile log
-            if (firstEvent.isStartupLocalityEvent()) {
-                EvNoAction event = new EvNoAction(firstEvent.getEventContent());
-                startupLocality = event.getStartupLocality();
+            // first check if any previous event has not been able to access vendor-table.json,
+            // and if that is the case, the first comparison in the if-statement returns false and
+            // the if-statement is not executed
+            // [previous event file status = guidTableFileStatus]
+            // (ie. keep the file status to reflect that file was not accessible at some point)
+            // next, check if the new event has any status other than the default 'filesystem',
+            // and if that is the case, the 2nd comparison in the if-statement returns true and
+            // the if-statement is executed
+            // [new event file status = event.getGuidTableFileStatus()]
+            // (ie. if the new file status is not-accessible or from-code, then want to update)
+//            if ((guidTableFileStatus != UefiConstants.FILESTATUS_NOT_ACCESSIBLE)
+//                    && (event.getGuidTableFileStatus()
+//                    != UefiConstants.FILESTATUS_FROM_FILESYSTEM)) {
+//                guidTableFileStatus = event.getGuidTableFileStatus();
+//            }
+
+            // first check if any previous event has not been able to access pci.ids file,
+            // and if that is the case, the first comparison in the if-statement returns false and
+            // the if-statement is not executed
+            // [previous event file status = pciidsFileStatus]
+            // (ie. keep the file status to reflect that file was not accessible at some point)
+            // next, check if the new event has any status other than the default 'filesystem',
+            // and if that is the case, the 2nd comparison in the if-statement returns true and
+            // the if-statement is executed
+            // [new event file status = event.getPciidsFileStatus()]
+            // (ie. if the new file status is not-accessible or from-code, then want to update)
+            if ((!Objects.equals(pciidsFileStatus, UefiConstants.FILESTATUS_NOT_ACCESSIBLE))
+                    && (!Objects.equals(event.getPciidsFileStatus(),
+                    UefiConstants.FILESTATUS_FROM_FILESYSTEM))) {
+                pciidsFileStatus = event.getPciidsFileStatus();
             }
         }
-
-        // if more than one set of PCR banks exists in this log, store the one with the strongest algorithm
-        pcrList = new byte[PCR_COUNT][pcrLength];
+        return pciidsFileStatus;
     }
 
     /**
-     * This method initializes the pcrList.
+     * Returns all 24 PCR values for display purposes.
+     *
+     * @return Returns an array of strings representing the expected hash values for all 24 PCRs
      */
-    private void initPcrList() {
-
+    public String[] getExpectedPCRValues() {
+        String[] pcrs = new String[PCR_COUNT];
         for (int i = 0; i < PCR_COUNT; i++) {
-            byte[] initPcrValueB = new byte[pcrLength];
-            Arrays.fill(initPcrValueB, PCR_INIT);
-            System.arraycopy(initPcrValueB, 0, pcrList[i], 0, pcrLength);
-        }
-        for (int i = PCR_ENVLOCALITY4_MIN; i <= PCR_ENVLOCALITY4_MAX; i++) {
-            byte[] initPcrValueB = new byte[pcrLength];
-            Arrays.fill(initPcrValueB, PCR_INIT_ENVLOCALITY4);
-            System.arraycopy(initPcrValueB, 0, pcrList[i], 0, pcrLength);
-        }
-        if (startupLocality == STARTUP_LOCALITY3) {
-            pcrList[0][pcrLength - 1] = (byte) STARTUP_LOCALITY3;
-        } else if (startupLocality == STARTUP_LOCALITY4) {
-            LOGGER.error("Error Processing TGC Event Log: "
-                    + "Event of type EV_NO_ACTION with a Startup Locality 4 with an H-CRTM "
-                    + "encountered, but no support is currently provided by this application");
-        }
-    }
-
-    /**
-     * Calculates the Expected Values for TPM PCRs based upon Event digests in the Event Log.
-     * Uses the algorithm and eventList passed into the constructor.
-     */
-    private void calculatePcrValues() {
-        byte[] extendedPCR;
-        initPcrList();
-        for (TpmPcrEvent currentEvent : eventList.values()) {
-            if (currentEvent.getPcrIndex() >= 0) {   // Ignore NO_EVENTS which can have a PCR=-1
-                try {
-                    if (currentEvent.getEventType() != NO_ACTION_EVENT) {
-                        // Don't include EV_NO_ACTION event
-                        extendedPCR = extendPCR(pcrList[currentEvent.getPcrIndex()],
-                                currentEvent.getEventStrongestDigest());
-                        System.arraycopy(extendedPCR, 0, pcrList[currentEvent.getPcrIndex()],
-                                0, pcrLength);
-                    }
-                } catch (NoSuchAlgorithmException e) {
-                    LOGGER.error(e);
-                }
-            }
+            pcrs[i] = Hex.encodeHexString(pcrList[i]);
         }
+        return pcrs;
     }
 
     /**
-     * Extends a hash with a hash of new data.
+     * Returns all 24 PCR values of the bank of a hash algorithm. Logs in the crypto agile format
+     * hold a bank for each algorithm listed in their Spec ID event, SHA1 formatted logs only hold
+     * a SHA1 bank.
      *
-     * @param currentValue value to extend
-     * @param newEvent     value to extend with
-     * @return new hash resultant hash
-     * @throws java.security.NoSuchAlgorithmException if hash algorithm not supported
+     * @param algId TCG Defined Algorithm ID of the bank
+     * @return the expected hash values for all 24 PCRs, or null if the log holds no such bank
      */
-    private byte[] extendPCR(final byte[] currentValue, final byte[] newEvent)
-            throws NoSuchAlgorithmException {
-
-        String hashNistName = AlgorithmsIds.translateAlgId(AlgorithmsIds.ALG_TYPE_HASH,
-                AlgorithmsIds.SPEC_TCG_ALG, strongestEvLogHashAlgName, AlgorithmsIds.SPEC_COSE_ALG);
-        MessageDigest md = MessageDigest.getInstance(hashNistName);
-        StringBuilder sb = new StringBuilder(AbstractDigest.SHA512_DIGEST_LENGTH);
-        sb.append(Hex.encodeHexString(currentValue).toCharArray());
-        sb.append(Hex.encodeHexString(newEvent).toCharArray());
-
-        try {
-            md.update(Hex.decodeHex(sb.toString().toCharArray()));
-        } catch (DecoderException deEx) {
-            LOGGER.error(deEx);
-        }
-        return md.digest();
+    public String[] getExpectedPCRValues(final int algId) {
+        byte[][] bank = pcrBanks.get(algId);
+        return bank == null ? null : PcrBanks.toHex(bank);
     }
 
     /**
-     * Returns all 24 PCR values for display purposes.
+     * Returns the TCG Defined Algorithm IDs of the PCR banks held in the log, in the order the
+     * algorithms are listed in the log.
      *
-     * @return Returns an array of strings representing the expected hash values for all 24 PCRs
+     * @return TCG Defined Algorithm IDs
      */
-    public String[] getExpectedPCRValues() {
-        String[] pcrs = new String[PCR_COUNT];
-        for (int i = 0; i < PCR_COUNT; i++) {
-            pcrs[i] = Hex.encodeHexString(pcrList[i]);
-        }
-        return pcrs;
+    public int[] getPcrBankAlgIds() {
+        return pcrBanks.keySet().stream().mapToInt(Integer::intValue).toArray();
     }
 
     /**
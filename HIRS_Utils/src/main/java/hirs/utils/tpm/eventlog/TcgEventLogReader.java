@@ -0,0 +1,492 @@
+package hirs.utils.tpm.eventlog;
+
+import hirs.utils.tpm.eventlog.events.EvConstants;
+import hirs.utils.tpm.eventlog.events.EvEfiSpecIdEvent;
+import hirs.utils.tpm.eventlog.uefi.UefiConstants;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+import static hirs.utils.crypto.AlgorithmsIds.ALG_TYPE_HASH;
+import static hirs.utils.crypto.AlgorithmsIds.SPEC_TCG_ALG;
+import static hirs.utils.crypto.AlgorithmsIds.findAlgId;
+
+/**
+ * Streaming reader for TCG event logs, in either the SHA1 or the crypto agile format.
+ * <p>
+ * The reader walks a little endian {@link ByteBuffer}, either on the heap or memory mapped with
+ * {@link #open(Path)}, and returns each event as a {@link TcgEventView} holding offsets into that
+ * buffer. Event contents are not copied or decoded while reading. The expected PCR values of every
+ * hash algorithm used in the log are extended as each event is read, in a single pass, so the
+ * {@link PcrBanks} are complete as soon as the last event has been returned. A reader is not thread
+ * safe.
+ * <p>
+ * The first event is always in the SHA1 format (per the TCG PFP). If it is an EV_NO_ACTION Spec ID
+ * event, the log is crypto agile and the remaining events are TCG_PCR_EVENT2 structures.
+ */
+@Log4j2
+public final class TcgEventLogReader {
+
+    /**
+     * Initial values for the PCR registers environment locality 0-3.
+     */
+    private static final byte PCR_INIT = (byte) 0x00;
+    /**
+     * Initial values for the PCR registers environment locality 4.
+     */
+    private static final byte PCR_INIT_ENVLOCALITY4 = (byte) 0xff;
+    /**
+     * Environment Locality 4 starts at PCR 17.
+     */
+    private static final int PCR_ENVLOCALITY4_MIN = 17;
+    /**
+     * Environment Locality 4 ends at PCR 22.
+     */
+    private static final int PCR_ENVLOCALITY4_MAX = 22;
+    /**
+     * Startup locality 3 defined in the TCG PFP section 10.4.5.3.
+     */
+    private static final int STARTUP_LOCALITY3 = 0x03;
+    /**
+     * Startup locality 4 defined in the TCG PFP section 10.4.5.3.
+     */
+    private static final int STARTUP_LOCALITY4 = 0x04;
+    /**
+     * Offset of the startup locality within a StartupLocality EV_NO_ACTION event.
+     */
+    private static final int STARTUP_LOCALITY_OFFSET = UefiConstants.OFFSET_16;
+    /**
+     * Signature of the EV_NO_ACTION Spec ID event, which makes a log crypto agile.
+     */
+    private static final byte[] SPEC_ID_SIGNATURE = "Spec ID Event03".getBytes(StandardCharsets.US_ASCII);
+    /**
+     * Signature of the EV_NO_ACTION StartupLocality event.
+     */
+    private static final byte[] STARTUP_LOCALITY_SIGNATURE = "StartupLocality".getBytes(StandardCharsets.US_ASCII);
+    /**
+     * Size of a TCG_PCR_EVENT header: pcrIndex + eventType + digest + eventSize.
+     */
+    private static final int EVENT1_HEADER_SIZE = UefiConstants.SIZE_12 + EvConstants.SHA1_LENGTH;
+    /**
+     * Offset of the digest of a TCG_PCR_EVENT.
+     */
+    private static final int EVENT1_DIGEST_OFFSET = UefiConstants.SIZE_8;
+
+    private final ByteBuffer buffer;
+
+    /**
+     * Second view of the buffer, positioned over each digest to extend.
+     */
+    private final ByteBuffer digestView;
+
+    private int position;
+
+    private int eventCount;
+
+    private boolean cryptoAgile = false;
+
+    private String strongestEvLogHashAlgName = TcgTpmtHa.TPM_ALG_SHA1_STR;
+
+    private int strongestEvLogHashAlgId = TcgTpmtHa.TPM_ALG_SHA1;
+
+    private int pcrLength = EvConstants.SHA1_LENGTH;
+
+    private int startupLocality = -1;
+
+    private PcrBanks pcrBanks;
+
+    private int strongestBank;
+
+    /**
+     * Offset of the current event's digest for each PCR bank, or -1 if the event has no such digest.
+     */
+    private int[] digestOffsets;
+
+    private boolean pcr0Extended = false;
+
+    /**
+     * Constructor for a log held in a byte array. The array is not copied.
+     *
+     * @param rawlog data for the event log file
+     */
+    public TcgEventLogReader(final byte[] rawlog) {
+        this(ByteBuffer.wrap(rawlog));
+    }
+
+    /**
+     * Constructor for a log held in a buffer. The log is read from the buffer's position up to its
+     * limit; the buffer itself is left untouched.
+     *
+     * @param eventLog buffer holding the event log
+     */
+    public TcgEventLogReader(final ByteBuffer eventLog) {
+        this.buffer = eventLog.slice().asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+        this.digestView = buffer.duplicate();
+    }
+
+    /**
+     * Creates a reader over a memory mapped event log file.
+     *
+     * @param path path to the event log file
+     * @return the reader
+     * @throws IOException if the file cannot be mapped
+     */
+    public static TcgEventLogReader open(final Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Event log " + path + " is too large to be mapped");
+            }
+            return new TcgEventLogReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Reads the next event and extends its PCR in every bank with the event's digests.
+     *
+     * @return the event, or null if the end of the log has been reached
+     * @throws IOException if the event is malformed or truncated
+     */
+    public TcgEventView next() throws IOException {
+        if (position >= buffer.limit()) {
+            return null;
+        }
+        TcgEventView view;
+        if (eventCount == 0) {
+            view = readEvent1();
+            useFirstEventToInitValues(view);
+        } else if (cryptoAgile) {
+            view = readEvent2();
+            readStartupLocality(view);
+        } else {
+            view = readEvent1();
+        }
+        extendPcrs(view);
+        position += view.getHeaderLength() + view.getContentLength();
+        eventCount++;
+        return view;
+    }
+
+    /**
+     * Reads all remaining events, only replaying them into the expected PCR values. The values of
+     * every bank are then available from {@link #getPcrBanks()}.
+     *
+     * @return the expected PCR values of the strongest hash algorithm, see {@link #getExpectedPCRValues()}
+     * @throws IOException if an event is malformed or truncated
+     */
+    public String[] replay() throws IOException {
+        TcgEventView view = next();
+        while (view != null) {
+            view = next();
+        }
+        return getExpectedPCRValues();
+    }
+
+    /**
+     * Returns the number of events read so far.
+     *
+     * @return number of events
+     */
+    public int getEventCount() {
+        return eventCount;
+    }
+
+    /**
+     * Indicates whether the log is crypto agile. Only known once the first event has been read.
+     *
+     * @return true if the log is crypto agile
+     */
+    public boolean isCryptoAgile() {
+        return cryptoAgile;
+    }
+
+    /**
+     * Returns the TCG name of the strongest hash algorithm used in the log. Only known once the
+     * first event has been read.
+     *
+     * @return TCG algorithm name
+     */
+    public String getStrongestEvLogHashAlgName() {
+        return strongestEvLogHashAlgName;
+    }
+
+    /**
+     * Returns the length of the PCR values, which depends on the strongest hash algorithm.
+     *
+     * @return PCR length in bytes
+     */
+    public int getPcrLength() {
+        return pcrLength;
+    }
+
+    /**
+     * Returns the startup locality found in the log.
+     *
+     * @return startup locality, or -1 if the log has no StartupLocality event
+     */
+    public int getStartupLocality() {
+        return startupLocality;
+    }
+
+    /**
+     * Returns the PCR banks of every hash algorithm used in the log, extended with the events read
+     * so far. Only known once the first event has been read.
+     *
+     * @return the PCR banks, or null if no event has been read
+     */
+    public PcrBanks getPcrBanks() {
+        return pcrBanks;
+    }
+
+    /**
+     * Returns a copy of the PCR values extended with the events read so far.
+     *
+     * @return 24 PCR values of the strongest hash algorithm
+     */
+    public byte[][] getPcrValues() {
+        if (pcrBanks == null) {
+            return initialPcrValues(pcrLength);
+        }
+        return pcrBanks.getPcrValues(strongestEvLogHashAlgId);
+    }
+
+    /**
+     * Returns the PCR values extended with the events read so far, hex encoded.
+     *
+     * @return 24 PCR values of the strongest hash algorithm
+     */
+    public String[] getExpectedPCRValues() {
+        if (pcrBanks == null) {
+            return PcrBanks.toHex(initialPcrValues(pcrLength));
+        }
+        return pcrBanks.getExpectedPCRValues(strongestEvLogHashAlgId);
+    }
+
+    /**
+     * Creates the initial PCR values: zeros, except for the environment locality 4 PCRs.
+     *
+     * @param length length of each PCR value
+     * @return 24 PCR values
+     */
+    static byte[][] initialPcrValues(final int length) {
+        byte[][] pcrs = new byte[TCGEventLog.PCR_COUNT][length];
+        for (int i = 0; i < TCGEventLog.PCR_COUNT; i++) {
+            Arrays.fill(pcrs[i], PCR_INIT);
+        }
+        for (int i = PCR_ENVLOCALITY4_MIN; i <= PCR_ENVLOCALITY4_MAX; i++) {
+            Arrays.fill(pcrs[i], PCR_INIT_ENVLOCALITY4);
+        }
+        return pcrs;
+    }
+
+    /**
+     * Reads a TCG_PCR_EVENT at the current position.
+     *
+     * @return the event
+     * @throws IOException if the event is malformed or truncated
+     */
+    private TcgEventView readEvent1() throws IOException {
+        require(position, EVENT1_HEADER_SIZE);
+        int pcrIndex = buffer.getInt(position);
+        long eventType = Integer.toUnsignedLong(buffer.getInt(position + UefiConstants.SIZE_4));
+        checkPcrIndex(pcrIndex, eventType);
+        int eventSize = buffer.getInt(position + EVENT1_HEADER_SIZE - UefiConstants.SIZE_4);
+        checkEventSize(position + EVENT1_HEADER_SIZE, eventSize);
+        return new TcgEventView(buffer, TcgEventView.SHA1_FORMAT, eventCount, pcrIndex, eventType,
+                position, EVENT1_HEADER_SIZE, 1,
+                position + EVENT1_DIGEST_OFFSET, EvConstants.SHA1_LENGTH, eventSize);
+    }
+
+    /**
+     * Reads a TCG_PCR_EVENT2 at the current position, locating the digest of each PCR bank
+     * without copying any digest.
+     *
+     * @return the event
+     * @throws IOException if the event is malformed or truncated
+     */
+    private TcgEventView readEvent2() throws IOException {
+        require(position, UefiConstants.SIZE_12);
+        int pcrIndex = buffer.getInt(position);
+        long eventType = Integer.toUnsignedLong(buffer.getInt(position + UefiConstants.SIZE_4));
+        checkPcrIndex(pcrIndex, eventType);
+
+        // TPML_DIGEST_VALUES (algCount should match 'numberOfAlgorithms' in Spec ID event)
+        int algCount = buffer.getInt(position + UefiConstants.SIZE_8);
+        if (algCount < 0) {
+            throw new IOException("Number of digests is a negative value; possibly corrupt byte file.");
+        }
+        int offset = position + UefiConstants.SIZE_12;
+        Arrays.fill(digestOffsets, -1);
+        for (int i = 0; i < algCount; i++) {
+            require(offset, UefiConstants.SIZE_2);
+            int algId = Short.toUnsignedInt(buffer.getShort(offset));
+            int digestLength = TcgTpmtHa.tcgAlgLength(algId);
+            require(offset, UefiConstants.SIZE_2 + digestLength);
+            int bank = pcrBanks.indexOf(algId);
+            if (bank >= 0) {
+                digestOffsets[bank] = offset + UefiConstants.SIZE_2;
+            }
+            offset += UefiConstants.SIZE_2 + digestLength;
+        }
+        int strongestDigestOffset = digestOffsets[strongestBank];
+
+        require(offset, UefiConstants.SIZE_4);
+        int eventSize = buffer.getInt(offset);
+        int headerLength = offset + UefiConstants.SIZE_4 - position;
+        checkEventSize(position + headerLength, eventSize);
+        return new TcgEventView(buffer, TcgEventView.CRYPTO_AGILE_FORMAT, eventCount, pcrIndex, eventType,
+                position, headerLength, algCount, strongestDigestOffset, pcrLength, eventSize);
+    }
+
+    /**
+     * If the first event is an EV_NO_ACTION Spec ID event, the log is crypto agile, and the event
+     * lists the algorithms used in the log, each of which gets a PCR bank. Otherwise, the log uses SHA1.
+     *
+     * @param firstEvent the first event in the log
+     * @throws IOException if the algorithms used in the log cannot be determined
+     */
+    private void useFirstEventToInitValues(final TcgEventView firstEvent) throws IOException {
+        if (hasSignature(firstEvent, SPEC_ID_SIGNATURE)) {
+            cryptoAgile = true;
+            List<String> algList;
+            try {
+                algList = new EvEfiSpecIdEvent(firstEvent.getContentBytes()).getAlgList();
+            } catch (IndexOutOfBoundsException e) {
+                throw new IOException("Spec ID event is truncated; possibly corrupt byte file.", e);
+            }
+            if (algList.isEmpty()) {
+                throw new IOException("Spec ID event lists no hash algorithms");
+            }
+
+            // find the strongest algorithm used and select that for processing
+            String currentStrongestAlg = algList.get(0);
+            try {
+                int currentStrongestAlgRow = findAlgId(ALG_TYPE_HASH, SPEC_TCG_ALG, currentStrongestAlg);
+                for (int i = 1; i < algList.size(); i++) {
+                    String newAlg = algList.get(i);
+                    int newAlgRow = findAlgId(ALG_TYPE_HASH, SPEC_TCG_ALG, newAlg);
+                    if (newAlgRow > currentStrongestAlgRow) {
+                        currentStrongestAlg = newAlg;
+                        currentStrongestAlgRow = newAlgRow;
+                    }
+                }
+            } catch (IllegalArgumentException i) {
+                throw new IOException("Could not determine info about algorithm from first event", i);
+            }
+            strongestEvLogHashAlgName = currentStrongestAlg;
+            strongestEvLogHashAlgId = TcgTpmtHa.tcgAlgStringToId(currentStrongestAlg);
+            pcrLength = TcgTpmtHa.tcgAlgLength(strongestEvLogHashAlgId);
+            pcrBanks = new PcrBanks(algList.stream()
+                    .mapToInt(TcgTpmtHa::tcgAlgStringToId)
+                    .distinct()
+                    .toArray());
+        } else {
+            pcrBanks = new PcrBanks(TcgTpmtHa.TPM_ALG_SHA1);
+        }
+        strongestBank = pcrBanks.indexOf(strongestEvLogHashAlgId);
+        digestOffsets = new int[pcrBanks.size()];
+
+        if (!cryptoAgile) {
+            // startup locality event could be the first event in a non-crypto-agile log
+            readStartupLocality(firstEvent);
+        }
+    }
+
+    /**
+     * Records the startup locality if the event is an EV_NO_ACTION StartupLocality event.
+     * Startup locality 3 (S3 to S0, TPM Restart) requires PCR0 of every bank to be initialized to 3.
+     *
+     * @param event the event
+     */
+    private void readStartupLocality(final TcgEventView event) {
+        if (!hasSignature(event, STARTUP_LOCALITY_SIGNATURE)
+                || event.getContentLength() <= STARTUP_LOCALITY_OFFSET) {
+            return;
+        }
+        startupLocality = Byte.toUnsignedInt(event.getContent().get(STARTUP_LOCALITY_OFFSET));
+        if (startupLocality == STARTUP_LOCALITY3) {
+            if (pcr0Extended) {
+                log.error("Error Processing TGC Event Log: StartupLocality event found after PCR0 "
+                        + "was extended; PCR0 will not reflect startup locality 3");
+            } else {
+                pcrBanks.setStartupLocality(STARTUP_LOCALITY3);
+            }
+        } else if (startupLocality == STARTUP_LOCALITY4) {
+            log.error("Error Processing TGC Event Log: "
+                    + "Event of type EV_NO_ACTION with a Startup Locality 4 with an H-CRTM "
+                    + "encountered, but no support is currently provided by this application");
+        }
+    }
+
+    /**
+     * Extends the event's PCR in every bank with the event's digest for that bank. EV_NO_ACTION
+     * events, which can have a PCR index of -1, are not extended. Banks other than the strongest one
+     * are dropped if the event has no digest for them.
+     *
+     * @param event the event
+     * @throws IOException if the event doesn't hold a digest for the strongest algorithm
+     */
+    private void extendPcrs(final TcgEventView event) throws IOException {
+        if (event.getPcrIndex() < 0 || event.getEventType() == EvConstants.EV_NO_ACTION) {
+            return;
+        }
+        if (event.getLogFormat() == TcgEventView.SHA1_FORMAT) {
+            // the digests of a TCG_PCR_EVENT were not located while reading it
+            Arrays.fill(digestOffsets, -1);
+            int bank = pcrBanks.indexOf(TcgTpmtHa.TPM_ALG_SHA1);
+            if (bank >= 0) {
+                digestOffsets[bank] = position + EVENT1_DIGEST_OFFSET;
+            }
+        }
+        if (digestOffsets[strongestBank] < 0) {
+            throw new IOException("Event has no " + strongestEvLogHashAlgName
+                    + " digest; possibly corrupt byte file.");
+        }
+        for (int bank = 0; bank < digestOffsets.length; bank++) {
+            int offset = digestOffsets[bank];
+            if (offset < 0) {
+                pcrBanks.drop(bank, eventCount);
+                continue;
+            }
+            digestView.limit(offset + pcrBanks.getPcrLength(bank)).position(offset);
+            pcrBanks.extend(bank, event.getPcrIndex(), digestView);
+        }
+        if (event.getPcrIndex() == 0) {
+            pcr0Extended = true;
+        }
+    }
+
+    private boolean hasSignature(final TcgEventView event, final byte[] signature) {
+        if (event.getEventType() != EvConstants.EV_NO_ACTION || event.getContentLength() < signature.length) {
+            return false;
+        }
+        return event.getContent().slice(0, signature.length).equals(ByteBuffer.wrap(signature));
+    }
+
+    private void checkPcrIndex(final int pcrIndex, final long eventType) throws IOException {
+        // EV_NO_ACTION can have PCR index outside of this range
+        if (eventType != EvConstants.EV_NO_ACTION
+                && (pcrIndex < TpmPcrEvent.PCR_INDEX_MIN || pcrIndex > TpmPcrEvent.PCR_INDEX_MAX)) {
+            throw new IOException("PCR Index out of range; possibly corrupt byte file.");
+        }
+    }
+
+    private void checkEventSize(final int contentOffset, final int eventSize) throws IOException {
+        if (eventSize < 0 || eventSize > buffer.limit() - contentOffset) {
+            throw new IOException("Event size is not valid; possibly corrupt byte file.");
+        }
+    }
+
+    private void require(final int offset, final int length) throws IOException {
+        if (length > buffer.limit() - offset) {
+            throw new IOException("Event #" + eventCount + " is truncated; possibly corrupt byte file.");
+        }
+    }
+}
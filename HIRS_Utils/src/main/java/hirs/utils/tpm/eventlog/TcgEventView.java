@@ -0,0 +1,256 @@
+package hirs.utils.tpm.eventlog;
+
+import hirs.utils.tpm.eventlog.uefi.UefiConstants;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Lightweight view of a single event read by a {@link TcgEventLogReader}.
+ * <p>
+ * A view only records where the event's fields are located in the log buffer; nothing is copied
+ * or decoded while the log is read. The header, digests and content are sliced from the buffer
+ * when requested, and the human-readable decoding of the content is only done by
+ * {@link #toTpmPcrEvent()}. Views stay valid for as long as the underlying buffer is.
+ */
+public final class TcgEventView {
+
+    /**
+     * Log format of TCG_PCR_EVENT (SHA1) events.
+     */
+    public static final int SHA1_FORMAT = 1;
+
+    /**
+     * Log format of TCG_PCR_EVENT2 (crypto agile) events.
+     */
+    public static final int CRYPTO_AGILE_FORMAT = 2;
+
+    /**
+     * Offset of the TPML_DIGEST_VALUES list within a TCG_PCR_EVENT2 header.
+     */
+    private static final int DIGEST_LIST_OFFSET = UefiConstants.SIZE_12;
+
+    /**
+     * Size of the algorithm id preceding each digest of a TCG_PCR_EVENT2.
+     */
+    private static final int ALG_ID_SIZE = UefiConstants.SIZE_2;
+
+    private final ByteBuffer buffer;
+
+    private final int logFormat;
+
+    private final int eventNumber;
+
+    private final int pcrIndex;
+
+    private final long eventType;
+
+    private final int headerOffset;
+
+    private final int headerLength;
+
+    private final int digestCount;
+
+    private final int strongestDigestOffset;
+
+    private final int strongestDigestLength;
+
+    private final int contentLength;
+
+    /**
+     * Constructor.
+     *
+     * @param buffer                the read-only log buffer the offsets refer to
+     * @param logFormat             {@link #SHA1_FORMAT} or {@link #CRYPTO_AGILE_FORMAT}
+     * @param eventNumber           event position within the event log
+     * @param pcrIndex              PCR index of the event
+     * @param eventType             event type
+     * @param headerOffset          offset of the event header
+     * @param headerLength          length of the event header, up to and including the event size
+     * @param digestCount           number of digests in the header
+     * @param strongestDigestOffset offset of the digest of the strongest algorithm, or -1 if absent
+     * @param strongestDigestLength length of the digest of the strongest algorithm
+     * @param contentLength         length of the event content following the header
+     */
+    TcgEventView(final ByteBuffer buffer, final int logFormat, final int eventNumber,
+                 final int pcrIndex, final long eventType,
+                 final int headerOffset, final int headerLength, final int digestCount,
+                 final int strongestDigestOffset, final int strongestDigestLength,
+                 final int contentLength) {
+        this.buffer = buffer;
+        this.logFormat = logFormat;
+        this.eventNumber = eventNumber;
+        this.pcrIndex = pcrIndex;
+        this.eventType = eventType;
+        this.headerOffset = headerOffset;
+        this.headerLength = headerLength;
+        this.digestCount = digestCount;
+        this.strongestDigestOffset = strongestDigestOffset;
+        this.strongestDigestLength = strongestDigestLength;
+        this.contentLength = contentLength;
+    }
+
+    /**
+     * Returns the log format of the event.
+     *
+     * @return {@link #SHA1_FORMAT} or {@link #CRYPTO_AGILE_FORMAT}
+     */
+    public int getLogFormat() {
+        return logFormat;
+    }
+
+    /**
+     * Returns the position of the event within the event log.
+     *
+     * @return event number, starting at 0
+     */
+    public int getEventNumber() {
+        return eventNumber;
+    }
+
+    /**
+     * Returns the PCR index of the event. EV_NO_ACTION events may use an index outside of the
+     * PCR range, such as -1.
+     *
+     * @return PCR index
+     */
+    public int getPcrIndex() {
+        return pcrIndex;
+    }
+
+    /**
+     * Returns the event type, as defined in the PC Client Platform Firmware Profile.
+     *
+     * @return event type
+     */
+    public long getEventType() {
+        return eventType;
+    }
+
+    /**
+     * Returns the event header, from the PCR index up to and including the event size.
+     *
+     * @return read-only little endian slice of the log
+     */
+    public ByteBuffer getHeader() {
+        return slice(headerOffset, headerLength);
+    }
+
+    /**
+     * Returns the length of the event header.
+     *
+     * @return header length in bytes
+     */
+    public int getHeaderLength() {
+        return headerLength;
+    }
+
+    /**
+     * Returns a copy of the event header.
+     *
+     * @return event header bytes
+     */
+    public byte[] getHeaderBytes() {
+        return copy(headerOffset, headerLength);
+    }
+
+    /**
+     * Returns the length of the event content.
+     *
+     * @return content length in bytes
+     */
+    public int getContentLength() {
+        return contentLength;
+    }
+
+    /**
+     * Returns the event content, without decoding it.
+     *
+     * @return read-only little endian slice of the log
+     */
+    public ByteBuffer getContent() {
+        return slice(headerOffset + headerLength, contentLength);
+    }
+
+    /**
+     * Returns a copy of the event content.
+     *
+     * @return event content bytes
+     */
+    public byte[] getContentBytes() {
+        return copy(headerOffset + headerLength, contentLength);
+    }
+
+    /**
+     * Indicates whether the event holds a digest for the strongest algorithm of the log.
+     *
+     * @return true if the strongest digest is present
+     */
+    public boolean hasStrongestDigest() {
+        return strongestDigestOffset >= 0;
+    }
+
+    /**
+     * Returns the digest computed with the strongest algorithm used in the log.
+     *
+     * @return read-only slice of the log, or null if the event doesn't hold that digest
+     */
+    public ByteBuffer getStrongestDigest() {
+        return hasStrongestDigest() ? slice(strongestDigestOffset, strongestDigestLength) : null;
+    }
+
+    /**
+     * Returns a copy of the digest computed with the strongest algorithm used in the log.
+     *
+     * @return digest bytes, or null if the event doesn't hold that digest
+     */
+    public byte[] getStrongestDigestBytes() {
+        return hasStrongestDigest() ? copy(strongestDigestOffset, strongestDigestLength) : null;
+    }
+
+    /**
+     * Decodes all digests held by the event.
+     *
+     * @return list of digests, in the order they appear in the event
+     */
+    public List<EventDigest> getDigests() {
+        if (logFormat == SHA1_FORMAT) {
+            return Collections.singletonList(new EventDigest(TcgTpmtHa.TPM_ALG_SHA1_STR,
+                    copy(strongestDigestOffset, strongestDigestLength)));
+        }
+        List<EventDigest> digests = new ArrayList<>(digestCount);
+        int offset = headerOffset + DIGEST_LIST_OFFSET;
+        for (int i = 0; i < digestCount; i++) {
+            int algId = Short.toUnsignedInt(buffer.getShort(offset));
+            int length = TcgTpmtHa.tcgAlgLength(algId);
+            digests.add(new EventDigest(TcgTpmtHa.tcgAlgIdToString(algId), copy(offset + ALG_ID_SIZE, length)));
+            offset += ALG_ID_SIZE + length;
+        }
+        return digests;
+    }
+
+    /**
+     * Fully decodes the event, including the human-readable description of its content.
+     *
+     * @return a {@link TpmPcrEvent1} or {@link TpmPcrEvent2}, depending on the log format
+     */
+    public TpmPcrEvent toTpmPcrEvent() {
+        if (logFormat == SHA1_FORMAT) {
+            return new TpmPcrEvent1(this);
+        }
+        return new TpmPcrEvent2(this);
+    }
+
+    private ByteBuffer slice(final int offset, final int length) {
+        return buffer.slice(offset, length).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private byte[] copy(final int offset, final int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(offset, bytes);
+        return bytes;
+    }
+}
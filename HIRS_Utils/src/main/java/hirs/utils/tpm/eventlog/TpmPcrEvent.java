@@ -1,6 +1,5 @@
 package hirs.utils.tpm.eventlog;
 
-import hirs.utils.HexUtils;
 import hirs.utils.tpm.eventlog.events.EvCompactHash;
 import hirs.utils.tpm.eventlog.events.EvConstants;
 import hirs.utils.tpm.eventlog.events.EvEfiBootServicesApp;
@@ -24,10 +23,8 @@ import lombok.Setter;
 import lombok.extern.log4j.Log4j2;
 import org.apache.commons.codec.binary.Hex;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
-import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -71,8 +68,17 @@ public class TpmPcrEvent {
     protected final ArrayList<EventDigest> hashListFromEvent = new ArrayList<>();
     /**
      * Description for toString support.
+     * Only built from the event content when first requested, see {@link #toString()}.
      */
     protected String description = "";
+    /**
+     * True once the event content has been decoded into the description.
+     */
+    private boolean contentDecoded = false;
+    /**
+     * Human-readable event content, built when first requested by {@link #getEventContentStr()}.
+     */
+    private String eventContentStr = null;
     /**
      * Log format. SHA1=1, Crytpo agile=2.
      * this can be refactored out
@@ -105,29 +111,26 @@ public class TpmPcrEvent {
     /**
      * TCG Event Log spec version.
      */
-    @Getter
     private String specVersion = "Unknown";
     /**
      * TCG Event Log errata version.
      */
-    @Getter
     private String specErrataVersion = "Unknown";
     /**
      * True of the event is a EV_NO_ACTION SpecID event.
      */
-    @Getter
     private boolean isNoActionSpecIdEvent = false;
     /**
      * True of the event is a EV_NO_ACTION StartupLocality event.
      */
-    @Getter
     private boolean isStartupLocalityEvent = false;
     @Getter
     @Setter
     private int eventNumber;
 
-    @Getter
-    @Setter
+    /**
+     * True if the event content can't be decoded, or if the event was flagged by {@link #setError(boolean)}.
+     */
     private boolean error = false;
 
 //    /**
@@ -141,16 +144,25 @@ public class TpmPcrEvent {
      * Track status of pci.ids file.
      * See TCGEventLog for more detail.
      */
-    @Getter
     private String pciidsFileStatus = FILESTATUS_FROM_FILESYSTEM;
 
     /**
      * Constructor.
+     * Copies the fields of an event read by a {@link TcgEventLogReader}. The event content is
+     * not decoded here: validation only needs the PCR index, event type and digests, so the
+     * human-readable description is built the first time it is requested.
      *
-     * @param baIs ByteArrayInputStream holding the event
-     */
-    public TpmPcrEvent(final ByteArrayInputStream baIs) {
-
+     * @param view        the event, as read from the log
+     * @param eventHeader the event header to report for this event
+     */
+    protected TpmPcrEvent(final TcgEventView view, final byte[] eventHeader) {
+        this.eventType = view.getEventType();
+        this.pcrIndex = view.getPcrIndex();
+        this.eventNumber = view.getEventNumber();
+        this.eventHeader = eventHeader;
+        this.eventContent = view.getContentBytes();
+        this.strongestDigest = view.getStrongestDigestBytes();
+        hashListFromEvent.addAll(view.getDigests());
     }
 
     /**
@@ -241,6 +253,83 @@ public class TpmPcrEvent {
         }
     }
 
+    /**
+     * Returns the TCG Event Log spec version, held by the EV_NO_ACTION SpecID event.
+     *
+     * @return the spec version, or Unknown for other events
+     */
+    public String getSpecVersion() {
+        decodeNoActionContent();
+        return specVersion;
+    }
+
+    /**
+     * Returns the TCG Event Log errata version, held by the EV_NO_ACTION SpecID event.
+     *
+     * @return the errata version, or Unknown for other events
+     */
+    public String getSpecErrataVersion() {
+        decodeNoActionContent();
+        return specErrataVersion;
+    }
+
+    /**
+     * Indicates whether the event is a EV_NO_ACTION SpecID event.
+     *
+     * @return true if the event is a SpecID event
+     */
+    public boolean isNoActionSpecIdEvent() {
+        decodeNoActionContent();
+        return isNoActionSpecIdEvent;
+    }
+
+    /**
+     * Indicates whether the event is a EV_NO_ACTION StartupLocality event.
+     *
+     * @return true if the event is a StartupLocality event
+     */
+    public boolean isStartupLocalityEvent() {
+        decodeNoActionContent();
+        return isStartupLocalityEvent;
+    }
+
+    /**
+     * Returns the status of the pci.ids file, which is only looked up by EV_NO_ACTION and SPDM events.
+     *
+     * @return the pci.ids file status
+     */
+    public String getPciidsFileStatus() {
+        final int eventId = (int) eventType;
+        if (eventId == EvConstants.EV_EFI_SPDM_FIRMWARE_BLOB
+                || eventId == EvConstants.EV_EFI_SPDM_FIRMWARE_CONFIG) {
+            decodeContent();
+        }
+        decodeNoActionContent();
+        return pciidsFileStatus;
+    }
+
+    /**
+     * Indicates whether the event is in error: its content can't be decoded, or it was flagged as such.
+     * The content is decoded first if this wasn't done yet, so that decode failures are reported.
+     *
+     * @return true if the event is in error
+     */
+    public synchronized boolean isError() {
+        decodeContent();
+        return error;
+    }
+
+    /**
+     * Flags the event as being in error or not. The content is decoded first if this wasn't done yet,
+     * so that the flag isn't overwritten by a later decode.
+     *
+     * @param error true if the event is in error
+     */
+    public synchronized void setError(final boolean error) {
+        decodeContent();
+        this.error = error;
+    }
+
     /**
      * Retrieves the digest from a TCG Event.
      * This can be SHA1 for older event structures or any algorithm for newer structure.
@@ -274,38 +363,6 @@ public class TpmPcrEvent {
         return Hex.encodeHexString(strongestDigest);
     }
 
-    /**
-     * Sets the event PCR index value from a TCG Event.
-     *
-     * @param eventPcrIndex TCG Event PCR Index as defined in the PFP
-     * @return whether the PCR index was in proper range
-     */
-    protected boolean setPcrIndex(final byte[] eventPcrIndex) {
-        int pcrIndexIn = HexUtils.leReverseInt(eventPcrIndex);
-
-        //if eventType doesn't exist yet, cannot check PCR Index range
-        if (eventType == -1) {
-            return false;
-        }
-
-        // if event is any type other than 3 (EV_NO_ACTION) check PCR Index range
-        // EV_NO_ACTION can have PCR index outside of this range
-        if ((eventType != EvConstants.EV_NO_ACTION) && ((pcrIndexIn < PCR_INDEX_MIN) || (pcrIndexIn > PCR_INDEX_MAX))) {
-            return false;
-        }
-        pcrIndex = pcrIndexIn;
-        return true;
-    }
-
-    /**
-     * Sets the EventType.
-     *
-     * @param type byte array holding the PFP defined log event type
-     */
-    protected void setEventType(final byte[] type) {
-        eventType = new BigInteger(1, HexUtils.leReverseByte(type)).longValue();
-    }
-
     /**
      * Returns a formatted string of the type for the event.
      *
@@ -364,11 +421,23 @@ public class TpmPcrEvent {
 
     /**
      * A getter that parses the content based on the type and returns the proper string
-     * value for the content.
+     * value for the content. The content is only parsed on the first call.
      *
      * @return an appended string of human-readable data
      */
     public String getEventContentStr() {
+        if (eventContentStr == null) {
+            eventContentStr = parseEventContentStr();
+        }
+        return eventContentStr;
+    }
+
+    /**
+     * Parses the content based on the type into a human-readable string.
+     *
+     * @return an appended string of human-readable data
+     */
+    private String parseEventContentStr() {
         StringBuilder sb = new StringBuilder();
 
         switch ((int) this.eventType) {
@@ -612,6 +681,47 @@ public class TpmPcrEvent {
         }
     }
 
+    /**
+     * Decodes the event content into the human-readable description, unless this was already done.
+     * If the event content cannot be processed, this is not fatal; the error is logged and the
+     * event is flagged as being in error.
+     */
+    private synchronized void decodeContent() {
+        if (contentDecoded) {
+            return;
+        }
+        contentDecoded = true;
+        try {
+            this.processEvent(eventContent, eventNumber);
+        } catch (Exception e) {
+            String errorStr = "Error parsing event #" + eventNumber + ", Event Type: 0x"
+                    + Long.toHexString(eventType) + " " + eventString((int) eventType)
+                    + ", Index PCR[" + ((pcrIndex == -1) ? "N/A" : pcrIndex) + "]";
+            log.error(errorStr, e);
+            error = true;
+        }
+        description += getDigestDescription();
+    }
+
+    /**
+     * Decodes the event content if this is a EV_NO_ACTION event, whose content tells
+     * the spec version and whether it is a SpecID or StartupLocality event.
+     */
+    private void decodeNoActionContent() {
+        if (eventType == EvConstants.EV_NO_ACTION) {
+            decodeContent();
+        }
+    }
+
+    /**
+     * Returns the human-readable digests of the event, appended to its description.
+     *
+     * @return the digests description
+     */
+    protected String getDigestDescription() {
+        return "";
+    }
+
     /**
      * This method takes in an event and compares the hashes to verify that they match.
      *
@@ -647,6 +757,7 @@ public class TpmPcrEvent {
      * @return Description of the log.
      */
     public String toString() {
+        decodeContent();
         return description;
     }
 
@@ -662,7 +773,7 @@ public class TpmPcrEvent {
         StringBuilder sb = new StringBuilder();
         // add event human-readable description
         if (bEvent) {
-            sb.append(description);
+            sb.append(this);
         }
         // add hex of event header
         if (bHexEventHeader) {
@@ -1,13 +1,9 @@
 package hirs.utils.tpm.eventlog;
 
-import hirs.utils.HexUtils;
 import hirs.utils.tpm.eventlog.uefi.UefiConstants;
-import lombok.extern.log4j.Log4j2;
 import org.apache.commons.codec.binary.Hex;
 
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
-import java.util.ArrayList;
+import java.nio.ByteBuffer;
 
 /**
  * Class to process a TCG_PCR_EVENT2 which is used
@@ -54,126 +50,57 @@ import java.util.ArrayList;
  * define TPM_ALG_SHA384         (TPM_ALG_ID)(0x000C)
  * define TPM_ALG_SHA512         (TPM_ALG_ID)(0x000D)
  */
-@Log4j2
 public class TpmPcrEvent2 extends TpmPcrEvent {
 
+    /**
+     * Offset of the first TPMT_HA in the event: pcrIndex + eventType + digest count.
+     */
+    private static final int DIGESTS_OFFSET = UefiConstants.SIZE_12;
+
     /**
      * Constructor.
      *
-     * @param is                        ByteArrayInputStream holding the TCG Log event
-     * @param logFileBytesRemaining     number of bytes remaining in log file (for error checking)
-     * @param eventNumber               event position within the event log
-     * @param strongestAlg              name of strongest hash algorithm used in the log
-     * @throws java.io.IOException                     if an error occurs in parsing the event
+     * @param view the TCG_PCR_EVENT2, as read by a {@link TcgEventLogReader}
      */
-    public TpmPcrEvent2(final ByteArrayInputStream is, final long logFileBytesRemaining,
-                        final int eventNumber, final String strongestAlg)
-            throws IOException {
-
-        super(is);
+    public TpmPcrEvent2(final TcgEventView view) {
+        super(view, legacyHeader(view));
         setLogFormat(2);
+    }
 
-        // Event data.
-        String hashName = "";
-        byte[] eventHeader;
-        byte[] rawIndex = new byte[UefiConstants.SIZE_4];
-        byte[] algCountBytes = new byte[UefiConstants.SIZE_4];
-        byte[] rawType = new byte[UefiConstants.SIZE_4];
-        byte[] rawEventSize = new byte[UefiConstants.SIZE_4];
-        byte[] eventDigest = null;
-        byte[] eventContent = null;
-        TcgTpmtHa hashAlg = null;
-        int eventSize = 0;
-
-        //TCG_PCR_EVENT2
-        if (is.available() > UefiConstants.SIZE_32) {
-
-            // read PCR index
-            is.read(rawIndex);
-
-            // read event type
-            is.read(rawType);
-            setEventType(rawType);
-            String eventTypeStr = "Event Type: 0x" + Long.toHexString(getEventType()) + " "
-                    + eventString((int) getEventType());
-
-            // set PCR index (will need event type to run the index check)
-            if (!setPcrIndex(rawIndex)) {
-                throw new IOException("PCR Index out of range; possibly corrupt byte file.");
-            }
-            String pcrIndexStr = "Index PCR[" + ((getPcrIndex() == -1) ? "N/A" : getPcrIndex()) + "]";
-
-            // read TPML_DIGEST_VALUES (algCount should match 'numberOfAlgorithms' in Spec ID event)
-            is.read(algCountBytes);
-            int algCount = HexUtils.leReverseInt(algCountBytes);
-            if (algCount < 0) {
-                throw new IOException("Number of digests is a negative value; possibly corrupt byte file.");
-            }
-
-            // Process TPMT_HA
-            ArrayList<TcgTpmtHa> hashList = new ArrayList<>();
-            for (int i = 0; i < algCount; i++) {
-                try {
-                    hashAlg = new TcgTpmtHa(is);
-                } catch (IOException io) {
-                    throw new IOException("Issue reading hash algorithm and digests; possibly corrupt byte file.", io);
-                }
-                hashName = hashAlg.getHashName();
-                eventDigest = new byte[hashAlg.getHashLength()];
-                hashList.add(hashAlg);
-                hashListFromEvent.add(new EventDigest(hashName, eventDigest));
-                if (hashName.compareTo(strongestAlg) == 0) {
-                    setEventStrongestDigest(hashAlg.getDigest());
-                }
-            }
-
-            // track event header length
-            int eventHeaderLength = rawIndex.length + rawType.length + rawEventSize.length;
-            for (TcgTpmtHa hash : hashList) {
-                eventHeaderLength += hash.getBuffer().length;
-            }
-
-            // read event size (size of event content)
-            is.read(rawEventSize);
-            eventSize = HexUtils.leReverseInt(rawEventSize);
-            if ((eventSize < 0) || (eventSize > (logFileBytesRemaining - eventHeaderLength))) {
-                throw new IOException("Event size is not valid; possibly corrupt byte file.");
-            }
-
-            // copy entire event header into a byte array for processing
-            int offset = 0;
-            eventHeader = new byte[eventHeaderLength];
-            System.arraycopy(rawIndex, 0, eventHeader, offset, rawIndex.length);
-            offset += rawIndex.length;
-            System.arraycopy(rawType, 0, eventHeader, offset, rawType.length);
-            offset += rawType.length;
-            System.arraycopy(rawEventSize, 0, eventHeader, offset, rawEventSize.length);
-            offset += rawEventSize.length;
-            for (TcgTpmtHa hash : hashList) {
-                System.arraycopy(hash.getBuffer(), 0, eventHeader, offset, hash.getBuffer().length);
-                offset += hash.getBuffer().length;
-            }
-            setEventHeader(eventHeader);
-
-            // if event content cannot be processed, this is not fatal; log error and continue with attestation
-            try {
-                // read event content
-                eventContent = new byte[eventSize];
-                is.read(eventContent);
-                setEventContent(eventContent);
-
-                this.processEvent(eventContent, eventNumber);
-            } catch (RuntimeException r) {
-                throw r;
-            } catch (Exception e) {
-                String error = "Error parsing event #" + eventNumber + ", " + eventTypeStr + ", " + pcrIndexStr;
-                log.error(error, e);
-            }
-
-            for (int i = 0; i < algCount; i++) {
-                description += "\ndigest (" + hashList.get(i).getHashName() + "): "
-                        + Hex.encodeHexString(hashList.get(i).getDigest());
-            }
+    /**
+     * Returns each digest of the event, appended to its description.
+     *
+     * @return the digests description
+     */
+    @Override
+    protected String getDigestDescription() {
+        StringBuilder sb = new StringBuilder();
+        for (EventDigest digest : hashListFromEvent) {
+            sb.append("\ndigest (").append(digest.getHashName()).append("): ")
+                    .append(Hex.encodeHexString(digest.getDigest()));
         }
+        return sb.toString();
+    }
+
+    /**
+     * Rebuilds the event header in the order this class has always reported it:
+     * pcrIndex + eventType + eventSize + digests, each digest being a TPMT_HA.
+     * The digest count is not included.
+     *
+     * @param view the TCG_PCR_EVENT2
+     * @return the event header
+     */
+    private static byte[] legacyHeader(final TcgEventView view) {
+        ByteBuffer header = view.getHeader();
+        int digestsLength = view.getHeaderLength() - DIGESTS_OFFSET - UefiConstants.SIZE_4;
+        byte[] eventHeader = new byte[view.getHeaderLength() - UefiConstants.SIZE_4];
+        // pcrIndex + eventType
+        header.get(0, eventHeader, 0, UefiConstants.SIZE_8);
+        // eventSize
+        header.get(view.getHeaderLength() - UefiConstants.SIZE_4, eventHeader, UefiConstants.SIZE_8,
+                UefiConstants.SIZE_4);
+        // TPMT_HA digests
+        header.get(DIGESTS_OFFSET, eventHeader, UefiConstants.SIZE_12, digestsLength);
+        return eventHeader;
     }
 }
@@ -1,10 +1,7 @@
 package hirs.utils.tpm.eventlog.uefi;
 
-import com.eclipsesource.json.JsonObject;
-import hirs.utils.HexUtils;
-import hirs.utils.JsonUtils;
-import java.math.BigInteger;
-import java.nio.file.FileSystems;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.file.Path;
 import java.util.UUID;
 
@@ -21,19 +18,6 @@ public class UefiGuid {
      * used for conversion to uuid time.
      */
     private static final int UUID_EPOCH_DIVISOR = 10000;
-    /**
-     * Filesystem path of vendor-table.json.
-     */
-    private static final Path JSON_PATH = FileSystems.getDefault().getPath("/etc",
-            "hirs", "aca", "default-properties", "vendor-table.json");
-    /**
-     * Name of vendor-table file in code.
-     */
-    private static final String JSON_FILENAME = "vendor-table.json";
-    /**
-     * Reference to the vendor-table json object.
-     */
-    private JsonObject uefiVendorRef;
 //    /**
 //     * Track status of vendor-table.json file.
 //     */
@@ -55,11 +39,13 @@ public class UefiGuid {
      * @param guidBytes byte array holding a valid guid.
      */
     public UefiGuid(final byte[] guidBytes) {
-        this(guidBytes, JSON_PATH);
+        this(guidBytes, UefiVendorTable.FILESYSTEM_PATH);
     }
 
     /**
      * UefiGUID constructor.
+     * Vendor names are looked up in the process-wide {@link UefiVendorTable}; use
+     * {@link UefiVendorTable#reload(Path)} to load a different guid table.
      *
      * @param guidBytes        byte array holding a valid guid.
      * @param guidTablePathStr string path for json guidtable file
@@ -68,18 +54,6 @@ public class UefiGuid {
         guid = new byte[UefiConstants.SIZE_16];
         System.arraycopy(guidBytes, 0, guid, 0, UefiConstants.SIZE_16);
         uuid = processGuid(guidBytes);
-//        uefiVendorRef = JsonUtils.getSpecificJsonObject(guidTablePathStr,
-//                "VendorTable");
-
-//        if (!isVendorTableReferenceHandleEmpty()) {
-//            guidTableFileStatus = UefiConstants.FILESTATUS_FROM_FILESYSTEM;
-//        } else {
-            // could not access vendor-table.json from filesystem, so attempt to access from code
-            uefiVendorRef = JsonUtils.getSpecificJsonObject(JSON_FILENAME, "VendorTable");
-//            if (!isVendorTableReferenceHandleEmpty()) {
-//                guidTableFileStatus = UefiConstants.FILESTATUS_FROM_CODE;
-//            }
-//        }
     }
 
     /**
@@ -91,22 +65,13 @@ public class UefiGuid {
      * @return UUID processed from the passed in guid
      */
     private static UUID processGuid(final byte[] guid) {
-        byte[] msb1 = new byte[UefiConstants.SIZE_4];
-        System.arraycopy(guid, 0, msb1, 0, UefiConstants.SIZE_4);
-        byte[] msb1r = HexUtils.leReverseByte(msb1);
-        byte[] msb2 = new byte[UefiConstants.SIZE_4];
-        System.arraycopy(guid, UefiConstants.OFFSET_4, msb2, 0, UefiConstants.SIZE_4);
-        byte[] msb2r = HexUtils.leReverseByte(msb2);
-        byte[] msb2rs = new byte[UefiConstants.SIZE_4];
-        System.arraycopy(msb2r, 0, msb2rs, UefiConstants.OFFSET_2, UefiConstants.SIZE_2);
-        System.arraycopy(msb2r, UefiConstants.OFFSET_2, msb2rs, 0, UefiConstants.SIZE_2);
-        byte[] msbt = new byte[UefiConstants.SIZE_8];
-        System.arraycopy(msb1r, 0, msbt, 0, UefiConstants.SIZE_4);
-        System.arraycopy(msb2rs, 0, msbt, UefiConstants.OFFSET_4, UefiConstants.SIZE_4);
-        long msbl = new BigInteger(msbt).longValue();
-        byte[] lsb = new byte[UefiConstants.SIZE_8];
-        System.arraycopy(guid, UefiConstants.OFFSET_8, lsb, 0, UefiConstants.SIZE_8);
-        long lsbl = new BigInteger(lsb).longValue();
+        // Data1, Data2 and Data3 are little endian, Data4 is a plain byte array
+        ByteBuffer buffer = ByteBuffer.wrap(guid, 0, UefiConstants.SIZE_16).order(ByteOrder.LITTLE_ENDIAN);
+        long data1 = Integer.toUnsignedLong(buffer.getInt());
+        long data2 = Short.toUnsignedLong(buffer.getShort());
+        long data3 = Short.toUnsignedLong(buffer.getShort());
+        long msbl = (data1 << Integer.SIZE) | (data2 << Short.SIZE) | data3;
+        long lsbl = buffer.order(ByteOrder.BIG_ENDIAN).getLong();
         return new UUID(msbl, lsbl);
     }
 
@@ -142,7 +107,7 @@ public class UefiGuid {
      * @return true if the reference to the file handle needed to look up the UUID is empty
      */
     public boolean isVendorTableReferenceHandleEmpty() {
-        return uefiVendorRef.isEmpty();
+        return UefiVendorTable.getInstance().isEmpty();
     }
 
     /**
@@ -156,7 +121,7 @@ public class UefiGuid {
      * @return A String of major UUID parameters
      */
     public String getVendorTableReference() {
-        return getVendorTableReference(uuid.toString().toLowerCase());
+        return UefiVendorTable.getInstance().lookup(uuid);
     }
 
     /**
@@ -172,7 +137,7 @@ public class UefiGuid {
      * @return A String of major UUID parameters
      */
     public String getVendorTableReference(final String lookupValue) {
-        return uefiVendorRef.getString(lookupValue, "Unknown GUID reference");
+        return UefiVendorTable.getInstance().lookup(lookupValue);
     }
 
     /**
@@ -210,7 +175,7 @@ public class UefiGuid {
      * @return true if the uuid is the Empty UUID, false if not
      */
     public boolean isUnknownUUID() {
-        return getVendorTableReference().equals("Unknown GUID reference");
+        return getVendorTableReference().equals(UefiVendorTable.UNKNOWN_GUID_REFERENCE);
     }
 
     /**
@@ -0,0 +1,256 @@
+package hirs.utils.tpm.eventlog.uefi;
+
+import com.eclipsesource.json.JsonObject;
+import hirs.utils.JsonUtils;
+import lombok.extern.log4j.Log4j2;
+
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.util.UUID;
+
+/**
+ * Immutable index of the GUID to vendor name mappings found in vendor-table.json.
+ * The table is parsed once per process and shared by every {@link UefiGuid}, instead of
+ * re-reading the JSON file for each GUID found in an event log. GUIDs are stored as their
+ * two 64-bit halves in an open addressing hash table, so a lookup neither allocates nor
+ * formats the GUID as a string.
+ * The table is loaded from the classpath copy of vendor-table.json on first use and can be
+ * replaced with the copy in /etc/hirs/aca/default-properties by calling {@link #reload()}.
+ */
+@Log4j2
+public final class UefiVendorTable {
+    /**
+     * Value returned when a GUID is not listed in the vendor table.
+     */
+    public static final String UNKNOWN_GUID_REFERENCE = "Unknown GUID reference";
+    /**
+     * Filesystem path of vendor-table.json.
+     */
+    public static final Path FILESYSTEM_PATH = FileSystems.getDefault().getPath("/etc",
+            "hirs", "aca", "default-properties", "vendor-table.json");
+    /**
+     * Name of vendor-table file in code.
+     */
+    private static final String JSON_FILENAME = "vendor-table.json";
+    /**
+     * Name of the JSON element holding the GUID mappings.
+     */
+    private static final String VENDOR_TABLE_ELEMENT = "VendorTable";
+    /**
+     * Multiplier used to spread the GUID bits across the table (golden ratio).
+     */
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+    /**
+     * Number of bits to shift when folding the 64-bit hash into an int.
+     */
+    private static final int HASH_FOLD_SHIFT = 32;
+    /**
+     * Smallest table capacity.
+     */
+    private static final int MIN_CAPACITY = 16;
+
+    /**
+     * Table in use by the current process, loaded on first use.
+     */
+    private static volatile UefiVendorTable instance;
+
+    private final long[] mostSigBits;
+    private final long[] leastSigBits;
+    private final String[] names;
+    private final int mask;
+    private final int size;
+
+    /**
+     * Builds the index from the "VendorTable" element of vendor-table.json.
+     * Only keys written as canonical lower case GUIDs are indexed; comments and
+     * other keys can never be matched by a GUID lookup and are skipped.
+     *
+     * @param vendorTable the JSON object mapping GUID strings to names
+     */
+    private UefiVendorTable(final JsonObject vendorTable) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < vendorTable.size() * 2) {
+            capacity <<= 1;
+        }
+        mostSigBits = new long[capacity];
+        leastSigBits = new long[capacity];
+        names = new String[capacity];
+        mask = capacity - 1;
+
+        int count = 0;
+        for (JsonObject.Member member : vendorTable) {
+            UUID key = parseCanonicalGuid(member.getName());
+            if (key == null || !member.getValue().isString()) {
+                continue;
+            }
+            if (insert(key.getMostSignificantBits(), key.getLeastSignificantBits(),
+                    member.getValue().asString())) {
+                count++;
+            }
+        }
+        size = count;
+    }
+
+    /**
+     * Returns the vendor table in use by this process, loading it from the classpath
+     * the first time it is requested.
+     *
+     * @return the shared vendor table
+     */
+    public static UefiVendorTable getInstance() {
+        UefiVendorTable table = instance;
+        if (table == null) {
+            synchronized (UefiVendorTable.class) {
+                table = instance;
+                if (table == null) {
+                    table = new UefiVendorTable(
+                            JsonUtils.getSpecificJsonObject(JSON_FILENAME, VENDOR_TABLE_ELEMENT));
+                    if (table.isEmpty()) {
+                        log.warn("Could not load {} from the classpath, GUIDs will not be resolved",
+                                JSON_FILENAME);
+                    }
+                    instance = table;
+                }
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Replaces the shared vendor table with the one found at
+     * /etc/hirs/aca/default-properties/vendor-table.json.
+     *
+     * @return the vendor table in use after the reload
+     */
+    public static UefiVendorTable reload() {
+        return reload(FILESYSTEM_PATH);
+    }
+
+    /**
+     * Replaces the shared vendor table with the one found at the given path. If the file
+     * can't be read or holds no GUIDs, the table currently in use is kept.
+     *
+     * @param jsonPath path of a vendor-table.json file
+     * @return the vendor table in use after the reload
+     */
+    public static UefiVendorTable reload(final Path jsonPath) {
+        UefiVendorTable table = load(jsonPath);
+        if (table.isEmpty()) {
+            log.warn("No GUIDs were loaded from {}, keeping the current vendor table", jsonPath);
+            return getInstance();
+        }
+        synchronized (UefiVendorTable.class) {
+            instance = table;
+        }
+        log.info("Loaded {} GUIDs from {}", table.size(), jsonPath);
+        return table;
+    }
+
+    /**
+     * Parses a vendor-table.json file into a new table without changing the shared table.
+     *
+     * @param jsonPath path of a vendor-table.json file
+     * @return the parsed vendor table, empty if the file could not be read
+     */
+    public static UefiVendorTable load(final Path jsonPath) {
+        return new UefiVendorTable(JsonUtils.getSpecificJsonObject(jsonPath, VENDOR_TABLE_ELEMENT));
+    }
+
+    /**
+     * Looks up the vendor name of a GUID.
+     *
+     * @param guid the GUID to look up
+     * @return the vendor name, or {@link #UNKNOWN_GUID_REFERENCE} if the GUID is not listed
+     */
+    public String lookup(final UUID guid) {
+        return lookup(guid.getMostSignificantBits(), guid.getLeastSignificantBits());
+    }
+
+    /**
+     * Looks up the vendor name of a GUID given as its two 64-bit halves.
+     *
+     * @param msb most significant 64 bits of the GUID
+     * @param lsb least significant 64 bits of the GUID
+     * @return the vendor name, or {@link #UNKNOWN_GUID_REFERENCE} if the GUID is not listed
+     */
+    public String lookup(final long msb, final long lsb) {
+        int slot = slotOf(msb, lsb);
+        while (names[slot] != null) {
+            if (mostSigBits[slot] == msb && leastSigBits[slot] == lsb) {
+                return names[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return UNKNOWN_GUID_REFERENCE;
+    }
+
+    /**
+     * Looks up the vendor name of a GUID string. As with the JSON file, only canonical
+     * lower case GUID strings are matched.
+     *
+     * @param guid the GUID string to look up
+     * @return the vendor name, or {@link #UNKNOWN_GUID_REFERENCE} if the GUID is not listed
+     */
+    public String lookup(final String guid) {
+        UUID key = parseCanonicalGuid(guid);
+        if (key == null) {
+            return UNKNOWN_GUID_REFERENCE;
+        }
+        return lookup(key);
+    }
+
+    /**
+     * Returns the number of GUIDs in the table.
+     *
+     * @return number of GUIDs
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether the table holds any GUIDs. An empty table most likely means
+     * vendor-table.json could not be read.
+     *
+     * @return true if no GUIDs were loaded
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private boolean insert(final long msb, final long lsb, final String name) {
+        int slot = slotOf(msb, lsb);
+        while (names[slot] != null) {
+            if (mostSigBits[slot] == msb && leastSigBits[slot] == lsb) {
+                // keep the last mapping, as the JSON parser would
+                names[slot] = name;
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        mostSigBits[slot] = msb;
+        leastSigBits[slot] = lsb;
+        names[slot] = name;
+        return true;
+    }
+
+    private int slotOf(final long msb, final long lsb) {
+        long hash = (msb ^ Long.rotateLeft(lsb, HASH_FOLD_SHIFT)) * HASH_MULTIPLIER;
+        return (int) (hash ^ (hash >>> HASH_FOLD_SHIFT)) & mask;
+    }
+
+    /**
+     * Parses a GUID string, returning null unless it is written in canonical lower case form.
+     *
+     * @param guid the GUID string
+     * @return the parsed GUID or null
+     */
+    private static UUID parseCanonicalGuid(final String guid) {
+        try {
+            UUID uuid = UUID.fromString(guid);
+            return uuid.toString().equals(guid) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
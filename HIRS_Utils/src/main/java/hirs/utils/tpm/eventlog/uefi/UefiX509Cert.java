@@ -1,25 +1,48 @@
 package hirs.utils.tpm.eventlog.uefi;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import jakarta.xml.bind.DatatypeConverter;
 
 import java.io.ByteArrayInputStream;
-import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.cert.CertificateEncodingException;
 import java.security.cert.CertificateException;
 import java.security.cert.CertificateFactory;
 import java.security.cert.X509Certificate;
+import java.util.Date;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Class for processing a Secure Boot certificate stored in the UEFI DB or DBX.
  * X509 certs are used by Secure Boot for validating EFI files.
+ * <p>
+ * The same db, KEK and SPDM device certificates appear in the event log of nearly every device, so the
+ * fields of a parsed certificate are kept in a bounded cache shared by all event log parses, keyed by
+ * the content of the certificate. On a miss the certificate is parsed with the calling thread's
+ * CertificateFactory and fingerprinted with its SHA-1 MessageDigest, as neither is thread-safe.
  */
 public class UefiX509Cert {
     /**
-     * Certificate object .
+     * Maximum number of parsed certificates kept in the cache.
      */
-    private java.security.cert.Certificate cert = null;
+    public static final long MAXIMUM_CACHED_CERTIFICATES = 1024;
+
+    private static final Cache<ByteBuffer, CertificateSummary> CERTIFICATES = CacheBuilder.newBuilder()
+            .maximumSize(MAXIMUM_CACHED_CERTIFICATES)
+            .build();
+
+    private static final ThreadLocal<CertificateFactory> CERTIFICATE_FACTORY = new ThreadLocal<>();
+
+    private static final ThreadLocal<MessageDigest> SHA1_DIGEST = new ThreadLocal<>();
+
+    /**
+     * Fields of the certificate.
+     */
+    private final CertificateSummary summary;
 
     /**
      * Constructor for the certificate.
@@ -31,17 +54,16 @@ public class UefiX509Cert {
     public UefiX509Cert(final byte[] certData) throws CertificateException,
             NoSuchAlgorithmException {
         try {
-            CertificateFactory cf = CertificateFactory.getInstance("X.509");
-            InputStream targetStream = new ByteArrayInputStream(certData);
-            cert = cf.generateCertificate(targetStream);
-        } catch (CertificateException e) {
-            throw new CertificateException("\n   Error parsing UEFI X509 certificate: " + e.getMessage());
-        }
-        try {
-            MessageDigest md = MessageDigest.getInstance("SHA1");
-            md.update(certData);
-        } catch (NoSuchAlgorithmException e) {
-            throw new NoSuchAlgorithmException("\n   Error getting message digest of X509 Cert", e);
+            summary = CERTIFICATES.get(ByteBuffer.wrap(certData.clone()), () -> parse(certData));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            if (e.getCause() instanceof CertificateException certEx) {
+                throw new CertificateException("\n   Error parsing UEFI X509 certificate: " + certEx.getMessage());
+            }
+            if (e.getCause() instanceof NoSuchAlgorithmException algEx) {
+                throw new NoSuchAlgorithmException("\n   Error getting message digest of X509 Cert", algEx);
+            }
+            throw new CertificateException("\n   Error parsing UEFI X509 certificate: " + e.getMessage(),
+                    e.getCause());
         }
     }
 
@@ -52,10 +74,7 @@ public class UefiX509Cert {
      * @throws java.security.cert.CertificateEncodingException if the certificate failed to parse.
      */
     public int getLength() throws CertificateEncodingException {
-        int length = 0;
-        X509Certificate x509Cert = (X509Certificate) cert;
-        length = x509Cert.getEncoded().length;
-        return length;
+        return summary.length();
     }
 
     /**
@@ -65,19 +84,7 @@ public class UefiX509Cert {
      * @return a string representation of the certificate fingerprint
      */
     public String getSHA1FingerPrint() {
-        byte[] der = null;
-        MessageDigest md = null;
-        try {
-            md = MessageDigest.getInstance("SHA-1");
-            der = cert.getEncoded();
-        } catch (Exception e) {
-            return ("Error creating Certificate Fingerprint: " + e.getMessage());
-        }
-        md.update(der);
-        byte[] digest = md.digest();
-        String digestHex = DatatypeConverter.printHexBinary(digest);
-        digestHex = digestHex.replaceAll("..(?!$)", "$0:");   // places : every 2 digits
-        return digestHex.toLowerCase();
+        return summary.sha1FingerPrint();
     }
 
     /**
@@ -86,16 +93,67 @@ public class UefiX509Cert {
      * @return A string detailing select fields of the certificate.
      */
     public String toString() {
-        X509Certificate x509Cert = (X509Certificate) cert;
         String certData = "";
-        certData += "      Certificate Serial Number = "
-                + x509Cert.getSerialNumber().toString(UefiConstants.SIZE_16) + "\n";
-        certData += "      Subject DN = " + x509Cert.getSubjectX500Principal().getName() + "\n";
-        certData += "      Issuer DN = " + x509Cert.getIssuerX500Principal().getName() + "\n";
-        certData += "      Not Before Date = " + x509Cert.getNotBefore() + "\n";
-        certData += "      Not After Date = " + x509Cert.getNotAfter() + "\n";
-        certData += "      Signature Algorithm = " + x509Cert.getSigAlgName() + "\n";
+        certData += "      Certificate Serial Number = " + summary.serialNumber() + "\n";
+        certData += "      Subject DN = " + summary.subjectDn() + "\n";
+        certData += "      Issuer DN = " + summary.issuerDn() + "\n";
+        certData += "      Not Before Date = " + summary.notBefore() + "\n";
+        certData += "      Not After Date = " + summary.notAfter() + "\n";
+        certData += "      Signature Algorithm = " + summary.sigAlgName() + "\n";
         certData += "      SHA1 Fingerprint =  " + getSHA1FingerPrint() + "\n";
         return certData;
     }
+
+    /**
+     * Parses a certificate with the calling thread's CertificateFactory and fingerprints it.
+     *
+     * @param certData byte array holding the certificate
+     * @return the fields of the certificate
+     * @throws CertificateException     if the certificate cannot parse
+     * @throws NoSuchAlgorithmException if SHA-1 isn't available
+     */
+    private static CertificateSummary parse(final byte[] certData)
+            throws CertificateException, NoSuchAlgorithmException {
+        CertificateFactory cf = CERTIFICATE_FACTORY.get();
+        if (cf == null) {
+            cf = CertificateFactory.getInstance("X.509");
+            CERTIFICATE_FACTORY.set(cf);
+        }
+        X509Certificate x509Cert = (X509Certificate) cf.generateCertificate(new ByteArrayInputStream(certData));
+        byte[] der = x509Cert.getEncoded();
+
+        MessageDigest md = SHA1_DIGEST.get();
+        if (md == null) {
+            md = MessageDigest.getInstance("SHA-1");
+            SHA1_DIGEST.set(md);
+        }
+        String digestHex = DatatypeConverter.printHexBinary(md.digest(der));
+        digestHex = digestHex.replaceAll("..(?!$)", "$0:");   // places : every 2 digits
+
+        return new CertificateSummary(x509Cert.getSerialNumber().toString(UefiConstants.SIZE_16),
+                x509Cert.getSubjectX500Principal().getName(),
+                x509Cert.getIssuerX500Principal().getName(),
+                x509Cert.getNotBefore().toString(),
+                x509Cert.getNotAfter().toString(),
+                x509Cert.getSigAlgName(),
+                digestHex.toLowerCase(),
+                der.length);
+    }
+
+    /**
+     * Fields of a parsed certificate, shared by every occurrence of the certificate.
+     *
+     * @param serialNumber    hex serial number
+     * @param subjectDn       subject distinguished name
+     * @param issuerDn        issuer distinguished name
+     * @param notBefore       start of the validity period, as printed by {@link Date#toString()}
+     * @param notAfter        end of the validity period, as printed by {@link Date#toString()}
+     * @param sigAlgName      signature algorithm
+     * @param sha1FingerPrint colon separated SHA-1 fingerprint
+     * @param length          length of the DER encoded certificate
+     */
+    private record CertificateSummary(String serialNumber, String subjectDn, String issuerDn,
+                                      String notBefore, String notAfter, String sigAlgName,
+                                      String sha1FingerPrint, int length) {
+    }
 }
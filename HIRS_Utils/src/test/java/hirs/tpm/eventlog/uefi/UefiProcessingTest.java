@@ -9,6 +9,7 @@ import hirs.utils.tpm.eventlog.uefi.UefiFirmware;
 import hirs.utils.tpm.eventlog.uefi.UefiGuid;
 import hirs.utils.tpm.eventlog.uefi.UefiPartition;
 import hirs.utils.tpm.eventlog.uefi.UefiVariable;
+import hirs.utils.tpm.eventlog.uefi.UefiX509Cert;
 import org.apache.commons.io.IOUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -17,13 +18,17 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.cert.CertificateException;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
 
 /**
  * Class for testing TCG Event Log processing of UEFI defined Data.
@@ -39,6 +44,8 @@ public class UefiProcessingTest {
     private static final String UEFI_GPT_EVENT = "/tcgeventlog/uefi/EV_EFI_GPT_EVENT.txt";
     private static final String UEFI_FW_BLOB = "/tcgeventlog/uefi/EFI_PLATFORM_FIRMWARE_BLOB.txt";
     private static final String UEFI_DEVICE_PATH = "/tcgeventlog/uefi/EFI_DEVICE_PATH.txt";
+    private static final String X509_CERT = "/certificates/certificate_valid2035.crt";
+    private static final String X509_CERT_NOT_PARSABLE = "/certificates/certificate_notParsable.crt";
 
     private static final Logger LOGGER
             = LogManager.getLogger(UefiProcessingTest.class);
@@ -177,4 +184,36 @@ public class UefiProcessingTest {
         String devPathType = uefiDevPath.getType();
         Assertions.assertEquals("Media Device Path", devPathType);
     }
+
+    /**
+     * Tests that a certificate read again is served from the shared certificate cache with the same
+     * fields as a freshly parsed certificate, and that an unparsable certificate is rejected every time.
+     *
+     * @throws IOException              when processing the test fails.
+     * @throws NoSuchAlgorithmException if SHA-1 isn't available.
+     * @throws CertificateException     if parsing issue for X509 cert is encountered.
+     */
+    @Test
+    public final void testUefiX509Cert() throws IOException,
+            CertificateException, NoSuchAlgorithmException {
+        LOGGER.debug("Testing the parsing of Uefi X509 certificates");
+        byte[] certBytes = IOUtils.toByteArray(this.getClass().getResourceAsStream(X509_CERT));
+        X509Certificate expected = (X509Certificate) CertificateFactory.getInstance("X.509")
+                .generateCertificate(new ByteArrayInputStream(certBytes));
+        String expectedFingerPrint = HexUtils.byteArrayToHexString(
+                MessageDigest.getInstance("SHA-1").digest(expected.getEncoded()))
+                .replaceAll("..(?!$)", "$0:");
+
+        UefiX509Cert cert = new UefiX509Cert(certBytes);
+        Assertions.assertEquals(expected.getEncoded().length, cert.getLength());
+        Assertions.assertEquals(expectedFingerPrint, cert.getSHA1FingerPrint());
+        Assertions.assertTrue(cert.toString().contains(expected.getSubjectX500Principal().getName()));
+
+        UefiX509Cert cachedCert = new UefiX509Cert(certBytes.clone());
+        Assertions.assertEquals(cert.toString(), cachedCert.toString());
+
+        byte[] badCertBytes = IOUtils.toByteArray(this.getClass().getResourceAsStream(X509_CERT_NOT_PARSABLE));
+        Assertions.assertThrows(CertificateException.class, () -> new UefiX509Cert(badCertBytes));
+        Assertions.assertThrows(CertificateException.class, () -> new UefiX509Cert(badCertBytes));
+    }
 }
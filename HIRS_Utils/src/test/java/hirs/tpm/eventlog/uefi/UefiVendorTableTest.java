@@ -0,0 +1,84 @@
+package hirs.tpm.eventlog.uefi;
+
+import hirs.utils.tpm.eventlog.uefi.UefiGuid;
+import hirs.utils.tpm.eventlog.uefi.UefiVendorTable;
+import org.junit.jupiter.api.Test;
+
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the cached UEFI vendor table.
+ */
+public class UefiVendorTableTest {
+    private static final String JSON_FILE = "/tcgeventlog/uefi/vendor-table.json";
+    private static final String EFI_GLOBAL_VARIABLE = "8be4df61-93ca-11d2-aa0d-00e098032b8c";
+
+    /**
+     * EFI_GLOBAL_VARIABLE as it appears in an event log (Data1-3 little endian).
+     */
+    private static final byte[] EFI_GLOBAL_VARIABLE_BYTES = {
+            (byte) 0x61, (byte) 0xdf, (byte) 0xe4, (byte) 0x8b, (byte) 0xca, (byte) 0x93,
+            (byte) 0xd2, (byte) 0x11, (byte) 0xaa, (byte) 0x0d, (byte) 0x00, (byte) 0xe0,
+            (byte) 0x98, (byte) 0x03, (byte) 0x2b, (byte) 0x8c};
+
+    /**
+     * Tests that the shared table is loaded once and resolves GUIDs.
+     */
+    @Test
+    public final void testSharedTableLookup() {
+        UefiVendorTable table = UefiVendorTable.getInstance();
+        assertSame(table, UefiVendorTable.getInstance());
+        assertFalse(table.isEmpty());
+        assertEquals("EFI_Global_Variable", table.lookup(UUID.fromString(EFI_GLOBAL_VARIABLE)));
+        assertEquals("EFI_Global_Variable", table.lookup(EFI_GLOBAL_VARIABLE));
+        assertEquals(UefiVendorTable.UNKNOWN_GUID_REFERENCE,
+                table.lookup(UUID.fromString("8ca7623c-041e-4fab-8c12-f49a86b85d73")));
+        assertEquals(UefiVendorTable.UNKNOWN_GUID_REFERENCE, table.lookup("_comment_1"));
+    }
+
+    /**
+     * Tests that a GUID read from event log bytes resolves through the shared table.
+     */
+    @Test
+    public final void testUefiGuidLookup() {
+        UefiGuid guid = new UefiGuid(EFI_GLOBAL_VARIABLE_BYTES);
+        assertEquals(EFI_GLOBAL_VARIABLE, guid.toStringNoLookup());
+        assertEquals("EFI_Global_Variable", guid.getVendorTableReference());
+        assertEquals(EFI_GLOBAL_VARIABLE + " : EFI_Global_Variable", guid.toString());
+        assertFalse(guid.isUnknownUUID());
+    }
+
+    /**
+     * Tests that every lower case GUID in a vendor table file is indexed and that
+     * mixed case keys, which a lower case lookup never matched, are skipped.
+     *
+     * @throws URISyntaxException File location exception
+     */
+    @Test
+    public final void testLoadFromFile() throws URISyntaxException {
+        Path jsonPath = Paths.get(this.getClass().getResource(JSON_FILE).toURI());
+        UefiVendorTable table = UefiVendorTable.load(jsonPath);
+        assertTrue(table.size() > 0);
+        assertEquals("EFI_Global_Variable", table.lookup(EFI_GLOBAL_VARIABLE));
+        assertEquals(UefiVendorTable.UNKNOWN_GUID_REFERENCE,
+                table.lookup("3d5abd30-4175-87Ce-6d64-d2ADe523C4bb"));
+    }
+
+    /**
+     * Tests that reloading from a missing file keeps the table in use.
+     */
+    @Test
+    public final void testReloadFromMissingFileKeepsTable() {
+        UefiVendorTable table = UefiVendorTable.getInstance();
+        assertSame(table, UefiVendorTable.reload(Paths.get("does", "not", "exist.json")));
+        assertSame(table, UefiVendorTable.getInstance());
+    }
+}
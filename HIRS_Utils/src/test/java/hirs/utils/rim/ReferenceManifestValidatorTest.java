@@ -0,0 +1,83 @@
+package hirs.utils.rim;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.cert.X509Certificate;
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Tests that {@link ReferenceManifestValidator} picks the signer of a base RIM among the certificates
+ * embedded in its signature, whatever their order. The base RIM used embeds the certificate of the
+ * issuing CA before the certificate of its signer.
+ */
+public class ReferenceManifestValidatorTest {
+    private static final String EMBEDDED_CHAIN_RIM = "/rim/base_rim_embedded_chain.swidtag";
+    private static final String KEY_NAME = "<KeyName>92e7e40c6d7696ba3e91dc39671593761cda21fd</KeyName>";
+    private static final int CHAIN_LENGTH = 2;
+    private static final int SIGNER_INDEX = 1;
+
+    /**
+     * Tests that the certificate named by the KeyName element is picked when another certificate is
+     * embedded before it.
+     *
+     * @throws IOException if the RIM can't be read
+     */
+    @Test
+    public final void testSignerNamedByKeyName() throws IOException {
+        ReferenceManifestValidator validator = new ReferenceManifestValidator();
+        validator.setRim(readResource(EMBEDDED_CHAIN_RIM).getBytes(StandardCharsets.UTF_8));
+        List<X509Certificate> embeddedCerts = SwidTagParser.getEmbeddedX509Certificates(validator.getRim());
+
+        assertEquals(CHAIN_LENGTH, embeddedCerts.size());
+        assertSame(embeddedCerts.get(SIGNER_INDEX), validator.findEmbeddedSigningCertificate(embeddedCerts));
+    }
+
+    /**
+     * Tests that the certificate that verifies the signature is picked when the signature has no
+     * KeyName element and another certificate is embedded before it.
+     *
+     * @throws IOException if the RIM can't be read
+     */
+    @Test
+    public final void testSignerVerifiesSignature() throws IOException {
+        String rim = readResource(EMBEDDED_CHAIN_RIM).replace(KEY_NAME, "");
+        ReferenceManifestValidator validator = new ReferenceManifestValidator();
+        validator.setRim(rim.getBytes(StandardCharsets.UTF_8));
+        List<X509Certificate> embeddedCerts = SwidTagParser.getEmbeddedX509Certificates(validator.getRim());
+
+        assertNull(validator.getKeyName());
+        assertEquals(CHAIN_LENGTH, embeddedCerts.size());
+        assertSame(embeddedCerts.get(SIGNER_INDEX), validator.findEmbeddedSigningCertificate(embeddedCerts));
+    }
+
+    /**
+     * Tests that the first embedded certificate is picked when none is named by the KeyName element
+     * or verifies the signature, and that no certificate is picked when none is embedded.
+     *
+     * @throws IOException if the RIM can't be read
+     */
+    @Test
+    public final void testFirstCertWhenNoneIsSigner() throws IOException {
+        ReferenceManifestValidator validator = new ReferenceManifestValidator();
+        validator.setRim(readResource(EMBEDDED_CHAIN_RIM).getBytes(StandardCharsets.UTF_8));
+        List<X509Certificate> issuerCerts =
+                SwidTagParser.getEmbeddedX509Certificates(validator.getRim()).subList(0, SIGNER_INDEX);
+
+        assertSame(issuerCerts.get(0), validator.findEmbeddedSigningCertificate(issuerCerts));
+        assertNull(validator.findEmbeddedSigningCertificate(List.of()));
+    }
+
+    private String readResource(final String path) throws IOException {
+        try (InputStream inputStream = Objects.requireNonNull(getClass().getResourceAsStream(path))) {
+            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package hirs.utils.rim;
+
+import jakarta.xml.bind.UnmarshalException;
+import jakarta.xml.bind.Unmarshaller;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests the shared SWID tag schema and the per-thread parsers handed out by {@link SwidSchemaHolder}.
+ */
+public class SwidSchemaHolderTest {
+    private static final String BASE_RIM = "rim/base_rim.swidtag";
+
+    /**
+     * Tests that the schema and the JAXBContext are only built once.
+     *
+     * @throws Exception if the schema can't be compiled
+     */
+    @Test
+    public final void testSchemaAndContextAreShared() throws Exception {
+        assertSame(SwidSchemaHolder.getSchema(), SwidSchemaHolder.getSchema());
+        assertSame(SwidSchemaHolder.getJaxbContext(), SwidSchemaHolder.getJaxbContext());
+    }
+
+    /**
+     * Tests that each thread reuses its own Unmarshaller, bound to the shared schema.
+     *
+     * @throws Exception if the Unmarshaller can't be created
+     */
+    @Test
+    public final void testUnmarshallerPerThread() throws Exception {
+        Unmarshaller unmarshaller = SwidSchemaHolder.getUnmarshaller();
+        assertSame(unmarshaller, SwidSchemaHolder.getUnmarshaller());
+        assertSame(SwidSchemaHolder.getSchema(), unmarshaller.getSchema());
+
+        Unmarshaller otherThreadUnmarshaller = CompletableFuture.supplyAsync(() -> {
+            try {
+                return SwidSchemaHolder.getUnmarshaller();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }).get();
+        assertNotSame(unmarshaller, otherThreadUnmarshaller);
+    }
+
+    /**
+     * Tests that a base RIM validates against the shared schema more than once and that
+     * a document that doesn't match the schema is still rejected.
+     *
+     * @throws Exception if the RIM can't be parsed
+     */
+    @Test
+    public final void testValidateSwidtagSchema() throws Exception {
+        byte[] rimBytes = readResource(BASE_RIM);
+        for (int i = 0; i < 2; i++) {
+            Document rim = SwidTagParser.convertToDocument(rimBytes);
+            assertSame(rim, SwidTagParser.validateSwidtagSchema(rim));
+        }
+
+        Document invalidRim = SwidTagParser.convertToDocument(
+                ("<SoftwareIdentity xmlns=\"http://standards.iso.org/iso/19770/-2/2015/schema.xsd\"/>")
+                        .getBytes(StandardCharsets.UTF_8));
+        assertThrows(UnmarshalException.class, () -> SwidTagParser.validateSwidtagSchema(invalidRim));
+
+        // the per-thread Unmarshaller is still usable after a validation failure
+        assertNotNull(SwidTagParser.validateSwidtagSchema(SwidTagParser.convertToDocument(rimBytes)));
+    }
+
+    private byte[] readResource(final String resource) throws IOException {
+        try (InputStream is = getClass().getClassLoader().getResourceAsStream(resource)) {
+            assertNotNull(is);
+            return is.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1 @@
+package hirs.utils.rim;
@@ -1,6 +1,7 @@
 package hirs.utils.tpm.eventlog;
 
 
+import hirs.utils.tpm.eventlog.events.EvConstants;
 import org.apache.commons.io.IOUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -17,6 +18,10 @@ import java.util.Arrays;
 import static hirs.utils.tpm.eventlog.TCGEventLog.PCR_COUNT;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 
@@ -149,4 +154,61 @@ public class TCGEventLogTest {
             throw throwable;
         }
     }
+
+    /**
+     * Tests that event contents are decoded on demand, once, into the same description.
+     *
+     * @throws IOException when processing the test fails
+     */
+    @Test
+    public final void testEventDescriptionIsDecodedOnce() throws IOException {
+        LOGGER.debug("Testing the on demand decoding of event contents");
+
+        final InputStream log = this.getClass().getResourceAsStream(DEFAULT_EVENT_LOG);
+        final TCGEventLog evlog = new TCGEventLog(IOUtils.toByteArray(log));
+
+        // the SpecID event is decoded when asked about, without describing the whole log
+        final TpmPcrEvent specIdEvent = evlog.getEventList().iterator().next();
+        assertTrue(specIdEvent.isNoActionSpecIdEvent());
+        assertNotEquals("Unknown", specIdEvent.getSpecVersion());
+
+        for (TpmPcrEvent event : evlog.getEventList()) {
+            final String description = event.toString();
+            assertTrue(description.startsWith("Event# " + event.getEventNumber() + ": "));
+            assertTrue(description.contains("digest ("));
+            assertSame(description, event.toString());
+            assertSame(event.getEventContentStr(), event.getEventContentStr());
+        }
+    }
+
+    /**
+     * Tests that an event whose content can't be decoded is reported as being in error, without
+     * any other accessor decoding it first.
+     *
+     * @throws IOException when processing the test fails
+     */
+    @Test
+    public final void testMalformedEventIsError() throws IOException {
+        LOGGER.debug("Testing the error flag of an event whose content can't be decoded");
+
+        final InputStream log = this.getClass().getResourceAsStream(DEFAULT_EVENT_LOG);
+        final byte[] rawLog = IOUtils.toByteArray(log);
+
+        // overwrite the content of the first UEFI variable event, keeping its length
+        final TcgEventLogReader reader = new TcgEventLogReader(rawLog);
+        int position = 0;
+        TcgEventView view = reader.next();
+        while (view != null && (int) view.getEventType() != EvConstants.EV_EFI_VARIABLE_DRIVER_CONFIG) {
+            position += view.getHeaderLength() + view.getContentLength();
+            view = reader.next();
+        }
+        assertNotNull(view);
+        final int malformedEvent = view.getEventNumber();
+        final int contentStart = position + view.getHeaderLength();
+        Arrays.fill(rawLog, contentStart, contentStart + view.getContentLength(), (byte) 0xFF);
+
+        final TCGEventLog evlog = new TCGEventLog(rawLog);
+        assertTrue(evlog.getEventByNumber(malformedEvent).isError());
+        assertFalse(evlog.getEventByNumber(malformedEvent - 1).isError());
+    }
 }
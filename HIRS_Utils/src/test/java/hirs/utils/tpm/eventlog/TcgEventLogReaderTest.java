@@ -0,0 +1,248 @@
+package hirs.utils.tpm.eventlog;
+
+import hirs.utils.tpm.eventlog.events.EvConstants;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that {@link TcgEventLogReader} reads the same events and PCR values as {@link TCGEventLog}.
+ */
+public class TcgEventLogReaderTest {
+
+    private static final String DEFAULT_EVENT_LOG = "/tcgeventlog/TpmLog.bin";
+    private static final String DEFAULT_EXPECTED_PCRS = "/tcgeventlog/TpmLogExpectedPcrs.txt";
+    private static final String SHA1_EVENT_LOG = "/tcgeventlog/TpmLogSHA1.bin";
+    private static final String SHA1_EXPECTED_PCRS = "/tcgeventlog/TpmLogSHA1ExpectedPcrs.txt";
+    private static final int[] MULTI_BANK_PCRS = {0, 7, 0, 17, 7};
+
+    /**
+     * Tests the replay of a crypto agile event log.
+     *
+     * @throws IOException if the event log can't be read
+     */
+    @Test
+    public void testCryptoAgileReplay() throws IOException {
+        TcgEventLogReader reader = new TcgEventLogReader(readResource(DEFAULT_EVENT_LOG));
+        assertArrayEqualsIgnoreCase(readExpectedPcrs(DEFAULT_EXPECTED_PCRS), reader.replay());
+        assertTrue(reader.isCryptoAgile());
+        assertEquals(TcgTpmtHa.TPM_ALG_SHA256_STR, reader.getStrongestEvLogHashAlgName());
+        assertEquals(TcgTpmtHa.TPM_ALG_SHA256_LENGTH, reader.getPcrLength());
+    }
+
+    /**
+     * Tests the replay of a SHA1 formatted event log.
+     *
+     * @throws IOException if the event log can't be read
+     */
+    @Test
+    public void testSHA1Replay() throws IOException {
+        TcgEventLogReader reader = new TcgEventLogReader(readResource(SHA1_EVENT_LOG));
+        assertArrayEqualsIgnoreCase(readExpectedPcrs(SHA1_EXPECTED_PCRS), reader.replay());
+        assertFalse(reader.isCryptoAgile());
+        assertEquals(TcgTpmtHa.TPM_ALG_SHA1_STR, reader.getStrongestEvLogHashAlgName());
+    }
+
+    /**
+     * Tests that each view holds the same fields as the matching event of {@link TCGEventLog}.
+     *
+     * @throws IOException if the event log can't be read
+     */
+    @Test
+    public void testViewsMatchParsedEvents() throws IOException {
+        byte[] rawlog = readResource(DEFAULT_EVENT_LOG);
+        Iterator<TpmPcrEvent> events = new TCGEventLog(rawlog).getEventList().iterator();
+        TcgEventLogReader reader = new TcgEventLogReader(rawlog);
+        for (TcgEventView view = reader.next(); view != null; view = reader.next()) {
+            TpmPcrEvent event = events.next();
+            assertEquals(event.getEventNumber(), view.getEventNumber());
+            assertEquals(event.getPcrIndex(), view.getPcrIndex());
+            assertEquals(event.getEventType(), view.getEventType());
+            assertEquals(event.getLogFormat(), view.getLogFormat());
+            assertArrayEquals(event.getEventContent(), view.getContentBytes());
+            assertArrayEquals(event.getEventStrongestDigest(), view.getStrongestDigestBytes());
+        }
+        assertFalse(events.hasNext());
+    }
+
+    /**
+     * Tests that a memory mapped event log is read like the same log held on the heap.
+     *
+     * @param tempDir temporary directory for the event log file
+     * @throws IOException if the event log can't be read
+     */
+    @Test
+    public void testMappedEventLog(@TempDir final Path tempDir) throws IOException {
+        byte[] rawlog = readResource(DEFAULT_EVENT_LOG);
+        Path file = Files.write(tempDir.resolve("TpmLog.bin"), rawlog);
+        TcgEventLogReader reader = TcgEventLogReader.open(file);
+        assertArrayEquals(new TcgEventLogReader(rawlog).replay(), reader.replay());
+        assertNull(reader.next());
+    }
+
+    /**
+     * Tests that a truncated event is reported rather than read past the end of the log.
+     *
+     * @throws IOException if the event log can't be read
+     */
+    @Test
+    public void testTruncatedEventLog() throws IOException {
+        byte[] rawlog = readResource(DEFAULT_EVENT_LOG);
+        TcgEventLogReader reader = new TcgEventLogReader(Arrays.copyOf(rawlog, rawlog.length - 1));
+        assertThrows(IOException.class, reader::replay);
+        assertThrows(IOException.class, () -> new TCGEventLog(Arrays.copyOf(rawlog, rawlog.length - 1)));
+    }
+
+    /**
+     * Tests that a crypto agile log holding SHA1 and SHA256 digests is replayed into both banks.
+     *
+     * @throws IOException              if the event log can't be read
+     * @throws NoSuchAlgorithmException if SHA1 or SHA256 is not available
+     */
+    @Test
+    public void testMultiBankReplay() throws IOException, NoSuchAlgorithmException {
+        byte[] rawlog = buildMultiBankLog(true);
+        TcgEventLogReader reader = new TcgEventLogReader(rawlog);
+        String[] strongestPcrs = reader.replay();
+
+        PcrBanks banks = reader.getPcrBanks();
+        assertArrayEquals(new int[] {TcgTpmtHa.TPM_ALG_SHA1, TcgTpmtHa.TPM_ALG_SHA256}, banks.getAlgIds());
+        assertArrayEquals(replayBank("SHA-1"), banks.getExpectedPCRValues(TcgTpmtHa.TPM_ALG_SHA1));
+        assertArrayEquals(replayBank("SHA-256"), banks.getExpectedPCRValues(TcgTpmtHa.TPM_ALG_SHA256));
+        assertArrayEquals(strongestPcrs, banks.getExpectedPCRValues(TcgTpmtHa.TPM_ALG_SHA256));
+        assertFalse(banks.hasBank(TcgTpmtHa.TPM_ALG_SHA384));
+        assertThrows(IllegalArgumentException.class, () -> banks.getPcrValues(TcgTpmtHa.TPM_ALG_SHA384));
+
+        TCGEventLog eventLog = new TCGEventLog(rawlog);
+        assertArrayEquals(new int[] {TcgTpmtHa.TPM_ALG_SHA1, TcgTpmtHa.TPM_ALG_SHA256},
+                eventLog.getPcrBankAlgIds());
+        assertArrayEquals(replayBank("SHA-1"), eventLog.getExpectedPCRValues(TcgTpmtHa.TPM_ALG_SHA1));
+        assertArrayEquals(eventLog.getExpectedPCRValues(),
+                eventLog.getExpectedPCRValues(TcgTpmtHa.TPM_ALG_SHA256));
+        assertNull(eventLog.getExpectedPCRValues(TcgTpmtHa.TPM_ALG_SHA512));
+    }
+
+    /**
+     * Tests that a bank is dropped when an event doesn't hold a digest for it, while the strongest
+     * bank is still replayed.
+     *
+     * @throws IOException              if the event log can't be read
+     * @throws NoSuchAlgorithmException if SHA256 is not available
+     */
+    @Test
+    public void testIncompleteBankDropped() throws IOException, NoSuchAlgorithmException {
+        TcgEventLogReader reader = new TcgEventLogReader(buildMultiBankLog(false));
+        reader.replay();
+        assertArrayEquals(new int[] {TcgTpmtHa.TPM_ALG_SHA256}, reader.getPcrBanks().getAlgIds());
+        assertFalse(reader.getPcrBanks().hasBank(TcgTpmtHa.TPM_ALG_SHA1));
+        assertArrayEquals(replayBank("SHA-256"),
+                reader.getPcrBanks().getExpectedPCRValues(TcgTpmtHa.TPM_ALG_SHA256));
+    }
+
+    /**
+     * Builds a crypto agile event log, listing SHA1 and SHA256 in its Spec ID event, with one
+     * event for each PCR of {@link #MULTI_BANK_PCRS}. The digest of each event is the hash of its
+     * content.
+     *
+     * @param withSha1Digests false to leave the SHA1 digest out of the events
+     * @return the event log
+     * @throws NoSuchAlgorithmException if SHA1 or SHA256 is not available
+     */
+    private static byte[] buildMultiBankLog(final boolean withSha1Digests) throws NoSuchAlgorithmException {
+        ByteBuffer log = ByteBuffer.allocate(1024).order(ByteOrder.LITTLE_ENDIAN);
+
+        // TCG_PCR_EVENT holding the Spec ID event
+        ByteBuffer specId = ByteBuffer.allocate(37).order(ByteOrder.LITTLE_ENDIAN);
+        specId.put("Spec ID Event03\0".getBytes(StandardCharsets.US_ASCII));
+        specId.putInt(0).put((byte) 0).put((byte) 2).put((byte) 0).put((byte) 2);
+        specId.putInt(2);
+        specId.putShort((short) TcgTpmtHa.TPM_ALG_SHA1).putShort((short) TcgTpmtHa.TPM_ALG_SHA1_LENGTH);
+        specId.putShort((short) TcgTpmtHa.TPM_ALG_SHA256).putShort((short) TcgTpmtHa.TPM_ALG_SHA256_LENGTH);
+        specId.put((byte) 0);
+        log.putInt(0).putInt(EvConstants.EV_NO_ACTION).put(new byte[EvConstants.SHA1_LENGTH]);
+        log.putInt(specId.capacity()).put(specId.array());
+
+        // TCG_PCR_EVENT2 for each PCR
+        for (int i = 0; i < MULTI_BANK_PCRS.length; i++) {
+            byte[] content = eventContent(i);
+            log.putInt(MULTI_BANK_PCRS[i]).putInt(EvConstants.EV_POST_CODE);
+            log.putInt(withSha1Digests ? 2 : 1);
+            if (withSha1Digests) {
+                log.putShort((short) TcgTpmtHa.TPM_ALG_SHA1)
+                        .put(MessageDigest.getInstance("SHA-1").digest(content));
+            }
+            log.putShort((short) TcgTpmtHa.TPM_ALG_SHA256)
+                    .put(MessageDigest.getInstance("SHA-256").digest(content));
+            log.putInt(content.length).put(content);
+        }
+        return Arrays.copyOf(log.array(), log.position());
+    }
+
+    /**
+     * Computes the PCR values of a bank of the log built by {@link #buildMultiBankLog(boolean)}.
+     *
+     * @param algorithm Java name of the hash algorithm of the bank
+     * @return 24 hex encoded PCR values
+     * @throws NoSuchAlgorithmException if the algorithm is not available
+     */
+    private static String[] replayBank(final String algorithm) throws NoSuchAlgorithmException {
+        MessageDigest messageDigest = MessageDigest.getInstance(algorithm);
+        byte[][] pcrs = TcgEventLogReader.initialPcrValues(messageDigest.getDigestLength());
+        for (int i = 0; i < MULTI_BANK_PCRS.length; i++) {
+            messageDigest.update(pcrs[MULTI_BANK_PCRS[i]]);
+            messageDigest.update(MessageDigest.getInstance(algorithm).digest(eventContent(i)));
+            pcrs[MULTI_BANK_PCRS[i]] = messageDigest.digest();
+        }
+        String[] expected = new String[TCGEventLog.PCR_COUNT];
+        for (int i = 0; i < TCGEventLog.PCR_COUNT; i++) {
+            expected[i] = Hex.encodeHexString(pcrs[i]);
+        }
+        return expected;
+    }
+
+    private static byte[] eventContent(final int eventIndex) {
+        return ("POST code " + eventIndex).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private byte[] readResource(final String resource) throws IOException {
+        try (InputStream is = Objects.requireNonNull(getClass().getResourceAsStream(resource))) {
+            return is.readAllBytes();
+        }
+    }
+
+    private String[] readExpectedPcrs(final String resource) throws IOException {
+        try (InputStream is = Objects.requireNonNull(getClass().getResourceAsStream(resource))) {
+            List<String> lines = IOUtils.readLines(is, StandardCharsets.UTF_8);
+            return lines.subList(0, TCGEventLog.PCR_COUNT).toArray(new String[0]);
+        }
+    }
+
+    private static void assertArrayEqualsIgnoreCase(final String[] expected, final String[] actual) {
+        assertEquals(expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++) {
+            assertTrue(expected[i].equalsIgnoreCase(actual[i]), "PCR " + i);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package hirs.tcg_eventlog;
+
+import hirs.utils.tpm.eventlog.TcgEventLogReader;
+import hirs.utils.tpm.eventlog.TcgEventView;
+import hirs.utils.tpm.eventlog.TpmPcrEvent;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Index of the strongest digests of a reference event log, grouped by PCR index.
+ * Used to compare event logs: an event matches the reference log if an event extended into the
+ * same PCR holds the same digest, wherever it is located in the reference log.
+ * Once built, the index is not modified and can be shared by threads comparing several logs.
+ */
+final class EventDigestIndex {
+
+    /**
+     * Key used for events that don't hold a digest for the strongest algorithm of their log.
+     */
+    private static final ByteBuffer NO_DIGEST = ByteBuffer.allocate(0);
+
+    private static final String NO_EVENTS = "Event log holds no events";
+
+    private final Map<Integer, Set<ByteBuffer>> digestsByPcr = new HashMap<>();
+
+    private EventDigestIndex() {
+    }
+
+    /**
+     * Builds the index by reading the remaining events of an event log.
+     *
+     * @param reader reader of the reference event log
+     * @return the index of the reference event log
+     * @throws IOException if the event log can't be read or holds no events
+     */
+    static EventDigestIndex of(final TcgEventLogReader reader) throws IOException {
+        EventDigestIndex index = new EventDigestIndex();
+        for (TcgEventView view = reader.next(); view != null; view = reader.next()) {
+            index.add(view.getPcrIndex(), view.getStrongestDigestBytes());
+        }
+        if (reader.getEventCount() == 0) {
+            throw new IOException(NO_EVENTS);
+        }
+        return index;
+    }
+
+    /**
+     * Builds the index from the events of a parsed event log.
+     *
+     * @param events events of the reference event log
+     * @return the index of the reference event log
+     */
+    static EventDigestIndex of(final Collection<TpmPcrEvent> events) {
+        EventDigestIndex index = new EventDigestIndex();
+        for (TpmPcrEvent event : events) {
+            index.add(event.getPcrIndex(), event.getEventStrongestDigest());
+        }
+        return index;
+    }
+
+    /**
+     * Checks whether the reference log holds an event with the provided PCR index and digest.
+     *
+     * @param pcrIndex PCR index of the event
+     * @param digest   strongest digest of the event, or null if the event doesn't hold one
+     * @return true if a matching event was found in the reference log
+     */
+    boolean contains(final int pcrIndex, final byte[] digest) {
+        return contains(pcrIndex, digest == null ? NO_DIGEST : ByteBuffer.wrap(digest));
+    }
+
+    /**
+     * Reads the remaining events of an event log and reports those that don't match the reference log.
+     *
+     * @param reader     reader of the event log to compare to the reference log
+     * @param pcr        used as a filter. Use -1 to check all pcrs.
+     * @param mismatches receives each event that didn't match
+     * @return the number of events compared
+     * @throws IOException if the event log can't be read or holds no events
+     */
+    int diff(final TcgEventLogReader reader, final int pcr, final Consumer<TcgEventView> mismatches)
+            throws IOException {
+        int compared = 0;
+        for (TcgEventView view = reader.next(); view != null; view = reader.next()) {
+            if (pcr >= 0 && view.getPcrIndex() != pcr) {
+                continue;
+            }
+            compared++;
+            ByteBuffer digest = view.hasStrongestDigest() ? view.getStrongestDigest() : NO_DIGEST;
+            if (!contains(view.getPcrIndex(), digest)) {
+                mismatches.accept(view);
+            }
+        }
+        if (reader.getEventCount() == 0) {
+            throw new IOException(NO_EVENTS);
+        }
+        return compared;
+    }
+
+    private boolean contains(final int pcrIndex, final ByteBuffer digest) {
+        return digestsByPcr.getOrDefault(pcrIndex, Collections.emptySet()).contains(digest);
+    }
+
+    private void add(final int pcrIndex, final byte[] digest) {
+        digestsByPcr.computeIfAbsent(pcrIndex, _ -> new HashSet<>())
+                .add(digest == null ? NO_DIGEST : ByteBuffer.wrap(digest));
+    }
+}
@@ -2,6 +2,7 @@ package hirs.tcg_eventlog;
 
 import hirs.utils.HexUtils;
 import hirs.utils.tpm.eventlog.TCGEventLog;
+import hirs.utils.tpm.eventlog.TcgEventLogReader;
 import hirs.utils.tpm.eventlog.TpmPcrEvent;
 
 import javax.swing.JOptionPane;
@@ -10,11 +11,14 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static hirs.utils.tpm.eventlog.uefi.UefiConstants.FILESTATUS_FROM_CODE;
 import static hirs.utils.tpm.eventlog.uefi.UefiConstants.FILESTATUS_NOT_ACCESSIBLE;
@@ -24,6 +28,8 @@ import static hirs.utils.tpm.eventlog.uefi.UefiConstants.FILESTATUS_NOT_ACCESSIB
  * Input arg: path to *.tcglp file
  */
 final class Main {
+    private static final String BATCH_SUMMARY_HEADER =
+            "file,status,events,mismatches,mismatched_events,error\n";
     private static Commander commander = null;
     private static FileOutputStream outputStream = null;
     private static byte[] eventLog = null;
@@ -76,6 +82,12 @@ final class Main {
                 writeOut(results);
                 System.exit(0);
             }
+            if (commander.getBatchFlag()) {
+                String summary = batchCompareLogs(commander.getInFileName(),
+                        commander.getBatchDirName());
+                writeOut(summary);
+                System.exit(0);
+            }
             if (commander.getEventIdsFlag()) {
                 bEventFlag = true;
             }
@@ -251,29 +263,30 @@ final class Main {
 
     /**
      * Compares 2 Event Logs and returns a string based upon the results.
-     * Uses the Events digest field for comparisons.
+     * Uses the Events digest field for comparisons. The reference log is indexed by PCR and
+     * digest, and the events of the second log are looked up in that index as it is read,
+     * so only the mismatching events are fully decoded.
      *
      * @param logFileName1 Log file to use as a reference.
      * @param logFileName2 Log file to compare to the reference.
      * @return A sting containing human readable results.
      */
     public static String compareLogs(final String logFileName1, final String logFileName2) {
-        TCGEventLog eventLog1 = null;
-        TCGEventLog eventLog2 = null;
+        EventDigestIndex referenceIndex = null;
         byte[] evLog = openLog(logFileName1);
         byte[] evLog2 = openLog(logFileName2);
         StringBuilder sb = new StringBuilder();
         bHexFlag = commander.getHexFlag();
         try {
-            eventLog1 = new TCGEventLog(evLog);
+            referenceIndex = EventDigestIndex.of(new TcgEventLogReader(evLog));
         } catch (Exception e) {
             sb.append("\nError processing event log " + logFileName1 + " : " + e.getMessage());
             return sb.toString();
         }
         try {
-            eventLog2 = new TCGEventLog(evLog2);
-            ArrayList<TpmPcrEvent> errors = diffEventLogs(eventLog1.getEventList(),
-                    eventLog2.getEventList(), commander.getPcrNumber());
+            ArrayList<TpmPcrEvent> errors = new ArrayList<TpmPcrEvent>();
+            referenceIndex.diff(new TcgEventLogReader(evLog2), commander.getPcrNumber(),
+                    view -> errors.add(view.toTpmPcrEvent()));
             if (errors.isEmpty() && !bHexFlag) {
                 sb.append("\nEvent Log " + logFileName1 + " MATCHED EventLog " + logFileName2
                         + "\n");
@@ -304,6 +317,95 @@ final class Main {
         return sb.toString();
     }
 
+    /**
+     * Compares every event log of a directory against a reference event log.
+     * The logs are compared in parallel against a single index of the reference log.
+     * Returns a CSV summary with one line per log, holding the log file, its status
+     * (MATCHED, MISMATCHED or ERROR), the number of events compared, the number of
+     * mismatches, the numbers of the mismatching events and the error message, if any.
+     *
+     * @param referenceLogName Log file to use as a reference.
+     * @param logDirectoryName Directory holding the log files to compare to the reference.
+     * @return A CSV summary of the results.
+     */
+    public static String batchCompareLogs(final String referenceLogName, final String logDirectoryName) {
+        byte[] referenceLog = openLog(referenceLogName);
+        bHexFlag = commander.getHexFlag();
+        final EventDigestIndex referenceIndex;
+        try {
+            referenceIndex = EventDigestIndex.of(new TcgEventLogReader(referenceLog));
+        } catch (IOException | RuntimeException e) {
+            return "\nError processing event log " + referenceLogName + " : " + e.getMessage();
+        }
+
+        try {
+            return batchCompareLogs(referenceIndex, Paths.get(logDirectoryName), commander.getPcrNumber());
+        } catch (IOException | InvalidPathException e) {
+            return "\nError reading event log directory " + logDirectoryName + " : " + e.getMessage();
+        }
+    }
+
+    /**
+     * Compares every event log of a directory against the index of a reference event log.
+     * A log that holds no events is reported as an ERROR rather than as a match.
+     *
+     * @param referenceIndex index of the reference event log.
+     * @param logDirectory   Directory holding the log files to compare to the reference.
+     * @param pcr            used as a filter. Use -1 to check all pcrs.
+     * @return A CSV summary of the results.
+     * @throws IOException if the directory can't be listed.
+     */
+    static String batchCompareLogs(final EventDigestIndex referenceIndex, final Path logDirectory,
+                                   final int pcr) throws IOException {
+        final List<Path> logFiles;
+        try (Stream<Path> files = Files.list(logDirectory)) {
+            logFiles = files.filter(Files::isRegularFile).sorted().toList();
+        }
+
+        StringBuilder sb = new StringBuilder(BATCH_SUMMARY_HEADER);
+        logFiles.parallelStream()
+                .map(logFile -> compareToReference(referenceIndex, logFile, pcr))
+                .toList()
+                .forEach(sb::append);
+        return sb.toString();
+    }
+
+    /**
+     * Compares a single event log against the index of a reference event log.
+     *
+     * @param referenceIndex index of the reference event log.
+     * @param logFile        Log file to compare to the reference.
+     * @param pcr            used as a filter. Use -1 to check all pcrs.
+     * @return the CSV summary line of the log file.
+     */
+    private static String compareToReference(final EventDigestIndex referenceIndex, final Path logFile,
+                                             final int pcr) {
+        try {
+            List<Integer> mismatches = new ArrayList<>();
+            int compared = referenceIndex.diff(TcgEventLogReader.open(logFile), pcr,
+                    view -> mismatches.add(view.getEventNumber()));
+            String status = mismatches.isEmpty() ? "MATCHED" : "MISMATCHED";
+            String eventNumbers = mismatches.stream().map(String::valueOf).collect(Collectors.joining(" "));
+            return toCsvLine(logFile.toString(), status, String.valueOf(compared),
+                    String.valueOf(mismatches.size()), eventNumbers, "");
+        } catch (IOException | RuntimeException e) {
+            return toCsvLine(logFile.toString(), "ERROR", "0", "0", "", String.valueOf(e.getMessage()));
+        }
+    }
+
+    /**
+     * Joins fields into a CSV line, quoting the fields that hold a separator, a quote or a line break.
+     *
+     * @param fields fields of the line.
+     * @return the CSV line.
+     */
+    private static String toCsvLine(final String... fields) {
+        return Stream.of(fields)
+                .map(field -> field.matches("(?s).*[,\"\r\n].*")
+                        ? "\"" + field.replace("\"", "\"\"") + "\"" : field)
+                .collect(Collectors.joining(",", "", "\n"));
+    }
+
     /**
      * Compare this event log against a second event log.
      * Returns a String Array of event descriptions in which the digests from the first
@@ -317,40 +419,17 @@ final class Main {
     public static ArrayList<TpmPcrEvent> diffEventLogs(final Collection<TpmPcrEvent> eventList,
                                                        final Collection<TpmPcrEvent> eventList2,
                                                        final int pcr) {
+        EventDigestIndex referenceIndex = EventDigestIndex.of(eventList);
         ArrayList<TpmPcrEvent> results = new ArrayList<TpmPcrEvent>();
         for (TpmPcrEvent event2 : eventList2) {
-            if (pcr >= 0) {
-                if (event2.getPcrIndex() == pcr) {
-                    if (!digestMatch(eventList, event2)) {
-                        results.add(event2);
-                    }
-                }
-            } else {
-                if (!digestMatch(eventList, event2)) {
-                    results.add(event2);
-                }
+            if (pcr >= 0 && event2.getPcrIndex() != pcr) {
+                continue;
             }
-        }
-        return results;
-    }
-
-    /**
-     * Checks a digest from a single event against all digests with the same index in an Event Log.
-     *
-     * @param eventLog The Reference Event log.
-     * @param event    single event to match.
-     * @return indicator whether match was found.
-     */
-    private static boolean digestMatch(final Collection<TpmPcrEvent> eventLog,
-                                       final TpmPcrEvent event) {
-        boolean matchFound = false;
-        for (TpmPcrEvent event2 : eventLog) {
-            if ((event.getPcrIndex() == event2.getPcrIndex())
-                    && (Arrays.equals(event.getEventStrongestDigest(), event2.getEventStrongestDigest()))) {
-                matchFound = true;
+            if (!referenceIndex.contains(event2.getPcrIndex(), event2.getEventStrongestDigest())) {
+                results.add(event2);
             }
         }
-        return matchFound;
+        return results;
     }
 
     /**
@@ -0,0 +1,157 @@
+package hirs.tcg_eventlog;
+
+import hirs.utils.tpm.eventlog.TcgEventLogReader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the CSV summary written by the batch mode, which compares every event log of a directory
+ * to a reference event log.
+ */
+public class BatchCompareLogsTest {
+
+    private static final String DEFAULT_EVENT_LOG = "/tcgeventlog/TpmLog.bin";
+    private static final String SHA1_EVENT_LOG = "/tcgeventlog/TpmLogSHA1.bin";
+    private static final String NO_EVENTS = "Event log holds no events";
+    private static final int ALL_PCRS = -1;
+    private static final int TRUNCATED_LENGTH = 10;
+
+    // columns of a line of the summary
+    private static final int STATUS = 1;
+    private static final int EVENTS = 2;
+    private static final int MISMATCHES = 3;
+    private static final int MISMATCHED_EVENTS = 4;
+    private static final int ERROR = 5;
+
+    private byte[] referenceLog;
+
+    private EventDigestIndex referenceIndex;
+
+    /**
+     * Indexes the event log used as the reference.
+     *
+     * @throws IOException if the event log can't be read
+     */
+    @BeforeEach
+    public void setUp() throws IOException {
+        referenceLog = readResource(DEFAULT_EVENT_LOG);
+        referenceIndex = EventDigestIndex.of(new TcgEventLogReader(referenceLog));
+    }
+
+    /**
+     * Tests that a copy of the reference log matches it, with every event compared.
+     *
+     * @param logDirectory directory of the event logs to compare
+     * @throws IOException if the event logs can't be read
+     */
+    @Test
+    public void testMatchedLog(@TempDir final Path logDirectory) throws IOException {
+        Files.write(logDirectory.resolve("matched.bin"), referenceLog);
+
+        TcgEventLogReader reader = new TcgEventLogReader(referenceLog);
+        reader.replay();
+
+        String[] line = summarize(logDirectory).get("matched.bin");
+        assertEquals("MATCHED", line[STATUS]);
+        assertEquals(reader.getEventCount(), Integer.parseInt(line[EVENTS]));
+        assertEquals("0", line[MISMATCHES]);
+        assertEquals("", line[MISMATCHED_EVENTS]);
+        assertEquals("", line[ERROR]);
+    }
+
+    /**
+     * Tests that a log of another device is reported as mismatched, with the numbers of the
+     * mismatching events.
+     *
+     * @param logDirectory directory of the event logs to compare
+     * @throws IOException if the event logs can't be read
+     */
+    @Test
+    public void testMismatchedLog(@TempDir final Path logDirectory) throws IOException {
+        Files.write(logDirectory.resolve("mismatched.bin"), readResource(SHA1_EVENT_LOG));
+
+        String[] line = summarize(logDirectory).get("mismatched.bin");
+        assertEquals("MISMATCHED", line[STATUS]);
+        int mismatches = Integer.parseInt(line[MISMATCHES]);
+        assertTrue(mismatches > 0);
+        assertTrue(mismatches <= Integer.parseInt(line[EVENTS]));
+        assertEquals(mismatches, line[MISMATCHED_EVENTS].split(" ").length);
+        assertEquals("", line[ERROR]);
+    }
+
+    /**
+     * Tests that empty and truncated logs are reported as errors rather than as matches, and that
+     * the other logs of the directory are still compared.
+     *
+     * @param logDirectory directory of the event logs to compare
+     * @throws IOException if the event logs can't be read
+     */
+    @Test
+    public void testEmptyAndTruncatedLogs(@TempDir final Path logDirectory) throws IOException {
+        Files.write(logDirectory.resolve("empty.bin"), new byte[0]);
+        Files.write(logDirectory.resolve("truncated.bin"), Arrays.copyOf(referenceLog, TRUNCATED_LENGTH));
+        Files.write(logDirectory.resolve("matched.bin"), referenceLog);
+
+        Map<String, String[]> summary = summarize(logDirectory);
+        assertEquals(3, summary.size());
+
+        String[] empty = summary.get("empty.bin");
+        assertEquals("ERROR", empty[STATUS]);
+        assertEquals(NO_EVENTS, empty[ERROR]);
+
+        String[] truncated = summary.get("truncated.bin");
+        assertEquals("ERROR", truncated[STATUS]);
+        assertNotEquals("", truncated[ERROR]);
+
+        assertEquals("MATCHED", summary.get("matched.bin")[STATUS]);
+    }
+
+    /**
+     * Tests that a reference log that holds no events can't be indexed.
+     */
+    @Test
+    public void testEmptyReferenceLog() {
+        IOException e = assertThrows(IOException.class,
+                () -> EventDigestIndex.of(new TcgEventLogReader(new byte[0])));
+        assertEquals(NO_EVENTS, e.getMessage());
+    }
+
+    /**
+     * Compares the logs of a directory to the reference log.
+     *
+     * @param logDirectory directory of the event logs to compare
+     * @return the fields of each line of the summary, by log file name
+     * @throws IOException if the directory can't be listed
+     */
+    private Map<String, String[]> summarize(final Path logDirectory) throws IOException {
+        List<String> lines = Main.batchCompareLogs(referenceIndex, logDirectory, ALL_PCRS).lines().toList();
+        Map<String, String[]> summary = new HashMap<>();
+        for (String line : lines.subList(1, lines.size())) {
+            String[] fields = line.split(",", -1);
+            summary.put(Path.of(fields[0]).getFileName().toString(), fields);
+        }
+        return summary;
+    }
+
+    private byte[] readResource(final String path) throws IOException {
+        try (InputStream inputStream = Objects.requireNonNull(getClass().getResourceAsStream(path))) {
+            return inputStream.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Tests for the TCG Event Log tool.
+ */
+package hirs.tcg_eventlog;